@@ -30,12 +30,12 @@ import hirs.data.persist.info.TPMInfo;
 import hirs.data.service.DeviceRegister;
 import hirs.persist.CertificateManager;
 import hirs.persist.ComponentResultManager;
-import hirs.persist.DBManager;
 import hirs.persist.DeviceManager;
 import hirs.persist.ReferenceDigestManager;
 import hirs.persist.ReferenceEventManager;
 import hirs.persist.ReferenceManifestManager;
 import hirs.persist.TPM2ProvisionerState;
+import hirs.persist.TPM2ProvisionerStateStore;
 import hirs.structs.converters.SimpleStructBuilder;
 import hirs.structs.converters.StructConverter;
 import hirs.structs.elements.aca.IdentityRequestEnvelope;
@@ -173,20 +173,21 @@ public abstract class AbstractAttestationCertificateAuthority
 
     /**
      * Container wired application configuration property identifying the number of days that
-     * certificates issued by this ACA are valid for.
+     * certificates issued by this ACA are valid for. Used when no supply chain policy overrides
+     * the validity period.
      */
-    private Integer validDays = 1;
+    private final int validDays;
 
     private final ComponentResultManager componentResultManager;
     private final CertificateManager certificateManager;
     private final ReferenceManifestManager referenceManifestManager;
     private final DeviceRegister deviceRegister;
     private final DeviceManager deviceManager;
-    private final DBManager<TPM2ProvisionerState> tpm2ProvisionerStateDBManager;
+    private final TPM2ProvisionerStateStore tpm2ProvisionerStateStore;
     private final ReferenceDigestManager referenceDigestManager;
     private final ReferenceEventManager referenceEventManager;
-    private String tpmQuoteHash = "";
-    private String tpmQuoteSignature = "";
+
+    private final IdentityClaimContextCache identityClaimContexts;
 
     /**
      * Constructor.
@@ -200,9 +201,10 @@ public abstract class AbstractAttestationCertificateAuthority
      * @param deviceRegister the device register
      * @param validDays the number of days issued certs are valid
      * @param deviceManager the device manager
-     * @param tpm2ProvisionerStateDBManager the DBManager for persisting provisioner state
+     * @param tpm2ProvisionerStateStore the store for provisioner state
      * @param referenceDigestManager the reference digest manager
      * @param referenceEventManager the reference event manager
+     * @param identityClaimContexts the cache of validated identity claims
      */
     @SuppressWarnings("checkstyle:parameternumber")
     public AbstractAttestationCertificateAuthority(
@@ -214,9 +216,10 @@ public abstract class AbstractAttestationCertificateAuthority
             final ReferenceManifestManager referenceManifestManager,
             final DeviceRegister deviceRegister, final int validDays,
             final DeviceManager deviceManager,
-            final DBManager<TPM2ProvisionerState> tpm2ProvisionerStateDBManager,
+            final TPM2ProvisionerStateStore tpm2ProvisionerStateStore,
             final ReferenceDigestManager referenceDigestManager,
-            final ReferenceEventManager referenceEventManager) {
+            final ReferenceEventManager referenceEventManager,
+            final IdentityClaimContextCache identityClaimContexts) {
         this.supplyChainValidationService = supplyChainValidationService;
         this.privateKey = privateKey;
         this.acaCertificate = acaCertificate;
@@ -227,9 +230,10 @@ public abstract class AbstractAttestationCertificateAuthority
         this.deviceRegister = deviceRegister;
         this.validDays = validDays;
         this.deviceManager = deviceManager;
-        this.tpm2ProvisionerStateDBManager = tpm2ProvisionerStateDBManager;
+        this.tpm2ProvisionerStateStore = tpm2ProvisionerStateStore;
         this.referenceDigestManager = referenceDigestManager;
         this.referenceEventManager = referenceEventManager;
+        this.identityClaimContexts = identityClaimContexts;
     }
 
     /**
@@ -380,18 +384,13 @@ public abstract class AbstractAttestationCertificateAuthority
 
         // generate the identity credential
         LOG.debug("generating credential from identity proof");
-        // check the policy set valid date
-        SupplyChainPolicy scp = this.supplyChainValidationService.getPolicy();
-        if (scp != null) {
-            this.validDays = Integer.parseInt(scp.getValidityDays());
-        }
         // transform the public key struct into a public key
         PublicKey publicKey = assemblePublicKey(proof.getIdentityKey().getStorePubKey().getKey());
         X509Certificate credential = generateCredential(publicKey, endorsementCredential,
                 platformCredentials, device.getDeviceInfo()
                         .getNetworkInfo()
                         .getIpAddress()
-                        .getHostName());
+                        .getHostName(), getValidDays());
 
         // generate the attestation using the credential and the key for this session
         LOG.debug("generating symmetric response");
@@ -437,9 +436,12 @@ public abstract class AbstractAttestationCertificateAuthority
         // and later tpm20MakeCredential function
         RSAPublicKey ekPub = parsePublicKey(claim.getEkPublicArea().toByteArray());
         AppraisalStatus.Status validationResult = AppraisalStatus.Status.FAIL;
+        IdentityClaimContext context = null;
 
         try {
-            validationResult = doSupplyChainValidation(claim, ekPub);
+            // resolve the keys and credentials once for validation and the certificate request
+            context = createIdentityClaimContext(claim, ekPub);
+            validationResult = doSupplyChainValidation(context);
         } catch (Exception ex) {
             for (StackTraceElement ste : ex.getStackTrace()) {
                 LOG.error(ste.toString());
@@ -448,9 +450,8 @@ public abstract class AbstractAttestationCertificateAuthority
 
         ByteString blobStr = ByteString.copyFrom(new byte[]{});
         if (validationResult == AppraisalStatus.Status.PASS) {
-            RSAPublicKey akPub = parsePublicKey(claim.getAkPublicArea().toByteArray());
             byte[] nonce = generateRandomBytes(NONCE_LENGTH);
-            blobStr = tpm20MakeCredential(ekPub, akPub, nonce);
+            blobStr = tpm20MakeCredential(ekPub, context.getAkPub(), nonce);
             SupplyChainPolicy scp = this.supplyChainValidationService.getPolicy();
             String pcrQuoteMask = PCR_QUOTE_MASK;
 
@@ -458,7 +459,8 @@ public abstract class AbstractAttestationCertificateAuthority
             LOG.info("Sending nonce: " + strNonce);
             LOG.info("Persisting claim of length: " + identityClaim.length);
 
-            tpm2ProvisionerStateDBManager.save(new TPM2ProvisionerState(nonce, identityClaim));
+            tpm2ProvisionerStateStore.save(new TPM2ProvisionerState(nonce, identityClaim));
+            identityClaimContexts.put(nonce, context);
 
             if (scp != null && scp.isIgnoreImaEnabled()) {
                 pcrQuoteMask = PCR_QUOTE_MASK.replace("10,", "");
@@ -486,21 +488,15 @@ public abstract class AbstractAttestationCertificateAuthority
     /**
      * Performs supply chain validation.
      *
-     * @param claim the identity claim
-     * @param ekPub the public endorsement key
+     * @param context the identity claim along with its keys and credentials
      * @return the {@link AppraisalStatus} of the supply chain validation
      */
-    private AppraisalStatus.Status doSupplyChainValidation(
-            final ProvisionerTpm2.IdentityClaim claim, final PublicKey ekPub) {
-        // attempt to find an endorsement credential to validate
-        EndorsementCredential endorsementCredential = parseEcFromIdentityClaim(claim, ekPub);
-
-        // attempt to find platform credentials to validate
-        Set<PlatformCredential> platformCredentials = parsePcsFromIdentityClaim(claim,
-                endorsementCredential);
+    private AppraisalStatus.Status doSupplyChainValidation(final IdentityClaimContext context) {
+        EndorsementCredential endorsementCredential = context.getEndorsementCredential();
+        Set<PlatformCredential> platformCredentials = context.getPlatformCredentials();
 
         // Parse and save device info
-        Device device = processDeviceInfo(claim);
+        Device device = processDeviceInfo(context.getClaim());
 
         // There are situations in which the claim is sent with no PCs
         // or a PC from the tpm which will be deprecated
@@ -583,36 +579,24 @@ public abstract class AbstractAttestationCertificateAuthority
         // attempt to retrieve provisioner state based on nonce in request
         TPM2ProvisionerState tpm2ProvisionerState = getTpm2ProvisionerState(request);
         if (tpm2ProvisionerState != null) {
-            // Reparse Identity Claim to gather necessary components
-            byte[] identityClaim = tpm2ProvisionerState.getIdentityClaim();
-            ProvisionerTpm2.IdentityClaim claim = parseIdentityClaim(identityClaim);
-
-            // Get endorsement public key
-            RSAPublicKey ekPub = parsePublicKey(claim.getEkPublicArea().toByteArray());
-
-            // Get attestation public key
-            RSAPublicKey akPub = parsePublicKey(claim.getAkPublicArea().toByteArray());
-
-            // Get Endorsement Credential if it exists or was uploaded
-            EndorsementCredential endorsementCredential = parseEcFromIdentityClaim(claim, ekPub);
-
-            // Get Platform Credentials if they exist or were uploaded
-            Set<PlatformCredential> platformCredentials = parsePcsFromIdentityClaim(claim,
-                    endorsementCredential);
+            // Reuse the Identity Claim parsed during the claim, or reparse it if it is gone
+            IdentityClaimContext context = identityClaimContexts.get(request.getNonce());
+            if (context == null) {
+                LOG.debug("Parsed identity claim not cached; reparsing");
+                ProvisionerTpm2.IdentityClaim claim =
+                        parseIdentityClaim(tpm2ProvisionerState.getIdentityClaim());
+                context = createIdentityClaimContext(claim,
+                        parsePublicKey(claim.getEkPublicArea().toByteArray()));
+            }
 
             // Get device name and device
-            String deviceName = claim.getDv().getNw().getHostname();
+            String deviceName = context.getDeviceName();
             Device device = deviceManager.getDevice(deviceName);
-            // check the policy set valid date
-            SupplyChainPolicy scp = this.supplyChainValidationService.getPolicy();
-            if (scp != null) {
-                this.validDays = Integer.parseInt(scp.getValidityDays());
-            }
 
             // Parse through the Provisioner supplied TPM Quote and pcr values
             // these fields are optional
             if (request.getQuote() != null && !request.getQuote().isEmpty()) {
-                parseTPMQuote(request.getQuote().toStringUtf8());
+                TpmQuote tpmQuote = TpmQuote.parse(request.getQuote().toStringUtf8());
                 TPMInfo savedInfo = device.getDeviceInfo().getTPMInfo();
                 TPMInfo tpmInfo = new TPMInfo(savedInfo.getTPMMake(),
                         savedInfo.getTPMVersionMajor(),
@@ -620,28 +604,30 @@ public abstract class AbstractAttestationCertificateAuthority
                         savedInfo.getTPMVersionRevMajor(),
                         savedInfo.getTPMVersionRevMinor(),
                         savedInfo.getPcrValues(),
-                        this.tpmQuoteHash.getBytes(StandardCharsets.UTF_8),
-                        this.tpmQuoteSignature.getBytes(StandardCharsets.UTF_8));
+                        tpmQuote.getQuoteHashBytes(),
+                        tpmQuote.getQuoteSignatureBytes());
 
                 DeviceInfoReport dvReport = new DeviceInfoReport(
                         device.getDeviceInfo().getNetworkInfo(),
                         device.getDeviceInfo().getOSInfo(),
                         device.getDeviceInfo().getFirmwareInfo(),
                         device.getDeviceInfo().getHardwareInfo(), tpmInfo,
-                        claim.getClientVersion());
+                        context.getClaim().getClientVersion());
                 device = this.deviceRegister.saveOrUpdateDevice(dvReport);
             }
 
             AppraisalStatus.Status validationResult = doQuoteValidation(device);
             if (validationResult == AppraisalStatus.Status.PASS) {
                 // Create signed, attestation certificate
-                X509Certificate attestationCertificate = generateCredential(akPub,
-                        endorsementCredential, platformCredentials, deviceName);
+                X509Certificate attestationCertificate = generateCredential(context.getAkPub(),
+                        context.getEndorsementCredential(), context.getPlatformCredentials(),
+                        deviceName, getValidDays());
                 byte[] derEncodedAttestationCertificate = getDerEncodedCertificate(
                         attestationCertificate);
 
                 // We validated the nonce and made use of the identity claim so state can be deleted
-                tpm2ProvisionerStateDBManager.delete(tpm2ProvisionerState);
+                tpm2ProvisionerStateStore.delete(tpm2ProvisionerState);
+                identityClaimContexts.invalidate(request.getNonce());
 
                 // Package the signed certificate into a response
                 ByteString certificateBytes = ByteString
@@ -651,8 +637,9 @@ public abstract class AbstractAttestationCertificateAuthority
                         .setStatus(ProvisionerTpm2.ResponseStatus.PASS)
                         .build();
 
-                saveAttestationCertificate(derEncodedAttestationCertificate, endorsementCredential,
-                        platformCredentials, device);
+                saveAttestationCertificate(derEncodedAttestationCertificate,
+                        context.getEndorsementCredential(), context.getPlatformCredentials(),
+                        device);
 
                 return response.toByteArray();
             } else {
@@ -673,24 +660,41 @@ public abstract class AbstractAttestationCertificateAuthority
     }
 
     /**
-     * This method takes the provided TPM Quote and splits it between the PCR
-     * quote and the signature hash.
-     * @param tpmQuote contains hash values for the quote and the signature
+     * Resolves the keys and credentials referenced by an identity claim into a per-request
+     * context.
+     *
+     * @param claim the parsed identity claim
+     * @param ekPub the endorsement public key parsed from the claim
+     * @return the context for the claim
      */
-    private boolean parseTPMQuote(final String tpmQuote) {
-        boolean success = false;
-        if (tpmQuote != null) {
-            String[] lines = tpmQuote.split(":");
-            if (lines[1].contains("signature")) {
-                this.tpmQuoteHash = lines[1].replace("signature", "").trim();
-            } else {
-                this.tpmQuoteHash = lines[1].trim();
-            }
-            this.tpmQuoteSignature = lines[2].trim();
-            success = true;
-        }
+    private IdentityClaimContext createIdentityClaimContext(
+            final ProvisionerTpm2.IdentityClaim claim, final RSAPublicKey ekPub) {
+        // Get attestation public key
+        RSAPublicKey akPub = parsePublicKey(claim.getAkPublicArea().toByteArray());
+
+        // Get Endorsement Credential if it exists or was uploaded
+        EndorsementCredential endorsementCredential = parseEcFromIdentityClaim(claim, ekPub);
+
+        // Get Platform Credentials if they exist or were uploaded
+        Set<PlatformCredential> platformCredentials = parsePcsFromIdentityClaim(claim,
+                endorsementCredential);
+
+        return new IdentityClaimContext(claim, ekPub, akPub, endorsementCredential,
+                platformCredentials);
+    }
 
-        return success;
+    /**
+     * Determines the number of days certificates issued for the current request are valid for.
+     * The supply chain policy takes precedence over the configured default.
+     *
+     * @return the number of days issued certificates are valid
+     */
+    private int getValidDays() {
+        SupplyChainPolicy scp = this.supplyChainValidationService.getPolicy();
+        if (scp != null) {
+            return Integer.parseInt(scp.getValidityDays());
+        }
+        return validDays;
     }
 
     /**
@@ -998,8 +1002,8 @@ public abstract class AbstractAttestationCertificateAuthority
                 (short) 0,
                 (short) 0,
                 pcrValues.getBytes(StandardCharsets.UTF_8),
-                this.tpmQuoteHash.getBytes(StandardCharsets.UTF_8),
-                this.tpmQuoteSignature.getBytes(StandardCharsets.UTF_8));
+                TpmQuote.EMPTY.getQuoteHashBytes(),
+                TpmQuote.EMPTY.getQuoteSignatureBytes());
 
         // Create final report
         DeviceInfoReport dvReport = new DeviceInfoReport(nw, os, fw, hw, tpm,
@@ -1063,22 +1067,10 @@ public abstract class AbstractAttestationCertificateAuthority
                     }
                 }
 
-                // Save all supplemental values
-                ReferenceDigestValue tempRdv;
-                for (ReferenceDigestValue subRdv : rdValues) {
-                    // check if the value already exists
-                    if (digestValueMap.containsKey(subRdv.getDigestValue())) {
-                        tempRdv = digestValueMap.get(subRdv.getDigestValue());
-                        if (tempRdv.getPcrIndex() != subRdv.getPcrIndex()
-                                && !tempRdv.getEventType().equals(subRdv.getEventType())) {
-                            referenceEventManager.saveValue(subRdv);
-                        } else {
-                            // will this be a problem down the line?
-                            referenceEventManager.updateEvent(subRdv);
-                        }
-                    } else {
-                        referenceEventManager.saveValue(subRdv);
-                    }
+                // Save all supplemental values in one batch, skipping the events already
+                // stored for the same support RIM
+                for (ReferenceDigestValue subRdv : referenceEventManager
+                        .saveValues(rdValues, sourcedValues)) {
                     digestValueMap.put(subRdv.getDigestValue(), subRdv);
                 }
 
@@ -1489,10 +1481,34 @@ public abstract class AbstractAttestationCertificateAuthority
                                        final EndorsementCredential endorsementCredential,
                                        final Set<PlatformCredential> platformCredentials,
                                        final String deviceName) {
+        return generateCredential(publicKey, endorsementCredential, platformCredentials,
+                deviceName, validDays);
+    }
+
+    /**
+     * Generates a credential using the specified public key that is valid for the given number
+     * of days.
+     *
+     * @param publicKey
+     *            cannot be null
+     * @param endorsementCredential
+     *            the endorsement credential
+     * @param platformCredentials
+     *            the set of platform credentials
+     * @param deviceName
+     *            The host name used in the subject alternative name
+     * @param validityDays
+     *            the number of days the credential is valid for
+     * @return identity credential
+     */
+    X509Certificate generateCredential(final PublicKey publicKey,
+                                       final EndorsementCredential endorsementCredential,
+                                       final Set<PlatformCredential> platformCredentials,
+                                       final String deviceName, final int validityDays) {
         try {
-            // have the certificate expire in the configured number of days
+            // have the certificate expire in the requested number of days
             Calendar expiry = Calendar.getInstance();
-            expiry.add(Calendar.DAY_OF_YEAR, validDays);
+            expiry.add(Calendar.DAY_OF_YEAR, validityDays);
 
             X500Name issuer =
                     new X500Name(acaCertificate.getSubjectX500Principal().getName());
@@ -1806,8 +1822,7 @@ public abstract class AbstractAttestationCertificateAuthority
             final ProvisionerTpm2.CertificateRequest request) {
         if (request.hasNonce()) {
             byte[] nonce = request.getNonce().toByteArray();
-            return TPM2ProvisionerState.getTPM2ProvisionerState(tpm2ProvisionerStateDBManager,
-                    nonce);
+            return tpm2ProvisionerStateStore.get(nonce);
         }
         return null;
     }
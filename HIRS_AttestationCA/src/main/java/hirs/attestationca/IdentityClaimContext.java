@@ -0,0 +1,89 @@
+package hirs.attestationca;
+
+import hirs.attestationca.configuration.provisionerTpm2.ProvisionerTpm2;
+import hirs.data.persist.certificate.EndorsementCredential;
+import hirs.data.persist.certificate.PlatformCredential;
+
+import java.security.interfaces.RSAPublicKey;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable, per-request view of a TPM 2.0 identity claim. Holds the parsed claim along with
+ * the keys and credentials that were resolved from it, so that a single ACA instance can process
+ * many handshakes concurrently without sharing mutable state between them.
+ */
+final class IdentityClaimContext {
+
+    private final ProvisionerTpm2.IdentityClaim claim;
+    private final RSAPublicKey ekPub;
+    private final RSAPublicKey akPub;
+    private final EndorsementCredential endorsementCredential;
+    private final Set<PlatformCredential> platformCredentials;
+
+    /**
+     * Constructor.
+     *
+     * @param claim the parsed identity claim
+     * @param ekPub the endorsement public key parsed from the claim
+     * @param akPub the attestation public key parsed from the claim
+     * @param endorsementCredential the endorsement credential, may be null
+     * @param platformCredentials the platform credentials, may be empty
+     */
+    IdentityClaimContext(final ProvisionerTpm2.IdentityClaim claim,
+                         final RSAPublicKey ekPub, final RSAPublicKey akPub,
+                         final EndorsementCredential endorsementCredential,
+                         final Set<PlatformCredential> platformCredentials) {
+        if (claim == null) {
+            throw new IllegalArgumentException("Identity claim cannot be null");
+        }
+
+        this.claim = claim;
+        this.ekPub = ekPub;
+        this.akPub = akPub;
+        this.endorsementCredential = endorsementCredential;
+        this.platformCredentials = new HashSet<>(platformCredentials);
+    }
+
+    /**
+     * @return the parsed identity claim
+     */
+    ProvisionerTpm2.IdentityClaim getClaim() {
+        return claim;
+    }
+
+    /**
+     * @return the endorsement public key
+     */
+    RSAPublicKey getEkPub() {
+        return ekPub;
+    }
+
+    /**
+     * @return the attestation public key
+     */
+    RSAPublicKey getAkPub() {
+        return akPub;
+    }
+
+    /**
+     * @return the endorsement credential, or null if none was found
+     */
+    EndorsementCredential getEndorsementCredential() {
+        return endorsementCredential;
+    }
+
+    /**
+     * @return a copy of the platform credentials
+     */
+    Set<PlatformCredential> getPlatformCredentials() {
+        return new HashSet<>(platformCredentials);
+    }
+
+    /**
+     * @return the host name the device reported in its claim
+     */
+    String getDeviceName() {
+        return claim.getDv().getNw().getHostname();
+    }
+}
@@ -0,0 +1,63 @@
+package hirs.attestationca;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of identity claims that passed supply chain validation, keyed by the nonce
+ * that was sent back to the provisioner. Holding the parsed claim along with its keys and
+ * credentials lets the certificate request skip re-parsing the claim and repeating the credential
+ * lookups. A missing entry (evicted, expired or created by another ACA instance) is not an error;
+ * the caller rebuilds the context from the stored provisioner state. It is sized and expired
+ * like the provisioner state, by the <code>aca.provisioning.state.maxEntries</code> and
+ * <code>aca.provisioning.state.ttlSeconds</code> properties. This class is threadsafe.
+ */
+public final class IdentityClaimContextCache {
+
+    private final Cache<ByteString, IdentityClaimContext> contexts;
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries the maximum number of claims held at once
+     * @param timeToLiveMs the number of milliseconds a claim is held for
+     */
+    public IdentityClaimContextCache(final int maxEntries, final long timeToLiveMs) {
+        this.contexts = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLiveMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Caches the context of a claim under the nonce issued for it.
+     *
+     * @param nonce the nonce issued for the claim
+     * @param context the parsed claim
+     */
+    void put(final byte[] nonce, final IdentityClaimContext context) {
+        contexts.put(ByteString.copyFrom(nonce), context);
+    }
+
+    /**
+     * Finds the context of the claim the nonce was issued for.
+     *
+     * @param nonce the nonce sent back by the provisioner
+     * @return the parsed claim, or null if it is not cached
+     */
+    IdentityClaimContext get(final ByteString nonce) {
+        return contexts.getIfPresent(nonce);
+    }
+
+    /**
+     * Removes the context of the claim the nonce was issued for.
+     *
+     * @param nonce the nonce sent back by the provisioner
+     */
+    void invalidate(final ByteString nonce) {
+        contexts.invalidate(nonce);
+    }
+}
@@ -0,0 +1,131 @@
+package hirs.attestationca;
+
+import hirs.attestationca.exceptions.UnexpectedServerException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded worker pool that runs ACA provisioning requests. At most a fixed number of requests
+ * are processed at once, and at most a fixed number are allowed to wait for a worker. Requests
+ * arriving while the queue is full are rejected immediately with a
+ * {@link RejectedExecutionException} so that clients back off instead of piling up on the
+ * server. This class is threadsafe.
+ */
+public class ProvisioningExecutor {
+    private static final Logger LOGGER = LogManager.getLogger(ProvisioningExecutor.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new ProvisioningExecutor.
+     *
+     * @param threadCount the number of worker threads; if zero or less, the number of
+     *                    available processors is used
+     * @param queueSize the number of requests that may wait for a worker before new requests
+     *                  are rejected
+     */
+    public ProvisioningExecutor(final int threadCount, final int queueSize) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("queueSize must be at least 1");
+        }
+
+        int workers = threadCount;
+        if (workers < 1) {
+            workers = Runtime.getRuntime().availableProcessors();
+        }
+
+        executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                new ProvisioningThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        LOGGER.info(String.format("Provisioning executor started with %d workers and a queue "
+                + "of %d requests", workers, queueSize));
+    }
+
+    /**
+     * Runs the given task on a worker thread and waits for its result. Runtime exceptions thrown
+     * by the task are rethrown unchanged so that callers see the same errors they would if the
+     * task had run on their own thread.
+     *
+     * @param task the provisioning task to run
+     * @param <T> the type of the task's result
+     * @return the task's result
+     * @throws RejectedExecutionException if the pool and its queue are full
+     */
+    public <T> T execute(final Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UnexpectedServerException(
+                    "Interrupted while waiting for a provisioning request to complete", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UnexpectedServerException(
+                    "Encountered error while processing a provisioning request: "
+                            + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * @return the number of requests currently waiting for a worker
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting new requests and waits for in-flight requests to finish.
+     *
+     * @throws InterruptedException if interrupted while waiting for requests to finish
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOGGER.warn("Attempting to interrupt running provisioning requests.");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Names worker threads so they can be identified in thread dumps and logs.
+     */
+    private static final class ProvisioningThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                    "aca-provisioning-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
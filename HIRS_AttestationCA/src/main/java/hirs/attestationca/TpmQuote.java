@@ -0,0 +1,63 @@
+package hirs.attestationca;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable pairing of the PCR quote hash and the signature hash that a TPM 2.0 provisioner
+ * sends with its certificate request.
+ */
+final class TpmQuote {
+
+    /**
+     * Quote used when the provisioner did not supply one.
+     */
+    static final TpmQuote EMPTY = new TpmQuote("", "");
+
+    private static final String SIGNATURE_LABEL = "signature";
+    private static final int QUOTE_INDEX = 1;
+    private static final int SIGNATURE_INDEX = 2;
+
+    private final String quoteHash;
+    private final String quoteSignature;
+
+    private TpmQuote(final String quoteHash, final String quoteSignature) {
+        this.quoteHash = quoteHash;
+        this.quoteSignature = quoteSignature;
+    }
+
+    /**
+     * Splits the provided TPM Quote between the PCR quote and the signature hash.
+     *
+     * @param tpmQuote contains hash values for the quote and the signature
+     * @return the parsed quote, or {@link #EMPTY} if the quote is null
+     */
+    static TpmQuote parse(final String tpmQuote) {
+        if (tpmQuote == null) {
+            return EMPTY;
+        }
+
+        String[] lines = tpmQuote.split(":");
+        String hash;
+        if (lines[QUOTE_INDEX].contains(SIGNATURE_LABEL)) {
+            hash = lines[QUOTE_INDEX].replace(SIGNATURE_LABEL, "").trim();
+        } else {
+            hash = lines[QUOTE_INDEX].trim();
+        }
+
+        return new TpmQuote(hash, lines[SIGNATURE_INDEX].trim());
+    }
+
+    /**
+     * @return the UTF-8 bytes of the PCR quote hash
+     */
+    byte[] getQuoteHashBytes() {
+        return quoteHash.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the UTF-8 bytes of the signature hash
+     */
+    byte[] getQuoteSignatureBytes() {
+        return quoteSignature.getBytes(StandardCharsets.UTF_8);
+    }
+}
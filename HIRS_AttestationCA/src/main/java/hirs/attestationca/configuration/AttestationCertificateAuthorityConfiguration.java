@@ -1,19 +1,27 @@
 package hirs.attestationca.configuration;
 
+import hirs.attestationca.IdentityClaimContextCache;
+import hirs.attestationca.ProvisioningExecutor;
 import hirs.persist.DBDeviceGroupManager;
 import hirs.persist.DBDeviceManager;
+import hirs.persist.DBManager;
 import hirs.persist.DBReferenceDigestManager;
 import hirs.persist.DBReferenceEventManager;
 import hirs.persist.DBReferenceManifestManager;
+import hirs.persist.DBTPM2ProvisionerStateStore;
 import hirs.persist.DeviceGroupManager;
 import hirs.persist.DeviceManager;
 import hirs.persist.HibernateConfiguration;
+import hirs.persist.InMemoryTPM2ProvisionerStateStore;
 import hirs.persist.ReferenceDigestManager;
 import hirs.persist.ReferenceEventManager;
 import hirs.persist.ReferenceManifestManager;
-import hirs.structs.converters.SimpleStructConverter;
+import hirs.persist.TPM2ProvisionerState;
+import hirs.persist.TPM2ProvisionerStateStore;
+import hirs.structs.converters.CompiledStructConverter;
 import hirs.structs.converters.StructConverter;
 import hirs.utils.LogConfigurationUtil;
+import hirs.utils.PeriodicExecutor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
@@ -36,6 +44,7 @@ import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -45,6 +54,8 @@ import java.security.KeyStoreException;
 import java.security.PrivateKey;
 import java.security.Security;
 import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides application context configuration for the Attestation Certificate
@@ -80,6 +91,10 @@ public class AttestationCertificateAuthorityConfiguration extends WebMvcConfigur
 
     private static final String CLIENT_FILES_PATH = "file:/etc/hirs/aca/client-files/";
 
+    private static final String DATABASE_STATE_STORE = "database";
+
+    private static final long SWEEP_TERMINATION_TIMEOUT_SECONDS = 10;
+
     @Value("${aca.directories.certificates}")
     private String certificatesLocation;
 
@@ -92,12 +107,38 @@ public class AttestationCertificateAuthorityConfiguration extends WebMvcConfigur
     @Value("${aca.keyStore.alias}")
     private String keyAlias;
 
+    @Value("${aca.provisioning.threads:0}")
+    private int provisioningThreads;
+
+    @Value("${aca.provisioning.queueSize:1000}")
+    private int provisioningQueueSize;
+
+    @Value("${aca.provisioning.state.store:memory}")
+    private String provisioningStateStore;
+
+    @Value("${aca.provisioning.state.writeBehind:false}")
+    private boolean provisioningStateWriteBehind;
+
+    @Value("${aca.provisioning.state.maxEntries:10000}")
+    private int provisioningStateMaxEntries;
+
+    @Value("${aca.provisioning.state.ttlSeconds:300}")
+    private long provisioningStateTtlSeconds;
+
+    @Value("${aca.provisioning.state.sweepSeconds:60}")
+    private long provisioningStateSweepSeconds;
+
+    private final PeriodicExecutor provisioningStateSweeper = new PeriodicExecutor();
+
     @Autowired
     private Environment environment;
 
     @Autowired
     private LocalSessionFactoryBean sessionFactory;
 
+    @Autowired
+    private DBManager<TPM2ProvisionerState> tpm2ProvisionerStateDBManager;
+
     /**
      * @return bean to resolve injected annotation.Value property expressions
      * for beans.
@@ -223,7 +264,7 @@ public class AttestationCertificateAuthorityConfiguration extends WebMvcConfigur
     @Bean
     @Scope("prototype")
     public static StructConverter structConverter() {
-        return new SimpleStructConverter();
+        return new CompiledStructConverter();
     }
 
     /**
@@ -276,6 +317,71 @@ public class AttestationCertificateAuthorityConfiguration extends WebMvcConfigur
         return new DBReferenceEventManager(sessionFactory.getObject());
     }
 
+    /**
+     * Creates the bounded {@link ProvisioningExecutor} that identity claims and certificate
+     * requests are processed on.
+     *
+     * @return {@link ProvisioningExecutor}
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ProvisioningExecutor provisioningExecutor() {
+        return new ProvisioningExecutor(provisioningThreads, provisioningQueueSize);
+    }
+
+    /**
+     * Creates the {@link IdentityClaimContextCache} that holds validated identity claims until
+     * the certificate request, sized and expired like the provisioner state.
+     *
+     * @return {@link IdentityClaimContextCache}
+     */
+    @Bean
+    public IdentityClaimContextCache identityClaimContextCache() {
+        return new IdentityClaimContextCache(provisioningStateMaxEntries,
+                TimeUnit.SECONDS.toMillis(provisioningStateTtlSeconds));
+    }
+
+    /**
+     * Creates the {@link TPM2ProvisionerStateStore} that holds provisioner state between the
+     * identity claim and the certificate request, and starts sweeping expired state from it in
+     * the background. Pending write-behind operations of an in-memory store are flushed by its
+     * inferred shutdown method when the context closes.
+     *
+     * @return {@link TPM2ProvisionerStateStore}
+     */
+    @Bean
+    public TPM2ProvisionerStateStore tpm2ProvisionerStateStore() {
+        final long ttlMs = TimeUnit.SECONDS.toMillis(provisioningStateTtlSeconds);
+        final TPM2ProvisionerStateStore store;
+        if (DATABASE_STATE_STORE.equalsIgnoreCase(provisioningStateStore)) {
+            store = new DBTPM2ProvisionerStateStore(tpm2ProvisionerStateDBManager);
+        } else if (provisioningStateWriteBehind) {
+            store = new InMemoryTPM2ProvisionerStateStore(provisioningStateMaxEntries, ttlMs,
+                    new DBTPM2ProvisionerStateStore(tpm2ProvisionerStateDBManager));
+        } else {
+            store = new InMemoryTPM2ProvisionerStateStore(provisioningStateMaxEntries, ttlMs);
+        }
+        LOG.info(String.format("Using %s for TPM2 provisioner state",
+                store.getClass().getSimpleName()));
+
+        provisioningStateSweeper.start(
+                () -> store.deleteOlderThan(new Date(System.currentTimeMillis() - ttlMs)),
+                TimeUnit.SECONDS, provisioningStateSweepSeconds);
+        return store;
+    }
+
+    /**
+     * Stops the background sweep of provisioner state. This method is intended to be invoked by
+     * the Spring application context.
+     *
+     * @throws InterruptedException if interrupted while waiting for the sweep to stop
+     */
+    @PreDestroy
+    void shutdownProvisioningState() throws InterruptedException {
+        if (provisioningStateSweeper.hasScheduledTask()) {
+            provisioningStateSweeper.stop(TimeUnit.SECONDS, SWEEP_TERMINATION_TIMEOUT_SECONDS);
+        }
+    }
+
     @Override
     public void addResourceHandlers(final ResourceHandlerRegistry resourceHandlerRegistry) {
         resourceHandlerRegistry.addResourceHandler("/client-files/**")
@@ -15,6 +15,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Handle processing of exceptions for ACA REST API.
  */
@@ -59,6 +61,22 @@ public class AttestationCertificateAuthorityExceptionHandler
         return handleGeneralException(ex, HttpStatus.INTERNAL_SERVER_ERROR, request);
     }
 
+    /**
+     * Method to handle errors of the type {@link RejectedExecutionException} that are thrown
+     * when the ACA is already processing as many provisioning requests as it can accept. The
+     * client is told to try again later.
+     *
+     * @param ex exception that was thrown
+     * @param request the web request that started the RESTful operation
+     * @return the response entity that will form the message returned to the client
+     */
+    @ExceptionHandler({ RejectedExecutionException.class })
+    public final ResponseEntity<Object> handleRejectedExceptions(final Exception ex,
+                                                              final WebRequest request) {
+        LOGGER.warn("The ACA is at capacity and rejected a provisioning request.");
+        return handleGeneralException(ex, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
     private ResponseEntity<Object> handleGeneralException(final Exception ex,
                                                           final HttpStatus responseStatus,
                                                           final WebRequest request) {
@@ -1,16 +1,17 @@
 package hirs.attestationca.rest;
 
 import hirs.attestationca.AbstractAttestationCertificateAuthority;
+import hirs.attestationca.IdentityClaimContextCache;
+import hirs.attestationca.ProvisioningExecutor;
 import hirs.attestationca.service.SupplyChainValidationService;
 import hirs.data.service.DeviceRegister;
 import hirs.persist.CertificateManager;
 import hirs.persist.ComponentResultManager;
-import hirs.persist.DBManager;
 import hirs.persist.DeviceManager;
 import hirs.persist.ReferenceDigestManager;
 import hirs.persist.ReferenceEventManager;
 import hirs.persist.ReferenceManifestManager;
-import hirs.persist.TPM2ProvisionerState;
+import hirs.persist.TPM2ProvisionerStateStore;
 import hirs.structs.converters.StructConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -33,6 +34,8 @@ import java.security.cert.X509Certificate;
 public class RestfulAttestationCertificateAuthority
                                             extends AbstractAttestationCertificateAuthority {
 
+    private final ProvisioningExecutor provisioningExecutor;
+
     /**
      * Constructor.
      * @param supplyChainValidationService the supply chain service
@@ -45,9 +48,11 @@ public class RestfulAttestationCertificateAuthority
      * @param deviceRegister the device register
      * @param validDays the number of days issued certs are valid
      * @param deviceManager the device manager
-     * @param tpm2ProvisionerStateDBManager the DBManager for persisting provisioner state
+     * @param tpm2ProvisionerStateStore the store for provisioner state
      * @param referenceDigestManager the reference digest manager
      * @param referenceEventManager the reference event manager
+     * @param provisioningExecutor the bounded pool that provisioning requests run on
+     * @param identityClaimContexts the cache of validated identity claims
      */
     @SuppressWarnings({ "checkstyle:parameternumber" })
     @Autowired
@@ -60,14 +65,18 @@ public class RestfulAttestationCertificateAuthority
             final ReferenceManifestManager referenceManifestManager,
             final DeviceRegister deviceRegister,
             final DeviceManager deviceManager,
-            final DBManager<TPM2ProvisionerState> tpm2ProvisionerStateDBManager,
+            final TPM2ProvisionerStateStore tpm2ProvisionerStateStore,
             final ReferenceDigestManager referenceDigestManager,
             final ReferenceEventManager referenceEventManager,
+            final ProvisioningExecutor provisioningExecutor,
+            final IdentityClaimContextCache identityClaimContexts,
             @Value("${aca.certificates.validity}") final int validDays) {
         super(supplyChainValidationService, privateKey, acaCertificate, structConverter,
                 componentResultManager, certificateManager, referenceManifestManager,
                 deviceRegister, validDays, deviceManager,
-                tpm2ProvisionerStateDBManager, referenceDigestManager, referenceEventManager);
+                tpm2ProvisionerStateStore, referenceDigestManager, referenceEventManager,
+                identityClaimContexts);
+        this.provisioningExecutor = provisioningExecutor;
     }
 
     /*
@@ -84,11 +93,12 @@ public class RestfulAttestationCertificateAuthority
             method = RequestMethod.POST,
             consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     public byte[] processIdentityRequest(@RequestBody final byte[] request) {
-        return super.processIdentityRequest(request);
+        return provisioningExecutor.execute(() -> super.processIdentityRequest(request));
     }
 
     /**
-     * Listener for identity requests from TPM 2.0 provisioning.
+     * Listener for identity requests from TPM 2.0 provisioning. Requests are processed on the
+     * bounded provisioning pool.
      * @param request The request object from the provisioner.
      * @return The response to the provisioner.
      */
@@ -98,7 +108,7 @@ public class RestfulAttestationCertificateAuthority
             method = RequestMethod.POST,
             consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     public byte[] processIdentityClaimTpm2(@RequestBody final byte[] request) {
-        return super.processIdentityClaimTpm2(request);
+        return provisioningExecutor.execute(() -> super.processIdentityClaimTpm2(request));
     }
 
     /**
@@ -113,7 +123,7 @@ public class RestfulAttestationCertificateAuthority
             method = RequestMethod.POST,
             consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     public byte[] processCertificateRequest(@RequestBody final byte[] request) {
-        return super.processCertificateRequest(request);
+        return provisioningExecutor.execute(() -> super.processCertificateRequest(request));
     }
 
     /*
@@ -0,0 +1,115 @@
+package hirs.attestationca.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hirs.data.persist.certificate.Certificate;
+import hirs.data.persist.certificate.CertificateAuthorityCredential;
+import hirs.persist.CertificateManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.KeyStore;
+import java.util.function.Function;
+
+/**
+ * Caches the CA chains resolved for certificates, as ready to use trust store {@link KeyStore}s,
+ * keyed by the authority key identifier and issuer of the certificate whose chain was resolved.
+ * <p>
+ * Every lookup compares the {@link CertificateManager#getModificationStamp(Class)} of the
+ * {@link CertificateAuthorityCredential}s with the stamp the cached chains were built against,
+ * and drops all cached chains when it differs. Chains are therefore rebuilt as soon as a CA
+ * credential is uploaded, archived or deleted, even when that was done by another application
+ * sharing the database (such as the portal). This costs a single aggregate query per lookup
+ * instead of one query per hop of the chain.
+ * <p>
+ * The returned {@link KeyStore}s are shared and must not be modified. This class is threadsafe.
+ */
+final class CertificateAuthorityChainCache {
+    private static final Logger LOGGER =
+            LogManager.getLogger(CertificateAuthorityChainCache.class);
+
+    /**
+     * Default maximum number of chains held at once.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final CertificateManager certificateManager;
+    private final Cache<String, CachedChain> chains;
+    private volatile String currentStamp;
+
+    /**
+     * Constructs a cache holding up to {@link #DEFAULT_MAX_ENTRIES} chains.
+     *
+     * @param certificateManager the manager the CA credentials are stored in
+     */
+    CertificateAuthorityChainCache(final CertificateManager certificateManager) {
+        this(certificateManager, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param certificateManager the manager the CA credentials are stored in
+     * @param maxEntries the maximum number of chains held at once
+     */
+    CertificateAuthorityChainCache(final CertificateManager certificateManager,
+                                   final int maxEntries) {
+        this.certificateManager = certificateManager;
+        this.chains = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    /**
+     * Returns the CA chain of the given credential, resolving it with the given function if it
+     * is not cached or the CA credentials changed since it was cached.
+     *
+     * @param credential the credential whose CA chain should be retrieved
+     * @param resolver resolves the chain of a credential into a trust store; may return null
+     * @return the trust store holding the CA chain, or null if the resolver returned null
+     */
+    KeyStore get(final Certificate credential, final Function<Certificate, KeyStore> resolver) {
+        String stamp = certificateManager.getModificationStamp(
+                CertificateAuthorityCredential.class);
+        if (stamp == null) {
+            return resolver.apply(credential);
+        }
+        if (!stamp.equals(currentStamp)) {
+            LOGGER.debug("CA credentials changed; clearing cached CA chains");
+            chains.invalidateAll();
+            currentStamp = stamp;
+        }
+
+        String key = keyOf(credential);
+        CachedChain cached = chains.getIfPresent(key);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached.trustStore;
+        }
+
+        KeyStore trustStore = resolver.apply(credential);
+        if (trustStore != null) {
+            chains.put(key, new CachedChain(stamp, trustStore));
+        }
+        return trustStore;
+    }
+
+    /**
+     * The chain of a certificate is resolved from its authority key identifier, falling back to
+     * its (sorted) issuer, so those fields identify the chain.
+     */
+    private static String keyOf(final Certificate credential) {
+        return String.format("%s|%s|%s", credential.getAuthKeyId(),
+                credential.getIssuerSorted(), credential.getIssuer());
+    }
+
+    /**
+     * A resolved chain along with the modification stamp it was resolved under.
+     */
+    private static final class CachedChain {
+        private final String stamp;
+        private final KeyStore trustStore;
+
+        CachedChain(final String stamp, final KeyStore trustStore) {
+            this.stamp = stamp;
+            this.trustStore = trustStore;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package hirs.attestationca.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hirs.data.persist.BaseReferenceManifest;
+import hirs.data.persist.ReferenceDigestIndex;
+import hirs.persist.ReferenceEventManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.UUID;
+
+/**
+ * Caches the {@link ReferenceDigestIndex} of base RIMs, keyed by the id of the RIM. Devices of
+ * the same platform model share a base RIM, so the reference digest values of a RIM are loaded
+ * and indexed once instead of once per validated device.
+ * <p>
+ * An index is only reused while the {@link ReferenceEventManager#getModificationStamp} of its
+ * RIM is unchanged, so it is rebuilt as soon as values of the RIM are added, archived or
+ * deleted, even when that was done by another application sharing the database (such as the
+ * portal). The returned indexes are immutable and may be shared. This class is threadsafe.
+ */
+final class ReferenceDigestIndexCache {
+    private static final Logger LOGGER = LogManager.getLogger(ReferenceDigestIndexCache.class);
+
+    /**
+     * Default maximum number of indexes held at once.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 100;
+
+    private final ReferenceEventManager referenceEventManager;
+    private final Cache<UUID, Entry> indexes;
+
+    /**
+     * Constructs a cache holding up to {@link #DEFAULT_MAX_ENTRIES} indexes.
+     *
+     * @param referenceEventManager the manager the reference digest values are stored in
+     */
+    ReferenceDigestIndexCache(final ReferenceEventManager referenceEventManager) {
+        this.referenceEventManager = referenceEventManager;
+        this.indexes = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAX_ENTRIES).build();
+    }
+
+    /**
+     * Returns the index of the reference digest values of the given RIM, building it if it is
+     * not cached or the values changed since it was cached.
+     *
+     * @param rim the base RIM whose values are indexed
+     * @return the index of the values of the RIM
+     */
+    ReferenceDigestIndex get(final BaseReferenceManifest rim) {
+        String stamp = referenceEventManager.getModificationStamp(rim);
+        Entry cached = indexes.getIfPresent(rim.getId());
+        if (stamp != null && cached != null && cached.stamp.equals(stamp)) {
+            return cached.index;
+        }
+
+        LOGGER.debug("Indexing reference digest values of RIM {}", rim.getId());
+        ReferenceDigestIndex index = new ReferenceDigestIndex(
+                referenceEventManager.getValuesByRimId(rim));
+        if (stamp != null) {
+            indexes.put(rim.getId(), new Entry(stamp, index));
+        }
+        return index;
+    }
+
+    /**
+     * An index along with the modification stamp of the values it was built from.
+     */
+    private static final class Entry {
+        private final String stamp;
+        private final ReferenceDigestIndex index;
+
+        Entry(final String stamp, final ReferenceDigestIndex index) {
+            this.stamp = stamp;
+            this.index = index;
+        }
+    }
+}
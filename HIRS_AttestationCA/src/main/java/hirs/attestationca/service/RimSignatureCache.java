@@ -0,0 +1,111 @@
+package hirs.attestationca.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hirs.data.persist.BaseReferenceManifest;
+import hirs.data.persist.certificate.CertificateAuthorityCredential;
+import hirs.persist.CertificateManager;
+
+import java.util.function.Function;
+
+/**
+ * Caches the outcome of validating the signature of base RIMs, keyed by the hash of the RIM.
+ * The bytes of a RIM, and therefore its signature, never change for a given hash; only the set
+ * of CA credentials the signer is looked up in may. Results are therefore only reused while the
+ * {@link CertificateManager#getModificationStamp(Class)} of the
+ * {@link CertificateAuthorityCredential}s is unchanged. This class is threadsafe.
+ */
+final class RimSignatureCache {
+
+    /**
+     * Default maximum number of results held at once.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final CertificateManager certificateManager;
+    private final Cache<String, Entry> results;
+
+    /**
+     * Constructs a cache holding up to {@link #DEFAULT_MAX_ENTRIES} results.
+     *
+     * @param certificateManager the manager the CA credentials are stored in
+     */
+    RimSignatureCache(final CertificateManager certificateManager) {
+        this.certificateManager = certificateManager;
+        this.results = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAX_ENTRIES).build();
+    }
+
+    /**
+     * Returns the signature validation result of the given RIM, validating it with the given
+     * function if it has not been validated against the current CA credentials.
+     *
+     * @param rim the base RIM whose signature is validated
+     * @param validator validates the signature of a RIM
+     * @return the result of validating the RIM's signature
+     */
+    Result get(final BaseReferenceManifest rim,
+               final Function<BaseReferenceManifest, Result> validator) {
+        String stamp = certificateManager.getModificationStamp(
+                CertificateAuthorityCredential.class);
+        String hash = rim.getHexDecHash();
+        if (stamp == null || hash == null || hash.isEmpty()) {
+            return validator.apply(rim);
+        }
+
+        Entry cached = results.getIfPresent(hash);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached.result;
+        }
+
+        Result result = validator.apply(rim);
+        results.put(hash, new Entry(stamp, result));
+        return result;
+    }
+
+    /**
+     * The outcome of validating the signature of a RIM.
+     */
+    static final class Result {
+        private final CertificateAuthorityCredential signer;
+        private final boolean signatureValid;
+
+        /**
+         * Constructor.
+         *
+         * @param signer the CA credential the signature was validated with; null if no
+         *               candidate signing credential was found
+         * @param signatureValid whether the signature was valid
+         */
+        Result(final CertificateAuthorityCredential signer, final boolean signatureValid) {
+            this.signer = signer;
+            this.signatureValid = signatureValid;
+        }
+
+        /**
+         * @return the CA credential the signature was validated with, may be null
+         */
+        CertificateAuthorityCredential getSigner() {
+            return signer;
+        }
+
+        /**
+         * @return true if the signature was valid
+         */
+        boolean isSignatureValid() {
+            return signatureValid;
+        }
+    }
+
+    /**
+     * A result along with the modification stamp of the CA credentials it was computed under.
+     */
+    private static final class Entry {
+        private final String stamp;
+        private final Result result;
+
+        Entry(final String stamp, final Result result) {
+            this.stamp = stamp;
+            this.result = result;
+        }
+    }
+}
@@ -9,7 +9,6 @@ import hirs.data.persist.Device;
 import hirs.data.persist.DeviceInfoReport;
 import hirs.data.persist.EventLogMeasurements;
 import hirs.data.persist.PCRPolicy;
-import hirs.data.persist.ReferenceDigestValue;
 import hirs.data.persist.ReferenceManifest;
 import hirs.data.persist.SupplyChainPolicy;
 import hirs.data.persist.SupplyChainValidation;
@@ -19,7 +18,6 @@ import hirs.data.persist.SwidResource;
 import hirs.data.persist.TPMMeasurementRecord;
 import hirs.data.persist.certificate.Certificate;
 import hirs.data.persist.certificate.CertificateAuthorityCredential;
-import hirs.data.persist.certificate.ComponentResult;
 import hirs.data.persist.certificate.EndorsementCredential;
 import hirs.data.persist.certificate.PlatformCredential;
 import hirs.persist.AppraiserManager;
@@ -32,7 +30,8 @@ import hirs.persist.PolicyManager;
 import hirs.persist.ReferenceDigestManager;
 import hirs.persist.ReferenceEventManager;
 import hirs.persist.ReferenceManifestManager;
-import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TcgEventLogReader;
+import hirs.tpm.eventlog.TcgEventView;
 import hirs.tpm.eventlog.TpmPcrEvent;
 import hirs.utils.BouncyCastleUtils;
 import hirs.utils.ReferenceManifestValidator;
@@ -87,10 +86,20 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
     private ComponentResultManager componentResultManager;
     private CredentialValidator supplyChainCredentialValidator;
     private CrudManager<SupplyChainValidationSummary> supplyChainValidatorSummaryManager;
+    private final CertificateAuthorityChainCache caChainCache;
+    private final RimSignatureCache rimSignatureCache;
+    private final ReferenceDigestIndexCache referenceDigestIndexCache;
 
     private static final Logger LOGGER
             = LogManager.getLogger(SupplyChainValidationServiceImpl.class);
 
+    /**
+     * The RIM validator holds the compiled SWID tag schema and keeps no state between
+     * validations, so it is shared by all of them.
+     */
+    private static final ReferenceManifestValidator RIM_VALIDATOR
+            = new ReferenceManifestValidator();
+
     /**
      * Constructor to set just the CertificateManager, so that cert chain validating
      * methods can be called from outside classes.
@@ -99,6 +108,9 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
      */
     public SupplyChainValidationServiceImpl(final CertificateManager certificateManager) {
         this.certificateManager = certificateManager;
+        this.caChainCache = new CertificateAuthorityChainCache(certificateManager);
+        this.rimSignatureCache = new RimSignatureCache(certificateManager);
+        this.referenceDigestIndexCache = null;
     }
 
     /**
@@ -134,6 +146,9 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
         this.supplyChainCredentialValidator = supplyChainCredentialValidator;
         this.referenceDigestManager = referenceDigestManager;
         this.referenceEventManager = referenceEventManager;
+        this.caChainCache = new CertificateAuthorityChainCache(certificateManager);
+        this.rimSignatureCache = new RimSignatureCache(certificateManager);
+        this.referenceDigestIndexCache = new ReferenceDigestIndexCache(referenceEventManager);
     }
 
     /**
@@ -393,7 +408,7 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
         ReferenceManifest validationObject;
         Set<BaseReferenceManifest> baseReferenceManifests = null;
         BaseReferenceManifest baseReferenceManifest = null;
-        ReferenceManifest supportReferenceManifest = null;
+        SupportReferenceManifest supportReferenceManifest = null;
         EventLogMeasurements measurement = null;
 
         baseReferenceManifests = BaseReferenceManifest.select(referenceManifestManager)
@@ -433,43 +448,37 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
                     SupplyChainCredentialValidator.FIRMWARE_VALID);
 
             // verify signatures
-            ReferenceManifestValidator referenceManifestValidator =
-                    new ReferenceManifestValidator();
-            referenceManifestValidator.setRim(baseReferenceManifest);
+            RimSignatureCache.Result rimSignature = rimSignatureCache.get(baseReferenceManifest,
+                    this::validateRimSignature);
 
             //Validate signing cert
-            Set<CertificateAuthorityCredential> allCerts =
-                    CertificateAuthorityCredential.select(certificateManager).getCertificates();
-            CertificateAuthorityCredential signingCert = null;
-            for (CertificateAuthorityCredential cert : allCerts) {
-                signingCert = cert;
+            CertificateAuthorityCredential signingCert = rimSignature.getSigner();
+            if (rimSignature.isSignatureValid()) {
                 KeyStore keyStore = getCaChain(signingCert);
-                if (referenceManifestValidator.validateXmlSignature(signingCert)) {
-                    try {
-                        if (!SupplyChainCredentialValidator.verifyCertificate(
-                                signingCert.getX509Certificate(), keyStore)) {
-                            passed = false;
-                            fwStatus = new AppraisalStatus(FAIL,
-                                    "Firmware validation failed: invalid certificate path.");
-                            validationObject = baseReferenceManifest;
-                        }
-                    } catch (IOException e) {
-                        LOGGER.error("Error getting X509 cert from manager: " + e.getMessage());
-                    } catch (SupplyChainValidatorException e) {
-                        LOGGER.error("Error validating cert against keystore: " + e.getMessage());
+                try {
+                    if (!SupplyChainCredentialValidator.verifyCertificate(
+                            signingCert.getX509Certificate(), keyStore)) {
+                        passed = false;
                         fwStatus = new AppraisalStatus(FAIL,
                                 "Firmware validation failed: invalid certificate path.");
+                        validationObject = baseReferenceManifest;
                     }
-                    break;
+                } catch (IOException e) {
+                    LOGGER.error("Error getting X509 cert from manager: " + e.getMessage());
+                } catch (SupplyChainValidatorException e) {
+                    LOGGER.error("Error validating cert against keystore: " + e.getMessage());
+                    fwStatus = new AppraisalStatus(FAIL,
+                            "Firmware validation failed: invalid certificate path.");
                 }
             }
 
+            boolean supportRimValid = false;
             for (SwidResource swidRes : resources) {
                 supportReferenceManifest = SupportReferenceManifest.select(referenceManifestManager)
                         .byHexDecHash(swidRes.getHashValue()).getRIM();
                 if (supportReferenceManifest != null) {
                     // Removed the filename check from this if statement
-                    referenceManifestValidator.validateSupportRimHash(
+                    supportRimValid = RIM_VALIDATOR.validateSupportRimHash(
                             supportReferenceManifest.getRimBytes(), swidRes.getHashValue());
                 }
             }
@@ -486,14 +495,14 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
                 passed = false;
             }
 
-            if (passed && !referenceManifestValidator.isSignatureValid()) {
+            if (passed && !rimSignature.isSignatureValid()) {
                 passed = false;
                 fwStatus = new AppraisalStatus(FAIL,
                         "Firmware validation failed: Signature validation "
                                 + "failed for Base RIM.");
             }
 
-            if (passed && !referenceManifestValidator.isSupportRimValid()) {
+            if (passed && !supportRimValid) {
                 passed = false;
                 fwStatus = new AppraisalStatus(FAIL,
                         "Firmware validation failed: Hash validation "
@@ -501,17 +510,7 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
             }
 
             if (passed) {
-                TCGEventLog logProcessor;
-                try {
-                    logProcessor = new TCGEventLog(supportReferenceManifest.getRimBytes());
-                    baseline = logProcessor.getExpectedPCRValues();
-                } catch (CertificateException cEx) {
-                    LOGGER.error(cEx);
-                } catch (NoSuchAlgorithmException noSaEx) {
-                    LOGGER.error(noSaEx);
-                } catch (IOException ioEx) {
-                    LOGGER.error(ioEx);
-                }
+                baseline = supportReferenceManifest.getExpectedPCRList();
 
                 // part 1 of firmware validation check: PCR baseline match
                 pcrPolicy.setBaselinePcrs(baseline);
@@ -536,22 +535,20 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
                         // part 2 of firmware validation check: bios measurements
                         // vs baseline tcg event log
                         // find the measurement
-                        TCGEventLog tcgMeasurementLog;
+                        // only the events that fail are fully parsed, for the report
                         LinkedList<TpmPcrEvent> tpmPcrEvents = new LinkedList<>();
-                        List<ReferenceDigestValue> eventValue;
-                        HashMap<String, ReferenceDigestValue> eventValueMap = new HashMap<>();
                         try {
                             if (measurement.getPlatformManufacturer().equals(manufacturer)) {
-                                tcgMeasurementLog = new TCGEventLog(measurement.getRimBytes());
-                                eventValue = this.referenceEventManager
-                                        .getValuesByRimId(baseReferenceManifest);
-                                for (ReferenceDigestValue rdv : eventValue) {
-                                    eventValueMap.put(rdv.getDigestValue(), rdv);
+                                TcgEventLogReader tcgMeasurementLog =
+                                        new TcgEventLogReader(measurement.getRimBytes());
+                                for (TcgEventView failed : pcrPolicy.validateTpmEvents(
+                                        tcgMeasurementLog, referenceDigestIndexCache
+                                                .get(baseReferenceManifest))) {
+                                    tpmPcrEvents.add(failed.toTpmPcrEvent());
                                 }
-
-                                tpmPcrEvents.addAll(pcrPolicy.validateTpmEvents(
-                                        tcgMeasurementLog, eventValueMap));
                             }
+                        } catch (IllegalArgumentException iaEx) {
+                            LOGGER.error(iaEx);
                         } catch (CertificateException cEx) {
                             LOGGER.error(cEx);
                         } catch (NoSuchAlgorithmException noSaEx) {
@@ -789,10 +786,7 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
                     pc.setComponentFailures(result.getAdditionalInfo());
                     pc.setComponentFailureMessage(result.getMessage());
                     this.certificateManager.update(pc);
-                    for (ComponentResult componentResult
-                            : supplyChainCredentialValidator.getComponentResultList()) {
-                        this.componentResultManager.saveResult(componentResult);
-                    }
+                    this.componentResultManager.saveResults(result.getComponentResults());
                 }
                 return buildValidationRecord(validationType, AppraisalStatus.Status.FAIL,
                         result.getMessage(), pc, Level.WARN);
@@ -877,12 +871,52 @@ public class SupplyChainValidationServiceImpl implements SupplyChainValidationSe
      * single trust chain for the queried certificate, but is guaranteed to
      * include the trust chain if it exists in this class' CertificateManager.
      * Returns the certificate authority credentials in a KeyStore.
+     * <p>
+     * Resolved chains are cached until a CA credential is uploaded, archived or
+     * deleted; the returned KeyStore may be shared and must not be modified.
      *
      * @param credential the credential whose CA chain should be retrieved
      * @return A keystore containing all relevant CA credentials to the given
      * certificate's organization or null if the keystore can't be assembled
      */
     public KeyStore getCaChain(final Certificate credential) {
+        return caChainCache.get(credential, this::resolveCaChain);
+    }
+
+    /**
+     * Finds the CA credential that signed the given base RIM and validates the RIM's
+     * signature with it. The signer is looked up by the subject key identifier the RIM
+     * references; every CA credential is only tried when that lookup finds no match.
+     *
+     * @param rim the base RIM whose signature is validated
+     * @return the signing credential, if any, and whether the signature is valid
+     */
+    private RimSignatureCache.Result validateRimSignature(final BaseReferenceManifest rim) {
+        ReferenceManifestValidator.RimValidation validator = RIM_VALIDATOR.parseRim(rim);
+
+        Set<CertificateAuthorityCredential> candidates = Collections.emptySet();
+        String signingKeyId = validator.getSigningKeyIdentifier();
+        if (signingKeyId != null && !signingKeyId.isEmpty()) {
+            candidates = CertificateAuthorityCredential.select(certificateManager)
+                    .bySubjectKeyIdString(signingKeyId).getCertificates();
+        }
+        if (candidates.isEmpty()) {
+            LOGGER.debug("RIM signer not found by key identifier; trying all CA credentials");
+            candidates = CertificateAuthorityCredential.select(certificateManager)
+                    .getCertificates();
+        }
+
+        CertificateAuthorityCredential signer = null;
+        for (CertificateAuthorityCredential cert : candidates) {
+            signer = cert;
+            if (validator.validateXmlSignature(cert)) {
+                return new RimSignatureCache.Result(cert, true);
+            }
+        }
+        return new RimSignatureCache.Result(signer, false);
+    }
+
+    private KeyStore resolveCaChain(final Certificate credential) {
         KeyStore caKeyStore = null;
         try {
             caKeyStore = caCertSetToKeystore(getCaChainRec(credential, Collections.emptySet()));
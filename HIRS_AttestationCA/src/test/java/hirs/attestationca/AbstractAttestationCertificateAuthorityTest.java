@@ -72,6 +72,8 @@ public class AbstractAttestationCertificateAuthorityTest {
     private AbstractAttestationCertificateAuthority aca;
 
     private static final String EK_PUBLIC_PATH = "/tpm2/ek.pub";
+    private static final int CLAIM_CACHE_SIZE = 10;
+    private static final long CLAIM_CACHE_TTL_MS = 60000;
     private static final String AK_PUBLIC_PATH = "/tpm2/ak.pub";
     private static final String AK_NAME_PATH = "/tpm2/ak.name";
     private static final String TEST_NONCE_BLOB_PATH = "test/nonce.blob";
@@ -132,7 +134,8 @@ public class AbstractAttestationCertificateAuthorityTest {
     public void setup() {
         aca = new AbstractAttestationCertificateAuthority(null, keyPair.getPrivate(),
                 null, null, null, null, null, null, 1,
-                null, null, null, null) {
+                null, null, null, null,
+                new IdentityClaimContextCache(CLAIM_CACHE_SIZE, CLAIM_CACHE_TTL_MS)) {
         };
     }
 
@@ -0,0 +1,55 @@
+package hirs.attestationca;
+
+import com.google.protobuf.ByteString;
+import hirs.attestationca.configuration.provisionerTpm2.ProvisionerTpm2;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+/**
+ * Tests for {@link IdentityClaimContextCache}.
+ */
+public class IdentityClaimContextCacheTest {
+    private static final byte[] NONCE = {1, 2, 3, 4, 5, 6, 7, 8};
+    private static final long ONE_MINUTE_MS = 60000;
+    private static final int MAX_ENTRIES = 10;
+
+    /**
+     * Tests that a cached context is found by a nonce with equal contents and is removed by
+     * invalidate.
+     */
+    @Test
+    public void testPutGetInvalidate() {
+        IdentityClaimContextCache cache = new IdentityClaimContextCache(MAX_ENTRIES,
+                ONE_MINUTE_MS);
+        IdentityClaimContext context = createContext();
+
+        cache.put(NONCE.clone(), context);
+        Assert.assertSame(cache.get(ByteString.copyFrom(NONCE)), context);
+
+        cache.invalidate(ByteString.copyFrom(NONCE));
+        Assert.assertNull(cache.get(ByteString.copyFrom(NONCE)));
+    }
+
+    /**
+     * Tests that the cache holds no more than the configured number of contexts.
+     */
+    @Test
+    public void testMaxEntries() {
+        IdentityClaimContextCache cache = new IdentityClaimContextCache(1, ONE_MINUTE_MS);
+        byte[] otherNonce = NONCE.clone();
+        otherNonce[0]++;
+
+        cache.put(NONCE, createContext());
+        cache.put(otherNonce, createContext());
+
+        Assert.assertNull(cache.get(ByteString.copyFrom(NONCE)));
+        Assert.assertNotNull(cache.get(ByteString.copyFrom(otherNonce)));
+    }
+
+    private IdentityClaimContext createContext() {
+        return new IdentityClaimContext(ProvisionerTpm2.IdentityClaim.getDefaultInstance(),
+                null, null, null, Collections.emptySet());
+    }
+}
@@ -0,0 +1,81 @@
+package hirs.attestationca;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ProvisioningExecutor}.
+ */
+public class ProvisioningExecutorTest {
+    private static final int TEN_SECONDS = 10;
+
+    private ProvisioningExecutor executor;
+    private CountDownLatch release;
+
+    /**
+     * Creates an executor with a single worker and a single queue slot.
+     */
+    @BeforeMethod
+    public void setup() {
+        executor = new ProvisioningExecutor(1, 1);
+        release = new CountDownLatch(1);
+    }
+
+    /**
+     * Releases any blocked tasks and shuts down the executor.
+     *
+     * @throws InterruptedException if interrupted while shutting down
+     */
+    @AfterMethod
+    public void teardown() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    /**
+     * Tests that the result of a task is returned to the caller.
+     */
+    @Test
+    public void testExecuteReturnsResult() {
+        Assert.assertEquals(executor.execute(() -> "done"), "done");
+    }
+
+    /**
+     * Tests that runtime exceptions thrown by a task are rethrown unchanged.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testExecuteRethrowsRuntimeException() {
+        executor.execute(() -> {
+            throw new IllegalArgumentException("bad request");
+        });
+    }
+
+    /**
+     * Tests that requests are rejected once the worker and the queue are both occupied.
+     *
+     * @throws InterruptedException if interrupted while waiting for the worker to start
+     */
+    @Test(expectedExceptions = RejectedExecutionException.class)
+    public void testExecuteRejectsWhenFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Thread busy = new Thread(() -> executor.execute(() -> {
+            started.countDown();
+            return release.await(TEN_SECONDS, TimeUnit.SECONDS);
+        }));
+        Thread queued = new Thread(() -> executor.execute(() -> true));
+        busy.start();
+        Assert.assertTrue(started.await(TEN_SECONDS, TimeUnit.SECONDS));
+        queued.start();
+
+        while (executor.getQueuedCount() == 0) {
+            Thread.sleep(1);
+        }
+        executor.execute(() -> true);
+    }
+}
@@ -0,0 +1,116 @@
+package hirs.attestationca.service;
+
+import hirs.data.persist.certificate.Certificate;
+import hirs.data.persist.certificate.CertificateAuthorityCredential;
+import hirs.persist.CertificateManager;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link CertificateAuthorityChainCache}.
+ */
+public class CertificateAuthorityChainCacheTest {
+    private static final String AUTH_KEY_ID = "0a0b0c";
+    private static final String ISSUER = "CN=Test CA";
+
+    private CertificateManager certificateManager;
+    private CertificateAuthorityChainCache cache;
+    private AtomicInteger resolutions;
+    private Function<Certificate, KeyStore> resolver;
+
+    /**
+     * Sets up a cache over a mocked certificate manager and a resolver that counts its calls.
+     */
+    @BeforeMethod
+    public void setup() {
+        certificateManager = mock(CertificateManager.class);
+        cache = new CertificateAuthorityChainCache(certificateManager);
+        resolutions = new AtomicInteger();
+        resolver = credential -> {
+            resolutions.incrementAndGet();
+            try {
+                return KeyStore.getInstance("JKS");
+            } catch (KeyStoreException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Tests that a chain is resolved once and then reused while the CA credentials are
+     * unchanged.
+     */
+    @Test
+    public void testChainReused() {
+        setStamp("1");
+        Certificate credential = mockCertificate(ISSUER);
+
+        KeyStore first = cache.get(credential, resolver);
+        KeyStore second = cache.get(mockCertificate(ISSUER), resolver);
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(resolutions.get(), 1);
+    }
+
+    /**
+     * Tests that certificates with different issuers get their own chains.
+     */
+    @Test
+    public void testChainsKeyedByIssuer() {
+        setStamp("1");
+
+        KeyStore first = cache.get(mockCertificate(ISSUER), resolver);
+        KeyStore second = cache.get(mockCertificate("CN=Other CA"), resolver);
+
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(resolutions.get(), 2);
+    }
+
+    /**
+     * Tests that a chain is resolved again once the CA credentials change.
+     */
+    @Test
+    public void testChainResolvedAgainWhenCredentialsChange() {
+        setStamp("1");
+        KeyStore first = cache.get(mockCertificate(ISSUER), resolver);
+
+        setStamp("2");
+        KeyStore second = cache.get(mockCertificate(ISSUER), resolver);
+
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(resolutions.get(), 2);
+    }
+
+    /**
+     * Tests that nothing is cached when the certificate manager provides no modification stamp.
+     */
+    @Test
+    public void testNoCachingWithoutStamp() {
+        cache.get(mockCertificate(ISSUER), resolver);
+        cache.get(mockCertificate(ISSUER), resolver);
+
+        Assert.assertEquals(resolutions.get(), 2);
+    }
+
+    private void setStamp(final String stamp) {
+        when(certificateManager.getModificationStamp(CertificateAuthorityCredential.class))
+                .thenReturn(stamp);
+    }
+
+    private static Certificate mockCertificate(final String issuer) {
+        Certificate certificate = mock(Certificate.class);
+        when(certificate.getAuthKeyId()).thenReturn(AUTH_KEY_ID);
+        when(certificate.getIssuer()).thenReturn(issuer);
+        when(certificate.getIssuerSorted()).thenReturn(issuer);
+        return certificate;
+    }
+}
@@ -0,0 +1,88 @@
+package hirs.attestationca.service;
+
+import hirs.data.persist.BaseReferenceManifest;
+import hirs.data.persist.ReferenceDigestIndex;
+import hirs.data.persist.ReferenceDigestValue;
+import hirs.persist.ReferenceEventManager;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ReferenceDigestIndexCache}.
+ */
+public class ReferenceDigestIndexCacheTest {
+    private static final String DIGEST = "cc8695ee470cd21f32de41df451376d9e751cadb";
+
+    private ReferenceEventManager referenceEventManager;
+    private ReferenceDigestIndexCache cache;
+    private BaseReferenceManifest rim;
+
+    /**
+     * Sets up a cache over a mocked event manager holding a single value for a RIM.
+     */
+    @BeforeMethod
+    public void setup() {
+        referenceEventManager = mock(ReferenceEventManager.class);
+        cache = new ReferenceDigestIndexCache(referenceEventManager);
+        rim = mock(BaseReferenceManifest.class);
+        when(rim.getId()).thenReturn(UUID.randomUUID());
+        ReferenceDigestValue value = new ReferenceDigestValue(rim.getId(), UUID.randomUUID(),
+                "manufacturer", "model", 0, DIGEST, "EV_POST_CODE", false, false, true, null);
+        when(referenceEventManager.getValuesByRimId(rim))
+                .thenReturn(Collections.singletonList(value));
+    }
+
+    /**
+     * Tests that the values of a RIM are loaded once while they are unchanged.
+     */
+    @Test
+    public void testIndexReused() {
+        setStamp("1");
+
+        ReferenceDigestIndex first = cache.get(rim);
+        ReferenceDigestIndex second = cache.get(rim);
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(first.size(), 1);
+        verify(referenceEventManager, times(1)).getValuesByRimId(rim);
+    }
+
+    /**
+     * Tests that the index is rebuilt once the values of the RIM change.
+     */
+    @Test
+    public void testIndexRebuiltWhenValuesChange() {
+        setStamp("1");
+        ReferenceDigestIndex first = cache.get(rim);
+
+        setStamp("2");
+        ReferenceDigestIndex second = cache.get(rim);
+
+        Assert.assertNotSame(second, first);
+        verify(referenceEventManager, times(2)).getValuesByRimId(rim);
+    }
+
+    /**
+     * Tests that nothing is cached when the event manager provides no modification stamp.
+     */
+    @Test
+    public void testNoCachingWithoutStamp() {
+        cache.get(rim);
+        cache.get(rim);
+
+        verify(referenceEventManager, times(2)).getValuesByRimId(rim);
+    }
+
+    private void setStamp(final String stamp) {
+        when(referenceEventManager.getModificationStamp(rim)).thenReturn(stamp);
+    }
+}
@@ -0,0 +1,95 @@
+package hirs.attestationca.service;
+
+import hirs.data.persist.BaseReferenceManifest;
+import hirs.data.persist.certificate.CertificateAuthorityCredential;
+import hirs.persist.CertificateManager;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link RimSignatureCache}.
+ */
+public class RimSignatureCacheTest {
+    private static final String RIM_HASH = "1234abcd";
+
+    private CertificateManager certificateManager;
+    private RimSignatureCache cache;
+    private AtomicInteger validations;
+    private Function<BaseReferenceManifest, RimSignatureCache.Result> validator;
+
+    /**
+     * Sets up a cache over a mocked certificate manager and a validator that counts its calls.
+     */
+    @BeforeMethod
+    public void setup() {
+        certificateManager = mock(CertificateManager.class);
+        cache = new RimSignatureCache(certificateManager);
+        validations = new AtomicInteger();
+        CertificateAuthorityCredential signer = mock(CertificateAuthorityCredential.class);
+        validator = rim -> {
+            validations.incrementAndGet();
+            return new RimSignatureCache.Result(signer, true);
+        };
+    }
+
+    /**
+     * Tests that the signature of a RIM is validated once while the CA credentials are
+     * unchanged.
+     */
+    @Test
+    public void testResultReused() {
+        setStamp("1");
+
+        RimSignatureCache.Result first = cache.get(mockRim(RIM_HASH), validator);
+        RimSignatureCache.Result second = cache.get(mockRim(RIM_HASH), validator);
+
+        Assert.assertSame(second, first);
+        Assert.assertTrue(second.isSignatureValid());
+        Assert.assertEquals(validations.get(), 1);
+    }
+
+    /**
+     * Tests that the signature is validated again once the CA credentials change.
+     */
+    @Test
+    public void testValidatedAgainWhenCredentialsChange() {
+        setStamp("1");
+        cache.get(mockRim(RIM_HASH), validator);
+
+        setStamp("2");
+        cache.get(mockRim(RIM_HASH), validator);
+
+        Assert.assertEquals(validations.get(), 2);
+    }
+
+    /**
+     * Tests that RIMs without a hash are always validated.
+     */
+    @Test
+    public void testNoCachingWithoutHash() {
+        setStamp("1");
+
+        cache.get(mockRim(""), validator);
+        cache.get(mockRim(""), validator);
+
+        Assert.assertEquals(validations.get(), 2);
+    }
+
+    private void setStamp(final String stamp) {
+        when(certificateManager.getModificationStamp(CertificateAuthorityCredential.class))
+                .thenReturn(stamp);
+    }
+
+    private static BaseReferenceManifest mockRim(final String hash) {
+        BaseReferenceManifest rim = mock(BaseReferenceManifest.class);
+        when(rim.getHexDecHash()).thenReturn(hash);
+        return rim;
+    }
+}
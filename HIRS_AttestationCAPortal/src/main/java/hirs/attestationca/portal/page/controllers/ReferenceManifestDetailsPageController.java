@@ -277,17 +277,12 @@ public class ReferenceManifestDetailsPageController
         }
         // going to have to pull the filename and grab that from the DB
         // to get the id to make the link
-        RIM_VALIDATOR.setRim(baseRim);
+        ReferenceManifestValidator.RimValidation rimValidation = RIM_VALIDATOR.parseRim(baseRim);
         for (SwidResource swidRes : resources) {
             if (support != null && swidRes.getHashValue()
                     .equalsIgnoreCase(support.getHexDecHash())) {
-                RIM_VALIDATOR.validateSupportRimHash(support.getRimBytes(),
-                        swidRes.getHashValue());
-                if (RIM_VALIDATOR.isSupportRimValid()) {
-                    data.put("supportRimHashValid", true);
-                } else {
-                    data.put("supportRimHashValid", false);
-                }
+                data.put("supportRimHashValid", RIM_VALIDATOR.validateSupportRimHash(
+                        support.getRimBytes(), swidRes.getHashValue()));
                 break;
             }
         }
@@ -308,7 +303,7 @@ public class ReferenceManifestDetailsPageController
             SupplyChainValidationServiceImpl scvsImpl =
                     new SupplyChainValidationServiceImpl(certificateManager);
             KeyStore keystore = scvsImpl.getCaChain(cert);
-            if (RIM_VALIDATOR.validateXmlSignature(cert)) {
+            if (rimValidation.validateXmlSignature(cert)) {
                 try {
                     if (SupplyChainCredentialValidator.verifyCertificate(
                             cert.getX509Certificate(), keystore)) {
@@ -320,11 +315,11 @@ public class ReferenceManifestDetailsPageController
                 }
             }
         }
-        data.put("skID", RIM_VALIDATOR.getSubjectKeyIdentifier());
+        data.put("skID", rimValidation.getSubjectKeyIdentifier());
         try {
             for (CertificateAuthorityCredential cert : certificates) {
                 if (Arrays.equals(cert.getEncodedPublicKey(),
-                        RIM_VALIDATOR.getPublicKey().getEncoded())) {
+                        rimValidation.getPublicKey().getEncoded())) {
                     data.put("issuerID", cert.getId().toString());
                 }
             }
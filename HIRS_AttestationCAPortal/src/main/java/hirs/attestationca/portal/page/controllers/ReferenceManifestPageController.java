@@ -52,6 +52,7 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -298,8 +299,8 @@ public class ReferenceManifestPageController
 
                     for (ReferenceDigestValue rdv : rdvs) {
                        rdv.archive("Support RIM was deleted");
-                       referenceEventManager.updateEvent(rdv);
                     }
+                    referenceEventManager.updateEvents(rdvs);
                 }
             }
         } catch (IllegalArgumentException ex) {
@@ -652,18 +653,18 @@ public class ReferenceManifestPageController
                 tpmEvents = referenceEventManager.getValuesByRimId(dbSupport);
                 baseRim = findBaseRim(dbSupport);
                 if (tpmEvents.isEmpty()) {
-                    ReferenceDigestValue rdv;
+                    List<ReferenceDigestValue> rdvs = new ArrayList<>();
                     try {
                         logProcessor = new TCGEventLog(dbSupport.getRimBytes());
                         for (TpmPcrEvent tpe : logProcessor.getEventList()) {
-                            rdv = new ReferenceDigestValue(baseRim.getId(),
+                            rdvs.add(new ReferenceDigestValue(baseRim.getId(),
                                     dbSupport.getId(), dbSupport.getPlatformManufacturer(),
                                     dbSupport.getPlatformModel(), tpe.getPcrIndex(),
                                     tpe.getEventDigestStr(), tpe.getEventTypeStr(),
-                                    false, false, updated, tpe.getEventContent());
-
-                            this.referenceEventManager.saveValue(rdv);
+                                    false, false, updated, tpe.getEventContent()));
                         }
+                        this.referenceEventManager.saveValues(rdvs,
+                                Collections.<ReferenceDigestValue>emptyList());
                     } catch (CertificateException e) {
                         e.printStackTrace();
                     } catch (NoSuchAlgorithmException e) {
@@ -672,12 +673,14 @@ public class ReferenceManifestPageController
                         e.printStackTrace();
                     }
                 } else {
+                    List<ReferenceDigestValue> rdvs = new ArrayList<>();
                     for (ReferenceDigestValue rdv : tpmEvents) {
                         if (!rdv.isUpdated()) {
                             rdv.updateInfo(dbSupport, baseRim.getId());
-                            this.referenceEventManager.updateEvent(rdv);
+                            rdvs.add(rdv);
                         }
                     }
+                    this.referenceEventManager.updateEvents(rdvs);
                 }
             }
         }
@@ -15,7 +15,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import hirs.structs.converters.SimpleStructConverter;
+import hirs.structs.converters.CompiledStructConverter;
 import hirs.structs.converters.StructConverter;
 import hirs.tpm.tss.Tpm;
 import hirs.tpm.tss.command.CommandTpm;
@@ -107,7 +107,7 @@ public class ProvisionerConfiguration {
      */
     @Bean
     public StructConverter structConverter() {
-        return new SimpleStructConverter();
+        return new CompiledStructConverter();
     }
 
 }
@@ -0,0 +1,65 @@
+package hirs.structs.converters;
+
+import hirs.structs.elements.Struct;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link StructConverter} that compiles the {@link hirs.structs.elements.StructElements} of each
+ * {@link Struct} type once, into a codec that accesses the fields of the type through cached
+ * method handles. Structs are written directly into a buffer of their exact size, and read
+ * directly from a buffer, without any reflection or intermediate streams. The output is
+ * identical to that of {@link SimpleStructConverter}.
+ * <p>
+ * This class is threadsafe.
+ */
+public class CompiledStructConverter implements StructConverter {
+
+    @Override
+    public final byte[] convert(final Struct struct) {
+        StructCodec codec = StructCodec.of(struct.getClass());
+        byte[] data = new byte[codec.size(struct)];
+        codec.write(struct, ByteBuffer.wrap(data));
+        return data;
+    }
+
+    @Override
+    public final <T extends Struct> T convert(final byte[] data, final Class<T> type) {
+        return convert(ByteBuffer.wrap(data), type);
+    }
+
+    /**
+     * Writes the serialized form of a {@link Struct} into the given buffer, starting at its
+     * position, which is advanced past the struct.
+     *
+     * @param struct to be serialized
+     * @param buffer the big-endian buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have room for the struct
+     */
+    public final void convert(final Struct struct, final ByteBuffer buffer) {
+        StructCodec.of(struct.getClass()).write(struct, buffer);
+    }
+
+    /**
+     * Reads a struct of the given type from the buffer, starting at its position, which is
+     * advanced past the struct.
+     *
+     * @param buffer the big-endian buffer to read from
+     * @param type type of data being parsed
+     * @param <T> the {@link Struct} type
+     * @return de-serialized struct
+     */
+    public final <T extends Struct> T convert(final ByteBuffer buffer, final Class<T> type) {
+        return type.cast(StructCodec.of(type).read(buffer));
+    }
+
+    /**
+     * Calculates the size of the serialized form of a {@link Struct}, without serializing it.
+     *
+     * @param struct the struct
+     * @return the number of bytes the struct is serialized into
+     */
+    public final int size(final Struct struct) {
+        return StructCodec.of(struct.getClass()).size(struct);
+    }
+}
@@ -0,0 +1,488 @@
+package hirs.structs.converters;
+
+import hirs.structs.elements.Struct;
+import hirs.structs.elements.StructElementLength;
+import hirs.structs.elements.StructElements;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The compiled form of a {@link Struct} type. The {@link StructElements} and
+ * {@link StructElementLength} annotations of the type are read once, and every field is accessed
+ * through a {@link MethodHandle} created at the same time, so converting or building a struct
+ * involves no reflection. Codecs are created on first use and cached for the lifetime of the
+ * struct class.
+ * <p>
+ * Codecs are immutable and threadsafe.
+ */
+final class StructCodec {
+
+    private static final ClassValue<StructCodec> CODECS = new ClassValue<StructCodec>() {
+        @Override
+        protected StructCodec computeValue(final Class<?> type) {
+            return new StructCodec(type.asSubclass(Struct.class));
+        }
+    };
+
+    private static final int UNSIGNED_SHORT_MASK = 0xFFFF;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * The types of fields a struct element may have.
+     */
+    private enum Kind {
+        BYTE, SHORT, INT, BYTES, STRUCT, UNSUPPORTED
+    }
+
+    private final Class<? extends Struct> type;
+    private final MethodHandle constructor;
+    private final Map<String, Member> members;
+    private final Map<String, Member> lengthMembers;
+    private final Member[] elements;
+    private final int[] elementLengthIndexes;
+
+    private StructCodec(final Class<? extends Struct> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+
+        Map<String, Member> allMembers = new HashMap<>();
+        Map<String, Member> lengths = new HashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            Member member = new Member(field);
+            allMembers.put(member.name, member);
+            StructElementLength length = field.getAnnotation(StructElementLength.class);
+            if (length != null) {
+                lengths.put(length.fieldName(), member);
+            }
+        }
+        this.members = Collections.unmodifiableMap(allMembers);
+        this.lengthMembers = Collections.unmodifiableMap(lengths);
+
+        StructElements structElements = type.getAnnotation(StructElements.class);
+        if (structElements == null) {
+            this.elements = null;
+            this.elementLengthIndexes = null;
+            return;
+        }
+        String[] names = structElements.elements();
+        this.elements = new Member[names.length];
+        this.elementLengthIndexes = new int[names.length];
+        Map<String, Integer> lengthIndexes = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            Member member = allMembers.get(names[i]);
+            if (member == null) {
+                throw new StructConversionException(String.format(
+                        "%s does not declare the struct element %s", type.getSimpleName(),
+                        names[i]));
+            }
+            elements[i] = member;
+            // only a length read before the element it describes can be used to read it
+            Integer lengthIndex = lengthIndexes.get(member.name);
+            elementLengthIndexes[i] = -1;
+            if (lengthIndex != null) {
+                elementLengthIndexes[i] = lengthIndex;
+            }
+            if (member.lengthOf != null) {
+                lengthIndexes.put(member.lengthOf, i);
+            }
+        }
+    }
+
+    /**
+     * Returns the codec of the given struct type, compiling it on first use.
+     *
+     * @param type the struct type
+     * @return the codec of the type
+     */
+    static StructCodec of(final Class<? extends Struct> type) {
+        return CODECS.get(type);
+    }
+
+    /**
+     * Creates a new instance of the struct type using its no-argument constructor.
+     *
+     * @return a new struct
+     */
+    Struct newInstance() {
+        try {
+            return (Struct) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new StructBuilderException(String.format(
+                    "Unexpected error constructing new instance: %s", type.getSimpleName()),
+                    asException(t));
+        }
+    }
+
+    /**
+     * Sets the field with the given name, which may be of any type.
+     *
+     * @param struct the struct to modify
+     * @param fieldName the name of the field
+     * @param value the value of the field
+     */
+    void set(final Struct struct, final String fieldName, final Object value) {
+        setObject(struct, member(fieldName), value);
+    }
+
+    /**
+     * Sets the numeric field with the given name, narrowing the value to the type of the field.
+     *
+     * @param struct the struct to modify
+     * @param fieldName the name of the field
+     * @param value the value of the field
+     */
+    void setNumber(final Struct struct, final String fieldName, final Number value) {
+        setNumber(struct, member(fieldName), value.intValue());
+    }
+
+    /**
+     * Sets the field holding the length of the given field, if the struct type declares one.
+     *
+     * @param struct the struct to modify
+     * @param fieldName the name of the field whose length is set
+     * @param length the length
+     */
+    void setLength(final Struct struct, final String fieldName, final int length) {
+        Member lengthMember = lengthMembers.get(fieldName);
+        if (lengthMember != null) {
+            setNumber(struct, lengthMember, length);
+        }
+    }
+
+    /**
+     * Calculates the number of bytes the given struct is converted into.
+     *
+     * @param struct a struct of this type
+     * @return the serialized size of the struct
+     */
+    int size(final Struct struct) {
+        int size = 0;
+        for (Member element : requireElements()) {
+            switch (element.kind) {
+                case BYTE:
+                    size += Byte.BYTES;
+                    break;
+                case SHORT:
+                    size += Short.BYTES;
+                    break;
+                case INT:
+                    size += Integer.BYTES;
+                    break;
+                case BYTES:
+                    size += getBytes(struct, element).length;
+                    break;
+                case STRUCT:
+                    Struct value = getStruct(struct, element);
+                    if (value != null) {
+                        size += of(value.getClass()).size(value);
+                    }
+                    break;
+                default:
+                    throw unsupported(element);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes the given struct into a buffer, starting at its position.
+     *
+     * @param struct a struct of this type
+     * @param buffer the buffer to write to
+     */
+    void write(final Struct struct, final ByteBuffer buffer) {
+        try {
+            for (Member element : requireElements()) {
+                switch (element.kind) {
+                    case BYTE:
+                        buffer.put((byte) element.getter.invokeExact(struct));
+                        break;
+                    case SHORT:
+                        buffer.putShort((short) element.getter.invokeExact(struct));
+                        break;
+                    case INT:
+                        buffer.putInt((int) element.getter.invokeExact(struct));
+                        break;
+                    case BYTES:
+                        buffer.put(getBytes(struct, element));
+                        break;
+                    case STRUCT:
+                        Struct value = getStruct(struct, element);
+                        if (value != null) {
+                            of(value.getClass()).write(value, buffer);
+                        }
+                        break;
+                    default:
+                        throw unsupported(element);
+                }
+            }
+        } catch (StructConversionException | BufferOverflowException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new StructConversionException(String.format(
+                    "Unexpected error converting %s into a struct: %s", type.getSimpleName(),
+                    t.getMessage()), asException(t));
+        }
+    }
+
+    /**
+     * Reads a struct of this type from a buffer, starting at its position. Byte arrays are read
+     * with the length given by the length element preceding them. As when reading from a stream,
+     * a byte array extending past the end of the buffer is padded with zeros.
+     *
+     * @param buffer the buffer to read from
+     * @return the struct
+     */
+    Struct read(final ByteBuffer buffer) {
+        Member[] structElements = requireElements();
+        Struct struct = newInstance();
+        int[] values = new int[structElements.length];
+        for (int i = 0; i < structElements.length; i++) {
+            Member element = structElements[i];
+            try {
+                switch (element.kind) {
+                    case BYTE:
+                        values[i] = buffer.get();
+                        setNumber(struct, element, values[i]);
+                        break;
+                    case SHORT:
+                        values[i] = buffer.getShort() & UNSIGNED_SHORT_MASK;
+                        setNumber(struct, element, values[i]);
+                        break;
+                    case INT:
+                        values[i] = buffer.getInt();
+                        setNumber(struct, element, values[i]);
+                        break;
+                    case BYTES:
+                        byte[] bytes = new byte[length(i, values, element)];
+                        buffer.get(bytes, 0, Math.min(bytes.length, buffer.remaining()));
+                        setObject(struct, element, bytes);
+                        setLength(struct, element.name, bytes.length);
+                        break;
+                    case STRUCT:
+                        // some struct fields are variable. if there is a length and it is 0,
+                        // move on
+                        int lengthIndex = elementLengthIndexes[i];
+                        if (lengthIndex >= 0 && values[lengthIndex] == 0) {
+                            continue;
+                        }
+                        int start = buffer.position();
+                        setObject(struct, element, of(element.structType).read(buffer));
+                        setLength(struct, element.name, buffer.position() - start);
+                        break;
+                    default:
+                        throw unsupported(element);
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                throw new StructConversionException(
+                        "Unexpected error processing struct for field: " + element.name + ": "
+                                + e.getMessage(), e);
+            }
+        }
+        return struct;
+    }
+
+    private int length(final int index, final int[] values, final Member element) {
+        int lengthIndex = elementLengthIndexes[index];
+        if (lengthIndex < 0) {
+            throw new StructConversionException(
+                    "Unexpected error processing struct for field: " + element.name
+                            + ": no length precedes the field");
+        }
+        return values[lengthIndex];
+    }
+
+    private Member[] requireElements() {
+        if (elements == null) {
+            throw new StructConversionException(String.format(
+                    "%s does not have the proper @StructElements definition on the class "
+                            + "type. Please see documentation on Struct interface",
+                    type.getSimpleName()));
+        }
+        return elements;
+    }
+
+    private Member member(final String fieldName) {
+        Member member = members.get(fieldName);
+        if (member == null) {
+            throw new StructBuilderException(String.format(
+                    "Unexpected error setting field: %s", fieldName));
+        }
+        return member;
+    }
+
+    private static void setObject(final Struct struct, final Member member, final Object value) {
+        try {
+            member.objectSetter.invokeExact(struct, value);
+        } catch (Throwable t) {
+            throw new StructBuilderException(String.format(
+                    "Unexpected error setting field: %s", member.name), asException(t));
+        }
+    }
+
+    private static void setNumber(final Struct struct, final Member member, final int value) {
+        try {
+            switch (member.kind) {
+                case BYTE:
+                    member.setter.invokeExact(struct, (byte) value);
+                    break;
+                case SHORT:
+                    member.setter.invokeExact(struct, (short) value);
+                    break;
+                case INT:
+                    member.setter.invokeExact(struct, value);
+                    break;
+                default:
+                    throw new StructBuilderException(String.format(
+                            "Unhandled numeric field type: %s", member.type.getSimpleName()));
+            }
+        } catch (StructBuilderException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new StructBuilderException(String.format(
+                    "Unexpected error setting field: %s", member.name), asException(t));
+        }
+    }
+
+    private static byte[] getBytes(final Struct struct, final Member member) {
+        byte[] value;
+        try {
+            value = (byte[]) member.getter.invokeExact(struct);
+        } catch (Throwable t) {
+            throw readError(struct, t);
+        }
+        if (value == null) {
+            throw new StructConversionException(String.format(
+                    "Unexpected error converting %s into a struct: %s is null",
+                    struct.getClass().getSimpleName(), member.name));
+        }
+        return value;
+    }
+
+    private static Struct getStruct(final Struct struct, final Member member) {
+        try {
+            return (Struct) member.getter.invokeExact(struct);
+        } catch (Throwable t) {
+            throw readError(struct, t);
+        }
+    }
+
+    private static StructConversionException readError(final Struct struct, final Throwable t) {
+        return new StructConversionException(String.format(
+                "Unexpected error converting %s into a struct: %s",
+                struct.getClass().getSimpleName(), t.getMessage()), asException(t));
+    }
+
+    private static StructConversionException unsupported(final Member member) {
+        return new StructConversionException(
+                "Unsupported field type for element or length: " + member.type);
+    }
+
+    private static Exception asException(final Throwable t) {
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+
+    private static MethodHandle findConstructor(final Class<? extends Struct> type) {
+        try {
+            Constructor<? extends Struct> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(ctor)
+                    .asType(MethodType.methodType(Struct.class));
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) {
+            // the error is reported when an instance is requested
+            return MethodHandles.throwException(Struct.class, StructBuilderException.class)
+                    .bindTo(new StructBuilderException(String.format(
+                            "%s has no usable no-argument constructor",
+                            type.getSimpleName()), e));
+        }
+    }
+
+    private static Kind kindOf(final Class<?> fieldType) {
+        if (fieldType == byte.class) {
+            return Kind.BYTE;
+        } else if (fieldType == short.class) {
+            return Kind.SHORT;
+        } else if (fieldType == int.class) {
+            return Kind.INT;
+        } else if (fieldType == byte[].class) {
+            return Kind.BYTES;
+        } else if (Struct.class.isAssignableFrom(fieldType)) {
+            return Kind.STRUCT;
+        }
+        return Kind.UNSUPPORTED;
+    }
+
+    /**
+     * A field of a struct type, along with the handles to read and write it. The getter and
+     * setter are typed with the primitive type of numeric fields, or with {@code byte[]} or
+     * {@link Struct}, so that they can be invoked exactly without boxing.
+     */
+    private static final class Member {
+        private final String name;
+        private final Class<?> type;
+        private final Kind kind;
+        private final String lengthOf;
+        private final Class<? extends Struct> structType;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final MethodHandle objectSetter;
+
+        Member(final Field field) {
+            this.name = field.getName();
+            this.type = field.getType();
+            this.kind = kindOf(type);
+            StructElementLength length = field.getAnnotation(StructElementLength.class);
+            if (length == null) {
+                this.lengthOf = null;
+            } else {
+                this.lengthOf = length.fieldName();
+            }
+            if (kind == Kind.STRUCT) {
+                this.structType = type.asSubclass(Struct.class);
+            } else {
+                this.structType = null;
+            }
+
+            Class<?> accessType = type;
+            if (kind == Kind.STRUCT) {
+                accessType = Struct.class;
+            }
+            try {
+                field.setAccessible(true);
+                MethodHandle rawGetter = LOOKUP.unreflectGetter(field);
+                MethodHandle rawSetter = LOOKUP.unreflectSetter(field);
+                this.getter = rawGetter.asType(
+                        MethodType.methodType(accessType, Struct.class));
+                this.setter = rawSetter.asType(
+                        MethodType.methodType(void.class, Struct.class, accessType));
+                this.objectSetter = rawSetter.asType(
+                        MethodType.methodType(void.class, Struct.class, Object.class));
+            } catch (IllegalAccessException | SecurityException e) {
+                throw new StructConversionException(String.format(
+                        "Unable to access field %s of %s", name,
+                        field.getDeclaringClass().getSimpleName()), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package hirs.structs.converters;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tests suite for {@link CompiledStructConverter}.
+ */
+public class CompiledStructConverterTest {
+
+    private static final byte[] EXPECTED_BYTES =
+            new byte[]{0, 5, 0, 0, 0, 10, 0, 7, 1, 2, 3, 4, 5, 6, 7, 8, 9, 0, 6, 0, 0, 0, 0};
+
+    private static final int NUMBER = 123;
+
+    private static final byte[] ARRAY = new byte[] {4, 5, 6};
+
+    private static final int OFFSET = 3;
+
+    private final TestStruct testStruct = new TestStruct();
+
+    private final CompiledStructConverter converter = new CompiledStructConverter();
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(hirs.structs.elements.Struct)}.
+     */
+    @Test
+    public final void testConvertToByteArray() {
+        Assert.assertEquals(converter.convert(testStruct), EXPECTED_BYTES);
+        Assert.assertEquals(converter.size(testStruct), EXPECTED_BYTES.length);
+    }
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(byte[], Class)}.
+     */
+    @Test
+    public final void testConvertToStruct() {
+        TestStruct struct = converter.convert(EXPECTED_BYTES, TestStruct.class);
+
+        Assert.assertEquals(struct, testStruct);
+    }
+
+    /**
+     * Tests that a struct holding variable length fields is converted to the same bytes as by
+     * {@link SimpleStructConverter}.
+     */
+    @Test
+    public final void testSameAsSimpleStructConverter() {
+        TestStruct struct = new SimpleStructBuilder<>(TestStruct.class)
+                .set("testShort", NUMBER)
+                .set("testByte", NUMBER)
+                .set("testVariableStruct", new SimpleStructBuilder<>(TestVariableStruct.class)
+                        .set("testArray", ARRAY)
+                        .build())
+                .build();
+
+        byte[] expected = new SimpleStructConverter().convert(struct);
+        Assert.assertEquals(converter.convert(struct), expected);
+        Assert.assertEquals(converter.size(struct), expected.length);
+        Assert.assertEquals(struct.getTestVariableStructLength(), ARRAY.length);
+    }
+
+    /**
+     * Tests that structs are written to and read from a buffer starting at its position.
+     */
+    @Test
+    public final void testConvertWithBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(OFFSET + EXPECTED_BYTES.length);
+        buffer.position(OFFSET);
+        converter.convert(testStruct, buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+
+        buffer.position(OFFSET);
+        Assert.assertEquals(converter.convert(buffer, TestStruct.class), testStruct);
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(byte[], Class)} where the data ends before
+     * the struct does.
+     */
+    @Test(expectedExceptions = StructConversionException.class,
+            expectedExceptionsMessageRegExp = "Unexpected error processing struct for field.*")
+    public final void testConvertTruncated() {
+        converter.convert(new byte[1], TestStruct.class);
+    }
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(hirs.structs.elements.Struct)} where the
+     * Struct does not have the required {@link hirs.structs.elements.StructElements}
+     * annotation.
+     */
+    @Test(expectedExceptions = StructConversionException.class,
+            expectedExceptionsMessageRegExp = ".*@StructElements.*")
+    public final void testNoElementsStructConvertToArray() {
+        converter.convert(new TestNoElementsAnnotationStruct());
+    }
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(byte[], Class)} where the Struct type does not
+     * have the required {@link hirs.structs.elements.StructElements} annotation.
+     */
+    @Test(expectedExceptions = StructConversionException.class,
+            expectedExceptionsMessageRegExp = ".*@StructElements.*")
+    public final void testNoElementsStructConvertToStruct() {
+        converter.convert(new byte[1], TestNoElementsAnnotationStruct.class);
+    }
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(hirs.structs.elements.Struct)} where the
+     * Struct is {@link TestInvalidDataTypeStruct}.
+     */
+    @Test(expectedExceptions = StructConversionException.class,
+            expectedExceptionsMessageRegExp = "Unsupported field type.*")
+    public final void testInvalidDataTypeStructConvertToArray() {
+        converter.convert(new TestInvalidDataTypeStruct());
+    }
+
+    /**
+     * Tests {@link CompiledStructConverter#convert(byte[], Class)} where the Struct is {@link
+     * TestInvalidDataTypeStruct}.
+     */
+    @Test(expectedExceptions = StructConversionException.class,
+            expectedExceptionsMessageRegExp = "Unsupported field type.*")
+    public final void testInvalidDataTypeStructConvertToStruct() {
+        converter.convert(new byte[1], TestInvalidDataTypeStruct.class);
+    }
+}
@@ -2,6 +2,8 @@ package hirs.appraiser;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -29,8 +31,12 @@ import javax.persistence.Table;
  * top-level report is <code>IntegrityReport</code> then the <code>IMAAppraiser</code> needs to
  * extract both a <code>DeviceInfoReport</code> and a <code>IMAReport</code> from the
  * <code>IntegrityReport</code>)</li> </ul>
+ * <p>
+ * Appraisers are stored once by <code>SystemInit</code> and never edited through the ACA or the
+ * portal, so they are held in the second-level cache.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "Appraiser")
 @Inheritance(strategy = InheritanceType.JOINED)
 public abstract class Appraiser {
@@ -1,5 +1,11 @@
 package hirs.data.persist;
 
+import hirs.data.persist.certificate.ComponentResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Class to capture appraisal results and corresponding messages.
  */
@@ -33,6 +39,7 @@ public class AppraisalStatus {
 
     private String message;
     private String additionalInfo;
+    private List<ComponentResult> componentResults = Collections.emptyList();
 
     /**
      * Default constructor. Set appraisal status and description.
@@ -104,4 +111,22 @@ public class AppraisalStatus {
     public void setAdditionalInfo(final String additionalInfo) {
         this.additionalInfo = additionalInfo;
     }
+
+    /**
+     * Getter for the results of the comparisons of platform credential components with the
+     * components of the device, made while appraising the platform credential attributes.
+     * @return an unmodifiable list of the component results, empty if there are none
+     */
+    public List<ComponentResult> getComponentResults() {
+        return Collections.unmodifiableList(componentResults);
+    }
+
+    /**
+     * Setter for the component results.
+     * @param componentResults the results of the comparisons of platform credential
+     *                         components with the components of the device
+     */
+    public void setComponentResults(final List<ComponentResult> componentResults) {
+        this.componentResults = new ArrayList<>(componentResults);
+    }
 }
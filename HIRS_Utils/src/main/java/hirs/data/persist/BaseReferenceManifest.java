@@ -1,9 +1,9 @@
 package hirs.data.persist;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import hirs.persist.DBReferenceManifestManager;
 import hirs.persist.ReferenceManifestManager;
 import hirs.persist.ReferenceManifestSelector;
+import hirs.utils.ReferenceManifestXml;
 import hirs.utils.xjc.BaseElement;
 import hirs.utils.xjc.Directory;
 import hirs.utils.xjc.FilesystemItem;
@@ -16,13 +16,10 @@ import org.apache.logging.log4j.Logger;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.UnmarshalException;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
-import javax.xml.validation.Schema;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -44,8 +41,6 @@ public class BaseReferenceManifest extends ReferenceManifest {
      */
     public static final String BASE_64_HASH_FIELD = "base64Hash";
 
-    private static JAXBContext jaxbContext;
-
     @Column
     @JsonIgnore
     private String base64Hash = "";
@@ -341,12 +336,14 @@ public class BaseReferenceManifest extends ReferenceManifest {
     }
 
     /**
-     * Default method for parsing the payload element.
+     * Default method for parsing the payload element. The payload of a RIM is only parsed
+     * once, and shared by every instance holding the same RIM.
      *
      * @return a collection of payload objects.
      */
     public final List<SwidResource> parseResource() {
-        return parseResource((ResourceCollection) this.getBaseElementFromBytes("Payload"));
+        return new ArrayList<>(ReferenceManifestContentCache.getResources(this,
+                () -> parseResource((ResourceCollection) getBaseElementFromBytes("Payload"))));
     }
 
     /**
@@ -395,16 +392,9 @@ public class BaseReferenceManifest extends ReferenceManifest {
      */
     private JAXBElement unmarshallSwidTag(final InputStream stream) throws IOException {
         JAXBElement jaxbe = null;
-        Schema schema;
 
         try {
-            schema = DBReferenceManifestManager.getSchemaObject();
-            if (jaxbContext == null) {
-                jaxbContext = JAXBContext.newInstance(SCHEMA_PACKAGE);
-            }
-            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-            unmarshaller.setSchema(schema);
-            jaxbe = (JAXBElement) unmarshaller.unmarshal(stream);
+            jaxbe = (JAXBElement) ReferenceManifestXml.unmarshal(stream);
         } catch (UnmarshalException umEx) {
             LOGGER.error(String.format("Error validating swidtag file!%n%s%n%s",
                     umEx.getMessage(), umEx.toString()));
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import hirs.persist.ReferenceManifestManager;
 import hirs.persist.ReferenceManifestSelector;
 import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TcgEventLogReader;
+import hirs.tpm.eventlog.TcgPcrReplay;
 import hirs.tpm.eventlog.TpmPcrEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -141,20 +143,19 @@ public class EventLogMeasurements extends ReferenceManifest {
 
     /**
      * Getter method for the expected PCR values contained within the support
-     * RIM.
+     * RIM. The event log of a RIM is only replayed once, and shared by every instance
+     * holding the same RIM.
      * @return a string array of the pcr values.
      */
     public String[] getExpectedPCRList() {
         try {
-            TCGEventLog logProcessor = new TCGEventLog(this.getRimBytes());
-            this.pcrHash = Arrays.hashCode(logProcessor.getExpectedPCRValues());
-            return logProcessor.getExpectedPCRValues();
-        } catch (CertificateException cEx) {
-            LOGGER.error(cEx);
-        } catch (NoSuchAlgorithmException noSaEx) {
-            LOGGER.error(noSaEx);
-        } catch (IOException ioEx) {
-            LOGGER.error(ioEx);
+            String[] pcrValues = ReferenceManifestContentCache.getExpectedPcrValues(this,
+                    () -> TcgPcrReplay.getExpectedPcrValues(
+                            new TcgEventLogReader(this.getRimBytes())));
+            this.pcrHash = Arrays.hashCode(pcrValues);
+            return pcrValues.clone();
+        } catch (IllegalArgumentException iaEx) {
+            LOGGER.error(iaEx);
         }
 
         return new String[0];
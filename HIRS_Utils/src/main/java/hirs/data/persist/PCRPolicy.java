@@ -4,6 +4,9 @@ import hirs.data.persist.tpm.PcrComposite;
 import hirs.data.persist.tpm.PcrInfoShort;
 import hirs.data.persist.tpm.PcrSelection;
 import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TcgEventLogReader;
+import hirs.tpm.eventlog.TcgEventView;
+import hirs.tpm.eventlog.TcgTpmtHa;
 import hirs.tpm.eventlog.TpmPcrEvent;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
@@ -30,24 +33,20 @@ public final class PCRPolicy extends Policy {
 
     private static final int NUM_TO_SKIP = 1;
     private static final int NUM_OF_TBOOT_PCR = 3;
-    // PCR 5-16
-    private static final int PXE_PCR_START = 5;
-    private static final int PXE_PCR_END = 16;
-    // PCR 10
-    private static final int IMA_PCR = 10;
-    // PCR 17-19
-    private static final int TBOOT_PCR_START = 17;
-    private static final int TBOOT_PCR_END = 19;
+    /** First of the PCRs ignored with OS events, PCR 5-16. */
+    static final int PXE_PCR_START = 5;
+    /** Last of the PCRs ignored with OS events. */
+    static final int PXE_PCR_END = 16;
+    /** The IMA PCR, PCR 10. */
+    static final int IMA_PCR = 10;
+    /** First of the TBOOT PCRs, PCR 17-19. */
+    static final int TBOOT_PCR_START = 17;
+    /** Last of the TBOOT PCRs. */
+    static final int TBOOT_PCR_END = 19;
     // PCR 5
     private static final int GPT_PCR = 5;
     private static final int IMA_MASK = 0xfffbff;
 
-    // Event Log Event Types
-    private static final String EVT_EFI_BOOT = "EV_EFI_BOOT_SERVICES_APPLICATION";
-    private static final String EVT_EFI_VAR = "EV_EFI_VARIABLE_BOOT";
-    private static final String EVT_EFI_GPT = "EV_EFI_GPT_EVENT";
-    private static final String EVT_EFI_CFG = "EV_EFI_VARIABLE_DRIVER_CONFIG";
-
     @Column(nullable = false)
     private boolean enableIgnoreIma = false;
     @Column(nullable = false)
@@ -128,34 +127,95 @@ public final class PCRPolicy extends Policy {
      */
     public List<TpmPcrEvent> validateTpmEvents(final TCGEventLog tcgMeasurementLog,
                 final Map<String, ReferenceDigestValue> eventValueMap) {
+        PcrEventFilter filter = compileEventFilter();
+        List<TpmPcrEvent> tpmPcrEvents = new LinkedList<>();
+        int ignored = 0;
+        for (TpmPcrEvent tpe : tcgMeasurementLog.getEventList()) {
+            String reason = filter.ignoreReason(tpe);
+            if (reason != null) {
+                ignored++;
+                LOGGER.debug("{} Ignored -> {}", reason, tpe);
+            } else if (!eventValueMap.containsKey(tpe.getEventDigestStr())) {
+                tpmPcrEvents.add(tpe);
+            }
+        }
+
+        logIgnored(ignored);
+        return tpmPcrEvents;
+    }
+
+    /**
+     * Checks that the expected FM events occurring, matching the digests of the events against
+     * a prebuilt index of the baseline. The same policy options as
+     * {@link #validateTpmEvents(TCGEventLog, Map)} apply.
+     * @param tcgMeasurementLog Measurement log from the client
+     * @param referenceDigests The index of the events stored as baseline to compare
+     * @return the events that didn't pass
+     */
+    public List<TpmPcrEvent> validateTpmEvents(final TCGEventLog tcgMeasurementLog,
+                final ReferenceDigestIndex referenceDigests) {
+        PcrEventFilter filter = compileEventFilter();
         List<TpmPcrEvent> tpmPcrEvents = new LinkedList<>();
+        int ignored = 0;
         for (TpmPcrEvent tpe : tcgMeasurementLog.getEventList()) {
-            if (enableIgnoreIma && tpe.getPcrIndex() == IMA_PCR) {
-                LOGGER.info(String.format("IMA Ignored -> %s", tpe));
-            } else if (enableIgnoretBoot && (tpe.getPcrIndex() >= TBOOT_PCR_START
-                    && tpe.getPcrIndex() <= TBOOT_PCR_END)) {
-                LOGGER.info(String.format("TBOOT Ignored -> %s", tpe));
-            } else if (enableIgnoreOsEvt && (tpe.getPcrIndex() >= PXE_PCR_START
-                    && tpe.getPcrIndex() <= PXE_PCR_END)) {
-                LOGGER.info(String.format("OS Evt Ignored -> %s", tpe));
+            String reason = filter.ignoreReason(tpe);
+            if (reason != null) {
+                ignored++;
+                LOGGER.debug("{} Ignored -> {}", reason, tpe);
+            } else if (!referenceDigests.contains(tpe.getEventDigest())) {
+                tpmPcrEvents.add(tpe);
+            }
+        }
+
+        logIgnored(ignored);
+        return tpmPcrEvents;
+    }
+
+    /**
+     * Checks that the expected FM events occurring while streaming through the measurement
+     * log. Events are neither copied nor decoded, except for the few whose content the policy
+     * options depend on. The same policy options as
+     * {@link #validateTpmEvents(TCGEventLog, Map)} apply.
+     * @param measurementLog Measurement log from the client
+     * @param referenceDigests The index of the events stored as baseline to compare
+     * @return the events that didn't pass
+     * @throws IllegalArgumentException if the measurement log is malformed
+     */
+    public List<TcgEventView> validateTpmEvents(final TcgEventLogReader measurementLog,
+                final ReferenceDigestIndex referenceDigests) {
+        PcrEventFilter filter = compileEventFilter();
+        List<TcgEventView> failedEvents = new ArrayList<>();
+        byte[] digest = new byte[TcgTpmtHa.TPM_ALG_SHA512_LENGTH];
+        int ignored = 0;
+        for (TcgEventView event : measurementLog) {
+            String reason = filter.ignoreReason(event);
+            if (reason != null) {
+                ignored++;
+                LOGGER.debug("{} Ignored -> {}", reason, event);
             } else {
-                if (enableIgnoreGpt && tpe.getEventTypeStr().contains(EVT_EFI_GPT)) {
-                    LOGGER.info(String.format("GPT Ignored -> %s", tpe));
-                } else if (enableIgnoreOsEvt && (tpe.getEventTypeStr().contains(EVT_EFI_BOOT)
-                        || tpe.getEventTypeStr().contains(EVT_EFI_VAR))) {
-                    LOGGER.info(String.format("OS Evt Ignored -> %s", tpe));
-                } else if (enableIgnoreOsEvt && (tpe.getEventTypeStr().contains(EVT_EFI_CFG)
-                        && tpe.getEventContentStr().contains("SecureBoot"))) {
-                    LOGGER.info(String.format("OS Evt Config Ignored -> %s", tpe));
-                } else {
-                    if (!eventValueMap.containsKey(tpe.getEventDigestStr())) {
-                        tpmPcrEvents.add(tpe);
-                    }
+                int length = event.copyEventDigest(digest);
+                if (length < 0 || !referenceDigests.contains(digest, 0, length)) {
+                    failedEvents.add(event);
                 }
             }
         }
 
-        return tpmPcrEvents;
+        logIgnored(ignored);
+        return failedEvents;
+    }
+
+    /**
+     * Compiles the ignore options of this policy into a filter for measurement log events.
+     */
+    private PcrEventFilter compileEventFilter() {
+        return new PcrEventFilter(enableIgnoreIma, enableIgnoretBoot, enableIgnoreGpt,
+                enableIgnoreOsEvt);
+    }
+
+    private static void logIgnored(final int ignored) {
+        if (ignored > 0) {
+            LOGGER.info("{} event(s) ignored by the PCR policy", ignored);
+        }
     }
 
     /**
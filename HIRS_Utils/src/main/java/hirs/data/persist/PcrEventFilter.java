@@ -0,0 +1,130 @@
+package hirs.data.persist;
+
+import hirs.tpm.eventlog.TcgEventView;
+import hirs.tpm.eventlog.TpmPcrEvent;
+import hirs.tpm.eventlog.events.EvConstants;
+import hirs.tpm.eventlog.uefi.UefiConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decides which events of a measurement log a {@link PCRPolicy} excludes from validation. The
+ * ignore flags of the policy are compiled into a table indexed by PCR and a few numeric event
+ * type comparisons, so the decision for most events involves neither strings nor the decoded
+ * content of the event. Only UEFI driver configuration variables require a look at the event
+ * data, to read the name of the variable.
+ */
+final class PcrEventFilter {
+    private static final String IMA = "IMA";
+    private static final String TBOOT = "TBOOT";
+    private static final String OS_EVT = "OS Evt";
+    private static final String GPT = "GPT";
+    private static final String OS_EVT_CONFIG = "OS Evt Config";
+    private static final String SECURE_BOOT = "SecureBoot";
+
+    private final String[] pcrReasons;
+    private final boolean ignoreGpt;
+    private final boolean ignoreOsEvt;
+
+    /**
+     * Compiles the given policy flags.
+     *
+     * @param ignoreIma whether the IMA PCR is ignored
+     * @param ignoreTboot whether the TBOOT PCRs are ignored
+     * @param ignoreGpt whether GPT events are ignored
+     * @param ignoreOsEvt whether OS events and PCRs are ignored
+     */
+    PcrEventFilter(final boolean ignoreIma, final boolean ignoreTboot,
+                   final boolean ignoreGpt, final boolean ignoreOsEvt) {
+        this.pcrReasons = new String[TPMMeasurementRecord.MAX_PCR_ID + 1];
+        this.ignoreGpt = ignoreGpt;
+        this.ignoreOsEvt = ignoreOsEvt;
+        // filled from the weakest to the strongest reason, later ones take precedence
+        if (ignoreOsEvt) {
+            fill(PCRPolicy.PXE_PCR_START, PCRPolicy.PXE_PCR_END, OS_EVT);
+        }
+        if (ignoreTboot) {
+            fill(PCRPolicy.TBOOT_PCR_START, PCRPolicy.TBOOT_PCR_END, TBOOT);
+        }
+        if (ignoreIma) {
+            fill(PCRPolicy.IMA_PCR, PCRPolicy.IMA_PCR, IMA);
+        }
+    }
+
+    /**
+     * Determines whether the given event is excluded from validation.
+     *
+     * @param event the event
+     * @return a short description of why the event is ignored, or null if it is validated
+     */
+    String ignoreReason(final TpmPcrEvent event) {
+        String reason = ignoreReason(event.getPcrIndex(), event.getEventType());
+        if (reason == null && checksVariableName(event.getEventType())
+                && isSecureBootVariable(ByteBuffer.wrap(event.getEventContent()))) {
+            reason = OS_EVT_CONFIG;
+        }
+        return reason;
+    }
+
+    /**
+     * Determines whether the given event is excluded from validation.
+     *
+     * @param event view of the event
+     * @return a short description of why the event is ignored, or null if it is validated
+     */
+    String ignoreReason(final TcgEventView event) {
+        String reason = ignoreReason(event.getPcrIndex(), event.getEventType());
+        if (reason == null && checksVariableName(event.getEventType())
+                && isSecureBootVariable(event.getEventData())) {
+            reason = OS_EVT_CONFIG;
+        }
+        return reason;
+    }
+
+    private String ignoreReason(final int pcrIndex, final long eventType) {
+        if (pcrIndex >= 0 && pcrIndex < pcrReasons.length && pcrReasons[pcrIndex] != null) {
+            return pcrReasons[pcrIndex];
+        }
+        int type = (int) eventType;
+        if (ignoreGpt && type == EvConstants.EV_EFI_GPT_EVENT) {
+            return GPT;
+        }
+        if (ignoreOsEvt && (type == EvConstants.EV_EFI_BOOT_SERVICES_APPLICATION
+                || type == EvConstants.EV_EFI_VARIABLE_BOOT)) {
+            return OS_EVT;
+        }
+        return null;
+    }
+
+    private boolean checksVariableName(final long eventType) {
+        return ignoreOsEvt && (int) eventType == EvConstants.EV_EFI_VARIABLE_DRIVER_CONFIG;
+    }
+
+    /**
+     * Reads the name of the UEFI_VARIABLE_DATA held by an event and determines whether it names
+     * the SecureBoot variable.
+     */
+    private static boolean isSecureBootVariable(final ByteBuffer content) {
+        ByteBuffer data = content.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = data.position();
+        if (data.remaining() < UefiConstants.OFFSET_32) {
+            return false;
+        }
+        long nameLength = data.getLong(start + UefiConstants.OFFSET_16) * UefiConstants.SIZE_2;
+        if (nameLength < 0 || nameLength > data.remaining() - UefiConstants.OFFSET_32) {
+            return false;
+        }
+        byte[] name = new byte[(int) nameLength];
+        data.position(start + UefiConstants.OFFSET_32);
+        data.get(name);
+        return new String(name, StandardCharsets.UTF_16LE).contains(SECURE_BOOT);
+    }
+
+    private void fill(final int first, final int last, final String reason) {
+        for (int i = first; i <= last; i++) {
+            pcrReasons[i] = reason;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package hirs.data.persist;
+
+import hirs.utils.BinaryDigestSet;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index over the {@link ReferenceDigestValue}s of a base RIM, keyed by the binary
+ * digest of the events and by their PCR index. It is built once from the values stored for a
+ * RIM and can then be shared by any number of threads validating measurement logs against that
+ * RIM without accessing the database.
+ */
+public final class ReferenceDigestIndex {
+    private static final Logger LOGGER = LogManager.getLogger(ReferenceDigestIndex.class);
+
+    private final Map<ByteBuffer, List<ReferenceDigestValue>> byDigest;
+    private final Map<Integer, List<ReferenceDigestValue>> byPcrIndex;
+    private final BinaryDigestSet digests;
+    private final int size;
+
+    /**
+     * Builds an index over the given values. Values whose digest is not a hex string can never
+     * match a measured event and are left out.
+     *
+     * @param values the reference digest values of a RIM
+     */
+    public ReferenceDigestIndex(final Collection<ReferenceDigestValue> values) {
+        Map<ByteBuffer, List<ReferenceDigestValue>> digestValues = new HashMap<>();
+        Map<Integer, List<ReferenceDigestValue>> pcrs = new HashMap<>();
+        int count = 0;
+        for (ReferenceDigestValue rdv : values) {
+            byte[] digest = decode(rdv.getDigestValue());
+            if (digest == null) {
+                LOGGER.warn("Ignoring reference digest value with invalid digest: {}", rdv);
+                continue;
+            }
+            digestValues.computeIfAbsent(ByteBuffer.wrap(digest), k -> new ArrayList<>()).add(rdv);
+            pcrs.computeIfAbsent(rdv.getPcrIndex(), k -> new ArrayList<>()).add(rdv);
+            count++;
+        }
+        List<byte[]> keys = new ArrayList<>(digestValues.size());
+        for (ByteBuffer key : digestValues.keySet()) {
+            keys.add(key.array());
+        }
+        this.byDigest = freeze(digestValues);
+        this.byPcrIndex = freeze(pcrs);
+        this.digests = new BinaryDigestSet(keys);
+        this.size = count;
+    }
+
+    /**
+     * Determines whether any value of the RIM has the given digest.
+     *
+     * @param digest the digest of a measured event
+     * @return true if the digest is a reference digest of the RIM
+     */
+    public boolean contains(final byte[] digest) {
+        return digests.contains(digest);
+    }
+
+    /**
+     * Determines whether any value of the RIM has the digest found at the given position of an
+     * array. This does not allocate.
+     *
+     * @param data the array holding the digest of a measured event
+     * @param offset the position of the digest within the array
+     * @param length the length of the digest
+     * @return true if the digest is a reference digest of the RIM
+     */
+    public boolean contains(final byte[] data, final int offset, final int length) {
+        return digests.contains(data, offset, length);
+    }
+
+    /**
+     * Returns the values of the RIM with the given digest.
+     *
+     * @param digest the digest of a measured event
+     * @return an unmodifiable list of the matching values, empty if there are none
+     */
+    public List<ReferenceDigestValue> getByDigest(final byte[] digest) {
+        if (digest == null) {
+            return Collections.emptyList();
+        }
+        return byDigest.getOrDefault(ByteBuffer.wrap(digest),
+                Collections.<ReferenceDigestValue>emptyList());
+    }
+
+    /**
+     * Returns the values of the RIM that extend the given PCR.
+     *
+     * @param pcrIndex the PCR index
+     * @return an unmodifiable list of the matching values, empty if there are none
+     */
+    public List<ReferenceDigestValue> getByPcrIndex(final int pcrIndex) {
+        return byPcrIndex.getOrDefault(pcrIndex,
+                Collections.<ReferenceDigestValue>emptyList());
+    }
+
+    /**
+     * @return the number of values in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the index holds no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static byte[] decode(final String digest) {
+        if (digest == null) {
+            return null;
+        }
+        try {
+            return Hex.decodeHex(digest.toCharArray());
+        } catch (DecoderException e) {
+            return null;
+        }
+    }
+
+    private static <K> Map<K, List<ReferenceDigestValue>> freeze(
+            final Map<K, List<ReferenceDigestValue>> map) {
+        for (Map.Entry<K, List<ReferenceDigestValue>> entry : map.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,108 @@
+package hirs.data.persist;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caches what is parsed out of the contents of RIMs, keyed by the SHA-256 hash of the RIM
+ * ({@link ReferenceManifest#getHexDecHash()}). Devices of the same platform model share their
+ * RIMs, and each RIM is loaded again from the database by each firmware validation and each
+ * portal view, so the swidtag payload of a base RIM and the PCR values replayed from a
+ * support RIM are parsed once per RIM rather than once per use. Since the key is the hash of
+ * the contents, the different instances loaded for the same RIM, and identical event logs
+ * uploaded under different names, share their entries.
+ * <p>
+ * The caches are bounded by the estimated memory held by their entries. Cached values are
+ * immutable and may be shared. This class is threadsafe.
+ */
+final class ReferenceManifestContentCache {
+
+    /**
+     * The maximum estimated memory held by the entries of each cache, in bytes.
+     */
+    static final long MAX_WEIGHT = 16L * 1024 * 1024;
+
+    /**
+     * The estimated memory held by a parsed swidtag resource, in bytes.
+     */
+    private static final int RESOURCE_WEIGHT = 512;
+
+    /**
+     * The estimated memory held by each character of a PCR value, in bytes.
+     */
+    private static final int CHAR_WEIGHT = 2;
+
+    private static final Cache<String, List<SwidResource>> RESOURCES = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .<String, List<SwidResource>>weigher((hash, resources)
+                    -> 1 + resources.size() * RESOURCE_WEIGHT)
+            .build();
+
+    private static final Cache<String, String[]> PCR_VALUES = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .<String, String[]>weigher((hash, pcrValues) -> {
+                int weight = 1;
+                for (String pcrValue : pcrValues) {
+                    weight += pcrValue.length() * CHAR_WEIGHT;
+                }
+                return weight;
+            })
+            .build();
+
+    private ReferenceManifestContentCache() {
+    }
+
+    /**
+     * Returns the resources listed in the payload of the given base RIM, parsing them if they
+     * are not cached.
+     *
+     * @param rim the base RIM
+     * @param parser parses the resources of the RIM
+     * @return an unmodifiable list of the resources
+     */
+    static List<SwidResource> getResources(final ReferenceManifest rim,
+                                           final Supplier<List<SwidResource>> parser) {
+        return get(RESOURCES, rim, () -> Collections.unmodifiableList(parser.get()));
+    }
+
+    /**
+     * Returns the PCR values expected from replaying the event log held by the given RIM,
+     * replaying it if they are not cached.
+     *
+     * @param rim the support RIM or event log measurements
+     * @param replay replays the event log of the RIM
+     * @return the expected PCR values, which must not be modified
+     */
+    static String[] getExpectedPcrValues(final ReferenceManifest rim,
+                                         final Supplier<String[]> replay) {
+        return get(PCR_VALUES, rim, replay);
+    }
+
+    /**
+     * Empties the caches.
+     */
+    static void clear() {
+        RESOURCES.invalidateAll();
+        PCR_VALUES.invalidateAll();
+    }
+
+    private static <T> T get(final Cache<String, T> cache, final ReferenceManifest rim,
+                             final Supplier<T> parser) {
+        String hash = rim.getHexDecHash();
+        if (StringUtils.isEmpty(hash)) {
+            return parser.get();
+        }
+        T value = cache.getIfPresent(hash);
+        if (value == null) {
+            // parsed outside of the cache, so that parsing errors reach the caller as before
+            value = parser.get();
+            cache.put(hash, value);
+        }
+        return value;
+    }
+}
@@ -22,7 +22,7 @@ import hirs.data.persist.Digest;
  * sets via ImaAcceptableRecordBaselines.
  */
 @Entity
-@Table(indexes = { @Index(columnList = "bucket") })
+@Table(indexes = { @Index(columnList = "bucket"), @Index(columnList = "partialPathHash") })
 public class IMABaselineRecord extends AbstractImaBaselineRecord {
     /**
      * IMABaselineRecords are randomly assigned buckets based on a hash of their path.  These
@@ -40,6 +40,19 @@ public class IMABaselineRecord extends AbstractImaBaselineRecord {
     @Column(name = BUCKET_FIELD, nullable = false)
     private final int bucket;
 
+    /**
+     * Holds the name of the 'partialPathHash' field.
+     */
+    public static final String PARTIAL_PATH_HASH_FIELD = "partialPathHash";
+
+    /**
+     * The hash of the partial path (file name) of this record, which allows queries to select
+     * the records that may match given paths.  Records stored before this column existed leave it
+     * null.
+     */
+    @Column(name = PARTIAL_PATH_HASH_FIELD, nullable = true)
+    private final Integer partialPathHash;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "ima_baseline_id")
     private SimpleImaBaseline baseline;
@@ -59,6 +72,7 @@ public class IMABaselineRecord extends AbstractImaBaselineRecord {
         Preconditions.checkNotNull(path, "Path cannot be null.");
         Preconditions.checkNotNull(hash, "Hash cannot be null.");
         this.bucket = getBucket(path);
+        this.partialPathHash = getPartialPathHash(path);
     }
 
     /**
@@ -85,13 +99,24 @@ public class IMABaselineRecord extends AbstractImaBaselineRecord {
      * Returns the 'bucket' of the given path (based on its hash).
      *
      * @param path the path to hash
-     * @return the hash of the path
+     * @return the bucket of the path
      */
-    private static int getBucket(final String path) {
+    public static int getBucket(final String path) {
         if (path == null) {
             throw new IllegalArgumentException("Cannot get bucket for null value");
         }
-        return Math.abs(getPartialPath(path).hashCode()) % FILENAME_HASH_BUCKET_COUNT;
+        return Math.abs(getPartialPathHash(path)) % FILENAME_HASH_BUCKET_COUNT;
+    }
+
+    /**
+     * Returns the hash of the partial path (file name) of the given path.  Any record matching
+     * the path, either by its full path or by its partial path, has this partial path hash.
+     *
+     * @param path the path to hash
+     * @return the hash of the partial path
+     */
+    public static int getPartialPathHash(final String path) {
+        return getPartialPath(path).hashCode();
     }
 
     /**
@@ -100,6 +125,7 @@ public class IMABaselineRecord extends AbstractImaBaselineRecord {
     protected IMABaselineRecord() {
         super();
         this.bucket = 0;
+        this.partialPathHash = null;
     }
 
     /**
@@ -10,8 +10,10 @@ import hirs.ima.matching.ImaAcceptableHashRecordMatcher;
 import hirs.ima.matching.ImaAcceptablePathAndHashRecordMatcher;
 import hirs.ima.matching.ImaRecordMatcher;
 import hirs.persist.ImaBaselineRecordManager;
+import hirs.repository.RepoPackage;
 import hirs.utils.Callback;
 import org.hibernate.Criteria;
+import org.hibernate.criterion.Restrictions;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -66,7 +68,7 @@ public abstract class QueryableRecordImaBaseline extends ImaAcceptableRecordBase
         }
 
         Collection<IMABaselineRecord> retrievedRecords = recordManager.iterateOverBaselineRecords(
-                this, new Callback<IMABaselineRecord, IMABaselineRecord>() {
+                this, pathsToFind, new Callback<IMABaselineRecord, IMABaselineRecord>() {
                     @Override
                     public IMABaselineRecord call(final IMABaselineRecord baselineRecord) {
                         if (pathsToFind.contains(baselineRecord.getPath())) {
@@ -153,4 +155,25 @@ public abstract class QueryableRecordImaBaseline extends ImaAcceptableRecordBase
      * @param bucket the bucket that should be configured on the criteria
      */
     public abstract void configureCriteriaForBaselineRecords(Criteria criteria, int bucket);
+
+    /**
+     * This method further restricts criteria configured by
+     * {@link #configureCriteriaForBaselineRecords(Criteria, int)} to the
+     * {@link IMABaselineRecord}s whose partial path has one of the given hashes.  Records stored
+     * without a partial path hash are always included, as they may match as well.  This
+     * implementation expects the records to be aliased as
+     * {@link RepoPackage#PACKAGE_RECORDS_FIELD}, as the repository baselines do.
+     *
+     * @param criteria the criteria to restrict
+     * @param partialPathHashes the partial path hashes of the records to retrieve
+     */
+    public void restrictCriteriaToPartialPathHashes(final Criteria criteria,
+                                                    final Collection<Integer> partialPathHashes) {
+        String property = String.format("%s.%s", RepoPackage.PACKAGE_RECORDS_FIELD,
+                IMABaselineRecord.PARTIAL_PATH_HASH_FIELD);
+        criteria.add(Restrictions.or(
+                Restrictions.in(property, partialPathHashes),
+                Restrictions.isNull(property)
+        ));
+    }
 }
@@ -25,6 +25,11 @@ public class CertificateAuthorityCredential extends Certificate {
      */
     public static final String SUBJECT_KEY_IDENTIFIER_FIELD = "subjectKeyIdentifier";
 
+    /**
+     * Holds the name of the 'subjectKeyIdString' field.
+     */
+    public static final String SUBJECT_KEY_ID_STRING_FIELD = "subjectKeyIdString";
+
     private static final int CA_BYTE_SIZE = 20;
     private static final int PREFIX_BYTE_SIZE = 4;
 
@@ -66,6 +71,19 @@ public class CertificateAuthorityCredential extends Certificate {
             setFieldValue(SUBJECT_KEY_IDENTIFIER_FIELD, subjectKeyIdentifier);
             return this;
         }
+
+        /**
+         * Specify the hex encoded subject key identifier that certificates must have to be
+         * considered as matching.
+         *
+         * @param subjectKeyIdString a hex encoded subject key identifier to query, not empty
+         *                           or null
+         * @return this instance (for chaining further calls)
+         */
+        public Selector bySubjectKeyIdString(final String subjectKeyIdString) {
+            setFieldValue(SUBJECT_KEY_ID_STRING_FIELD, subjectKeyIdString);
+            return this;
+        }
     }
 
     /**
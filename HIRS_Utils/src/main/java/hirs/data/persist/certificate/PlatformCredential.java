@@ -3,10 +3,8 @@ package hirs.data.persist.certificate;
 import com.google.common.base.Preconditions;
 import hirs.data.persist.certificate.attributes.ComponentIdentifier;
 import hirs.data.persist.certificate.attributes.PlatformConfiguration;
-import hirs.data.persist.certificate.attributes.PlatformConfigurationV1;
 import hirs.data.persist.certificate.attributes.TBBSecurityAssertion;
 import hirs.data.persist.certificate.attributes.URIReference;
-import hirs.data.persist.certificate.attributes.V2.PlatformConfigurationV2;
 import hirs.persist.CertificateManager;
 import hirs.persist.CertificateSelector;
 import org.apache.commons.lang3.ArrayUtils;
@@ -261,6 +259,9 @@ public class PlatformCredential extends DeviceAssociatedCertificate {
     @Transient
     private EndorsementCredential endorsementCredential = null;
 
+    @Transient
+    private PlatformCredentialAttributes attributes = null;
+
     private String platformChainType = Strings.EMPTY;
     private boolean isDeltaChain = false;
 
@@ -755,53 +756,21 @@ public class PlatformCredential extends DeviceAssociatedCertificate {
     }
 
     /**
-     * Get the Platform Configuration Attribute from the Platform Certificate.
-     * @return a map with all the attributes
+     * Get the Platform Configuration Attribute from the Platform Certificate. The attributes are
+     * decoded once per credential and shared, so they must not be modified.
+     * @return an unmodifiable map with all the attributes
      * @throws IllegalArgumentException when there is a parsing error
      * @throws IOException when reading the certificate.
      */
     public Map<String, Object> getAllAttributes()
             throws IllegalArgumentException, IOException {
-        Map<String, Object> attributes = new HashMap<>();
-        ASN1Sequence attributeSequence;
-        // Check all attributes for Platform Configuration
-        for (ASN1Encodable enc: getAttributeCertificate().getAcinfo().getAttributes().toArray()) {
-            Attribute attr = Attribute.getInstance(enc);
-            attributeSequence
-                        = ASN1Sequence.getInstance(attr.getAttrValues().getObjectAt(0));
-            // Parse sequence based on the attribute OID
-            switch (attr.getAttrType().getId()) {
-                case TBB_SECURITY_ASSERTION:
-                    attributes.put("tbbSecurityAssertion",
-                            new TBBSecurityAssertion(attributeSequence));
-                    break;
-                case PLATFORM_CONFIGURATION_URI:
-                    attributes.put("platformConfigurationURI",
-                            new URIReference(attributeSequence));
-                    break;
-                case PLATFORM_CONFIGURATION:
-                    attributes.put("platformConfiguration",
-                            new PlatformConfigurationV1(attributeSequence));
-                    break;
-                case PLATFORM_CONFIGURATION_V2:
-                    attributes.put("platformConfiguration",
-                            new PlatformConfigurationV2(attributeSequence));
-                    break;
-                case TCG_PLATFORM_SPECIFICATION:
-                case PLATFORM_CREDENTIAL_TYPE:
-                    // handled in parseFields
-                    break;
-                case TCG_CREDENTIAL_SPECIFICATION:
-                    getTCGCredentialSpecification(attributeSequence);
-                    break;
-                default:
-                    // No class defined for this attribute
-                    LOGGER.warn("No class defined for attribute with OID: "
-                            + attr.getAttrType().getId());
-                    break;
-            }
+        if (attributes == null) {
+            attributes = PlatformCredentialAttributes.of(this);
         }
-        return attributes;
+        if (attributes.getTcgCredentialSpecification() != null) {
+            getTCGCredentialSpecification(attributes.getTcgCredentialSpecification());
+        }
+        return attributes.getAttributes();
     }
 
     /**
@@ -824,10 +793,9 @@ public class PlatformCredential extends DeviceAssociatedCertificate {
      */
     public PlatformConfiguration getPlatformConfiguration()
             throws IllegalArgumentException, IOException {
-
-        if (getAttribute("platformConfiguration") != null
-                && getAttribute("platformConfiguration") instanceof PlatformConfiguration) {
-            return (PlatformConfiguration) getAttribute("platformConfiguration");
+        Object platformConfiguration = getAttribute("platformConfiguration");
+        if (platformConfiguration instanceof PlatformConfiguration) {
+            return (PlatformConfiguration) platformConfiguration;
         }
 
         return null;
@@ -841,9 +809,9 @@ public class PlatformCredential extends DeviceAssociatedCertificate {
      */
     public URIReference getPlatformConfigurationURI()
             throws IllegalArgumentException, IOException {
-        if (getAttribute("platformConfigurationURI") != null
-                && getAttribute("platformConfigurationURI") instanceof URIReference) {
-            return (URIReference) getAttribute("platformConfigurationURI");
+        Object platformConfigurationUri = getAttribute("platformConfigurationURI");
+        if (platformConfigurationUri instanceof URIReference) {
+            return (URIReference) platformConfigurationUri;
         }
         return null;
     }
@@ -856,9 +824,9 @@ public class PlatformCredential extends DeviceAssociatedCertificate {
      */
     public TBBSecurityAssertion getTBBSecurityAssertion()
             throws IllegalArgumentException, IOException {
-        if (getAttribute("tbbSecurityAssertion") != null
-                && getAttribute("tbbSecurityAssertion") instanceof TBBSecurityAssertion) {
-            return (TBBSecurityAssertion) getAttribute("tbbSecurityAssertion");
+        Object tbbSecurityAssertion = getAttribute("tbbSecurityAssertion");
+        if (tbbSecurityAssertion instanceof TBBSecurityAssertion) {
+            return (TBBSecurityAssertion) tbbSecurityAssertion;
         }
         return null;
     }
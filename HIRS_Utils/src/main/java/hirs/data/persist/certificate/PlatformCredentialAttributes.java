@@ -0,0 +1,191 @@
+package hirs.data.persist.certificate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import hirs.data.persist.certificate.attributes.PlatformConfigurationV1;
+import hirs.data.persist.certificate.attributes.TBBSecurityAssertion;
+import hirs.data.persist.certificate.attributes.URIReference;
+import hirs.data.persist.certificate.attributes.V2.PlatformConfigurationV2;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.x509.Attribute;
+import org.bouncycastle.asn1.x509.AttributeCertificate;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The attributes of a {@link PlatformCredential}, decoded once from its attribute certificate.
+ * Decoding the attributes means parsing the whole ASN.1 attribute certificate and building the
+ * platform configuration with all of its component identifiers, which the validators and the
+ * portal would otherwise repeat every time an attribute is read.
+ * <p>
+ * Decoded attributes are kept in a size-bounded cache keyed by the contents of the certificate,
+ * so the different instances loaded for the same credential (for instance by each validation of
+ * a delta chain, or by each page showing the credential) share them. The attributes are shared
+ * and must be treated as read-only. This class is threadsafe.
+ */
+final class PlatformCredentialAttributes {
+    private static final Logger LOGGER = LogManager.getLogger(PlatformCredentialAttributes.class);
+
+    /**
+     * Maximum number of credentials whose attributes are cached at once.
+     */
+    static final int MAX_CACHED_CREDENTIALS = 1000;
+
+    private static final Cache<Key, PlatformCredentialAttributes> CACHE =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_CREDENTIALS).build();
+
+    // OID for Certificate Attributes
+    private static final String TBB_SECURITY_ASSERTION = "2.23.133.2.19";
+    private static final String TCG_PLATFORM_SPECIFICATION = "2.23.133.2.17";
+    private static final String TCG_CREDENTIAL_SPECIFICATION = "2.23.133.2.23";
+    private static final String PLATFORM_CONFIGURATION_URI = "2.23.133.5.1.3";
+    private static final String PLATFORM_CONFIGURATION = "2.23.133.5.1.7.1";
+    private static final String PLATFORM_CONFIGURATION_V2 = "2.23.133.5.1.7.2";
+    private static final String PLATFORM_CREDENTIAL_TYPE = "2.23.133.2.25";
+
+    private final Map<String, Object> attributes;
+    private final ASN1Sequence tcgCredentialSpecification;
+
+    private PlatformCredentialAttributes(final Map<String, Object> attributes,
+                                         final ASN1Sequence tcgCredentialSpecification) {
+        this.attributes = Collections.unmodifiableMap(attributes);
+        this.tcgCredentialSpecification = tcgCredentialSpecification;
+    }
+
+    /**
+     * Returns the attributes of the given credential, decoding them if they are not cached.
+     *
+     * @param credential the platform credential
+     * @return the attributes of the credential
+     * @throws IllegalArgumentException when there is a parsing error
+     * @throws IOException when reading the certificate
+     */
+    static PlatformCredentialAttributes of(final PlatformCredential credential)
+            throws IllegalArgumentException, IOException {
+        byte[] bytes = credential.getRawBytes();
+        if (bytes == null) {
+            return decode(credential.getAttributeCertificate());
+        }
+        try {
+            return CACHE.get(new Key(credential.getCertificateHash(), bytes),
+                    () -> decode(credential.getAttributeCertificate()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to decode platform credential attributes", e);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Empties the cache of decoded attributes.
+     */
+    static void clearCache() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * @return an unmodifiable map of the attribute names to the decoded attributes
+     */
+    Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return the TCG credential specification sequence (2.23.133.2.23), or null if the
+     * certificate does not hold one
+     */
+    ASN1Sequence getTcgCredentialSpecification() {
+        return tcgCredentialSpecification;
+    }
+
+    private static PlatformCredentialAttributes decode(final AttributeCertificate certificate)
+            throws IllegalArgumentException {
+        Map<String, Object> attributes = new HashMap<>();
+        ASN1Sequence credentialSpecification = null;
+        ASN1Sequence attributeSequence;
+        // Check all attributes for Platform Configuration
+        for (ASN1Encodable enc: certificate.getAcinfo().getAttributes().toArray()) {
+            Attribute attr = Attribute.getInstance(enc);
+            attributeSequence
+                    = ASN1Sequence.getInstance(attr.getAttrValues().getObjectAt(0));
+            // Parse sequence based on the attribute OID
+            switch (attr.getAttrType().getId()) {
+                case TBB_SECURITY_ASSERTION:
+                    attributes.put("tbbSecurityAssertion",
+                            new TBBSecurityAssertion(attributeSequence));
+                    break;
+                case PLATFORM_CONFIGURATION_URI:
+                    attributes.put("platformConfigurationURI",
+                            new URIReference(attributeSequence));
+                    break;
+                case PLATFORM_CONFIGURATION:
+                    attributes.put("platformConfiguration",
+                            new PlatformConfigurationV1(attributeSequence));
+                    break;
+                case PLATFORM_CONFIGURATION_V2:
+                    attributes.put("platformConfiguration",
+                            new PlatformConfigurationV2(attributeSequence));
+                    break;
+                case TCG_PLATFORM_SPECIFICATION:
+                case PLATFORM_CREDENTIAL_TYPE:
+                    // handled in parseFields
+                    break;
+                case TCG_CREDENTIAL_SPECIFICATION:
+                    credentialSpecification = attributeSequence;
+                    break;
+                default:
+                    // No class defined for this attribute
+                    LOGGER.warn("No class defined for attribute with OID: "
+                            + attr.getAttrType().getId());
+                    break;
+            }
+        }
+        return new PlatformCredentialAttributes(attributes, credentialSpecification);
+    }
+
+    /**
+     * Identifies a certificate by its contents. The certificate hash is only used to find
+     * candidates, as it is not collision free.
+     */
+    private static final class Key {
+        private final int hash;
+        private final byte[] bytes;
+
+        Key(final int hash, final byte[] bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash && Arrays.equals(bytes, that.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
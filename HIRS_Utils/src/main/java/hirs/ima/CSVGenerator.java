@@ -8,12 +8,15 @@ import hirs.data.persist.baseline.ImaAcceptableRecordBaseline;
 import hirs.data.persist.baseline.ImaBlacklistBaseline;
 import hirs.data.persist.ImaBlacklistRecord;
 import hirs.data.persist.baseline.ImaIgnoreSetBaseline;
+import hirs.data.persist.baseline.QueryableRecordImaBaseline;
 import hirs.data.persist.ImaIgnoreSetRecord;
 import hirs.data.persist.info.OSInfo;
 import hirs.data.persist.baseline.TPMBaseline;
 import hirs.data.persist.info.TPMInfo;
 import hirs.data.persist.TPMMeasurementRecord;
+import hirs.persist.ImaBaselineRecordManager;
 import hirs.tpm.TPMBaselineGenerator.TPMBaselineFields;
+import hirs.utils.Callback;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -22,7 +25,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.HashMap;
+import java.util.UUID;
 
 /**
  * Class used to generate CSV from baselines and ignore sets.  These utility functions are useful
@@ -51,25 +57,49 @@ public final class CSVGenerator {
         LOGGER.info("Retrieved and parsing all records");
         StringBuilder sb = new StringBuilder();
         for (IMABaselineRecord record : imaBaseline.getBaselineRecords()) {
-            String stringHashValue;
-            Digest theHash = record.getHash();
-            if (theHash == null) {
-                stringHashValue = "";
-            } else {
-                final byte[] digest = theHash.getDigest();
-                final char[] hash = Hex.encodeHex(digest);
-                stringHashValue = String.valueOf(hash);
-            }
-
-            sb.append("\"")
-                    .append(record.getPath().replace("\"", "\"\""))
-                    .append("\",")
-                    .append(stringHashValue)
-                    .append(System.lineSeparator());
+            sb.append(imaRecordToCsv(record));
         }
         return sb.toString();
     }
 
+    /**
+     * Writes all IMA records of the <code>SimpleImaBaseline</code> with the given id to the
+     * given writer, in the format of {@link #imaRecordsToCsv(ImaAcceptableRecordBaseline)}.
+     * The records are scrolled through in the database and written as they are read, so the
+     * baseline is never held in memory.  The writer is neither flushed nor closed.
+     *
+     * @param baselineId id of the baseline
+     * @param recordManager manager used to read the records of the baseline
+     * @param writer the writer receiving the CSV, such as a writer to a servlet response
+     * @throws IOException if the CSV cannot be written
+     */
+    public static void imaRecordsToCsv(final UUID baselineId,
+                                       final ImaBaselineRecordManager recordManager,
+                                       final Writer writer) throws IOException {
+        ImaRecordWriter recordWriter = new ImaRecordWriter(writer);
+        recordManager.iterateOverBaselineRecords(baselineId, recordWriter);
+        recordWriter.checkFailure();
+    }
+
+    /**
+     * Writes all IMA records of the given baseline to the given writer, in the format of
+     * {@link #imaRecordsToCsv(ImaAcceptableRecordBaseline)}.  The records are scrolled through
+     * in the database and written as they are read, in no particular order.  The writer is
+     * neither flushed nor closed.
+     *
+     * @param imaBaseline baseline
+     * @param recordManager manager used to read the records of the baseline
+     * @param writer the writer receiving the CSV, such as a writer to a servlet response
+     * @throws IOException if the CSV cannot be written
+     */
+    public static void imaRecordsToCsv(final QueryableRecordImaBaseline imaBaseline,
+                                       final ImaBaselineRecordManager recordManager,
+                                       final Writer writer) throws IOException {
+        ImaRecordWriter recordWriter = new ImaRecordWriter(writer);
+        recordManager.iterateOverBaselineRecords(imaBaseline, recordWriter);
+        recordWriter.checkFailure();
+    }
+
     /**
      * Returns all of the file paths of records that should be ignored.
      *
@@ -77,16 +107,34 @@ public final class CSVGenerator {
      * @return CSV in a String
      */
     public static String ignoreSetToCsv(final ImaIgnoreSetBaseline ignoreSetBaseline) {
+        StringWriter writer = new StringWriter();
+        try {
+            ignoreSetToCsv(ignoreSetBaseline, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to a string", e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes all of the file paths of records that should be ignored to the given writer, in
+     * the format of {@link #ignoreSetToCsv(ImaIgnoreSetBaseline)}.  The writer is neither
+     * flushed nor closed.
+     *
+     * @param ignoreSetBaseline ignoreSetBaseline
+     * @param writer the writer receiving the CSV, such as a writer to a servlet response
+     * @throws IOException if the CSV cannot be written
+     */
+    public static void ignoreSetToCsv(final ImaIgnoreSetBaseline ignoreSetBaseline,
+                                      final Writer writer) throws IOException {
         LOGGER.info("Retrieved and parsing all records");
-        StringBuilder sb = new StringBuilder();
         for (ImaIgnoreSetRecord record : ignoreSetBaseline.getImaIgnoreRecords()) {
-            sb.append(record.getPath())
+            writer.append(record.getPath())
                     .append(",")
                     .append(StringUtils.defaultString(record.getDescription()))
                     .append(",")
                     .append(System.lineSeparator());
         }
-        return sb.toString();
     }
 
     /**
@@ -97,26 +145,40 @@ public final class CSVGenerator {
      * @return the resulting CSV in a String
      */
     public static String blacklistToCsv(final ImaBlacklistBaseline blacklistBaseline) {
-        StringBuilder sb = new StringBuilder();
-        CSVPrinter csvPrinter;
+        StringWriter writer = new StringWriter();
         try {
-            csvPrinter = CSVFormat.DEFAULT.withRecordSeparator(System.lineSeparator()).print(sb);
-            for (ImaBlacklistRecord record : blacklistBaseline.getRecords()) {
-                String digest = "";
-                Digest hash = record.getHash();
-                if (hash != null) {
-                    digest = hash.toString();
-                }
-                csvPrinter.printRecord(
-                        nullToEmpty(record.getPath()),
-                        digest,
-                        nullToEmpty(record.getDescription())
-                );
-            }
+            blacklistToCsv(blacklistBaseline, writer);
         } catch (IOException e) {
             throw new RuntimeException("Could not instantiate CSV printer");
         }
-        return sb.toString();
+        return writer.toString();
+    }
+
+    /**
+     * Serializes an {@link ImaBlacklistBaseline} to the given writer, in the format of
+     * {@link #blacklistToCsv(ImaBlacklistBaseline)}.  The writer is neither flushed nor
+     * closed.
+     *
+     * @param blacklistBaseline the baseline to serialize
+     * @param writer the writer receiving the CSV, such as a writer to a servlet response
+     * @throws IOException if the CSV cannot be written
+     */
+    public static void blacklistToCsv(final ImaBlacklistBaseline blacklistBaseline,
+                                      final Writer writer) throws IOException {
+        CSVPrinter csvPrinter =
+                CSVFormat.DEFAULT.withRecordSeparator(System.lineSeparator()).print(writer);
+        for (ImaBlacklistRecord record : blacklistBaseline.getRecords()) {
+            String digest = "";
+            Digest hash = record.getHash();
+            if (hash != null) {
+                digest = hash.toString();
+            }
+            csvPrinter.printRecord(
+                    nullToEmpty(record.getPath()),
+                    digest,
+                    nullToEmpty(record.getDescription())
+            );
+        }
     }
 
     /**
@@ -126,8 +188,26 @@ public final class CSVGenerator {
      * @return CSV in a String
      */
     public static String tpmRecordsToCsv(final TPMBaseline tpmBaseline) {
+        StringWriter writer = new StringWriter();
+        try {
+            tpmRecordsToCsv(tpmBaseline, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to a string", e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the TPM records in the TPMBaseline to the given writer, in the format of
+     * {@link #tpmRecordsToCsv(TPMBaseline)}.  The writer is neither flushed nor closed.
+     *
+     * @param tpmBaseline tpmBaseline
+     * @param writer the writer receiving the CSV, such as a writer to a servlet response
+     * @throws IOException if the CSV cannot be written
+     */
+    public static void tpmRecordsToCsv(final TPMBaseline tpmBaseline, final Writer writer)
+            throws IOException {
         LOGGER.info("Retrieved and parsing all records");
-        StringBuilder sb = new StringBuilder();
         // Add device info records to the map
         HashMap<TPMBaselineFields, String> map = new HashMap<TPMBaselineFields, String>();
         final FirmwareInfo firmwareInfo = tpmBaseline.getFirmwareInfo();
@@ -154,18 +234,37 @@ public final class CSVGenerator {
         map.put(TPMBaselineFields.TPM_VERSION_REV_MAJOR, "" + tpmInfo.getTPMVersionRevMajor());
         map.put(TPMBaselineFields.TPM_VERSION_REV_MINOR, "" + tpmInfo.getTPMVersionRevMinor());
         // Add device info records to the CSV file
-        sb.append(TPMBaselineFields.toCSV(map));
+        writer.append(TPMBaselineFields.toCSV(map));
 
         // Add measurement records to the CSV file
         for (TPMMeasurementRecord record : tpmBaseline.getPcrRecords()) {
             final byte[] digest = record.getHash().getDigest();
             final char[] hash = Hex.encodeHex(digest);
-            sb.append(record.getPcrId())
+            writer.append(String.valueOf(record.getPcrId()))
                     .append(",")
                     .append(String.valueOf(hash))
                     .append(System.lineSeparator());
         }
-        return sb.toString();
+    }
+
+    /**
+     * Formats an IMA record as a CSV row, quoting its path.
+     *
+     * @param record the record
+     * @return the row, line separator included
+     */
+    private static String imaRecordToCsv(final IMABaselineRecord record) {
+        String stringHashValue;
+        Digest theHash = record.getHash();
+        if (theHash == null) {
+            stringHashValue = "";
+        } else {
+            final byte[] digest = theHash.getDigest();
+            final char[] hash = Hex.encodeHex(digest);
+            stringHashValue = String.valueOf(hash);
+        }
+        return "\"" + record.getPath().replace("\"", "\"\"") + "\","
+                + stringHashValue + System.lineSeparator();
     }
 
     /**
@@ -180,4 +279,49 @@ public final class CSVGenerator {
         }
         return str;
     }
+
+    /**
+     * Writes the IMA records it is called with as CSV rows.  Records may be read by several
+     * threads, so the rows are written one at a time.  Once a row cannot be written, the
+     * iteration is stopped and the error is kept to be rethrown.
+     */
+    private static final class ImaRecordWriter extends Callback<IMABaselineRecord, Void> {
+        private final Writer writer;
+        private volatile IOException failure;
+
+        ImaRecordWriter(final Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public Void call(final IMABaselineRecord record) {
+            String row = imaRecordToCsv(record);
+            synchronized (writer) {
+                if (failure == null) {
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isDone() {
+            return failure != null;
+        }
+
+        /**
+         * Rethrows the error writing a row, if any.
+         *
+         * @throws IOException if a row could not be written
+         */
+        void checkFailure() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
 }
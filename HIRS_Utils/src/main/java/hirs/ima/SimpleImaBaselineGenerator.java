@@ -8,12 +8,18 @@ import hirs.data.persist.baseline.ImaBaseline;
 import hirs.data.persist.baseline.IMABaselineRecord;
 import hirs.data.persist.IMAMeasurementRecord;
 import hirs.data.persist.IntegrityReport;
+import hirs.persist.BaselineManager;
+import hirs.persist.BaselineManagerException;
+import hirs.persist.ImaBaselineRecordManager;
+import hirs.persist.ImaBaselineRecordManagerException;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.ParseException;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,6 +41,15 @@ public class SimpleImaBaselineGenerator {
     private static final Logger LOGGER
             = LogManager.getLogger(ImaBaseline.class);
 
+    /**
+     * Number of records read from a CSV file before they are stored, when a baseline is
+     * imported straight into the database.
+     */
+    public static final int IMPORT_BATCH_SIZE = 1000;
+
+    private static final Pattern CSV_ROW_PATTERN =
+            Pattern.compile("\"?(.*?)\"?,([a-fA-F0-9]{40})");
+
     /**
      * Method generates an IMA measurement baseline from a .csv file containing
      * IMA baseline records. An IMA record consists of properties associated
@@ -73,6 +88,106 @@ public class SimpleImaBaselineGenerator {
         return imaBaseline;
     }
 
+    /**
+     * Imports an IMA measurement baseline from a .csv file straight into the database, in the
+     * format of {@link #generateBaselineFromCSVFile(String, InputStream)}.  The empty baseline
+     * is saved first, then the records are read from the stream and saved in chunks of
+     * {@link #IMPORT_BATCH_SIZE}, one transaction per chunk, so only one chunk is held in memory
+     * whatever the size of the file.  Duplicate rows are stored once, even in different
+     * chunks.  The returned baseline
+     * does not hold its records; they are read through the
+     * <code>ImaBaselineRecordManager</code>.
+     * <p>
+     * The records are not saved in one transaction.  If the import fails, for instance because
+     * a row cannot be parsed, the baseline and the records already saved are deleted, so the
+     * import can be retried under the same name.
+     *
+     * @param baselineName
+     *            name applied to baseline
+     * @param in
+     *            is input stream containing IMA baseline records. It is closed by this
+     *            method.
+     * @param baselineManager
+     *            manager used to save the baseline
+     * @param recordManager
+     *            manager used to save the records of the baseline
+     * @return the saved baseline
+     * @throws IOException
+     *             if error encountered reading data from input stream
+     * @throws IMABaselineGeneratorException
+     *             if a row cannot be parsed, or the baseline or its records cannot be saved
+     */
+    public final SimpleImaBaseline generateBaselineFromCSVFile(
+            final String baselineName, final InputStream in,
+            final BaselineManager baselineManager,
+            final ImaBaselineRecordManager recordManager)
+            throws IOException, IMABaselineGeneratorException {
+        if (baselineName == null) {
+            LOGGER.error("null argument: baselineName");
+            throw new NullPointerException("baselineName");
+        }
+        if (in == null) {
+            LOGGER.error("null argument: in");
+            throw new NullPointerException("in");
+        }
+
+        final SimpleImaBaseline imaBaseline;
+        try {
+            imaBaseline = (SimpleImaBaseline) baselineManager.saveBaseline(
+                    new SimpleImaBaseline(baselineName));
+        } catch (BaselineManagerException e) {
+            throw new IMABaselineGeneratorException(e);
+        }
+
+        Set<IMABaselineRecord> batch = new LinkedHashSet<>(IMPORT_BATCH_SIZE);
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF8"))) {
+            String dataRow;
+            while ((dataRow = reader.readLine()) != null) {
+                IMABaselineRecord imaRecord = parseRow(dataRow);
+                if (imaRecord == null) {
+                    continue;
+                }
+                imaRecord.setBaselineForRecordManager(imaBaseline);
+                batch.add(imaRecord);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    count += saveBatch(recordManager, batch);
+                }
+            }
+            count += saveBatch(recordManager, batch);
+        } catch (IOException | IMABaselineGeneratorException | RuntimeException e) {
+            deleteImportedBaseline(imaBaseline, baselineManager, recordManager, e);
+            throw e;
+        }
+        LOGGER.debug("measurement baseline {} imported with {} records",
+                imaBaseline.getName(), count);
+        return imaBaseline;
+    }
+
+    /**
+     * Deletes a baseline whose import failed, along with the records already saved.  Errors
+     * while deleting are added to the import's error rather than replacing it.
+     *
+     * @param imaBaseline the baseline being imported
+     * @param baselineManager manager used to delete the baseline
+     * @param recordManager manager used to delete the records of the baseline
+     * @param cause the error that made the import fail
+     */
+    private static void deleteImportedBaseline(final SimpleImaBaseline imaBaseline,
+                                               final BaselineManager baselineManager,
+                                               final ImaBaselineRecordManager recordManager,
+                                               final Exception cause) {
+        LOGGER.error("import of measurement baseline {} failed, deleting it",
+                imaBaseline.getName());
+        try {
+            recordManager.deleteRecords(imaBaseline);
+            baselineManager.delete(imaBaseline);
+        } catch (RuntimeException e) {
+            LOGGER.error("unable to delete measurement baseline " + imaBaseline.getName(), e);
+            cause.addSuppressed(e);
+        }
+    }
+
     /**
      * Produces IMA baseline from IMA report. The method extracts the list of
      * IMA records from the trusted report then it uses each IMA report record
@@ -219,41 +334,76 @@ public class SimpleImaBaselineGenerator {
             throw new NullPointerException("in");
         }
 
-        String regex = "\"?(.*?)\"?,([a-fA-F0-9]{40})";
-        Pattern p = Pattern.compile(regex);
-
         BufferedReader reader = new BufferedReader(new InputStreamReader(
                 inStream, "UTF8"));
         String dataRow;
 
         while ((dataRow = reader.readLine()) != null) {
-            if (StringUtils.isBlank(dataRow)) {
-                continue;
-            }
-            Matcher m = p.matcher(dataRow);
-            if (!m.matches() || m.groupCount() != 2) {
-                final String msg = "row does not match regex: " + dataRow;
-                LOGGER.error(msg);
-                throw new IMABaselineGeneratorException(msg);
-            }
-
-            String path = m.group(1);
-            path = path.replace("\"\"", "\"");
-
-            try {
-                final byte[] hash = Hex.decodeHex(m.group(2).toCharArray());
-                final Digest digest = new Digest(DigestAlgorithm.SHA1, hash);
-                final IMABaselineRecord imaRecord = new IMABaselineRecord(path,
-                        digest);
+            final IMABaselineRecord imaRecord = parseRow(dataRow);
+            if (imaRecord != null) {
                 baseline.addToBaseline(imaRecord);
                 final String msg = String.format("added record %s", imaRecord);
                 LOGGER.debug(msg);
-            } catch (DecoderException e) {
-                String msg = "File " + path + " has invalid hash sting.  "
-                        + "Record not added to baseline";
-                LOGGER.error(msg, e);
             }
         }
         reader.close();
     }
+
+    /**
+     * Parses a row of a .csv file containing IMA baseline records.
+     *
+     * @param dataRow the row
+     * @return the record, or null if the row is blank or its hash cannot be decoded
+     * @throws IMABaselineGeneratorException if the row is not a path and a SHA1 hash
+     */
+    private static IMABaselineRecord parseRow(final String dataRow)
+            throws IMABaselineGeneratorException {
+        if (StringUtils.isBlank(dataRow)) {
+            return null;
+        }
+        Matcher m = CSV_ROW_PATTERN.matcher(dataRow);
+        if (!m.matches() || m.groupCount() != 2) {
+            final String msg = "row does not match regex: " + dataRow;
+            LOGGER.error(msg);
+            throw new IMABaselineGeneratorException(msg);
+        }
+
+        String path = m.group(1);
+        path = path.replace("\"\"", "\"");
+
+        try {
+            final byte[] hash = Hex.decodeHex(m.group(2).toCharArray());
+            final Digest digest = new Digest(DigestAlgorithm.SHA1, hash);
+            return new IMABaselineRecord(path, digest);
+        } catch (DecoderException e) {
+            String msg = "File " + path + " has invalid hash sting.  "
+                    + "Record not added to baseline";
+            LOGGER.error(msg, e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a chunk of records in one transaction and clears it.
+     *
+     * @param recordManager manager used to save the records
+     * @param batch the records to save
+     * @return the number of records saved, not counting those already in the baseline
+     * @throws IMABaselineGeneratorException if the records cannot be saved
+     */
+    private static int saveBatch(final ImaBaselineRecordManager recordManager,
+                                 final Set<IMABaselineRecord> batch)
+            throws IMABaselineGeneratorException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        final int saved;
+        try {
+            saved = recordManager.saveRecords(batch);
+        } catch (ImaBaselineRecordManagerException e) {
+            throw new IMABaselineGeneratorException(e);
+        }
+        batch.clear();
+        return saved;
+    }
 }
@@ -14,6 +14,7 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.annotations.Cache;
 import org.hibernate.criterion.Conjunction;
 import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.Criterion;
@@ -22,6 +23,7 @@ import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.internal.SessionFactoryImpl;
 
 import javax.persistence.Column;
@@ -57,6 +59,7 @@ public abstract class AbstractDbManager<T> implements CrudManager<T> {
 
     private static final Logger LOGGER = LogManager.getLogger(AbstractDbManager.class);
     private static final int MAX_CLASS_CACHE_ENTRIES = 500;
+    private static final int DEFAULT_SAVE_BATCH_SIZE = 50;
 
     private final Class<T> clazz;
 
@@ -118,6 +121,32 @@ public abstract class AbstractDbManager<T> implements CrudManager<T> {
         return fields;
     }
 
+    /**
+     * Whether the entities of a class are held in the second-level cache, in which case the
+     * queries over them are cached as well. The query cache is only used when it is enabled in
+     * the session factory.
+     */
+    private static final LoadingCache<Class, Boolean> CACHEABLE_CLASSES =
+            CacheBuilder.newBuilder()
+                    .maximumSize(MAX_CLASS_CACHE_ENTRIES)
+                    .build(
+                            new CacheLoader<Class, Boolean>() {
+                                @Override
+                                public Boolean load(final Class clazz) throws Exception {
+                                    return isCacheable(clazz);
+                                }
+                            }
+                    );
+
+    private static boolean isCacheable(final Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            if (c.isAnnotationPresent(Cache.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static final LoadingCache<Class, Set<Field>> LAZY_LOADED_FIELDS =
             CacheBuilder.newBuilder()
                     .maximumSize(MAX_CLASS_CACHE_ENTRIES)
@@ -382,7 +411,8 @@ public abstract class AbstractDbManager<T> implements CrudManager<T> {
         try {
             LOGGER.debug("retrieving criteria from db");
             tx = session.beginTransaction();
-            Criteria criteria = session.createCriteria(clazzToGet);
+            Criteria criteria = session.createCriteria(clazzToGet)
+                    .setCacheable(CACHEABLE_CLASSES.getUnchecked(clazzToGet));
             for (Criterion crit : criteriaCollection) {
                 criteria.add(crit);
             }
@@ -443,6 +473,98 @@ public abstract class AbstractDbManager<T> implements CrudManager<T> {
         }
     }
 
+    /**
+     * Saves the given objects in the database in a single transaction. The inserts are sent to
+     * the database in JDBC batches when <code>hibernate.jdbc.batch_size</code> is set, unless the
+     * IDs of the entities are generated by the database (IDENTITY, which is what AUTO means with
+     * the MySQL dialect), in which case Hibernate inserts them one row at a time. The session
+     * is flushed and cleared after every <code>hibernate.jdbc.batch_size</code> objects so that
+     * it does not hold every object.
+     *
+     * @param objects objects to save
+     * @throws DBManagerException if an object has previously been saved or an
+     * error occurs while trying to save them to the database
+     */
+    protected void doSaveAll(final Collection<? extends T> objects) throws DBManagerException {
+        LOGGER.debug("saving {} objects", objects.size());
+        int batchSize = getBatchSize();
+        Transaction tx = null;
+        Session session = factory.getCurrentSession();
+        try {
+            LOGGER.debug("saving objects in db");
+            tx = session.beginTransaction();
+            int count = 0;
+            for (T object : objects) {
+                if (object == null) {
+                    throw new NullPointerException("object");
+                }
+                session.save(object);
+                if (++count % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            tx.commit();
+        } catch (Exception e) {
+            final String msg = "unable to save objects";
+            LOGGER.error(msg, e);
+            if (tx != null) {
+                LOGGER.debug("rolling back transaction");
+                tx.rollback();
+            }
+            throw new DBManagerException(msg, e);
+        }
+    }
+
+    /**
+     * Updates the given objects stored in the database in a single transaction. The updates
+     * are batched the same way as the inserts of {@link #doSaveAll(Collection)}.
+     *
+     * @param objects objects to update
+     * @throws DBManagerException if unable to update the records
+     */
+    protected void doUpdateAll(final Collection<? extends T> objects) throws DBManagerException {
+        LOGGER.debug("updating {} objects", objects.size());
+        int batchSize = getBatchSize();
+        Transaction tx = null;
+        Session session = factory.getCurrentSession();
+        try {
+            LOGGER.debug("updating objects in db");
+            tx = session.beginTransaction();
+            int count = 0;
+            for (T object : objects) {
+                if (object == null) {
+                    throw new NullPointerException("object");
+                }
+                session.merge(object);
+                if (++count % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            tx.commit();
+        } catch (Exception e) {
+            final String msg = "unable to update objects";
+            LOGGER.error(msg, e);
+            if (tx != null) {
+                LOGGER.debug("rolling back transaction");
+                tx.rollback();
+            }
+            throw new DBManagerException(msg, e);
+        }
+    }
+
+    private int getBatchSize() {
+        if (factory instanceof SessionFactoryImplementor) {
+            int jdbcBatchSize = ((SessionFactoryImplementor) factory).getSettings()
+                    .getJdbcBatchSize();
+            if (jdbcBatchSize > 0) {
+                return jdbcBatchSize;
+            }
+        }
+        return DEFAULT_SAVE_BATCH_SIZE;
+    }
+
     /**
      * Updates an object stored in the database. This updates the database
      * entries to reflect the new values that should be set.
@@ -498,7 +620,9 @@ public abstract class AbstractDbManager<T> implements CrudManager<T> {
             LOGGER.debug("retrieving " + clazz.toString() + " from db");
             tx = session.beginTransaction();
             T ret = clazz.cast(session.createCriteria(clazz)
-                    .add(Restrictions.eq("name", name)).uniqueResult());
+                    .add(Restrictions.eq("name", name))
+                    .setCacheable(CACHEABLE_CLASSES.getUnchecked(clazz))
+                    .uniqueResult());
             tx.commit();
             return ret;
         } catch (Exception e) {
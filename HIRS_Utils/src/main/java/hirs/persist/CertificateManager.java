@@ -32,6 +32,17 @@ public interface CertificateManager {
      */
     <T extends Certificate> Set<T> get(CertificateSelector certificateSelector);
 
+    /**
+     * Retrieve a value that changes whenever a Certificate of the given type is saved, archived,
+     * unarchived or deleted. Callers caching data derived from certificates can compare this
+     * value to detect that their cache is stale, including when another application modified the
+     * certificates.
+     *
+     * @param certificateClass the type of certificate to check
+     * @return the modification stamp for the certificates of the given type
+     */
+    String getModificationStamp(Class<? extends Certificate> certificateClass);
+
     /**
      * Delete the given Certificate.
      *
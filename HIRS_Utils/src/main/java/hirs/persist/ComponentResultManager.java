@@ -2,6 +2,7 @@ package hirs.persist;
 
 import hirs.data.persist.certificate.ComponentResult;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.UUID;
 
@@ -18,6 +19,13 @@ public interface ComponentResultManager extends OrderedListQuerier<ComponentResu
      */
     ComponentResult saveResult(ComponentResult componentResult);
 
+    /**
+     * Persists new Component Identifier Results in a single batched transaction.
+     *
+     * @param componentResults the ComponentResults
+     */
+    void saveResults(Collection<ComponentResult> componentResults);
+
     /**
      * Persists a new Component Identifier Result.
      *
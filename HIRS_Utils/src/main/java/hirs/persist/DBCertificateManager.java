@@ -3,9 +3,14 @@ package hirs.persist;
 import hirs.data.persist.certificate.Certificate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
 
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -59,6 +64,46 @@ public class DBCertificateManager extends DBManager<Certificate>
         );
     }
 
+    /**
+     * Computes the modification stamp from the number of certificates of the given type and the
+     * latest creation and archive times among them. Saving or unarchiving a certificate updates
+     * its creation time, archiving sets its archive time and deleting changes the count.
+     *
+     * @param certificateClass the type of certificate to check
+     * @return the modification stamp for the certificates of the given type
+     */
+    @Override
+    public String getModificationStamp(final Class<? extends Certificate> certificateClass) {
+        Object[] result;
+        Transaction tx = null;
+        Session session = getFactory().getCurrentSession();
+        try {
+            tx = session.beginTransaction();
+            result = (Object[]) session.createCriteria(certificateClass)
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.rowCount())
+                            .add(Projections.max("createTime"))
+                            .add(Projections.max(Certificate.ARCHIVE_FIELD)))
+                    .uniqueResult();
+            tx.commit();
+        } catch (HibernateException e) {
+            LOGGER.error("unable to retrieve certificate modification stamp", e);
+            if (tx != null) {
+                LOGGER.debug("rolling back transaction");
+                tx.rollback();
+            }
+            throw new DBManagerException(e);
+        }
+        return String.format("%s/%s/%s", result[0], timeOf(result[1]), timeOf(result[2]));
+    }
+
+    private static Long timeOf(final Object date) {
+        if (date instanceof Date) {
+            return ((Date) date).getTime();
+        }
+        return null;
+    }
+
     /**
      * Remove a certificate from the database.
      *
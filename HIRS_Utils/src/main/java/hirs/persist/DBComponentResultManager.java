@@ -8,6 +8,7 @@ import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.criterion.Restrictions;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -43,6 +44,17 @@ public class DBComponentResultManager extends DBManager<ComponentResult>
         }
     }
 
+    @Override
+    public void saveResults(final Collection<ComponentResult> componentResults) {
+        LOGGER.debug("saving {} component results", componentResults.size());
+
+        try {
+            saveAll(componentResults);
+        } catch (DBManagerException dbMEx) {
+            throw new RuntimeException(dbMEx);
+        }
+    }
+
     @Override
     public ComponentResult getResult(final ComponentResult componentResult) {
         LOGGER.debug("Getting record for {}", componentResult);
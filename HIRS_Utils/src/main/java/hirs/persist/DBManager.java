@@ -189,6 +189,24 @@ public class DBManager<T> extends AbstractDbManager<T> {
         });
     }
 
+    /**
+     * Saves the given objects in the database in a single transaction, which is retried as a
+     * whole. The inserts are not batched for entities whose IDs are generated by the database.
+     *
+     * @param objects objects to save
+     * @throws DBManagerException if an object has previously been saved or an
+     * error occurs while trying to save them to the database
+     */
+    public final void saveAll(final Collection<? extends T> objects) throws DBManagerException {
+        retryTemplate.execute(new RetryCallback<Void, DBManagerException>() {
+            @Override
+            public Void doWithRetry(final RetryContext context) throws DBManagerException {
+                doSaveAll(objects);
+                return null;
+            }
+        });
+    }
+
     /**
      * Updates an object stored in the database. This updates the database
      * entries to reflect the new values that should be set.
@@ -206,6 +224,23 @@ public class DBManager<T> extends AbstractDbManager<T> {
         });
     }
 
+    /**
+     * Updates the given objects stored in the database in a single transaction, batching the
+     * updates. The transaction is retried as a whole.
+     *
+     * @param objects objects to update
+     * @throws DBManagerException if an error occurs while trying to save them to the database
+     */
+    public final void updateAll(final Collection<? extends T> objects) throws DBManagerException {
+        retryTemplate.execute(new RetryCallback<Void, DBManagerException>() {
+            @Override
+            public Void doWithRetry(final RetryContext context) throws DBManagerException {
+                doUpdateAll(objects);
+                return null;
+            }
+        });
+    }
+
     /**
      * Retrieves the <code>Object</code> from the database. This searches the
      * database for an entry whose name matches <code>name</code>. It then
@@ -7,16 +7,20 @@ import hirs.data.persist.ReferenceManifest;
 import hirs.data.persist.SupportReferenceManifest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 
 /**
  * This class is used to persist and retrieve {@link hirs.data.persist.ReferenceDigestValue}s into
@@ -46,6 +50,31 @@ public class DBReferenceEventManager extends DBManager<ReferenceDigestValue>
         }
     }
 
+    @Override
+    public List<ReferenceDigestValue> saveValues(
+            final Collection<ReferenceDigestValue> referenceDigestValues,
+            final Collection<ReferenceDigestValue> existingValues) {
+        Set<List<Object>> eventKeys = new HashSet<>();
+        for (ReferenceDigestValue rdv : existingValues) {
+            eventKeys.add(getEventKey(rdv));
+        }
+        List<ReferenceDigestValue> newValues = new ArrayList<>();
+        for (ReferenceDigestValue rdv : referenceDigestValues) {
+            if (!eventKeys.contains(getEventKey(rdv))) {
+                newValues.add(rdv);
+            }
+        }
+
+        LOGGER.debug("saving {} of {} event digest values", newValues.size(),
+                referenceDigestValues.size());
+        try {
+            saveAll(newValues);
+        } catch (DBManagerException dbMEx) {
+            throw new RuntimeException(dbMEx);
+        }
+        return newValues;
+    }
+
     @Override
     public ReferenceDigestValue getValue(final ReferenceDigestValue referenceDigestValue) {
         LOGGER.debug("Getting record for {}", referenceDigestValue);
@@ -254,26 +283,67 @@ public class DBReferenceEventManager extends DBManager<ReferenceDigestValue>
             throw new NullPointerException("null referenceManifest ID");
         }
 
-        List<ReferenceDigestValue> dbDigestValues = new ArrayList<>();
-        UUID uuid = referenceManifest.getId();
-        UUID rdvUuid = UUID.randomUUID();
+        String rimField;
+        if (referenceManifest instanceof BaseReferenceManifest) {
+            rimField = "baseRimId";
+        } else if (referenceManifest instanceof SupportReferenceManifest) {
+            rimField = "supportRimId";
+        } else {
+            return new ArrayList<>();
+        }
+
         try {
-            final List<ReferenceDigestValue> dbTempList
-                    = super.getList(ReferenceDigestValue.class);
-            for (ReferenceDigestValue rdv : dbTempList) {
-                if (referenceManifest instanceof BaseReferenceManifest) {
-                    rdvUuid = rdv.getBaseRimId();
-                } else if (referenceManifest instanceof SupportReferenceManifest) {
-                    rdvUuid = rdv.getSupportRimId();
-                }
-                if (rdvUuid.equals(uuid)) {
-                    dbDigestValues.add(rdv);
-                }
-            }
+            return super.getList(ReferenceDigestValue.class,
+                    Restrictions.eq(rimField, referenceManifest.getId()));
         } catch (DBManagerException dbMEx) {
             throw new RuntimeException(dbMEx);
         }
-        return dbDigestValues;
+    }
+
+    @Override
+    public String getModificationStamp(final ReferenceManifest referenceManifest) {
+        if (referenceManifest == null || referenceManifest.getId() == null) {
+            LOGGER.error("null referenceManifest argument");
+            throw new NullPointerException("null referenceManifest");
+        }
+
+        String rimField = "supportRimId";
+        if (referenceManifest instanceof BaseReferenceManifest) {
+            rimField = "baseRimId";
+        }
+
+        Object[] result;
+        Transaction tx = null;
+        Session session = getFactory().getCurrentSession();
+        try {
+            tx = session.beginTransaction();
+            result = (Object[]) session.createCriteria(ReferenceDigestValue.class)
+                    .add(Restrictions.eq(rimField, referenceManifest.getId()))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.rowCount())
+                            .add(Projections.count("archivedTime"))
+                            .add(Projections.max("createTime"))
+                            .add(Projections.max("archivedTime")))
+                    .uniqueResult();
+            tx.commit();
+        } catch (HibernateException e) {
+            LOGGER.error("unable to retrieve digest value modification stamp", e);
+            if (tx != null) {
+                LOGGER.debug("rolling back transaction");
+                tx.rollback();
+            }
+            throw new DBManagerException(e);
+        }
+        StringBuilder stamp = new StringBuilder();
+        for (Object value : result) {
+            if (value instanceof Date) {
+                stamp.append(((Date) value).getTime());
+            } else {
+                stamp.append(value);
+            }
+            stamp.append('/');
+        }
+        return stamp.toString();
     }
 
     @Override
@@ -308,6 +378,15 @@ public class DBReferenceEventManager extends DBManager<ReferenceDigestValue>
         }
     }
 
+    @Override
+    public void updateEvents(final Collection<ReferenceDigestValue> referenceDigestValues) {
+        try {
+            super.updateAll(referenceDigestValues);
+        } catch (DBManagerException dbMEx) {
+            throw new RuntimeException(dbMEx);
+        }
+    }
+
     @Override
     public boolean deleteEvent(final ReferenceDigestValue referenceDigestValue) {
         boolean result;
@@ -320,4 +399,17 @@ public class DBReferenceEventManager extends DBManager<ReferenceDigestValue>
         }
         return result;
     }
+
+    /**
+     * Returns the key identifying the event a value was measured from, by which values already
+     * stored for the same support RIM are detected.
+     *
+     * @param referenceDigestValue the value
+     * @return the support RIM, digest, PCR index and event type of the value
+     */
+    private static List<Object> getEventKey(final ReferenceDigestValue referenceDigestValue) {
+        return Arrays.asList(referenceDigestValue.getSupportRimId(),
+                referenceDigestValue.getDigestValue(), referenceDigestValue.getPcrIndex(),
+                referenceDigestValue.getEventType());
+    }
 }
@@ -7,14 +7,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.io.InputStream;
-import java.io.IOException;
-import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import hirs.utils.ReferenceManifestXml;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.xml.sax.SAXException;
 
 /**
  * This class is used to persist and retrieve {@link ReferenceManifest}s into
@@ -30,8 +27,6 @@ public class DBReferenceManifestManager extends DBManager<ReferenceManifest>
     public static final SchemaFactory SCHEMA_FACTORY
             = SchemaFactory.newInstance(ReferenceManifest.SCHEMA_LANGUAGE);
 
-    private static Schema schema;
-
     /**
      * Default Constructor.
      *
@@ -39,39 +34,15 @@ public class DBReferenceManifestManager extends DBManager<ReferenceManifest>
      */
     public DBReferenceManifestManager(final SessionFactory sessionFactory) {
         super(ReferenceManifest.class, sessionFactory);
-        getSchemaObject();
     }
 
     /**
-     * This method sets the xml schema for processing RIMs.
+     * This method returns the xml schema for processing RIMs.
      *
      * @return the schema
      */
     public static final Schema getSchemaObject() {
-        if (schema == null) {
-            InputStream is = null;
-            try {
-                is = ReferenceManifest.class
-                        .getClassLoader()
-                        .getResourceAsStream(ReferenceManifest.SCHEMA_URL);
-                schema = SCHEMA_FACTORY.newSchema(new StreamSource(is));
-            } catch (SAXException saxEx) {
-                LOGGER.error(String.format("Error setting schema for validation!%n%s",
-                    saxEx.getMessage()));
-            } finally {
-                if (is != null) {
-                    try {
-                        is.close();
-                    } catch (IOException ioEx) {
-                        LOGGER.error(String.format("Error closing input stream%n%s",
-                                ioEx.getMessage()));
-                    }
-                } else {
-                    LOGGER.error("Input stream variable is null");
-                }
-            }
-        }
-        return schema;
+        return ReferenceManifestXml.getSchema();
     }
 
     /**
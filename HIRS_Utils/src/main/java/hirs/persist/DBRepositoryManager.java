@@ -1,19 +1,29 @@
 package hirs.persist;
 
+import hirs.data.persist.Digest;
+import hirs.data.persist.baseline.IMABaselineRecord;
+import hirs.repository.PackageFileMeasurement;
 import hirs.repository.RepoPackage;
 import hirs.repository.Repository;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Restrictions;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
- * This class defines a {@link RepositoryManager} that stores Repositories and RepoPackages
- * in a database.
+ * This class defines a {@link RepositoryManager} that stores Repositories, RepoPackages and the
+ * cached measurements of package files in a database.
  */
 public class DBRepositoryManager implements RepositoryManager {
     private final DBManager<Repository> repositoryDBManager;
     private final DBManager<RepoPackage> repoPackageDBManager;
+    private final DBManager<PackageFileMeasurement> fileMeasurementDBManager;
 
     /**
      * Creates a new <code>DBRepositoryManager</code> that uses the default
@@ -25,6 +35,7 @@ public class DBRepositoryManager implements RepositoryManager {
         super();
         repositoryDBManager = new DBManager<>(Repository.class, sessionFactory);
         repoPackageDBManager = new DBManager<>(RepoPackage.class, sessionFactory);
+        fileMeasurementDBManager = new DBManager<>(PackageFileMeasurement.class, sessionFactory);
     }
 
     /**
@@ -122,6 +133,50 @@ public class DBRepositoryManager implements RepositoryManager {
         return repoPackageDBManager.save(repoPackage);
     }
 
+    /**
+     * Retrieves the cached measurements of the files of a package file.
+     *
+     * @param packageMeasurement the measurement of the package file itself
+     * @return the records of the package's files, or an empty set if none are cached
+     */
+    @Override
+    public final Set<IMABaselineRecord> getCachedPackageRecords(final Digest packageMeasurement) {
+        Set<IMABaselineRecord> records = new HashSet<>();
+        for (PackageFileMeasurement measurement : getCachedMeasurements(packageMeasurement)) {
+            records.add(new IMABaselineRecord(measurement.getPath(),
+                    measurement.getFileDigest()));
+        }
+        return records;
+    }
+
+    /**
+     * Stores the measurements of the files of a package file, unless measurements are already
+     * cached for it.  The measurements are saved in a single transaction.
+     *
+     * @param packageMeasurement the measurement of the package file itself
+     * @param packageRecords the records of the package's files
+     */
+    @Override
+    public final void cachePackageRecords(final Digest packageMeasurement,
+                                          final Set<IMABaselineRecord> packageRecords) {
+        if (packageRecords.isEmpty() || !getCachedMeasurements(packageMeasurement).isEmpty()) {
+            return;
+        }
+
+        List<PackageFileMeasurement> measurements = new ArrayList<>(packageRecords.size());
+        for (IMABaselineRecord record : packageRecords) {
+            measurements.add(new PackageFileMeasurement(packageMeasurement, record.getPath(),
+                    record.getHash()));
+        }
+        fileMeasurementDBManager.saveAll(measurements);
+    }
+
+    private List<PackageFileMeasurement> getCachedMeasurements(final Digest packageMeasurement) {
+        Criterion criterion = Restrictions.eq(PackageFileMeasurement.PACKAGE_DIGEST_FIELD,
+                PackageFileMeasurement.toKey(packageMeasurement));
+        return fileMeasurementDBManager.getWithCriteria(Collections.singleton(criterion));
+    }
+
     /**
      * Sets the retry template for the underlying managers.
      * @param maxTransactionRetryAttempts the max retry attempts
@@ -133,5 +188,7 @@ public class DBRepositoryManager implements RepositoryManager {
                 retryWaitTimeMilliseconds);
         this.repositoryDBManager.setRetryTemplate(maxTransactionRetryAttempts,
                 retryWaitTimeMilliseconds);
+        this.fileMeasurementDBManager.setRetryTemplate(maxTransactionRetryAttempts,
+                retryWaitTimeMilliseconds);
     }
 }
@@ -0,0 +1,63 @@
+package hirs.persist;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Restrictions;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * {@link TPM2ProvisionerStateStore} that persists state in the database. State stored here is
+ * visible to every ACA instance that shares the database.
+ */
+public class DBTPM2ProvisionerStateStore implements TPM2ProvisionerStateStore {
+    private static final Logger LOGGER = LogManager.getLogger(DBTPM2ProvisionerStateStore.class);
+
+    private final DBManager<TPM2ProvisionerState> dbManager;
+
+    /**
+     * Constructor.
+     *
+     * @param dbManager the {@link DBManager} used to persist provisioner state
+     */
+    public DBTPM2ProvisionerStateStore(final DBManager<TPM2ProvisionerState> dbManager) {
+        if (dbManager == null) {
+            throw new IllegalArgumentException("dbManager cannot be null");
+        }
+        this.dbManager = dbManager;
+    }
+
+    @Override
+    public void save(final TPM2ProvisionerState state) {
+        dbManager.save(state);
+    }
+
+    @Override
+    public TPM2ProvisionerState get(final byte[] nonce) {
+        return TPM2ProvisionerState.getTPM2ProvisionerState(dbManager, nonce);
+    }
+
+    @Override
+    public void delete(final TPM2ProvisionerState state) {
+        dbManager.delete(state);
+    }
+
+    @Override
+    public int deleteOlderThan(final Date cutoff) {
+        List<Criterion> criteria = Collections.singletonList(
+                (Criterion) Restrictions.lt("timestamp", cutoff));
+        int deleted = 0;
+        for (TPM2ProvisionerState state : dbManager.getWithCriteria(criteria)) {
+            if (dbManager.delete(state)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            LOGGER.info(String.format("Removed %d expired TPM2 provisioner states", deleted));
+        }
+        return deleted;
+    }
+}
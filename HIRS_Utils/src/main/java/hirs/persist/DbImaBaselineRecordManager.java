@@ -6,9 +6,8 @@ import hirs.data.persist.OptionalDigest;
 import hirs.data.persist.baseline.QueryableRecordImaBaseline;
 import hirs.data.persist.baseline.SimpleImaBaseline;
 
+import com.google.common.collect.Lists;
 import hirs.utils.Callback;
-import hirs.utils.Job;
-import hirs.utils.JobExecutor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hibernate.Criteria;
@@ -19,16 +18,30 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.transform.Transformers;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -40,6 +53,9 @@ public class DbImaBaselineRecordManager extends DBManager<IMABaselineRecord>
     private static final Logger LOGGER =
             LogManager.getLogger(DbImaBaselineRecordManager.class);
     private static final int LOGGING_INTERVAL = 500;
+    private static final int MAX_IN_PARAMETERS = 1000;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+    private static final ExecutorService ITERATION_EXECUTOR = createIterationExecutor();
 
     /**
      * Creates a new <code>DBImaBaselineRecordManager</code> that uses the default
@@ -94,6 +110,93 @@ public class DbImaBaselineRecordManager extends DBManager<IMABaselineRecord>
         }
     }
 
+    /**
+     * Stores new <code>IMABaselineRecord</code>s in a single transaction.  The records are
+     * inserted one row at a time: their IDs are generated by the database, which keeps
+     * Hibernate from batching the inserts.  Each record must have its baseline set.  Records already stored in their baseline, and
+     * duplicates within the given records, are skipped.  Stored records are found by the
+     * partial path hashes of the given records, so only records that may match are read.
+     *
+     * @param records
+     *            records to save
+     * @return the number of records saved
+     * @throws ImaBaselineRecordManagerException
+     *             if a record has no baseline or the records cannot be saved
+     */
+    @Override
+    public int saveRecords(final Collection<IMABaselineRecord> records)
+            throws ImaBaselineRecordManagerException {
+        LOGGER.debug("saving {} ima baseline records", records.size());
+        Map<UUID, Set<Integer>> partialPathHashes = new HashMap<>();
+        for (IMABaselineRecord record : records) {
+            if (record == null || record.getBaseline() == null) {
+                throw new ImaBaselineRecordManagerException("Record cannot be saved without"
+                        + " setting baseline.");
+            }
+            partialPathHashes.computeIfAbsent(record.getBaseline().getId(),
+                    k -> new HashSet<>()).add(IMABaselineRecord.getPartialPathHash(
+                            record.getPath()));
+        }
+
+        try {
+            Map<UUID, Set<IMABaselineRecord>> storedRecords = new HashMap<>();
+            for (Map.Entry<UUID, Set<Integer>> e : partialPathHashes.entrySet()) {
+                storedRecords.put(e.getKey(), getStoredRecords(e.getKey(), e.getValue()));
+            }
+
+            List<IMABaselineRecord> newRecords = new ArrayList<>();
+            for (IMABaselineRecord record : records) {
+                // the stored records of each baseline also collect the new ones
+                if (storedRecords.get(record.getBaseline().getId()).add(record)) {
+                    newRecords.add(record);
+                }
+            }
+            LOGGER.debug("saving {} new ima baseline records", newRecords.size());
+            super.saveAll(newRecords);
+            return newRecords.size();
+        } catch (HibernateException | DBManagerException e) {
+            throw new ImaBaselineRecordManagerException(e);
+        }
+    }
+
+    /**
+     * Deletes all of the <code>IMABaselineRecord</code>s of the given baseline with a single
+     * statement, without loading them.
+     *
+     * @param baseline
+     *            the baseline whose records are deleted
+     * @return the number of records deleted
+     * @throws ImaBaselineRecordManagerException
+     *             if the records cannot be deleted
+     */
+    @Override
+    public int deleteRecords(final SimpleImaBaseline baseline)
+            throws ImaBaselineRecordManagerException {
+        if (baseline == null || baseline.getId() == null) {
+            throw new ImaBaselineRecordManagerException("baseline not set");
+        }
+        LOGGER.debug("deleting records of ima baseline: {}", baseline.getId());
+
+        Transaction tx = null;
+        Session session = getFactory().getCurrentSession();
+        try {
+            tx = session.beginTransaction();
+            int count = session.createQuery(
+                    "delete from IMABaselineRecord r where r.baseline.id = :baselineId")
+                    .setParameter("baselineId", baseline.getId())
+                    .executeUpdate();
+            tx.commit();
+            return count;
+        } catch (HibernateException e) {
+            LOGGER.error("Unable to delete records", e);
+            if (tx != null) {
+                LOGGER.debug("Rolling back transaction");
+                tx.rollback();
+            }
+            throw new ImaBaselineRecordManagerException(e);
+        }
+    }
+
     /**
      * Retrieves an <code>IMABaselineRecord</code> based on the id of the record.
      *
@@ -242,103 +345,298 @@ public class DbImaBaselineRecordManager extends DBManager<IMABaselineRecord>
      * @param <T>         the return type of the callback
      * @return the total collection of objects returned as results from the given Callback
      */
+    @Override
     public final <T> Collection<T> iterateOverBaselineRecords(
             final QueryableRecordImaBaseline baseline,
             final Callback<IMABaselineRecord, T> callback) {
-        final Collection<T> allResults = new ConcurrentLinkedQueue<>();
-        Collection<Callable<Void>> tasks = new ArrayList<>();
-
-        int fetchSize;
-        switch (getConfiguredImplementation()) {
-            case MYSQL:
-                fetchSize = Integer.MIN_VALUE;
-                break;
-            case HSQL:
-            default:
-                fetchSize = 1;
+        Map<Integer, Set<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < IMABaselineRecord.FILENAME_HASH_BUCKET_COUNT; i++) {
+            buckets.put(i, null);
         }
+        return iterateOverBuckets(baseline, buckets, callback);
+    }
 
-        DBImpl impl = getConfiguredImplementation();
-        if (impl == DBImpl.MYSQL) {
-            // provides a hint to the JDBC connector that records should be streamed
-            fetchSize = Integer.MIN_VALUE;
-        } else if (impl == DBImpl.HSQL) {
-            fetchSize = 1;
+    /**
+     * Iterates over the {@link IMABaselineRecord}s in the given baseline that may match any of the
+     * given paths, and calls the given Callback on each record.  The records are selected by the
+     * database using their bucket and partial path hash, so only the buckets holding one of the
+     * paths are queried and none of the other records are read.
+     *
+     * @param baseline    the baseline whose {@link IMABaselineRecord}s we should iterate over
+     * @param paths       the full or partial paths the records may match
+     * @param callback    the callback to run on each record
+     * @param <T>         the return type of the callback
+     * @return the total collection of objects returned as results from the given Callback
+     */
+    @Override
+    public final <T> Collection<T> iterateOverBaselineRecords(
+            final QueryableRecordImaBaseline baseline,
+            final Collection<String> paths,
+            final Callback<IMABaselineRecord, T> callback) {
+        Map<Integer, Set<Integer>> buckets = new HashMap<>();
+        for (String path : paths) {
+            buckets.computeIfAbsent(IMABaselineRecord.getBucket(path), k -> new HashSet<>())
+                    .add(IMABaselineRecord.getPartialPathHash(path));
         }
+        return iterateOverBuckets(baseline, buckets, callback);
+    }
 
+    /**
+     * Iterates over the {@link IMABaselineRecord}s of the <code>SimpleImaBaseline</code> with
+     * the given id, and calls the given Callback on each record.  Only the path and hash of the
+     * records are selected, and they are scrolled through in a stateless session, so neither
+     * the baseline nor the records are held in memory.
+     *
+     * @param baselineId  the id of the <code>SimpleImaBaseline</code>
+     * @param callback    the callback to run on each record
+     * @param <T>         the return type of the callback
+     * @return the total collection of objects returned as results from the given Callback
+     */
+    @Override
+    public final <T> Collection<T> iterateOverBaselineRecords(
+            final UUID baselineId,
+            final Callback<IMABaselineRecord, T> callback) {
+        List<T> results = new LinkedList<>();
+        int count = 0;
+        StatelessSession statelessSession = getStatelessSession();
+        try {
+            Transaction tx = statelessSession.beginTransaction();
+            Criteria criteria = statelessSession.createCriteria(IMABaselineRecord.class)
+                    .add(Restrictions.eq("baseline.id", baselineId))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.property(IMABaselineRecord.PATH_FIELD),
+                                    IMABaselineRecord.PATH_FIELD)
+                            .add(Projections.property(IMABaselineRecord.HASH_FIELD),
+                                    IMABaselineRecord.HASH_FIELD));
+            criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
+            criteria.setReadOnly(true);
+            criteria.setFetchSize(getFetchSize());
+            ScrollableResults records = criteria.scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                Map entry;
+                while (!callback.isDone() && records.next()) {
+                    entry = (Map) records.get(0);
+                    String path = (String) entry.get(IMABaselineRecord.PATH_FIELD);
+                    OptionalDigest digest =
+                            (OptionalDigest) entry.get(IMABaselineRecord.HASH_FIELD);
+                    T result = callback.call(new IMABaselineRecord(path, digest.asDigest()));
+                    if (result != null) {
+                        results.add(result);
+                    }
+                    if (++count % LOGGING_INTERVAL == 0) {
+                        LOGGER.debug("IMA record iteration: examined {} records", count);
+                    }
+                }
+            } finally {
+                records.close();
+            }
+            tx.commit();
+        } finally {
+            statelessSession.close();
+        }
+        return results;
+    }
+
+    /**
+     * Reads the records of the given buckets in parallel, one task per bucket.  A bucket mapped
+     * to null is read in full, otherwise only the records with the partial path hashes it is
+     * mapped to are read.  Iteration stops early once the callback is done or any task fails.
+     */
+    private <T> Collection<T> iterateOverBuckets(
+            final QueryableRecordImaBaseline baseline,
+            final Map<Integer, Set<Integer>> buckets,
+            final Callback<IMABaselineRecord, T> callback) {
+        final Collection<T> allResults = new ConcurrentLinkedQueue<>();
         final AtomicInteger recCounter = new AtomicInteger();
-        for (int i = 0; i < IMABaselineRecord.FILENAME_HASH_BUCKET_COUNT; i++) {
-            final int bucket = i;
-            final int finalFetchSize = fetchSize;
+        final AtomicBoolean stop = new AtomicBoolean();
+        final int fetchSize = getFetchSize();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (final Map.Entry<Integer, Set<Integer>> bucket : buckets.entrySet()) {
             tasks.add(new Callable<Void>() {
                 @Override
                 public Void call() throws Exception {
-                    LOGGER.debug(String.format(
-                            "IMA record iteration: starting examiner thread %d",
-                            bucket
-                    ));
+                    LOGGER.debug("IMA record iteration: starting examiner for bucket {}",
+                            bucket.getKey());
                     List<T> results = new LinkedList<>();
-
-                    StatelessSession statelessSession = getStatelessSession();
                     try {
-                        Transaction tx = statelessSession.beginTransaction();
-                        Criteria criteria = statelessSession.createCriteria(baseline.getClass());
-                        baseline.configureCriteriaForBaselineRecords(criteria, bucket);
-                        criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
-                        criteria.setReadOnly(true);
-                        criteria.setFetchSize(finalFetchSize);
-                        ScrollableResults records = criteria.scroll(ScrollMode.FORWARD_ONLY);
-
-                        Map entry;
-                        IMABaselineRecord baselineRecord;
-                        while (records.next()) {
-                            // get(0) guarantees other rows won't be initialized
-                            entry = (Map) records.get(0);
-                            String path = (String) entry.get(IMABaselineRecord.PATH_FIELD);
-                            OptionalDigest digest =
-                                    (OptionalDigest) entry.get(IMABaselineRecord.HASH_FIELD);
-                            baselineRecord = new IMABaselineRecord(path, digest.asDigest());
-                            T result = callback.call(baselineRecord);
-                            if (result != null) {
-                                results.add(result);
-                            }
-                            int count = recCounter.incrementAndGet();
-                            if (count % LOGGING_INTERVAL == 0) {
-                                LOGGER.debug(String.format(
-                                        "IMA record iteration: examined %d records", count
-                                ));
+                        for (Collection<Integer> hashes : partition(bucket.getValue())) {
+                            if (stop.get()) {
+                                break;
                             }
+                            iterateOverBucket(baseline, bucket.getKey(), hashes, fetchSize,
+                                    callback, results, recCounter, stop);
                         }
-                        tx.commit();
                     } catch (Exception e) {
+                        stop.set(true);
                         throw e;
-                    } finally {
-                        statelessSession.close();
                     }
-
                     allResults.addAll(results);
                     return null;
                 }
             });
         }
 
-        JobExecutor executor = new JobExecutor();
-        Job<Void> job = new Job<>(tasks);
-        executor.scheduleJob(job);
-
+        List<Future<Void>> futures;
         try {
-            executor.shutdown();
+            futures = ITERATION_EXECUTOR.invokeAll(tasks);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new DBManagerException(e);
         }
 
-        if (job.getState() != Job.State.COMPLETED) {
-            LOGGER.error("Appraisal job finished in state {}", job.getState().toString());
-            for (String s : job.getAllFailures()) {
-                throw new DBManagerException(s);
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DBManagerException(e);
+            } catch (ExecutionException e) {
+                LOGGER.error("IMA record iteration failed", e.getCause());
+                throw new DBManagerException(e.getCause());
             }
         }
 
         return allResults;
     }
+
+    /**
+     * Scrolls through the records of one bucket, restricted to the given partial path hashes
+     * unless they are null, and collects the results of the callback.
+     */
+    @SuppressWarnings("ParameterNumberCheck")
+    private <T> void iterateOverBucket(
+            final QueryableRecordImaBaseline baseline, final int bucket,
+            final Collection<Integer> partialPathHashes, final int fetchSize,
+            final Callback<IMABaselineRecord, T> callback, final List<T> results,
+            final AtomicInteger recCounter, final AtomicBoolean stop) {
+        StatelessSession statelessSession = getStatelessSession();
+        try {
+            Transaction tx = statelessSession.beginTransaction();
+            Criteria criteria = statelessSession.createCriteria(baseline.getClass());
+            baseline.configureCriteriaForBaselineRecords(criteria, bucket);
+            if (partialPathHashes != null) {
+                baseline.restrictCriteriaToPartialPathHashes(criteria, partialPathHashes);
+            }
+            criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
+            criteria.setReadOnly(true);
+            criteria.setFetchSize(fetchSize);
+            ScrollableResults records = criteria.scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                Map entry;
+                IMABaselineRecord baselineRecord;
+                while (!stop.get() && records.next()) {
+                    // get(0) guarantees other rows won't be initialized
+                    entry = (Map) records.get(0);
+                    String path = (String) entry.get(IMABaselineRecord.PATH_FIELD);
+                    OptionalDigest digest =
+                            (OptionalDigest) entry.get(IMABaselineRecord.HASH_FIELD);
+                    baselineRecord = new IMABaselineRecord(path, digest.asDigest());
+                    T result = callback.call(baselineRecord);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                    if (callback.isDone()) {
+                        stop.set(true);
+                    }
+                    int count = recCounter.incrementAndGet();
+                    if (count % LOGGING_INTERVAL == 0) {
+                        LOGGER.debug("IMA record iteration: examined {} records", count);
+                    }
+                }
+            } finally {
+                records.close();
+            }
+            tx.commit();
+        } finally {
+            statelessSession.close();
+        }
+    }
+
+    /**
+     * Reads the path and hash of the records of the given baseline with one of the given
+     * partial path hashes.
+     */
+    private Set<IMABaselineRecord> getStoredRecords(final UUID baselineId,
+                                                    final Set<Integer> partialPathHashes) {
+        Set<IMABaselineRecord> storedRecords = new HashSet<>();
+        StatelessSession statelessSession = getStatelessSession();
+        try {
+            Transaction tx = statelessSession.beginTransaction();
+            for (Collection<Integer> hashes : partition(partialPathHashes)) {
+                Criteria criteria = statelessSession.createCriteria(IMABaselineRecord.class)
+                        .add(Restrictions.eq("baseline.id", baselineId))
+                        .add(Restrictions.in(IMABaselineRecord.PARTIAL_PATH_HASH_FIELD, hashes))
+                        .setProjection(Projections.projectionList()
+                                .add(Projections.property(IMABaselineRecord.PATH_FIELD),
+                                        IMABaselineRecord.PATH_FIELD)
+                                .add(Projections.property(IMABaselineRecord.HASH_FIELD),
+                                        IMABaselineRecord.HASH_FIELD));
+                criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
+                criteria.setReadOnly(true);
+                for (Object result : criteria.list()) {
+                    Map entry = (Map) result;
+                    OptionalDigest digest =
+                            (OptionalDigest) entry.get(IMABaselineRecord.HASH_FIELD);
+                    storedRecords.add(new IMABaselineRecord(
+                            (String) entry.get(IMABaselineRecord.PATH_FIELD),
+                            digest.asDigest()));
+                }
+            }
+            tx.commit();
+        } finally {
+            statelessSession.close();
+        }
+        return storedRecords;
+    }
+
+    /**
+     * Splits the given partial path hashes into lists small enough for a single IN restriction.
+     * A null collection, meaning no restriction, is returned as a single null element.
+     */
+    private static List<Collection<Integer>> partition(final Set<Integer> partialPathHashes) {
+        if (partialPathHashes == null) {
+            return Collections.singletonList(null);
+        }
+        List<Collection<Integer>> partitions = new ArrayList<>();
+        for (List<Integer> partition
+                : Lists.partition(new ArrayList<>(partialPathHashes), MAX_IN_PARAMETERS)) {
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    private int getFetchSize() {
+        if (getConfiguredImplementation() == DBImpl.MYSQL) {
+            // provides a hint to the JDBC connector that records should be streamed
+            return Integer.MIN_VALUE;
+        }
+        return 1;
+    }
+
+    /**
+     * Creates the executor shared by all iterations over baseline records.  Its threads are
+     * created as needed, up to one per processor or bucket, and end when idle, so iterations no
+     * longer create and tear down a thread pool each time while concurrent appraisals are still
+     * bounded in the database connections they use.
+     */
+    private static ExecutorService createIterationExecutor() {
+        int threads = Math.max(Runtime.getRuntime().availableProcessors(),
+                IMABaselineRecord.FILENAME_HASH_BUCKET_COUNT);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                "ima-baseline-iteration-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
@@ -1,6 +1,7 @@
 package hirs.persist;
 
 import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -63,6 +64,15 @@ public class HibernateConfiguration {
     @Value("${persistence.hibernate.provider}")
     private String provider;
 
+    @Value("${persistence.hibernate.jdbcBatchSize:0}")
+    private int jdbcBatchSize;
+
+    @Value("${persistence.hibernate.cache.regionFactory:}")
+    private String cacheRegionFactory;
+
+    @Value("${persistence.hibernate.cache.configuration:}")
+    private String cacheConfiguration;
+
     @Value("${persistence.db.maxTransactionRetryAttempts}")
     private int maxTransactionRetryAttempts;
 
@@ -98,7 +108,10 @@ public class HibernateConfiguration {
 
     /**
      * Generates properties using configuration file that will be used to configure the session
-     * factory.
+     * factory. When a cache region factory is configured, the entities annotated with
+     * {@link org.hibernate.annotations.Cache} and the queries over them are cached. Only
+     * entities that the ACA and the portal never edit are annotated, as each application has
+     * its own cache.
      *
      * @return properties for hibernate session factory
      */
@@ -108,6 +121,23 @@ public class HibernateConfiguration {
         properties.put("hibernate.hbm2ddl.auto", ddl);
         properties.put("hibernate.dialect", dialect);
         properties.put("hibernate.current_session_context_class", "thread");
+        if (jdbcBatchSize > 0) {
+            properties.put("hibernate.jdbc.batch_size", Integer.toString(jdbcBatchSize));
+            properties.put("hibernate.order_inserts", "true");
+            properties.put("hibernate.order_updates", "true");
+        }
+        if (StringUtils.isNotBlank(cacheRegionFactory)) {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            properties.put("hibernate.cache.use_query_cache", "true");
+            properties.put("hibernate.cache.region.factory_class", cacheRegionFactory.trim());
+            if (StringUtils.isNotBlank(cacheConfiguration)) {
+                properties.put("net.sf.ehcache.configurationResourceName",
+                        cacheConfiguration.trim());
+            }
+        } else {
+            properties.put("hibernate.cache.use_second_level_cache", "false");
+            properties.put("hibernate.cache.use_query_cache", "false");
+        }
         return properties;
     }
 
@@ -7,6 +7,7 @@ import hirs.data.persist.baseline.SimpleImaBaseline;
 import hirs.utils.Callback;
 
 import java.util.Collection;
+import java.util.UUID;
 
 /**
  * A <code>ImaBaselineRecordManager</code> manages <code>IMABaselineRecord</code>s. It has support
@@ -28,6 +29,31 @@ public interface ImaBaselineRecordManager {
     IMABaselineRecord saveRecord(IMABaselineRecord record)
             throws ImaBaselineRecordManagerException;
 
+    /**
+     * Stores new <code>IMABaselineRecord</code>s in a single transaction.  The records are
+     * inserted one row at a time, as their IDs are generated by the database, so large sets of
+     * records should be saved in chunks.  Each record must have its baseline set.  Unlike {@link #saveRecord(IMABaselineRecord)},
+     * records already stored in their baseline are skipped rather than rejected, as are
+     * duplicates within the given records.
+     *
+     * @param records records to save
+     * @return the number of records saved
+     * @throws ImaBaselineRecordManagerException if a record has no baseline or the records
+     *               cannot be saved
+     */
+    int saveRecords(Collection<IMABaselineRecord> records)
+            throws ImaBaselineRecordManagerException;
+
+    /**
+     * Deletes all of the <code>IMABaselineRecord</code>s of the given baseline, without loading
+     * them.
+     *
+     * @param baseline the baseline whose records are deleted
+     * @return the number of records deleted
+     * @throws ImaBaselineRecordManagerException if the records cannot be deleted
+     */
+    int deleteRecords(SimpleImaBaseline baseline) throws ImaBaselineRecordManagerException;
+
     /**
      * Retrieves the <code>IMABaselineRecord</code> identified by <code>id</code>. If
      * the <code>IMABaselineRecord</code> cannot be found then null is returned.
@@ -87,4 +113,36 @@ public interface ImaBaselineRecordManager {
      */
     <T> Collection<T> iterateOverBaselineRecords(QueryableRecordImaBaseline baseline,
                                                  Callback<IMABaselineRecord, T> callback);
+
+    /**
+     * Iterates over the {@link IMABaselineRecord}s in the given baseline that may match any of the
+     * given paths, and calls the given Callback on each record.  Only records sharing a partial
+     * path (file name) with one of the paths are read, so the callback must still examine the
+     * path of each record.  Results are collected as in
+     * {@link #iterateOverBaselineRecords(QueryableRecordImaBaseline, Callback)}.
+     *
+     * @param baseline    the baseline whose {@link IMABaselineRecord}s we should iterate over
+     * @param paths       the full or partial paths the records may match
+     * @param callback    the callback to run on each record
+     * @param <T>         the return type of the callback
+     * @return the total collection of objects returned as results from the given Callback
+     */
+    <T> Collection<T> iterateOverBaselineRecords(QueryableRecordImaBaseline baseline,
+                                                 Collection<String> paths,
+                                                 Callback<IMABaselineRecord, T> callback);
+
+    /**
+     * Iterates over the {@link IMABaselineRecord}s of the <code>SimpleImaBaseline</code> with
+     * the given id, and calls the given Callback on each record.  The records are scrolled
+     * through in the database and read one fetch at a time, without loading the baseline, so
+     * baselines of any size can be read in bounded memory.  Results are collected as in
+     * {@link #iterateOverBaselineRecords(QueryableRecordImaBaseline, Callback)}.
+     *
+     * @param baselineId  the id of the <code>SimpleImaBaseline</code>
+     * @param callback    the callback to run on each record
+     * @param <T>         the return type of the callback
+     * @return the total collection of objects returned as results from the given Callback
+     */
+    <T> Collection<T> iterateOverBaselineRecords(UUID baselineId,
+                                                 Callback<IMABaselineRecord, T> callback);
 }
@@ -81,4 +81,42 @@ public final class ImportBaselineCSV {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Imports a new baseline and saves it.  IMA baselines are streamed into the database in
+     * chunks of {@link SimpleImaBaselineGenerator#IMPORT_BATCH_SIZE} records, one transaction
+     * per chunk, so the CSV file is never held in memory; other baseline types are generated as in
+     * {@link #createBaseline(String, InputStream, String)} and then saved.
+     *
+     * @param name            User defined name of baseline
+     * @param inputStream     Input stream to the CSV file
+     * @param type            Represents the type of Baseline being created (IMA, TPM)
+     * @param baselineManager manager used to save the baseline
+     * @param recordManager   manager used to save the records of IMA baselines
+     * @return the saved baseline
+     */
+    public static Baseline createBaseline(final String name, final InputStream inputStream,
+            final String type, final BaselineManager baselineManager,
+            final ImaBaselineRecordManager recordManager) {
+        if (!type.equalsIgnoreCase("IMA")) {
+            try {
+                return baselineManager.saveBaseline(createBaseline(name, inputStream, type));
+            } catch (BaselineManagerException e) {
+                LOGGER.error("unable to save baseline", e);
+                throw new RuntimeException(e);
+            }
+        }
+
+        LOGGER.debug("streaming csv import started");
+        try (InputStream is = new BufferedInputStream(inputStream)) {
+            final SimpleImaBaselineGenerator imaGenerator = new SimpleImaBaselineGenerator();
+            return imaGenerator.generateBaselineFromCSVFile(name, is, baselineManager,
+                    recordManager);
+        } catch (IMABaselineGeneratorException e) {
+            throw new RuntimeException("Type mismatch, verify import baseline type", e);
+        } catch (IOException e) {
+            LOGGER.error("unable to generate baseline", e);
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -44,6 +44,7 @@ public final class ImportCLI {
     private static final String XML = "xml";
 
     private static BaselineManager baselineManager;
+    private static ImaBaselineRecordManager imaBaselineRecordManager;
 
     /**
      * Default constructor that is private to prevent this class from being
@@ -104,8 +105,10 @@ public final class ImportCLI {
                 LOGGER.debug("specified IMA import");
                 final SimpleImaBaselineGenerator generator = new SimpleImaBaselineGenerator();
                 if (line.hasOption("csv")) {
-                    LOGGER.debug("importing csv file");
-                    baseline = generator.generateBaselineFromCSVFile(name, istream);
+                    LOGGER.debug("streaming csv file into the database");
+                    generator.generateBaselineFromCSVFile(name, istream, baselineManager,
+                            imaBaselineRecordManager);
+                    return;
                 } else {
                     LOGGER.debug("importing IMA baseline from intgerity report xml file");
                     IntegrityReport report;
@@ -155,6 +158,7 @@ public final class ImportCLI {
         context.registerShutdownHook();
 
         baselineManager = context.getBean(BaselineManager.class);
+        imaBaselineRecordManager = context.getBean(ImaBaselineRecordManager.class);
     }
 
     private static void printHelp(final Options options) {
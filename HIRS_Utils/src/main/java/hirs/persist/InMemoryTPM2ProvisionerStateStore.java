@@ -0,0 +1,204 @@
+package hirs.persist;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bouncycastle.util.Arrays;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TPM2ProvisionerStateStore} that keeps state in memory, so that the two passes of the
+ * TPM 2.0 Provisioner do not need to touch the database. The store holds at most a fixed number
+ * of states; when full, the oldest state is evicted. States older than the configured time to live
+ * are treated as absent and are removed by {@link #deleteOlderThan(Date)}.
+ * <p>
+ * Optionally, every change can be written behind to a second store (typically a
+ * {@link DBTPM2ProvisionerStateStore}) on a background thread. Lookups that miss in memory fall
+ * back to that store, so that a handshake started on one ACA instance can be completed on
+ * another. This class is threadsafe.
+ */
+public class InMemoryTPM2ProvisionerStateStore implements TPM2ProvisionerStateStore {
+    private static final Logger LOGGER =
+            LogManager.getLogger(InMemoryTPM2ProvisionerStateStore.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final Map<Long, TPM2ProvisionerState> states;
+    private final long timeToLiveMs;
+    private final TPM2ProvisionerStateStore writeBehindStore;
+    private final ExecutorService writeBehindExecutor;
+
+    /**
+     * Constructs an in-memory store without a write-behind store.
+     *
+     * @param maxEntries the maximum number of states held at once
+     * @param timeToLiveMs the number of milliseconds a state is valid for
+     */
+    public InMemoryTPM2ProvisionerStateStore(final int maxEntries, final long timeToLiveMs) {
+        this(maxEntries, timeToLiveMs, null);
+    }
+
+    /**
+     * Constructs an in-memory store.
+     *
+     * @param maxEntries the maximum number of states held at once
+     * @param timeToLiveMs the number of milliseconds a state is valid for
+     * @param writeBehindStore the store changes are asynchronously copied to; may be null
+     */
+    public InMemoryTPM2ProvisionerStateStore(final int maxEntries, final long timeToLiveMs,
+                                             final TPM2ProvisionerStateStore writeBehindStore) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        if (timeToLiveMs < 1) {
+            throw new IllegalArgumentException("timeToLiveMs must be at least 1");
+        }
+
+        this.timeToLiveMs = timeToLiveMs;
+        this.writeBehindStore = writeBehindStore;
+
+        // insertion order is creation order, so the eldest entry is always the oldest state
+        this.states = new LinkedHashMap<Long, TPM2ProvisionerState>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Long, TPM2ProvisionerState> eldest) {
+                boolean full = size() > maxEntries;
+                if (full) {
+                    LOGGER.warn("TPM2 provisioner state store is full; evicting oldest nonce");
+                }
+                return full;
+            }
+        };
+
+        if (writeBehindStore == null) {
+            this.writeBehindExecutor = null;
+        } else {
+            this.writeBehindExecutor = Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @Override
+    public void save(final TPM2ProvisionerState state) {
+        synchronized (states) {
+            states.put(state.getFirstPartOfNonce(), state);
+        }
+        writeBehind(() -> writeBehindStore.save(state));
+    }
+
+    @Override
+    public TPM2ProvisionerState get(final byte[] nonce) {
+        TPM2ProvisionerState stateFound;
+        try {
+            long firstPartOfNonce = TPM2ProvisionerState.readFirstPartOfNonce(nonce);
+            synchronized (states) {
+                stateFound = states.get(firstPartOfNonce);
+            }
+        } catch (IOException | NullPointerException e) {
+            return null;
+        }
+
+        if (stateFound == null && writeBehindStore != null) {
+            stateFound = writeBehindStore.get(nonce);
+        }
+
+        if (stateFound == null || isExpired(stateFound, System.currentTimeMillis())
+                || !Arrays.areEqual(stateFound.getNonce(), nonce)) {
+            return null;
+        }
+        return stateFound;
+    }
+
+    @Override
+    public void delete(final TPM2ProvisionerState state) {
+        synchronized (states) {
+            states.remove(state.getFirstPartOfNonce());
+        }
+        writeBehind(() -> writeBehindStore.delete(state));
+    }
+
+    @Override
+    public int deleteOlderThan(final Date cutoff) {
+        int deleted = 0;
+        synchronized (states) {
+            Iterator<TPM2ProvisionerState> iterator = states.values().iterator();
+            while (iterator.hasNext()) {
+                if (!iterator.next().getTimestamp().before(cutoff)) {
+                    // states are held in creation order, so the rest are newer
+                    break;
+                }
+                iterator.remove();
+                deleted++;
+            }
+        }
+
+        if (writeBehindStore != null) {
+            writeBehindStore.deleteOlderThan(cutoff);
+        }
+        return deleted;
+    }
+
+    /**
+     * Removes every state that has outlived the time to live.
+     *
+     * @return the number of states removed
+     */
+    public int deleteExpired() {
+        return deleteOlderThan(new Date(System.currentTimeMillis() - timeToLiveMs));
+    }
+
+    /**
+     * @return the number of states currently held in memory
+     */
+    public int size() {
+        synchronized (states) {
+            return states.size();
+        }
+    }
+
+    /**
+     * Waits for pending write-behind operations to finish and stops the write-behind thread.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        if (writeBehindExecutor != null) {
+            writeBehindExecutor.shutdown();
+            if (!writeBehindExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS,
+                    TimeUnit.SECONDS)) {
+                LOGGER.warn("Pending TPM2 provisioner state writes were not completed.");
+                writeBehindExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private boolean isExpired(final TPM2ProvisionerState state, final long now) {
+        return now - state.getTimestamp().getTime() > timeToLiveMs;
+    }
+
+    private void writeBehind(final Runnable operation) {
+        if (writeBehindExecutor == null) {
+            return;
+        }
+        try {
+            writeBehindExecutor.execute(() -> {
+                try {
+                    operation.run();
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to write TPM2 provisioner state behind", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Write-behind of TPM2 provisioner state skipped; store is shut down");
+        }
+    }
+}
@@ -4,6 +4,7 @@ import hirs.data.persist.ReferenceDigestRecord;
 import hirs.data.persist.ReferenceDigestValue;
 import hirs.data.persist.ReferenceManifest;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -20,6 +21,19 @@ public interface ReferenceEventManager extends OrderedListQuerier<ReferenceDiges
      */
     ReferenceDigestValue saveValue(ReferenceDigestValue referenceDigestValue);
 
+    /**
+     * Persists new Reference Digest values in a single transaction, batching the inserts.
+     * Values with the same support RIM, digest, PCR index and event type as one of the existing
+     * values are not saved, as they are already stored for that RIM.  Values of other RIMs, and
+     * events repeated within the new values, are all saved.
+     *
+     * @param referenceDigestValues the values to save
+     * @param existingValues the persisted values the new values are checked against
+     * @return the values that were saved
+     */
+    List<ReferenceDigestValue> saveValues(Collection<ReferenceDigestValue> referenceDigestValues,
+                                          Collection<ReferenceDigestValue> existingValues);
+
     /**
      * Persists a new Reference Digest value.
      *
@@ -85,6 +99,17 @@ public interface ReferenceEventManager extends OrderedListQuerier<ReferenceDiges
      */
     List<ReferenceDigestValue> getValuesByRimId(ReferenceManifest referenceManifest);
 
+    /**
+     * Retrieve a value that changes whenever a value associated with the given RIM is saved,
+     * archived or deleted, or becomes associated with the RIM. Callers caching data derived
+     * from the values of a RIM can compare this value to detect that their cache is stale,
+     * including when another application modified the values.
+     *
+     * @param referenceManifest the base or support RIM the values are associated with
+     * @return the modification stamp for the values of the given RIM
+     */
+    String getModificationStamp(ReferenceManifest referenceManifest);
+
     /**
      * Persists a new Reference Digest value.
      *
@@ -108,6 +133,12 @@ public interface ReferenceEventManager extends OrderedListQuerier<ReferenceDiges
      */
     void updateEvent(ReferenceDigestValue referenceDigestValue);
 
+    /**
+     * Updates existing ReferenceDigestValues in a single transaction, batching the updates.
+     * @param referenceDigestValues the Reference Events to update
+     */
+    void updateEvents(Collection<ReferenceDigestValue> referenceDigestValues);
+
     /**
      * Delete the given value.
      *
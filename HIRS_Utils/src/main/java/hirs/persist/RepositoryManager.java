@@ -1,10 +1,13 @@
 package hirs.persist;
 
+import hirs.data.persist.Digest;
+import hirs.data.persist.baseline.IMABaselineRecord;
 import hirs.repository.RepoPackage;
 import hirs.repository.Repository;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A <code>RepositoryManager</code> manages the persistence of
@@ -77,4 +80,24 @@ public interface RepositoryManager {
      * @return the persisted RepoPackage
      */
     RepoPackage saveRepoPackage(RepoPackage repoPackage);
+
+    /**
+     * Retrieves the cached measurements of the files of a package file, as stored by
+     * {@link #cachePackageRecords(Digest, Set)} for any package with the same file digest.
+     * The returned records are new and not associated with any package or baseline.
+     *
+     * @param packageMeasurement the measurement of the package file itself
+     * @return the records of the package's files, or an empty set if none are cached
+     */
+    Set<IMABaselineRecord> getCachedPackageRecords(Digest packageMeasurement);
+
+    /**
+     * Stores the measurements of the files of a package file, keyed by the measurement of the
+     * package file and the path of each file, so that the same package file never needs to be
+     * measured again.  Measurements already cached for the package file are kept.
+     *
+     * @param packageMeasurement the measurement of the package file itself
+     * @param packageRecords the records of the package's files
+     */
+    void cachePackageRecords(Digest packageMeasurement, Set<IMABaselineRecord> packageRecords);
 }
@@ -63,8 +63,8 @@ public class TPM2ProvisionerState {
         this.nonce = Arrays.clone(nonce);
         this.identityClaim = Arrays.clone(identityClaim);
 
-        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce))) {
-            firstPartOfNonce = dis.readLong();
+        try {
+            firstPartOfNonce = readFirstPartOfNonce(nonce);
         } catch (IOException e) {
             // This would only happen if there were not enough bytes; that is handled above.
             throw new RuntimeException(e);
@@ -89,6 +89,38 @@ public class TPM2ProvisionerState {
         return Arrays.clone(identityClaim);
     }
 
+    /**
+     * Get the time at which this state was created.
+     *
+     * @return the creation time
+     */
+    public Date getTimestamp() {
+        return new Date(timestamp.getTime());
+    }
+
+    /**
+     * Get the first eight bytes of the nonce, which identify this state.
+     *
+     * @return the first part of the nonce
+     */
+    Long getFirstPartOfNonce() {
+        return firstPartOfNonce;
+    }
+
+    /**
+     * Reads the first eight bytes of a nonce as a long, which is used as the key for the
+     * {@link TPM2ProvisionerState} associated with the nonce.
+     *
+     * @param nonce the nonce
+     * @return the first part of the nonce
+     * @throws IOException if the nonce is shorter than eight bytes
+     */
+    static long readFirstPartOfNonce(final byte[] nonce) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce))) {
+            return dis.readLong();
+        }
+    }
+
     /**
      * Convenience method for finding the {@link TPM2ProvisionerState} associated with the nonce.
      *
@@ -101,9 +133,8 @@ public class TPM2ProvisionerState {
     public static TPM2ProvisionerState getTPM2ProvisionerState(
             final CrudManager<TPM2ProvisionerState> crudManager,
             final byte[] nonce) {
-        try (DataInputStream dis
-                     = new DataInputStream(new ByteArrayInputStream(nonce))) {
-            long firstPartOfNonce = dis.readLong();
+        try {
+            long firstPartOfNonce = readFirstPartOfNonce(nonce);
             TPM2ProvisionerState stateFound = crudManager.get(firstPartOfNonce);
             if (Arrays.areEqual(stateFound.getNonce(), nonce)) {
                 return stateFound;
@@ -0,0 +1,42 @@
+package hirs.persist;
+
+import java.util.Date;
+
+/**
+ * Stores the {@link TPM2ProvisionerState} kept between the two passes of the TPM 2.0
+ * Provisioner. Implementations must be threadsafe.
+ */
+public interface TPM2ProvisionerStateStore {
+
+    /**
+     * Stores the given state.
+     *
+     * @param state the state to store
+     */
+    void save(TPM2ProvisionerState state);
+
+    /**
+     * Finds the state associated with the nonce.
+     *
+     * @param nonce the nonce sent back by the provisioner
+     * @return the {@link TPM2ProvisionerState} associated with the nonce;
+     *         null if a match is not found
+     */
+    TPM2ProvisionerState get(byte[] nonce);
+
+    /**
+     * Removes the given state once the handshake that created it has completed.
+     *
+     * @param state the state to remove
+     */
+    void delete(TPM2ProvisionerState state);
+
+    /**
+     * Removes every state that was created before the given time. Used to sweep nonces from
+     * handshakes that were never completed.
+     *
+     * @param cutoff states older than this are removed
+     * @return the number of states removed
+     */
+    int deleteOlderThan(Date cutoff);
+}
@@ -0,0 +1,108 @@
+package hirs.repository;
+
+import hirs.data.persist.Digest;
+
+import javax.persistence.Column;
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * This class represents the measurement of a file inside a software package, keyed by the
+ * digest of the package file and the path of the file.  These entries form a content-addressed
+ * cache of package measurements: a package file with the same digest, whether it is downloaded
+ * again, from another mirror or by another repository, has the same contents, so its files do
+ * not need to be measured again.  Entries are independent of the {@link RepoPackage}s and
+ * {@link Repository}s that produced them.
+ */
+@Entity
+@Table(indexes = { @Index(columnList = PackageFileMeasurement.PACKAGE_DIGEST_FIELD) })
+public class PackageFileMeasurement {
+    /**
+     * Name of the packageDigest field.
+     */
+    public static final String PACKAGE_DIGEST_FIELD = "packageDigest";
+
+    private static final int PACKAGE_DIGEST_LENGTH = 160;
+    private static final int PATH_LENGTH = 2048;
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Column(name = PACKAGE_DIGEST_FIELD, nullable = false, length = PACKAGE_DIGEST_LENGTH)
+    private String packageDigest;
+
+    @Column(nullable = false, length = PATH_LENGTH)
+    private String path;
+
+    @Embedded
+    private Digest fileDigest;
+
+    /**
+     * Constructs a PackageFileMeasurement.
+     *
+     * @param packageDigest the digest of the package file
+     * @param path the absolute path of the file inside the package
+     * @param fileDigest the measurement of the file
+     */
+    public PackageFileMeasurement(final Digest packageDigest, final String path,
+                                  final Digest fileDigest) {
+        if (packageDigest == null) {
+            throw new IllegalArgumentException("Package digest can't be null");
+        }
+
+        if (path == null) {
+            throw new IllegalArgumentException("Path can't be null");
+        }
+
+        if (fileDigest == null) {
+            throw new IllegalArgumentException("File digest can't be null");
+        }
+
+        this.packageDigest = toKey(packageDigest);
+        this.path = path;
+        this.fileDigest = fileDigest;
+    }
+
+    /**
+     * Protected default constructor for Hibernate.
+     */
+    protected PackageFileMeasurement() {
+    }
+
+    /**
+     * Returns the value of the packageDigest field for the given package digest.  The algorithm
+     * is part of the key, so measurements of packages hashed with different algorithms do not
+     * collide.
+     *
+     * @param packageDigest the digest of the package file
+     * @return the key under which the measurements of the package are stored
+     */
+    public static String toKey(final Digest packageDigest) {
+        return packageDigest.toString();
+    }
+
+    /**
+     * Gets the absolute path of the file inside the package.
+     *
+     * @return the file's path
+     */
+    public final String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the measurement of the file.
+     *
+     * @return the file's digest
+     */
+    public final Digest getFileDigest() {
+        return fileDigest;
+    }
+}
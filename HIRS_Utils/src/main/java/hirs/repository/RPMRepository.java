@@ -3,6 +3,9 @@ package hirs.repository;
 import hirs.data.persist.Digest;
 import hirs.data.persist.enums.DigestAlgorithm;
 import hirs.data.persist.baseline.IMABaselineRecord;
+import hirs.persist.DBManagerException;
+import hirs.persist.RepositoryManager;
+import hirs.repository.measurement.PackageMeasurementResult;
 import hirs.repository.measurement.PackageMeasurer;
 import hirs.repository.measurement.RPMMeasurer;
 import hirs.utils.exec.ExecBuilder;
@@ -97,6 +100,15 @@ public abstract class RPMRepository<T extends RPMRepoPackage> extends Repository
         this.baseUrl = baseUrl;
     }
 
+    /**
+     * Sets the measurer used to measure the RPMs of this repository.  Only used by tests.
+     *
+     * @param rpmMeasurer the measurer
+     */
+    final void setRpmMeasurer(final PackageMeasurer rpmMeasurer) {
+        this.rpmMeasurer = rpmMeasurer;
+    }
+
     /**
      * Search this repository for every measured package that is an update of the given package.
      *
@@ -122,18 +134,43 @@ public abstract class RPMRepository<T extends RPMRepoPackage> extends Repository
      */
     protected void measurePackageAtPath(final RPMRepoPackage repoPackage, final Path rpmPath)
             throws RepositoryException {
+        measurePackageAtPath(repoPackage, rpmPath, null);
+    }
+
+    /**
+     * Measures the package at the specified path.  The RPM file itself is measured first; if
+     * the given repository manager has cached the measurements of an RPM file with the same
+     * digest, they are reused instead of measuring the RPM's contents.  Otherwise the new
+     * measurements are cached, unless some of the RPM's files could not be measured.
+     * @param repoPackage the repo package
+     * @param rpmPath the path to the RPM
+     * @param repoMan the repository manager holding the cached package measurements, or null to
+     *                measure the package without the cache
+     * @throws RepositoryException if an IO error occurs processing the package.
+     */
+    protected void measurePackageAtPath(final RPMRepoPackage repoPackage, final Path rpmPath,
+                                        final RepositoryManager repoMan)
+            throws RepositoryException {
         try {
-            Multimap<Path, Digest> measurements = rpmMeasurer.measure(rpmPath);
-            Set<IMABaselineRecord> packageRecords = new HashSet<>();
-            for (Map.Entry<Path, Collection<Digest>> e : measurements.asMap().entrySet()) {
-                for (Digest digest : e.getValue()) {
-                    packageRecords.add(new IMABaselineRecord(
-                            e.getKey().toAbsolutePath().toString(), digest
-                    ));
+            Digest packageMeasurement = rpmMeasurer.measureFile(rpmPath);
+            Set<IMABaselineRecord> packageRecords = null;
+            if (repoMan != null) {
+                packageRecords = repoMan.getCachedPackageRecords(packageMeasurement);
+            }
+
+            if (packageRecords == null || packageRecords.isEmpty()) {
+                PackageMeasurementResult result = rpmMeasurer.measurePackage(rpmPath);
+                packageRecords = toRecords(result.getMeasurements());
+                if (result.isComplete()) {
+                    cachePackageRecords(repoMan, packageMeasurement, packageRecords);
+                } else {
+                    LOGGER.warn("Not caching the incomplete measurements of {}", repoPackage);
                 }
+            } else {
+                LOGGER.debug("Reusing cached measurements of {}", repoPackage);
             }
 
-            repoPackage.setAllMeasurements(packageRecords, rpmMeasurer.measureFile(rpmPath));
+            repoPackage.setAllMeasurements(packageRecords, packageMeasurement);
         } catch (IOException e) {
             LOGGER.error("IO Exception measuring package", e);
             throw new RepositoryException(e);
@@ -146,6 +183,32 @@ public abstract class RPMRepository<T extends RPMRepoPackage> extends Repository
         }
     }
 
+    private static Set<IMABaselineRecord> toRecords(final Multimap<Path, Digest> measurements) {
+        Set<IMABaselineRecord> packageRecords = new HashSet<>();
+        for (Map.Entry<Path, Collection<Digest>> e : measurements.asMap().entrySet()) {
+            for (Digest digest : e.getValue()) {
+                packageRecords.add(new IMABaselineRecord(
+                        e.getKey().toAbsolutePath().toString(), digest
+                ));
+            }
+        }
+        return packageRecords;
+    }
+
+    private static void cachePackageRecords(final RepositoryManager repoMan,
+                                            final Digest packageMeasurement,
+                                            final Set<IMABaselineRecord> packageRecords) {
+        if (repoMan == null) {
+            return;
+        }
+        try {
+            repoMan.cachePackageRecords(packageMeasurement, packageRecords);
+        } catch (DBManagerException e) {
+            // the measurements are still valid; the package will be measured again next time
+            LOGGER.warn("Failed to cache package measurements", e);
+        }
+    }
+
     /**
      * Compare two packages to determine if the second is an updated version of the first. First
      * this checks whether the package name and architecture are the same. Then a version comparison
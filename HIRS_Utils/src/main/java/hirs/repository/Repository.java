@@ -136,10 +136,32 @@ public abstract class Repository<T extends RepoPackage> extends UserDefinedEntit
     protected abstract void measurePackage(T repoPackage, int maxDownloadAttempts)
             throws RepositoryException;
 
+    /**
+     * This method retrieves the given package and measures its contents, as
+     * {@link #measurePackage(RepoPackage, int)} does.  Repositories that can identify the
+     * contents of a package by the digest of the package file override this method to reuse the
+     * measurements cached by the given repository manager, and to cache new ones.  By default,
+     * the cache is not used.
+     *
+     * @param repoPackage the package to measure
+     * @param maxDownloadAttempts the package download attempt limit
+     * @param repoMan the repository manager holding the cached package measurements
+     *
+     * @throws RepositoryException if there is an error communicating with the repository
+     */
+    protected void measurePackage(final T repoPackage, final int maxDownloadAttempts,
+                                  final RepositoryManager repoMan)
+            throws RepositoryException {
+        measurePackage(repoPackage, maxDownloadAttempts);
+    }
+
     /**
      * Creates an update job for this repository, given the current packages it contains and the
      * packages in the actual remote repository.  Packages found in the remote repository that are
      * not contained in this instance will be downloaded, measured, and persisted during this job.
+     * Packages that have already been persisted, such as those measured by an earlier job that
+     * was interrupted, are skipped as well, so an interrupted job is resumed by creating a new
+     * one.
      *
      * @param repoMan the repository manager, used for persistence
      * @param maxDownloadAttempts the max number of attempts that will be made to download a package
@@ -152,6 +174,14 @@ public abstract class Repository<T extends RepoPackage> extends UserDefinedEntit
         Set<T> packagesToMeasure = listRemotePackages();
         packagesToMeasure.removeAll(this.packages);
 
+        // packages saved by a previous job may not have been added to this instance
+        if (getId() != null) {
+            Repository<?> persistedRepository = repoMan.getRepository(getId());
+            if (persistedRepository != null) {
+                packagesToMeasure.removeAll(persistedRepository.getPackages());
+            }
+        }
+
         if (packagesToMeasure.size() == 0) {
             return null;
         }
@@ -162,7 +192,7 @@ public abstract class Repository<T extends RepoPackage> extends UserDefinedEntit
                 @Override
                 public Boolean call() throws Exception {
                     try {
-                        measurePackage(p, maxDownloadAttempts);
+                        measurePackage(p, maxDownloadAttempts, repoMan);
                         repoMan.saveRepoPackage(p);
                     } catch (Exception e) {
                         LOGGER.error(String.format("Measurement of package %s failed", p), e);
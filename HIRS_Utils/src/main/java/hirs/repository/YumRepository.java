@@ -1,5 +1,6 @@
 package hirs.repository;
 
+import hirs.persist.RepositoryManager;
 import hirs.utils.exec.ExecBuilder;
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
@@ -189,10 +190,29 @@ public class YumRepository extends RPMRepository<RPMRepoPackage> {
     @Override
     public final void measurePackage(final RPMRepoPackage repoPackage,
                                      final int maxDownloadAttempts) throws RepositoryException {
+        measurePackage(repoPackage, maxDownloadAttempts, null);
+    }
+
+    /**
+     * Downloads the specified package and measures it as
+     * {@link #measurePackage(RPMRepoPackage, int)} does, reusing the measurements cached by the
+     * given repository manager for an RPM file with the same digest.
+     *
+     * @param repoPackage the packages to measure
+     * @param maxDownloadAttempts the RPM download attempt limit
+     * @param repoMan the repository manager holding the cached package measurements, or null
+     *
+     * @throws RepositoryException
+     *          if a problem is encountered while downloading and measuring the package
+     */
+    @Override
+    public final void measurePackage(final RPMRepoPackage repoPackage,
+                                     final int maxDownloadAttempts,
+                                     final RepositoryManager repoMan) throws RepositoryException {
         try {
             checkTmpDirSetup();
             Path rpmPath = yumDownload(repoPackage, maxDownloadAttempts);
-            measurePackageAtPath(repoPackage, rpmPath);
+            measurePackageAtPath(repoPackage, rpmPath, repoMan);
         } catch (IOException e) {
             String message = "error mesauring RPM package";
             LOGGER.error(message, e);
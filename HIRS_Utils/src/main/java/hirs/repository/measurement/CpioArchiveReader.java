@@ -0,0 +1,269 @@
+package hirs.repository.measurement;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the entries of a cpio archive in the SVR4 "newc" format, with or without CRC, as
+ * written by rpm and dracut.  The archive is read straight from the given stream: entries are
+ * returned one at a time and their data is read through {@link #getEntryStream()}, so nothing
+ * is written to disk.  The reader never reads past the trailer of the archive, which allows
+ * concatenated archives to be read from the same stream.
+ * <p>
+ * This class is not threadsafe.
+ */
+final class CpioArchiveReader {
+    private static final byte[] NEWC_MAGIC = "070701".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CRC_MAGIC = "070702".getBytes(StandardCharsets.US_ASCII);
+    private static final String TRAILER = "TRAILER!!!";
+    private static final int MAGIC_LENGTH = 6;
+    private static final int FIELD_LENGTH = 8;
+    private static final int FIELD_COUNT = 13;
+    private static final int HEADER_LENGTH = MAGIC_LENGTH + FIELD_COUNT * FIELD_LENGTH;
+    private static final int ALIGNMENT = 4;
+    private static final int HEX_RADIX = 16;
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private static final int INO = 0;
+    private static final int MODE = 1;
+    private static final int NLINK = 4;
+    private static final int FILE_SIZE = 6;
+    private static final int DEV_MAJOR = 7;
+    private static final int DEV_MINOR = 8;
+    private static final int NAME_SIZE = 11;
+
+    private final InputStream in;
+    private final byte[] skipBuffer = new byte[SKIP_BUFFER_SIZE];
+    private long position;
+    private long remaining;
+    private long dataPadding;
+    private boolean finished;
+
+    /**
+     * Creates a reader of the cpio archive starting at the current position of the given stream.
+     *
+     * @param in the stream, which is not closed by this reader
+     */
+    CpioArchiveReader(final InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the header of the next entry, skipping the unread data of the current one.
+     *
+     * @return the next entry, or null once the trailer has been read
+     * @throws IOException if the archive cannot be read
+     * @throws UnsupportedArchiveException if the archive is not in the newc format
+     */
+    Entry getNextEntry() throws IOException {
+        if (finished) {
+            return null;
+        }
+        skip(remaining + dataPadding);
+        remaining = 0;
+        dataPadding = 0;
+
+        byte[] header = new byte[HEADER_LENGTH];
+        readFully(header);
+        byte[] magic = Arrays.copyOf(header, MAGIC_LENGTH);
+        if (!Arrays.equals(magic, NEWC_MAGIC) && !Arrays.equals(magic, CRC_MAGIC)) {
+            throw new UnsupportedArchiveException("Unsupported cpio header: "
+                    + new String(magic, StandardCharsets.US_ASCII));
+        }
+        long[] fields = new long[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            String field = new String(header, MAGIC_LENGTH + i * FIELD_LENGTH, FIELD_LENGTH,
+                    StandardCharsets.US_ASCII);
+            try {
+                fields[i] = Long.parseLong(field, HEX_RADIX);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid cpio header field: " + field, e);
+            }
+        }
+
+        int nameSize = (int) fields[NAME_SIZE];
+        if (nameSize < 1) {
+            throw new IOException("Invalid cpio entry name size: " + nameSize);
+        }
+        byte[] name = new byte[nameSize];
+        readFully(name);
+        skip(padding(position));
+
+        Entry entry = new Entry(new String(name, 0, nameSize - 1, StandardCharsets.UTF_8),
+                fields[MODE], fields[NLINK], fields[FILE_SIZE], fields[INO],
+                fields[DEV_MAJOR], fields[DEV_MINOR]);
+        if (TRAILER.equals(entry.getName())) {
+            finished = true;
+            return null;
+        }
+        remaining = entry.getSize();
+        dataPadding = padding(position + remaining);
+        return entry;
+    }
+
+    /**
+     * Returns a stream over the data of the current entry.  The stream ends with the data of the
+     * entry and closing it has no effect on the archive.
+     *
+     * @return the stream
+     */
+    InputStream getEntryStream() {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException("Truncated cpio entry");
+                }
+                remaining--;
+                position++;
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int count = in.read(b, off, (int) Math.min(len, remaining));
+                if (count < 0) {
+                    throw new EOFException("Truncated cpio entry");
+                }
+                remaining -= count;
+                position += count;
+                return count;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                long toSkip = Math.min(n, remaining);
+                CpioArchiveReader.this.skip(toSkip);
+                remaining -= toSkip;
+                return toSkip;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.min(in.available(), remaining);
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+                // the archive stream is owned by the caller
+            }
+        };
+    }
+
+    private static long padding(final long offset) {
+        return (ALIGNMENT - offset % ALIGNMENT) % ALIGNMENT;
+    }
+
+    private void readFully(final byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int count = in.read(buffer, offset, buffer.length - offset);
+            if (count < 0) {
+                throw new EOFException("Truncated cpio archive");
+            }
+            offset += count;
+        }
+        position += buffer.length;
+    }
+
+    private void skip(final long count) throws IOException {
+        long left = count;
+        while (left > 0) {
+            int read = in.read(skipBuffer, 0, (int) Math.min(skipBuffer.length, left));
+            if (read < 0) {
+                throw new EOFException("Truncated cpio archive");
+            }
+            left -= read;
+        }
+        position += count;
+    }
+
+    /**
+     * The header of an entry of a cpio archive.
+     */
+    static final class Entry {
+        private static final long TYPE_MASK = 0170000;
+        private static final long REGULAR_FILE = 0100000;
+        private static final long SYMBOLIC_LINK = 0120000;
+
+        private final String name;
+        private final long mode;
+        private final long linkCount;
+        private final long size;
+        private final long inode;
+        private final long deviceMajor;
+        private final long deviceMinor;
+
+        private Entry(final String name, final long mode, final long linkCount, final long size,
+                      final long inode, final long deviceMajor, final long deviceMinor) {
+            this.name = name;
+            this.mode = mode;
+            this.linkCount = linkCount;
+            this.size = size;
+            this.inode = inode;
+            this.deviceMajor = deviceMajor;
+            this.deviceMinor = deviceMinor;
+        }
+
+        /**
+         * @return the path of the entry, as stored in the archive
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the size of the data of the entry
+         */
+        long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the number of links to the entry's inode
+         */
+        long getLinkCount() {
+            return linkCount;
+        }
+
+        /**
+         * @return true if the entry is a regular file
+         */
+        boolean isRegularFile() {
+            return (mode & TYPE_MASK) == REGULAR_FILE;
+        }
+
+        /**
+         * @return true if the entry is a symbolic link
+         */
+        boolean isSymbolicLink() {
+            return (mode & TYPE_MASK) == SYMBOLIC_LINK;
+        }
+
+        /**
+         * Returns a key identifying the inode of the entry, shared by the hard links to it.  In
+         * the newc format only the last link to an inode carries its data.
+         *
+         * @return the inode key
+         */
+        String getInodeKey() {
+            return deviceMajor + ":" + deviceMinor + ":" + inode;
+        }
+    }
+}
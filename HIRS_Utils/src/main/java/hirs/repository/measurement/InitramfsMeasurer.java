@@ -5,21 +5,27 @@ import com.google.common.collect.Multimap;
 import hirs.data.persist.Digest;
 import hirs.data.persist.enums.DigestAlgorithm;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.tukaani.xz.XZInputStream;
 
 /**
- * Measures the contents of an initramfs file. This class unpacks the file to a temporary
- * directory, performs measurements, and then cleans up the files. This class is used
+ * Measures the contents of an initramfs file. This class reads the gzip or xz compressed cpio
+ * archives of the file in memory.  Images it cannot read are unpacked to a temporary directory
+ * with gunzip and cpio, measured, and then the files are cleaned up. This class is used
  * in the golden baseline feature when the user specifies to create or update a baseline with
  * an initramfs file.
  *
@@ -27,6 +33,12 @@ import org.apache.logging.log4j.Logger;
 public class InitramfsMeasurer extends PackageMeasurer {
     private static final Logger LOGGER = LogManager.getLogger(InitramfsMeasurer.class);
     private static final Pattern INIT_RAM_FS_PATH = Pattern.compile("/boot/initramfs.+\\.img$");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 6;
+    private static final int NO_MEMORY_LIMIT = -1;
+    private static final byte[] CPIO_MAGIC = "0707".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final byte[] XZ_MAGIC = {(byte) 0xfd, '7', 'z', 'X', 'Z', 0};
 
     /**
      * Constructs a new InitramfsMeasurer.
@@ -36,8 +48,10 @@ public class InitramfsMeasurer extends PackageMeasurer {
     }
 
     /**
-     * Measures the initramfs file by unpacking it to a temporary location,
-     * measuring the files, and then cleaning up the temporary directory.
+     * Measures the initramfs file by reading its cpio archives in memory, decompressing them
+     * as they are read.  An image may start with uncompressed archives, such as early microcode,
+     * followed by a gzip or xz compressed archive.  If the image uses another format, this falls
+     * back to {@link #measureExtractedInitramfs(File)}.
      *
      * @param initramfsFile the initramfs file path.
      * @return the resulting Multimap of absolute file paths to their measurements (one or many)
@@ -46,8 +60,6 @@ public class InitramfsMeasurer extends PackageMeasurer {
     @Override
     protected final Multimap<Path, Digest> doMeasure(final Path initramfsFile)
             throws IOException {
-        // extract file to temporary directory
-
         if (initramfsFile == null) {
             String errorMessage = "initramfsFile is null";
             LOGGER.error(errorMessage);
@@ -61,6 +73,110 @@ public class InitramfsMeasurer extends PackageMeasurer {
             throw new FileNotFoundException(errorMessage);
         }
 
+        LOGGER.info("Starting initramfs file measurements");
+        try (InputStream image = new BufferedInputStream(Files.newInputStream(initramfsFile),
+                BUFFER_SIZE)) {
+            Multimap<Path, Digest> measurements = measureImage(image, false);
+            LOGGER.info("Finished initramfs file measurements");
+            return measurements;
+        } catch (UnsupportedArchiveException e) {
+            LOGGER.info("Extracting {} to measure it: {}", initramfsFile, e.getMessage());
+            return measureExtractedInitramfs(sourceFile);
+        }
+    }
+
+    /**
+     * Measures the concatenated cpio archives of an initramfs image, skipping the zero padding
+     * between them.  A compressed archive is decompressed and read to the end of the image.
+     *
+     * @param image the stream, which must support mark and reset
+     * @param decompressed true if the stream is the output of a decompressor
+     * @return the resulting Multimap of absolute file paths to their measurements
+     * @throws IOException if there is an error encountered while reading the image
+     * @throws UnsupportedArchiveException if the image uses an unsupported format or compression
+     */
+    private Multimap<Path, Digest> measureImage(final InputStream image,
+                                                final boolean decompressed)
+            throws IOException {
+        final Multimap<Path, Digest> measurements = HashMultimap.create();
+        byte[] magic = new byte[MAGIC_LENGTH];
+        while (true) {
+            int count = peek(image, magic);
+            if (count == 0) {
+                break;
+            }
+            if (startsWith(magic, count, CPIO_MAGIC)) {
+                measurements.putAll(measureCpioArchive(image));
+            } else if (!decompressed && startsWith(magic, count, GZIP_MAGIC)) {
+                try (InputStream archive = new BufferedInputStream(
+                        new GZIPInputStream(image, BUFFER_SIZE), BUFFER_SIZE)) {
+                    measurements.putAll(measureImage(archive, true));
+                }
+                break;
+            } else if (!decompressed && startsWith(magic, count, XZ_MAGIC)) {
+                try (InputStream archive = new BufferedInputStream(
+                        new XZInputStream(image, NO_MEMORY_LIMIT), BUFFER_SIZE)) {
+                    measurements.putAll(measureImage(archive, true));
+                }
+                break;
+            } else {
+                throw new UnsupportedArchiveException("Unsupported initramfs compression");
+            }
+        }
+        return measurements;
+    }
+
+    /**
+     * Skips zero padding, then reads the next bytes of the stream without consuming them.
+     *
+     * @param in the stream, which must support mark and reset
+     * @param buffer the buffer receiving the bytes
+     * @return the number of bytes read, 0 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private static int peek(final InputStream in, final byte[] buffer) throws IOException {
+        int b;
+        do {
+            in.mark(1);
+            b = in.read();
+        } while (b == 0);
+        in.reset();
+
+        in.mark(buffer.length);
+        int count = 0;
+        while (count < buffer.length) {
+            int read = in.read(buffer, count, buffer.length - count);
+            if (read < 0) {
+                break;
+            }
+            count += read;
+        }
+        in.reset();
+        return count;
+    }
+
+    private static boolean startsWith(final byte[] bytes, final int count, final byte[] prefix) {
+        if (count < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Measures the initramfs file by unpacking it to a temporary location,
+     * measuring the files, and then cleaning up the temporary directory.
+     *
+     * @param sourceFile the initramfs file
+     * @return the resulting Multimap of absolute file paths to their measurements (one or many)
+     * @throws IOException if there is an error encountered while processing the package
+     */
+    private Multimap<Path, Digest> measureExtractedInitramfs(final File sourceFile)
+            throws IOException {
         Path extractionRootPath = null;
         final Multimap<Path, Digest> measurements = HashMultimap.create();
 
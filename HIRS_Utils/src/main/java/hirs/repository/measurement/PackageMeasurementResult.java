@@ -0,0 +1,49 @@
+package hirs.repository.measurement;
+
+import com.google.common.collect.Multimap;
+
+import hirs.data.persist.Digest;
+
+import java.nio.file.Path;
+
+/**
+ * The measurements of a software package, as returned by
+ * {@link PackageMeasurer#measurePackage(Path)}, along with whether every file of the package
+ * was measured.  A package is measured incompletely when a file could not be read or a chained
+ * PackageMeasurer failed, such as dracut failing to generate the initramfs of a kernel package;
+ * those failures are logged and the files are left out of the measurements.
+ */
+public final class PackageMeasurementResult {
+    private final Multimap<Path, Digest> measurements;
+    private final boolean complete;
+
+    /**
+     * Creates a new <code>PackageMeasurementResult</code>.
+     *
+     * @param measurements the measurements of the package
+     * @param complete true if every file of the package was measured
+     */
+    PackageMeasurementResult(final Multimap<Path, Digest> measurements,
+                             final boolean complete) {
+        this.measurements = measurements;
+        this.complete = complete;
+    }
+
+    /**
+     * Gets the measurements of the package.
+     *
+     * @return the Multimap of absolute file paths to their measurements (one or many)
+     */
+    public Multimap<Path, Digest> getMeasurements() {
+        return measurements;
+    }
+
+    /**
+     * Reports whether every file of the package was measured.
+     *
+     * @return true if no file or chained measurement failed, false otherwise
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -8,17 +8,21 @@ import hirs.data.persist.enums.DigestAlgorithm;
 import hirs.data.persist.baseline.IMABaselineRecord;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -26,6 +30,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This abstract class implements the basic functionality for measuring a software package.  It
@@ -40,6 +45,12 @@ public abstract class PackageMeasurer {
     private static final Logger LOGGER = LogManager.getLogger(PackageMeasurer.class);
     private static final Path ROOT = FileSystems.getDefault().getPath("/");
 
+    /**
+     * The number of files that failed to be measured on each thread while
+     * {@link #measurePackage(Path)} runs.  Chained measurements run on the calling thread.
+     */
+    private static final ThreadLocal<AtomicInteger> FAILURES = new ThreadLocal<>();
+
     private final DigestAlgorithm digestAlgorithm;
     private final List<PackageMeasurer> chainedPackageMeasurers;
 
@@ -84,14 +95,53 @@ public abstract class PackageMeasurer {
                 try {
                     measurements.putAll(measurer.measure(packageFile.toAbsolutePath()));
                 } catch (IOException e) {
-                    LOGGER.error("Failed to measure file: " + packageFile.toString(),
-                            e.getMessage());
+                    logFailure(packageFile, e);
                 }
             }
         }
         return measurements;
     }
 
+    /**
+     * Measures a specific software package as {@link #measure(Path)} does, and reports whether
+     * every file was measured.  Files that could not be measured, including those that a chained
+     * PackageMeasurer failed to measure, are logged and left out of the measurements, so an
+     * incomplete result should not be reused for other copies of the package.
+     *
+     * @param packageFile the path to the package to be measured
+     * @return the measurements of the package and whether they are complete
+     * @throws IOException if there is an error encountered while processing the package
+     */
+    public final PackageMeasurementResult measurePackage(final Path packageFile)
+            throws IOException {
+        AtomicInteger outerFailures = FAILURES.get();
+        AtomicInteger failures = new AtomicInteger();
+        FAILURES.set(failures);
+        try {
+            Multimap<Path, Digest> measurements = measure(packageFile);
+            return new PackageMeasurementResult(measurements, failures.get() == 0);
+        } finally {
+            if (outerFailures == null) {
+                FAILURES.remove();
+            } else {
+                outerFailures.addAndGet(failures.get());
+                FAILURES.set(outerFailures);
+            }
+        }
+    }
+
+    /**
+     * Logs a file that failed to be measured and counts it against the package being measured
+     * by {@link #measurePackage(Path)}, if any.
+     */
+    private static void logFailure(final Path file, final IOException e) {
+        LOGGER.error("Failed to measure file: " + file.toString(), e.getMessage());
+        AtomicInteger failures = FAILURES.get();
+        if (failures != null) {
+            failures.incrementAndGet();
+        }
+    }
+
     /**
      * Measures a specific software package.  The file type of the given packageFile is
      * specific to the implementing class.  This method returns a Multimap from Path to a collection
@@ -153,7 +203,7 @@ public abstract class PackageMeasurer {
                     try {
                         measurements.put(relativePath, measureFile(file));
                     } catch (IOException e) {
-                        LOGGER.error("Failed to measure file: " + file.toString(), e.getMessage());
+                        logFailure(file, e);
                     }
                 }
 
@@ -163,8 +213,7 @@ public abstract class PackageMeasurer {
                         try {
                             measurements.putAll(measurer.measure(file.toAbsolutePath()));
                         } catch (IOException e) {
-                            LOGGER.error("Failed to measure file: " + file.toString(),
-                                    e.getMessage());
+                            logFailure(file, e);
                         }
                     }
                 }
@@ -184,39 +233,158 @@ public abstract class PackageMeasurer {
      * @throws IOException if there is an error encountered while reading the file.
      */
      public final Digest measureFile(final Path fileLocation) throws IOException {
+        try (FileInputStream fis = new FileInputStream(fileLocation.toFile())) {
+            return measureStream(fis);
+        }
+    }
+
+    /**
+     * Measures the remaining contents of the given stream according to the set digest
+     * algorithm.  The stream is not closed.
+     *
+     * @param stream the stream to measure
+     * @return the resulting Digest
+     * @throws IOException if there is an error encountered while reading the stream.
+     */
+    protected final Digest measureStream(final InputStream stream) throws IOException {
         byte[] value;
 
-        try (FileInputStream fis = new FileInputStream(fileLocation.toFile())) {
-            switch (digestAlgorithm) {
-                case MD2:
-                    value = DigestUtils.md2(fis);
-                    break;
-                case MD5:
-                    value = DigestUtils.md5(fis);
-                    break;
-                case SHA1:
-                    value = DigestUtils.sha1(fis);
-                    break;
-                case SHA256:
-                    value = DigestUtils.sha256(fis);
-                    break;
-                case SHA384:
-                    value = DigestUtils.sha384(fis);
-                    break;
-                case SHA512:
-                    value = DigestUtils.sha512(fis);
-                    break;
-                default:
-                    throw new UnsupportedOperationException(
-                            "Measurement type not supported: " + digestAlgorithm
-                                    .toString()
-                    );
-            }
+        switch (digestAlgorithm) {
+            case MD2:
+                value = DigestUtils.md2(stream);
+                break;
+            case MD5:
+                value = DigestUtils.md5(stream);
+                break;
+            case SHA1:
+                value = DigestUtils.sha1(stream);
+                break;
+            case SHA256:
+                value = DigestUtils.sha256(stream);
+                break;
+            case SHA384:
+                value = DigestUtils.sha384(stream);
+                break;
+            case SHA512:
+                value = DigestUtils.sha512(stream);
+                break;
+            default:
+                throw new UnsupportedOperationException(
+                        "Measurement type not supported: " + digestAlgorithm
+                                .toString()
+                );
         }
 
         return new Digest(digestAlgorithm, value);
     }
 
+    /**
+     * Measures the files of a cpio archive as they are read from the given stream, without
+     * writing them to disk.  The result is the same as extracting the archive to a directory and
+     * measuring it with {@link #measureDirectory(Path)}: symbolic links, directories and special
+     * files are skipped, and hard links to a file all receive its measurement.  Only the files
+     * that a chained PackageMeasurer should measure are written to a temporary file, so that
+     * they can be passed on to that measurer.
+     *
+     * @param archive the stream positioned at the start of the archive, which is not closed
+     * @return the resulting Multimap of absolute file paths to their measurements (one or many)
+     * @throws IOException if there is an error encountered while reading the archive.
+     * @throws UnsupportedArchiveException if the archive is not in the newc cpio format
+     */
+    protected final Multimap<Path, Digest> measureCpioArchive(final InputStream archive)
+            throws IOException {
+        final Multimap<Path, Digest> measurements = HashMultimap.create();
+        final Multimap<String, Path> pendingLinks = HashMultimap.create();
+        final CpioArchiveReader reader = new CpioArchiveReader(archive);
+
+        CpioArchiveReader.Entry entry;
+        while ((entry = reader.getNextEntry()) != null) {
+            if (!entry.isRegularFile()) {
+                continue;
+            }
+            Path relativePath = ROOT.resolve(entry.getName()).normalize();
+            if (relativePath.equals(ROOT)) {
+                continue;
+            }
+
+            // in the newc format only the last link to an inode carries its data
+            if (entry.getLinkCount() > 1 && entry.getSize() == 0) {
+                pendingLinks.put(entry.getInodeKey(), relativePath);
+                continue;
+            }
+
+            Collection<Path> links = pendingLinks.removeAll(entry.getInodeKey());
+            List<PackageMeasurer> measurers = chainedMeasurersFor(relativePath);
+            if (!measurers.isEmpty()) {
+                measureWithChainedMeasurers(relativePath, reader.getEntryStream(), measurers,
+                        links, measurements);
+            } else if (shouldMeasureFile(relativePath)) {
+                LOGGER.debug("Measuring: " + relativePath.toString());
+                Digest digest = measureStream(reader.getEntryStream());
+                measurements.put(relativePath, digest);
+                for (Path link : links) {
+                    measurements.put(link, digest);
+                }
+            }
+        }
+
+        // links left pending belong to empty files
+        if (!pendingLinks.isEmpty()) {
+            Digest emptyDigest = measureStream(new ByteArrayInputStream(new byte[0]));
+            for (Path link : pendingLinks.values()) {
+                if (shouldMeasureFile(link)) {
+                    measurements.put(link, emptyDigest);
+                }
+            }
+        }
+
+        return measurements;
+    }
+
+    private List<PackageMeasurer> chainedMeasurersFor(final Path relativePath) {
+        List<PackageMeasurer> measurers = new ArrayList<>();
+        for (PackageMeasurer measurer : chainedPackageMeasurers) {
+            if (measurer.shouldMeasureFileWhenChainedMeasurer(relativePath)) {
+                measurers.add(measurer);
+            }
+        }
+        return measurers;
+    }
+
+    private void measureWithChainedMeasurers(final Path relativePath, final InputStream data,
+                                             final List<PackageMeasurer> measurers,
+                                             final Collection<Path> links,
+                                             final Multimap<Path, Digest> measurements)
+            throws IOException {
+        Path fileName = relativePath.getFileName();
+        if (fileName == null) {
+            return;
+        }
+        Path tempDir = Files.createTempDirectory(
+                FileSystems.getDefault().getPath(FileUtils.getTempDirectoryPath()),
+                "hirs-chained-measurement-");
+        try {
+            Path file = tempDir.resolve(fileName.toString());
+            Files.copy(data, file);
+            if (shouldMeasureFile(relativePath)) {
+                Digest digest = measureFile(file);
+                measurements.put(relativePath, digest);
+                for (Path link : links) {
+                    measurements.put(link, digest);
+                }
+            }
+            for (PackageMeasurer measurer : measurers) {
+                try {
+                    measurements.putAll(measurer.measure(file.toAbsolutePath()));
+                } catch (IOException e) {
+                    logFailure(relativePath, e);
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(tempDir.toFile());
+        }
+    }
+
     /**
      * Measures the files at the specified file path.
      * @param filePath the file path root to measure files
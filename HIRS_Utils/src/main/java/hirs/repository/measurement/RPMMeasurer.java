@@ -10,6 +10,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -20,8 +21,9 @@ import java.util.UUID;
 import java.util.regex.Pattern;
 
 /**
- * Extends <code>PackageMeasurer</code> to conduct the measurement of RPM content.  Requires
- * rpm2cpio and cpio to be installed.  This 'chains' {@link InitRamFsGeneratorAndMeasurer};
+ * Extends <code>PackageMeasurer</code> to conduct the measurement of RPM content.  RPMs with
+ * gzip, xz or lzma payloads are read in memory; others require rpm2cpio and cpio to be
+ * installed.  This 'chains' {@link InitRamFsGeneratorAndMeasurer};
  * if a kernel RPM is measured, an InitRamFsGeneratorAndMeasurer will be used to generate and
  * measure an initramfs image for that kernel; these measurements be added to the measurements from
  * the RPM itself.
@@ -31,6 +33,7 @@ public class RPMMeasurer extends PackageMeasurer {
     private static final Pattern RPM_FILENAME = Pattern.compile(".+\\.rpm$");
     private static final int RPM_EXTRACT_TIMEOUT = 2 * 60 * 1000;
     private static final String EXTRACT_SCRIPT = "/repository/extract_rpm.sh";
+    private static final int RPM_BUFFER_SIZE = 64 * 1024;
 
     /**
      * Construct a new RPMMeasurer.
@@ -41,6 +44,28 @@ public class RPMMeasurer extends PackageMeasurer {
         super(digestAlgorithm, new InitRamFsGeneratorAndMeasurer(digestAlgorithm));
     }
 
+    /**
+     * This method measures an RPM at the given file path.  The RPM's payload is decompressed and
+     * its files are measured as they are read, without extracting them.  If the payload uses a
+     * format or compressor that cannot be read in memory, this falls back to
+     * {@link #measureExtractedRpm(Path)}.
+     *
+     * @param rpmFile the path to the package to be measured
+     * @return the resulting Multimap of absolute file paths to their measurements (one or many)
+     * @throws IOException if there is an error encountered while processing the RPM
+     */
+    @Override
+    protected final Multimap<Path, Digest> doMeasure(final Path rpmFile) throws IOException {
+        try (InputStream rpm = new BufferedInputStream(Files.newInputStream(rpmFile),
+                    RPM_BUFFER_SIZE);
+             InputStream payload = RpmPayloadReader.openPayload(rpm)) {
+            return measureCpioArchive(payload);
+        } catch (UnsupportedArchiveException e) {
+            LOGGER.info("Extracting {} to measure it: {}", rpmFile, e.getMessage());
+            return measureExtractedRpm(rpmFile);
+        }
+    }
+
     /**
      * This method measures an RPM at the given file path.  It creates a temporary directory in the
      * given RPM file's directory, extracts the RPM's files into the directory, measures them, then
@@ -50,8 +75,7 @@ public class RPMMeasurer extends PackageMeasurer {
      * @return the resulting Multimap of absolute file paths to their measurements (one or many)
      * @throws IOException if there is an error encountered while processing the RPM
      */
-    @Override
-    protected final Multimap<Path, Digest> doMeasure(final Path rpmFile) throws IOException {
+    final Multimap<Path, Digest> measureExtractedRpm(final Path rpmFile) throws IOException {
         Path rpmRoot = null;
 
         try {
@@ -0,0 +1,141 @@
+package hirs.repository.measurement;
+
+import org.tukaani.xz.LZMAInputStream;
+import org.tukaani.xz.XZInputStream;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the headers of an RPM package and opens its payload as a decompressed cpio stream, in
+ * place of rpm2cpio.  Payloads compressed with gzip, xz or lzma are supported; other
+ * compressors, such as bzip2 and zstd, are reported with an
+ * {@link UnsupportedArchiveException}.
+ */
+final class RpmPayloadReader {
+    private static final byte[] LEAD_MAGIC = {(byte) 0xed, (byte) 0xab, (byte) 0xee, (byte) 0xdb};
+    private static final byte[] HEADER_MAGIC = {(byte) 0x8e, (byte) 0xad, (byte) 0xe8, 0x01};
+    private static final int LEAD_LENGTH = 96;
+    private static final int HEADER_RESERVED_LENGTH = 4;
+    private static final int INDEX_ENTRY_LENGTH = 16;
+    private static final int SIGNATURE_ALIGNMENT = 8;
+    private static final int MAX_INDEX_COUNT = 0x10000;
+    private static final int MAX_STORE_LENGTH = 256 * 1024 * 1024;
+    private static final int STRING_TYPE = 6;
+    private static final int PAYLOAD_FORMAT_TAG = 1124;
+    private static final int PAYLOAD_COMPRESSOR_TAG = 1125;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int NO_MEMORY_LIMIT = -1;
+
+    private RpmPayloadReader() {
+    }
+
+    /**
+     * Reads the lead, signature and header of the RPM package at the start of the given stream,
+     * and returns a stream over its decompressed cpio payload.  Closing the returned stream
+     * closes the given one.
+     *
+     * @param rpm the stream over the RPM package
+     * @return the decompressed payload
+     * @throws IOException if the package cannot be read
+     * @throws UnsupportedArchiveException if the payload format or compressor is not supported
+     */
+    static InputStream openPayload(final InputStream rpm) throws IOException {
+        DataInputStream in = new DataInputStream(rpm);
+        byte[] lead = new byte[LEAD_LENGTH];
+        in.readFully(lead);
+        if (!Arrays.equals(Arrays.copyOf(lead, LEAD_MAGIC.length), LEAD_MAGIC)) {
+            throw new IOException("Not an RPM package");
+        }
+
+        int signatureLength = skipHeader(in, null);
+        in.readFully(new byte[padding(signatureLength)]);
+
+        String[] payloadTags = new String[2];
+        skipHeader(in, payloadTags);
+        String format = payloadTags[0];
+        String compressor = payloadTags[1];
+
+        if (format != null && !"cpio".equals(format)) {
+            throw new UnsupportedArchiveException("Unsupported RPM payload format: " + format);
+        }
+        if (compressor == null || "gzip".equals(compressor)) {
+            return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+        } else if ("xz".equals(compressor)) {
+            return new XZInputStream(in, NO_MEMORY_LIMIT);
+        } else if ("lzma".equals(compressor)) {
+            return new LZMAInputStream(in, NO_MEMORY_LIMIT);
+        }
+        throw new UnsupportedArchiveException("Unsupported RPM payload compressor: "
+                + compressor);
+    }
+
+    /**
+     * Reads a header structure, optionally collecting the payload format and compressor tags.
+     *
+     * @param in the stream, positioned at the header magic
+     * @param payloadTags if not null, receives the payload format and compressor, if present
+     * @return the length of the header structure
+     * @throws IOException if the header cannot be read
+     */
+    private static int skipHeader(final DataInputStream in, final String[] payloadTags)
+            throws IOException {
+        byte[] magic = new byte[HEADER_MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, HEADER_MAGIC)) {
+            throw new IOException("Invalid RPM header");
+        }
+        in.readFully(new byte[HEADER_RESERVED_LENGTH]);
+        int indexCount = in.readInt();
+        int storeLength = in.readInt();
+        if (indexCount < 0 || indexCount > MAX_INDEX_COUNT
+                || storeLength < 0 || storeLength > MAX_STORE_LENGTH) {
+            throw new IOException("Invalid RPM header size");
+        }
+
+        int[][] index = new int[indexCount][];
+        for (int i = 0; i < indexCount; i++) {
+            int tag = in.readInt();
+            int type = in.readInt();
+            int offset = in.readInt();
+            in.readInt();
+            index[i] = new int[] {tag, type, offset};
+        }
+        byte[] store = new byte[storeLength];
+        in.readFully(store);
+
+        if (payloadTags != null) {
+            for (int[] entry : index) {
+                if (entry[1] != STRING_TYPE) {
+                    continue;
+                }
+                if (entry[0] == PAYLOAD_FORMAT_TAG) {
+                    payloadTags[0] = readString(store, entry[2]);
+                } else if (entry[0] == PAYLOAD_COMPRESSOR_TAG) {
+                    payloadTags[1] = readString(store, entry[2]);
+                }
+            }
+        }
+        return HEADER_MAGIC.length + HEADER_RESERVED_LENGTH + 2 * Integer.BYTES
+                + indexCount * INDEX_ENTRY_LENGTH + storeLength;
+    }
+
+    private static String readString(final byte[] store, final int offset) throws IOException {
+        if (offset < 0 || offset >= store.length) {
+            throw new IOException("Invalid RPM header string offset");
+        }
+        int end = offset;
+        while (end < store.length && store[end] != 0) {
+            end++;
+        }
+        return new String(store, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static int padding(final int length) {
+        return (SIGNATURE_ALIGNMENT - length % SIGNATURE_ALIGNMENT) % SIGNATURE_ALIGNMENT;
+    }
+}
@@ -0,0 +1,21 @@
+package hirs.repository.measurement;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a package or archive uses a format or compression that cannot be read in
+ * memory.  Measurers catch this exception to fall back to unpacking the package with external
+ * tools.
+ */
+class UnsupportedArchiveException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new <code>UnsupportedArchiveException</code>.
+     *
+     * @param msg the exception message
+     */
+    UnsupportedArchiveException(final String msg) {
+        super(msg);
+    }
+}
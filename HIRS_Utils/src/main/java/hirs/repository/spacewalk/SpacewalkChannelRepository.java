@@ -1,5 +1,6 @@
 package hirs.repository.spacewalk;
 
+import hirs.persist.RepositoryManager;
 import hirs.repository.RepositoryException;
 import hirs.repository.RPMRepository;
 
@@ -166,6 +167,13 @@ public class SpacewalkChannelRepository extends RPMRepository<SpacewalkPackage>
     @Override
     protected void measurePackage(final SpacewalkPackage repoPackage, final int maxDownloadAttempts)
             throws RepositoryException {
+        measurePackage(repoPackage, maxDownloadAttempts, null);
+    }
+
+    @Override
+    protected void measurePackage(final SpacewalkPackage repoPackage, final int maxDownloadAttempts,
+                                  final RepositoryManager repoMan)
+            throws RepositoryException {
         Path tempPath;
         try {
             tempPath = getTempExtractionDirectory();
@@ -182,7 +190,7 @@ public class SpacewalkChannelRepository extends RPMRepository<SpacewalkPackage>
                 Path rpmPath = downloadRpmFromSpacewalk(repoPackage, maxDownloadAttempts,
                         tempPath);
                 LOGGER.debug("Measuring package: " + repoPackage.getRPMIdentifier());
-                measurePackageAtPath(repoPackage, rpmPath);
+                measurePackageAtPath(repoPackage, rpmPath, repoMan);
                 return;
             } catch (RepositoryException e) {
                 LOGGER.warn("Failed to download {} on attempt #{}",
@@ -4,7 +4,6 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.Collection;
@@ -13,7 +12,6 @@ import java.util.LinkedHashMap;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 
-import hirs.data.persist.AbstractDigest;
 import hirs.data.persist.Digest;
 import hirs.data.persist.TPMMeasurementRecord;
 import hirs.data.persist.baseline.TpmWhiteListBaseline;
@@ -65,8 +63,6 @@ public final class TCGEventLog {
     private LinkedHashMap<Integer, TpmPcrEvent> eventList = new LinkedHashMap<>();
     /** Length of PCR. Indicates which hash algorithm is used. */
     private int pcrLength;
-    /** Name of hash algorithm. */
-    private String hashType;
     /** Initial PCR Value to use. */
     private String initValue;
     /** Initial PcR Value to use for locality 4. */
@@ -88,7 +84,6 @@ public final class TCGEventLog {
         initValue = INIT_SHA1_LIST;
         initLocalityFourValue = LOCALITY4_SHA1_LIST;
         pcrLength = EvConstants.SHA1_LENGTH;
-        hashType = HASH_STRING;
         algorithm = "TPM_ALG_SHA1";
         initPcrList();
     }
@@ -124,12 +119,10 @@ public final class TCGEventLog {
             initValue = INIT_SHA256_LIST;
             initLocalityFourValue = LOCALITY4_SHA256_LIST;
             algorithm = "TPM_ALG_SHA256";
-            hashType = HASH256_STRING;
             pcrLength = EvConstants.SHA256_LENGTH;
         } else {
             initValue = INIT_SHA1_LIST;
             initLocalityFourValue = LOCALITY4_SHA1_LIST;
-            hashType = HASH_STRING;
             algorithm = "TPM_ALG_SHA1";
             pcrLength = EvConstants.SHA1_LENGTH;
         }
@@ -204,46 +197,18 @@ public final class TCGEventLog {
      * Uses the algorithm and eventList passed into the constructor,
      */
     private void calculatePcrValues() {
-        byte[] extendedPCR;
-        initPcrList();
+        int algId = getEventLogHashAlgorithmID();
+        TcgPcrReplay replay = new TcgPcrReplay(algId);
         for (TpmPcrEvent currentEvent : eventList.values()) {
-            if (currentEvent.getPcrIndex() >= 0) {   // Ignore NO_EVENTS which can have a PCR=-1
-                try {
-                    if (currentEvent.getEventType() != NO_ACTION_EVENT) {
-                        // Don't include EV_NO_ACTION event
-                        extendedPCR = extendPCR(pcrList[currentEvent.getPcrIndex()],
-                                currentEvent.getEventDigest());
-                        System.arraycopy(extendedPCR, 0, pcrList[currentEvent.getPcrIndex()],
-                                0, currentEvent.getDigestLength());
-                    }
-                } catch (NoSuchAlgorithmException e) {
-                    LOGGER.error(e);
-                }
+            // Ignore NO_EVENTS which can have a PCR=-1 and don't include EV_NO_ACTION event
+            if (currentEvent.getPcrIndex() >= 0
+                    && currentEvent.getEventType() != NO_ACTION_EVENT) {
+                replay.extend(algId, currentEvent.getPcrIndex(), currentEvent.getEventDigest());
             }
         }
-    }
-
-    /**
-     * Extends a hash with a hash of new data.
-     *
-     * @param currentValue value to extend
-     * @param newEvent     value to extend with
-     * @return new hash resultant hash
-     * @throws NoSuchAlgorithmException if hash algorithm not supported
-     */
-    private byte[] extendPCR(final byte[] currentValue, final byte[] newEvent)
-            throws NoSuchAlgorithmException {
-        MessageDigest md = MessageDigest.getInstance(hashType);
-        StringBuilder sb = new StringBuilder(AbstractDigest.SHA512_DIGEST_LENGTH);
-        sb.append(Hex.encodeHexString(currentValue).toCharArray());
-        sb.append(Hex.encodeHexString(newEvent).toCharArray());
-
-        try {
-            md.update(Hex.decodeHex(sb.toString().toCharArray()));
-        } catch (DecoderException deEx) {
-            LOGGER.error(deEx);
+        for (int i = 0; i < PCR_COUNT; i++) {
+            pcrList[i] = replay.getPcrValue(algId, i);
         }
-        return md.digest();
     }
 
     /**
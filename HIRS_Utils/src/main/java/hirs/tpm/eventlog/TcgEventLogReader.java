@@ -0,0 +1,291 @@
+package hirs.tpm.eventlog;
+
+import hirs.tpm.eventlog.events.EvConstants;
+import hirs.tpm.eventlog.uefi.UefiConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming parser for TCG event logs in either the SHA1 or the Crypto Agile format, as
+ * described in the TCG Platform Firmware Profile specification.
+ * <p>
+ * Unlike {@link TCGEventLog}, the log is neither copied nor parsed up front. Events are
+ * located one at a time as the log is iterated or visited, and are returned as
+ * {@link TcgEventView}s that read their fields from the log only when asked. Event digests are
+ * not recomputed and event content is not decoded unless requested, which keeps replaying the
+ * PCRs of large logs cheap. The log may be backed by a memory-mapped file, see
+ * {@link #map(Path)}.
+ * <p>
+ * The reader never modifies the buffer it was given and may be iterated any number of times,
+ * including by several threads at once.
+ */
+public final class TcgEventLogReader implements Iterable<TcgEventView> {
+    /** Size of the fixed part of a TCG_PCR_EVENT, which precedes the event data. */
+    private static final int EVENT1_HEADER_SIZE = UefiConstants.SIZE_32;
+    /** Size of the smallest TCG_PCR_EVENT2: index, type, digest count and event size. */
+    private static final int EVENT2_MIN_SIZE = UefiConstants.SIZE_16;
+    /** Signature of the TCG_EfiSpecIdEvent of a crypto agile log, including the null. */
+    private static final byte[] SPEC_ID_SIGNATURE =
+            "Spec ID Event03\0".getBytes(StandardCharsets.US_ASCII);
+    /** Offset of the number of algorithms within a TCG_EfiSpecIdEvent. */
+    private static final int SPEC_ID_ALG_COUNT_OFFSET = UefiConstants.SIZE_24;
+    /** Mask to read a UINT16 without sign extension. */
+    private static final int UINT16_MASK = 0xFFFF;
+    /** Mask to read a UINT32 without sign extension. */
+    private static final long UINT32_MASK = 0xFFFFFFFFL;
+
+    private final ByteBuffer log;
+    private final boolean cryptoAgile;
+    private final Map<Integer, Integer> digestSizes;
+
+    /**
+     * Constructs a reader over the remaining bytes of the given buffer. The buffer is not
+     * copied, and its position, limit and byte order are left untouched.
+     *
+     * @param log buffer holding the event log
+     * @throws IllegalArgumentException if the log starts with a truncated TCG_EfiSpecIdEvent
+     */
+    public TcgEventLogReader(final ByteBuffer log) {
+        this.log = log.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        this.digestSizes = new HashMap<>();
+        this.cryptoAgile = readSpecIdEvent();
+    }
+
+    /**
+     * Constructs a reader over the given bytes. The array is not copied and must not be
+     * modified while the reader or its events are in use.
+     *
+     * @param log data for the event log file
+     * @throws IllegalArgumentException if the log starts with a truncated TCG_EfiSpecIdEvent
+     */
+    public TcgEventLogReader(final byte[] log) {
+        this(ByteBuffer.wrap(log));
+    }
+
+    /**
+     * Constructs a reader over an event log file by mapping it into memory.
+     *
+     * @param path the event log file
+     * @return a reader over the file
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the log starts with a truncated TCG_EfiSpecIdEvent
+     */
+    public static TcgEventLogReader map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            return new TcgEventLogReader(buffer);
+        }
+    }
+
+    /**
+     * Returns a flag which is set if the event log follows the "Crypto Agile" Format Type.
+     * A false implies the type is SHA1 format.
+     *
+     * @return true if log follows the Crypto Agile format
+     */
+    public boolean isCryptoAgile() {
+        return cryptoAgile;
+    }
+
+    /**
+     * Returns the TCG Algorithm Registry defined ID for the Digest Algorithm used in the event
+     * log, in the same way as {@link TCGEventLog#getEventLogHashAlgorithmID()}.
+     *
+     * @return TPM_ALG_SHA256 for crypto agile logs, TPM_ALG_SHA1 otherwise
+     */
+    public int getEventLogHashAlgorithmID() {
+        if (cryptoAgile) {
+            return TcgTpmtHa.TPM_ALG_SHA256;
+        }
+        return TcgTpmtHa.TPM_ALG_SHA1;
+    }
+
+    /**
+     * Returns an iterator over the events of the log. Each event is located when it is
+     * requested from the iterator.
+     *
+     * @return an iterator over the events of the log
+     * @throws IllegalArgumentException from the iterator if the log is malformed
+     */
+    @Override
+    public Iterator<TcgEventView> iterator() {
+        return new EventIterator();
+    }
+
+    /**
+     * Passes every event of the log to the given visitor, in order, until the visitor asks to
+     * stop.
+     *
+     * @param visitor the visitor to pass the events to
+     * @throws IllegalArgumentException if the log is malformed
+     */
+    public void accept(final TcgEventVisitor visitor) {
+        for (TcgEventView event : this) {
+            if (!visitor.visit(event)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Determines whether the first event of the log is a TCG_EfiSpecIdEvent indicating the
+     * crypto agile format, and if so records the digest sizes it declares.
+     *
+     * @throws IllegalArgumentException if the TCG_EfiSpecIdEvent extends past the log
+     */
+    private boolean readSpecIdEvent() {
+        if (log.limit() < EVENT1_HEADER_SIZE + SPEC_ID_ALG_COUNT_OFFSET + UefiConstants.SIZE_4
+                || log.getInt(UefiConstants.SIZE_4) != EvConstants.EV_NO_ACTION) {
+            return false;
+        }
+        for (int i = 0; i < SPEC_ID_SIGNATURE.length; i++) {
+            if (log.get(EVENT1_HEADER_SIZE + i) != SPEC_ID_SIGNATURE[i]) {
+                return false;
+            }
+        }
+
+        int dataSize = readSize(EVENT1_HEADER_SIZE - UefiConstants.SIZE_4, 0);
+        require(EVENT1_HEADER_SIZE, dataSize, 0);
+        int dataEnd = EVENT1_HEADER_SIZE + dataSize;
+        int offset = EVENT1_HEADER_SIZE + SPEC_ID_ALG_COUNT_OFFSET;
+        long algCount = log.getInt(offset) & UINT32_MASK;
+        offset += UefiConstants.SIZE_4;
+        for (long i = 0; i < algCount && offset + UefiConstants.SIZE_4 <= dataEnd; i++) {
+            int algId = log.getShort(offset) & UINT16_MASK;
+            int size = log.getShort(offset + UefiConstants.SIZE_2) & UINT16_MASK;
+            digestSizes.put(algId, size);
+            offset += UefiConstants.SIZE_4;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the size of digests of the given algorithm, as declared by the
+     * TCG_EfiSpecIdEvent or, failing that, as defined by the TCG.
+     */
+    private int digestSize(final int algId) {
+        Integer size = digestSizes.get(algId);
+        if (size != null) {
+            return size;
+        }
+        return TcgTpmtHa.tcgAlgLength(algId);
+    }
+
+    /**
+     * Locates the event starting at the given offset. The first event of a log always uses the
+     * SHA1 format.
+     */
+    private TcgEventView readEvent(final int start, final int eventNumber) {
+        if (eventNumber == 0 || !cryptoAgile) {
+            return readEvent1(start, eventNumber);
+        }
+        return readEvent2(start, eventNumber);
+    }
+
+    private TcgEventView readEvent1(final int start, final int eventNumber) {
+        require(start, EVENT1_HEADER_SIZE, eventNumber);
+        int offset = start;
+        int pcrIndex = log.getInt(offset);
+        offset += UefiConstants.SIZE_4;
+        long eventType = log.getInt(offset) & UINT32_MASK;
+        offset += UefiConstants.SIZE_4;
+        int[] digestOffsets = {offset};
+        offset += EvConstants.SHA1_LENGTH;
+        int eventSize = readSize(offset, eventNumber);
+        offset += UefiConstants.SIZE_4;
+        require(offset, eventSize, eventNumber);
+        return new TcgEventView(log, eventNumber, 1, start, pcrIndex, eventType,
+                new int[] {TcgTpmtHa.TPM_ALG_SHA1}, digestOffsets,
+                new int[] {EvConstants.SHA1_LENGTH}, offset, eventSize);
+    }
+
+    private TcgEventView readEvent2(final int start, final int eventNumber) {
+        require(start, EVENT2_MIN_SIZE, eventNumber);
+        int offset = start;
+        int pcrIndex = log.getInt(offset);
+        offset += UefiConstants.SIZE_4;
+        long eventType = log.getInt(offset) & UINT32_MASK;
+        offset += UefiConstants.SIZE_4;
+        int digestCount = readSize(offset, eventNumber);
+        offset += UefiConstants.SIZE_4;
+        // each digest takes at least its algorithm id, so the count is bounded by the log
+        // before any array is sized from it
+        if (digestCount > (log.limit() - offset) / UefiConstants.SIZE_2) {
+            throw new IllegalArgumentException(String.format(
+                    "Event log is truncated within event %d", eventNumber));
+        }
+        int[] algIds = new int[digestCount];
+        int[] digestOffsets = new int[digestCount];
+        int[] digestLengths = new int[digestCount];
+        for (int i = 0; i < digestCount; i++) {
+            require(offset, UefiConstants.SIZE_2, eventNumber);
+            algIds[i] = log.getShort(offset) & UINT16_MASK;
+            offset += UefiConstants.SIZE_2;
+            digestLengths[i] = digestSize(algIds[i]);
+            if (digestLengths[i] == 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Event %d uses unknown digest algorithm 0x%x", eventNumber, algIds[i]));
+            }
+            require(offset, digestLengths[i], eventNumber);
+            digestOffsets[i] = offset;
+            offset += digestLengths[i];
+        }
+        int eventSize = readSize(offset, eventNumber);
+        offset += UefiConstants.SIZE_4;
+        require(offset, eventSize, eventNumber);
+        return new TcgEventView(log, eventNumber, 2, start, pcrIndex, eventType,
+                algIds, digestOffsets, digestLengths, offset, eventSize);
+    }
+
+    private int readSize(final int offset, final int eventNumber) {
+        require(offset, UefiConstants.SIZE_4, eventNumber);
+        int size = log.getInt(offset);
+        if (size < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Event %d declares an invalid size or count", eventNumber));
+        }
+        return size;
+    }
+
+    private void require(final int offset, final int length, final int eventNumber) {
+        if (length > log.limit() - offset) {
+            throw new IllegalArgumentException(String.format(
+                    "Event log is truncated within event %d", eventNumber));
+        }
+    }
+
+    /**
+     * Iterates over the events of the log, locating each when it is requested.
+     */
+    private final class EventIterator implements Iterator<TcgEventView> {
+        private int offset = 0;
+        private int eventNumber = 0;
+
+        @Override
+        public boolean hasNext() {
+            return offset < log.limit();
+        }
+
+        @Override
+        public TcgEventView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TcgEventView event = readEvent(offset, eventNumber++);
+            offset = event.getEnd();
+            return event;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package hirs.tpm.eventlog;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+
+/**
+ * A lightweight, read-only view of a single event within a TCG event log, as produced by
+ * {@link TcgEventLogReader}. The view only records where the fields of the event are located
+ * within the log; digests and event data are read from the underlying buffer when they are
+ * requested, and nothing is decoded or hashed unless asked for. A view remains valid for as
+ * long as the buffer the log was read from.
+ */
+public final class TcgEventView {
+    private final ByteBuffer log;
+    private final int eventNumber;
+    private final int logFormat;
+    private final int start;
+    private final int end;
+    private final int pcrIndex;
+    private final long eventType;
+    private final int[] digestAlgIds;
+    private final int[] digestOffsets;
+    private final int[] digestLengths;
+    private final int eventDataOffset;
+    private final int eventDataSize;
+
+    /**
+     * Constructor.
+     *
+     * @param log the buffer holding the entire event log
+     * @param eventNumber position of the event within the log
+     * @param logFormat 1 for the SHA1 format, 2 for the crypto agile format
+     * @param start offset of the first byte of the event
+     * @param pcrIndex the PCR index of the event
+     * @param eventType the event type of the event
+     * @param digestAlgIds TCG algorithm identifiers of the digests of the event
+     * @param digestOffsets offsets of the digests of the event
+     * @param digestLengths lengths of the digests of the event
+     * @param eventDataOffset offset of the event data
+     * @param eventDataSize length of the event data
+     */
+    @SuppressWarnings("ParameterNumberCheck")
+    TcgEventView(final ByteBuffer log, final int eventNumber, final int logFormat,
+                 final int start, final int pcrIndex, final long eventType,
+                 final int[] digestAlgIds, final int[] digestOffsets, final int[] digestLengths,
+                 final int eventDataOffset, final int eventDataSize) {
+        this.log = log;
+        this.eventNumber = eventNumber;
+        this.logFormat = logFormat;
+        this.start = start;
+        this.end = eventDataOffset + eventDataSize;
+        this.pcrIndex = pcrIndex;
+        this.eventType = eventType;
+        this.digestAlgIds = digestAlgIds;
+        this.digestOffsets = digestOffsets;
+        this.digestLengths = digestLengths;
+        this.eventDataOffset = eventDataOffset;
+        this.eventDataSize = eventDataSize;
+    }
+
+    /**
+     * @return the position of the event within the log, starting at 0
+     */
+    public int getEventNumber() {
+        return eventNumber;
+    }
+
+    /**
+     * Gets the Log Format of the event.
+     * 1 = SHA1 Format, 2 = Crypto Agile format.
+     *
+     * @return number representing the format
+     */
+    public int getLogFormat() {
+        return logFormat;
+    }
+
+    /**
+     * @return the PCR index of the event; -1 for events not associated with a PCR
+     */
+    public int getPcrIndex() {
+        return pcrIndex;
+    }
+
+    /**
+     * @return the PFP defined event type of the event
+     */
+    public long getEventType() {
+        return eventType;
+    }
+
+    /**
+     * @return the number of digests held by the event
+     */
+    public int getDigestCount() {
+        return digestAlgIds.length;
+    }
+
+    /**
+     * Returns the TCG algorithm identifier of a digest of the event.
+     *
+     * @param index position of the digest within the event
+     * @return the TCG algorithm identifier of the digest
+     */
+    public int getDigestAlgId(final int index) {
+        return digestAlgIds[index];
+    }
+
+    /**
+     * Determines whether the event holds a digest of the given algorithm.
+     *
+     * @param algId TCG algorithm identifier, such as {@link TcgTpmtHa#TPM_ALG_SHA256}
+     * @return true if the event holds a digest of the algorithm
+     */
+    public boolean hasDigest(final int algId) {
+        return indexOf(algId) >= 0;
+    }
+
+    /**
+     * Returns a read-only buffer over the digest of the given algorithm, without copying it.
+     *
+     * @param algId TCG algorithm identifier, such as {@link TcgTpmtHa#TPM_ALG_SHA256}
+     * @return the digest, or null if the event holds no digest of the algorithm
+     */
+    public ByteBuffer getDigestBuffer(final int algId) {
+        int index = indexOf(algId);
+        if (index < 0) {
+            return null;
+        }
+        return slice(digestOffsets[index], digestLengths[index]);
+    }
+
+    /**
+     * Returns a copy of the digest of the given algorithm.
+     *
+     * @param algId TCG algorithm identifier, such as {@link TcgTpmtHa#TPM_ALG_SHA256}
+     * @return the digest, or null if the event holds no digest of the algorithm
+     */
+    public byte[] getDigest(final int algId) {
+        ByteBuffer digest = getDigestBuffer(algId);
+        if (digest == null) {
+            return null;
+        }
+        byte[] copy = new byte[digest.remaining()];
+        digest.get(copy);
+        return copy;
+    }
+
+    /**
+     * Copies the digest of the given algorithm into the start of the given array, without
+     * allocating.
+     *
+     * @param algId TCG algorithm identifier, such as {@link TcgTpmtHa#TPM_ALG_SHA256}
+     * @param dest the array to copy the digest into
+     * @return the length of the digest, or -1 if the event holds no digest of the algorithm
+     * @throws IllegalArgumentException if the digest does not fit into the array
+     */
+    public int copyDigest(final int algId, final byte[] dest) {
+        int index = indexOf(algId);
+        if (index < 0) {
+            return -1;
+        }
+        int length = digestLengths[index];
+        if (length > dest.length) {
+            throw new IllegalArgumentException(String.format(
+                    "Digest of event %d is longer than expected", eventNumber));
+        }
+        int offset = digestOffsets[index];
+        for (int i = 0; i < length; i++) {
+            dest[i] = log.get(offset + i);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the digest that {@link TpmPcrEvent#getEventDigest()} reports for the event: the
+     * SHA1 digest for the SHA1 format and the SHA256 digest for the crypto agile format.
+     *
+     * @return a copy of the digest, or null if the event holds no such digest
+     */
+    public byte[] getEventDigest() {
+        if (logFormat == 1) {
+            return getDigest(TcgTpmtHa.TPM_ALG_SHA1);
+        }
+        return getDigest(TcgTpmtHa.TPM_ALG_SHA256);
+    }
+
+    /**
+     * Copies the digest {@link #getEventDigest()} returns into the start of the given array,
+     * without allocating.
+     *
+     * @param dest the array to copy the digest into
+     * @return the length of the digest, or -1 if the event holds no such digest
+     * @throws IllegalArgumentException if the digest does not fit into the array
+     */
+    public int copyEventDigest(final byte[] dest) {
+        if (logFormat == 1) {
+            return copyDigest(TcgTpmtHa.TPM_ALG_SHA1, dest);
+        }
+        return copyDigest(TcgTpmtHa.TPM_ALG_SHA256, dest);
+    }
+
+    /**
+     * Returns a hex representation of the event digest.
+     *
+     * @return hex string, or null if the event holds no such digest
+     */
+    public String getEventDigestStr() {
+        byte[] digest = getEventDigest();
+        if (digest == null) {
+            return null;
+        }
+        return Hex.encodeHexString(digest);
+    }
+
+    /**
+     * @return the length of the event data
+     */
+    public int getEventDataSize() {
+        return eventDataSize;
+    }
+
+    /**
+     * Returns a read-only buffer over the event data, without copying it.
+     *
+     * @return the event data
+     */
+    public ByteBuffer getEventData() {
+        return slice(eventDataOffset, eventDataSize);
+    }
+
+    /**
+     * Hashes the event data with the given algorithm. This is computed on every call.
+     *
+     * @param algorithm a {@link MessageDigest} algorithm name, such as "SHA-256"
+     * @return the hash of the event data
+     * @throws NoSuchAlgorithmException if the algorithm is not supported
+     */
+    public byte[] hashEventData(final String algorithm) throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance(algorithm);
+        md.update(getEventData());
+        return md.digest();
+    }
+
+    /**
+     * Fully parses the event, decoding its content, in the same way {@link TCGEventLog} does.
+     *
+     * @return the parsed event
+     * @throws IOException if the event cannot be parsed
+     * @throws CertificateException if a certificate within the event cannot be parsed
+     * @throws NoSuchAlgorithmException if an undefined algorithm is encountered
+     */
+    public TpmPcrEvent toTpmPcrEvent()
+            throws IOException, CertificateException, NoSuchAlgorithmException {
+        byte[] event = new byte[end - start];
+        slice(start, event.length).get(event);
+        ByteArrayInputStream is = new ByteArrayInputStream(event);
+        if (logFormat == 1) {
+            return new TpmPcrEvent1(is, eventNumber);
+        }
+        return new TpmPcrEvent2(is, eventNumber);
+    }
+
+    /**
+     * @return the offset just past the end of the event within the log
+     */
+    int getEnd() {
+        return end;
+    }
+
+    private int indexOf(final int algId) {
+        for (int i = 0; i < digestAlgIds.length; i++) {
+            if (digestAlgIds[i] == algId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer slice(final int offset, final int length) {
+        ByteBuffer buffer = log.duplicate();
+        buffer.limit(offset + length);
+        buffer.position(offset);
+        return buffer.slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Event# %d: Index: %d Type: 0x%s Digest: %s Size: %d",
+                eventNumber, pcrIndex, Long.toHexString(eventType), getEventDigestStr(),
+                eventDataSize);
+    }
+}
@@ -0,0 +1,16 @@
+package hirs.tpm.eventlog;
+
+/**
+ * Receives the events of a TCG event log, in order, from
+ * {@link TcgEventLogReader#accept(TcgEventVisitor)}.
+ */
+public interface TcgEventVisitor {
+
+    /**
+     * Visits an event of the log.
+     *
+     * @param event view of the event
+     * @return true to continue with the next event, false to stop reading the log
+     */
+    boolean visit(TcgEventView event);
+}
@@ -0,0 +1,206 @@
+package hirs.tpm.eventlog;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Replays the events of a TCG event log into one or more PCR banks, calculating the PCR values
+ * a TPM would hold after measuring those events.
+ * <p>
+ * Every PCR is extended in place, hashing the current value and the event digest directly with
+ * a {@link MessageDigest} that is reused by each thread, so replaying an event allocates
+ * nothing. Each bank is extended with the digest of its algorithm; a crypto agile log can
+ * therefore be replayed into its SHA1, SHA256 and SHA384 banks in a single pass. Events can be
+ * replayed one at a time as they are read, for instance by passing the replay to
+ * {@link TcgEventLogReader#accept(TcgEventVisitor)}, and the PCR values can be read at any
+ * point.
+ * <p>
+ * Instances are not threadsafe.
+ */
+public final class TcgPcrReplay implements TcgEventVisitor {
+    /** Reused SHA1 digests. */
+    private static final ThreadLocal<MessageDigest> SHA1 = digest("SHA-1");
+    /** Reused SHA256 digests. */
+    private static final ThreadLocal<MessageDigest> SHA256 = digest("SHA-256");
+    /** Reused SHA384 digests. */
+    private static final ThreadLocal<MessageDigest> SHA384 = digest("SHA-384");
+    /** Initial value of the PCRs reset by locality 4. */
+    private static final byte LOCALITY4_INIT = (byte) 0xFF;
+
+    private final int[] algIds;
+    private final ThreadLocal<MessageDigest>[] digests;
+    private final byte[][][] banks;
+    private final byte[] eventDigest;
+
+    /**
+     * Constructs a replay into the PCR banks of the given algorithms, with every PCR holding
+     * its initial value.
+     *
+     * @param algIds TCG algorithm identifiers of the banks; SHA1, SHA256 and SHA384 are
+     *               supported
+     * @throws IllegalArgumentException if an algorithm is not supported
+     */
+    @SuppressWarnings("unchecked")
+    public TcgPcrReplay(final int... algIds) {
+        this.algIds = algIds.clone();
+        this.digests = new ThreadLocal[algIds.length];
+        this.banks = new byte[algIds.length][][];
+        for (int i = 0; i < algIds.length; i++) {
+            digests[i] = digestFor(algIds[i]);
+            banks[i] = new byte[TCGEventLog.PCR_COUNT][TcgTpmtHa.tcgAlgLength(algIds[i])];
+        }
+        this.eventDigest = new byte[TcgTpmtHa.TPM_ALG_SHA512_LENGTH];
+        reset();
+    }
+
+    /**
+     * Replays every event of the given log into the bank of the algorithm {@link TCGEventLog}
+     * uses for the log, and returns the resulting PCR values.
+     *
+     * @param reader the event log
+     * @return hex strings of the expected values of all 24 PCRs
+     * @throws IllegalArgumentException if the log is malformed
+     */
+    public static String[] getExpectedPcrValues(final TcgEventLogReader reader) {
+        int algId = reader.getEventLogHashAlgorithmID();
+        TcgPcrReplay replay = new TcgPcrReplay(algId);
+        reader.accept(replay);
+        return replay.getPcrValues(algId);
+    }
+
+    /**
+     * Sets every PCR back to its initial value.
+     */
+    public void reset() {
+        for (byte[][] bank : banks) {
+            for (int pcr = 0; pcr < bank.length; pcr++) {
+                byte init = 0;
+                if (pcr >= TCGEventLog.PCR_LOCALITY4_MIN && pcr < TCGEventLog.PCR_LOCALITY4_MAX) {
+                    init = LOCALITY4_INIT;
+                }
+                Arrays.fill(bank[pcr], init);
+            }
+        }
+    }
+
+    /**
+     * Replays the given event and continues with the next.
+     *
+     * @param event view of the event
+     * @return always true
+     */
+    @Override
+    public boolean visit(final TcgEventView event) {
+        extend(event);
+        return true;
+    }
+
+    /**
+     * Extends each bank with the digest the event holds for the algorithm of the bank. Events
+     * not associated with a PCR and EV_NO_ACTION events are skipped.
+     *
+     * @param event view of the event
+     */
+    public void extend(final TcgEventView event) {
+        if (event.getPcrIndex() < 0 || event.getEventType() == TCGEventLog.NO_ACTION_EVENT) {
+            return;
+        }
+        for (int i = 0; i < algIds.length; i++) {
+            int length = event.copyDigest(algIds[i], eventDigest);
+            if (length >= 0) {
+                extend(i, event.getPcrIndex(), eventDigest, length);
+            }
+        }
+    }
+
+    /**
+     * Extends a PCR of a bank with the given digest.
+     *
+     * @param algId TCG algorithm identifier of the bank
+     * @param pcrIndex the PCR to extend
+     * @param digest the digest to extend the PCR with
+     * @throws IllegalArgumentException if there is no bank for the algorithm
+     */
+    public void extend(final int algId, final int pcrIndex, final byte[] digest) {
+        extend(bankOf(algId), pcrIndex, digest, digest.length);
+    }
+
+    /**
+     * Returns the current value of a PCR.
+     *
+     * @param algId TCG algorithm identifier of the bank
+     * @param pcrIndex the PCR index
+     * @return a copy of the value of the PCR
+     * @throws IllegalArgumentException if there is no bank for the algorithm
+     */
+    public byte[] getPcrValue(final int algId, final int pcrIndex) {
+        return banks[bankOf(algId)][pcrIndex].clone();
+    }
+
+    /**
+     * Returns the current values of all PCRs of a bank.
+     *
+     * @param algId TCG algorithm identifier of the bank
+     * @return hex strings of the values of all 24 PCRs
+     * @throws IllegalArgumentException if there is no bank for the algorithm
+     */
+    public String[] getPcrValues(final int algId) {
+        byte[][] bank = banks[bankOf(algId)];
+        String[] pcrs = new String[bank.length];
+        for (int i = 0; i < bank.length; i++) {
+            pcrs[i] = Hex.encodeHexString(bank[i]);
+        }
+        return pcrs;
+    }
+
+    private void extend(final int bank, final int pcrIndex, final byte[] digest,
+                        final int length) {
+        byte[] pcr = banks[bank][pcrIndex];
+        MessageDigest md = digests[bank].get();
+        md.update(pcr);
+        md.update(digest, 0, length);
+        try {
+            md.digest(pcr, 0, pcr.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int bankOf(final int algId) {
+        for (int i = 0; i < algIds.length; i++) {
+            if (algIds[i] == algId) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No PCR bank for algorithm 0x%x",
+                algId));
+    }
+
+    private static ThreadLocal<MessageDigest> digestFor(final int algId) {
+        switch (algId) {
+            case TcgTpmtHa.TPM_ALG_SHA1:
+                return SHA1;
+            case TcgTpmtHa.TPM_ALG_SHA256:
+                return SHA256;
+            case TcgTpmtHa.TPM_ALG_SHA384:
+                return SHA384;
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Unsupported PCR bank algorithm 0x%x", algId));
+        }
+    }
+
+    private static ThreadLocal<MessageDigest> digest(final String algorithm) {
+        return ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
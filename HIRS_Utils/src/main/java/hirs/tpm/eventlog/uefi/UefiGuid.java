@@ -1,8 +1,6 @@
 package hirs.tpm.eventlog.uefi;
 
-import com.eclipsesource.json.JsonObject;
 import hirs.utils.HexUtils;
-import hirs.utils.JsonUtils;
 
 import java.math.BigInteger;
 import java.nio.file.FileSystems;
@@ -23,9 +21,12 @@ public class UefiGuid {
      */
     private static final int UUID_EPOCH_DIVISOR = 10000;
 
-    private static final Path JSON_PATH = FileSystems.getDefault().getPath("/opt",
+    /**
+     * The vendor table used by GUIDs created without one.
+     */
+    static final Path JSON_PATH = FileSystems.getDefault().getPath("/opt",
             "hirs", "default-properties", "vendor-table.json");
-    private JsonObject uefiVendorRef;
+    private UefiVendorTable vendorTable;
     /**
      * guid byte array.
      */
@@ -44,7 +45,7 @@ public class UefiGuid {
         guid = new byte[UefiConstants.SIZE_16];
         System.arraycopy(guidBytes, 0, guid, 0, UefiConstants.SIZE_16);
         uuid = processGuid(guidBytes);
-        uefiVendorRef = JsonUtils.getSpecificJsonObject(JSON_PATH, "VendorTable");
+        vendorTable = UefiVendorTable.forPath(JSON_PATH);
     }
 
     /**
@@ -57,8 +58,7 @@ public class UefiGuid {
         guid = new byte[UefiConstants.SIZE_16];
         System.arraycopy(guidBytes, 0, guid, 0, UefiConstants.SIZE_16);
         uuid = processGuid(guidBytes);
-        uefiVendorRef = JsonUtils.getSpecificJsonObject(vendorPathString,
-                "VendorTable");
+        vendorTable = UefiVendorTable.forPath(vendorPathString);
     }
 
     /**
@@ -121,7 +121,7 @@ public class UefiGuid {
      * @return A String of major UUID parameters
      */
     public String getVendorTableReference(final String lookupValue) {
-        return uefiVendorRef.getString(lookupValue, "Unknown GUID reference");
+        return vendorTable.getName(lookupValue, "Unknown GUID reference");
     }
 
     /**
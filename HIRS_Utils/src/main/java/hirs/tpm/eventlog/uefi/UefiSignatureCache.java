@@ -0,0 +1,132 @@
+package hirs.tpm.eventlog.uefi;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hirs.utils.HexUtils;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.Arrays;
+
+/**
+ * Interns the signature lists and certificates parsed out of the Secure Boot PK, KEK, db and
+ * dbx variables, keyed by the SHA-256 digest of their bytes. The same signature databases are
+ * measured by every device of a platform at every boot, so each distinct list or certificate
+ * is parsed once per application rather than once per event log. A certificate found in
+ * several lists, such as a vendor certificate enrolled in both KEK and db, is also shared.
+ * <p>
+ * The caches are bounded by the estimated memory held by their entries. Cached lists and
+ * certificates are shared and must not be modified. This class is threadsafe.
+ */
+final class UefiSignatureCache {
+
+    /**
+     * The maximum estimated memory held by the entries of each cache, in bytes.
+     */
+    static final long MAX_WEIGHT = 16L * 1024 * 1024;
+
+    /**
+     * The estimated memory held by a parsed certificate, in bytes.
+     */
+    private static final int CERTIFICATE_WEIGHT = 2048;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final Cache<String, UefiSignatureList> SIGNATURE_LISTS =
+            CacheBuilder.newBuilder()
+                    .maximumWeight(MAX_WEIGHT)
+                    .<String, UefiSignatureList>weigher((digest, list) -> list.getListSize())
+                    .build();
+
+    private static final Cache<String, UefiX509Cert> CERTIFICATES = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .<String, UefiX509Cert>weigher((digest, cert) -> CERTIFICATE_WEIGHT)
+            .build();
+
+    private UefiSignatureCache() {
+    }
+
+    /**
+     * Returns the signature list starting at the given offset, creating it if it is not
+     * cached. The signatures of a new list are parsed on first use.
+     *
+     * @param data the data of a UEFI variable, holding one or more signature lists
+     * @param offset the offset of the list within the data
+     * @param vendorTablePath the vendor table naming the signature types, which is part of the
+     *                        key as it changes the description of the list
+     * @return the signature list, or null if the data at the offset does not start with the
+     * header of a signature list of a known type and of a size within the data
+     * @throws NoSuchAlgorithmException if the list cannot be hashed
+     */
+    static UefiSignatureList getSignatureList(final byte[] data, final int offset,
+                                              final Path vendorTablePath)
+            throws NoSuchAlgorithmException {
+        int available = data.length - offset;
+        if (available < UefiConstants.SIZE_28) {
+            return null;
+        }
+        UefiGuid signatureType = new UefiGuid(Arrays.copyOfRange(data, offset,
+                offset + UefiConstants.SIZE_16), vendorTablePath);
+        if (!UefiSignatureList.isSignatureListType(signatureType)) {
+            return null;
+        }
+        int listSize = HexUtils.leReverseInt(Arrays.copyOfRange(data,
+                offset + UefiConstants.OFFSET_16, offset + UefiConstants.OFFSET_20));
+        if (listSize < UefiConstants.SIZE_28 || listSize > available) {
+            return null;
+        }
+        String key = digest(data, offset, listSize) + ":"
+                + vendorTablePath.toAbsolutePath().normalize();
+        UefiSignatureList list = SIGNATURE_LISTS.getIfPresent(key);
+        if (list == null) {
+            list = new UefiSignatureList(Arrays.copyOfRange(data, offset, offset + listSize),
+                    vendorTablePath);
+            // a concurrent parse of the same list may have won; both are equivalent
+            UefiSignatureList cached = SIGNATURE_LISTS.asMap().putIfAbsent(key, list);
+            if (cached != null) {
+                list = cached;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns the certificate encoded by the given data, parsing it if it is not cached.
+     *
+     * @param certData the encoded certificate
+     * @return the certificate
+     * @throws CertificateException if the certificate cannot be parsed
+     * @throws NoSuchAlgorithmException if the certificate cannot be hashed
+     */
+    static UefiX509Cert getCertificate(final byte[] certData)
+            throws CertificateException, NoSuchAlgorithmException {
+        String digest = digest(certData, 0, certData.length);
+        UefiX509Cert cert = CERTIFICATES.getIfPresent(digest);
+        if (cert == null) {
+            // parsed outside of the cache, so that parsing errors reach the caller as before
+            cert = new UefiX509Cert(certData);
+            UefiX509Cert cached = CERTIFICATES.asMap().putIfAbsent(digest, cert);
+            if (cached != null) {
+                cert = cached;
+            }
+        }
+        return cert;
+    }
+
+    /**
+     * Empties the caches.
+     */
+    static void clear() {
+        SIGNATURE_LISTS.invalidateAll();
+        CERTIFICATES.invalidateAll();
+    }
+
+    private static String digest(final byte[] data, final int offset, final int length)
+            throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        md.update(data, offset, length);
+        return HexUtils.byteArrayToHexString(md.digest());
+    }
+}
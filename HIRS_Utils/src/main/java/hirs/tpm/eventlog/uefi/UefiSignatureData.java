@@ -74,7 +74,7 @@ UefiSignatureData(final ByteArrayInputStream inputStream, final UefiGuid sigType
       System.arraycopy(certType, 0, certBlob, 0, UefiConstants.SIZE_2);
       System.arraycopy(certLength, 0, certBlob, UefiConstants.OFFSET_2, UefiConstants.SIZE_2);
       System.arraycopy(certData, 0, certBlob, UefiConstants.OFFSET_4, cLength);
-      cert = new UefiX509Cert(certBlob);
+      cert = UefiSignatureCache.getCertificate(certBlob);
       } else if (sigType.isUnknownUUID()) {
           //status = "Signature List Type has an unknown GUID: " + efiGuid.toString();
           status = "Signature List Type has an unknown GUID";
@@ -96,7 +96,7 @@ UefiSignatureData(final byte[] data) throws CertificateException, NoSuchAlgorith
   System.arraycopy(data, 0, guid, 0, UefiConstants.SIZE_16);
   sigData = new byte[data.length - UefiConstants.SIZE_16];
   System.arraycopy(data, UefiConstants.OFFSET_16, sigData, 0, data.length - UefiConstants.SIZE_16);
-  cert = new UefiX509Cert(sigData);
+  cert = UefiSignatureCache.getCertificate(sigData);
   efiGuid = new UefiGuid(guid);
 }
 
@@ -121,7 +121,7 @@ private void processC509Cert(final ByteArrayInputStream inputStream)
   System.arraycopy(certType, 0, certBlob, 0, 2);
   System.arraycopy(certLength, 0, certBlob, 2, 2);
   System.arraycopy(certData, 0, certBlob, UefiConstants.OFFSET_4, cLength);
-  cert = new UefiX509Cert(certBlob);
+  cert = UefiSignatureCache.getCertificate(certBlob);
 }
 
 /**
@@ -2,6 +2,7 @@ package hirs.tpm.eventlog.uefi;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
@@ -45,34 +46,30 @@ public class UefiSignatureList {
   private ByteArrayInputStream efiSigDataIS = null;
   /** Type of signature. */
   private UefiGuid signatureType = null;
+  /** Whether the signatures of the list have been parsed. */
+  private boolean parsed = true;
 /**
  * UefiSignatureList constructor.
- * @param list byte array holding the signature list.
- * @throws CertificateException If there a problem parsing the X509 certificate.
- * @throws NoSuchAlgorithmException if there's a problem hashing the certificate.
- * @throws IOException If there's a problem parsing the signature data.
+ * The signatures of the list are parsed when they are first asked for, so that a list
+ * interned by {@link UefiSignatureCache} is parsed only if its contents are used.
+ * Errors parsing the signatures are then reported by {@link #toString()}.
+ * @param list byte array holding the signature list, header included.
+ * @param vendorTablePath the vendor table naming the signature type.
  */
-UefiSignatureList(final byte[] list)
-        throws CertificateException, NoSuchAlgorithmException, IOException {
+UefiSignatureList(final byte[] list, final Path vendorTablePath) {
 
   byte[] guid = new byte[UefiConstants.SIZE_16];
   System.arraycopy(list, 0, guid, 0, UefiConstants.SIZE_16);
-  signatureType = new UefiGuid(guid);
+  signatureType = new UefiGuid(guid, vendorTablePath);
 
   byte[] lSize = new byte[UefiConstants.SIZE_4];
   System.arraycopy(list, UefiConstants.OFFSET_16, lSize, 0, UefiConstants.SIZE_4);
   listSize = HexUtils.leReverseInt(lSize);
 
-  byte[] hSize = new byte[UefiConstants.SIZE_4];
-  System.arraycopy(list, UefiConstants.OFFSET_20, hSize, 0, UefiConstants.SIZE_4);
-
-  byte[] sSize = new byte[UefiConstants.SIZE_4];
-  System.arraycopy(list, UefiConstants.OFFSET_24, sSize, 0, UefiConstants.SIZE_4);
-  signatureSize = HexUtils.leReverseInt(sSize);
-
+  signatureSize = listSize - UefiConstants.SIZE_28;
   sigData = new byte[signatureSize];
   System.arraycopy(list, UefiConstants.OFFSET_28, sigData, 0, signatureSize);
-  processSignatureList(sigData);
+  parsed = false;
 }
 
 /**
@@ -107,6 +104,22 @@ UefiSignatureList(final ByteArrayInputStream lists)
   }
 }
 
+/**
+ * Parses the signatures of a list created from a byte array, on first use.
+ */
+private synchronized void parse() {
+  if (parsed) {
+      return;
+  }
+  parsed = true;
+  try {
+      processSignatureList(sigData);
+  } catch (CertificateException | NoSuchAlgorithmException | IOException e) {
+      valid = false;
+      status = "Unable to parse the signature data: " + e.getMessage();
+  }
+}
+
 /**
  * Method for processing a set of EFI SignatureList(s).
  * @param efiSigData  Byte array holding one or more SignatureLists
@@ -152,9 +165,12 @@ private void processSignatureData(final ByteArrayInputStream sigDataIS)
 
 /**
  * Returns an ArrayList of EFISignatureData objects.
+ * The list may be shared by the event logs holding the same signature list,
+ * and must not be modified.
  * @return ArrayList of EFISignatureData objects.
  */
 public ArrayList<UefiSignatureData> getSigatureDataList() {
+   parse();
    return sigList;
 }
 
@@ -163,15 +179,33 @@ public ArrayList<UefiSignatureData> getSigatureDataList() {
  * @return int Number of certs.
  */
 public int getNumberOfCerts() {
+  parse();
   return numberOfItems;
 }
 
+/**
+ * Returns the size of the signature list, header included.
+ * @return the size of the list in bytes.
+ */
+int getListSize() {
+  return listSize;
+}
+
 /**
  * Checks to see if GUID is listed on page 1729 of UEFI spec version 2.8.
  * @param guid GUID of the has algorithm.
  * @return true if the GUID is a valid GUID for Signature List Type, false if not.
  */
 public boolean isValidSigListGUID(final UefiGuid guid) {
+  return isSignatureListType(guid);
+}
+
+/**
+ * Checks to see if GUID is listed on page 1729 of UEFI spec version 2.8.
+ * @param guid GUID of the has algorithm.
+ * @return true if the GUID is a valid GUID for Signature List Type, false if not.
+ */
+static boolean isSignatureListType(final UefiGuid guid) {
   switch (guid.getVendorTableReference()) {
     case "EFI_CERT_SHA256_GUID":
     case "EFI_CERT_X509_SHA256":
@@ -190,6 +224,7 @@ public boolean isValidSigListGUID(final UefiGuid guid) {
  * @return human readable description.
  */
 public String toString() {
+  parse();
   StringBuilder sigInfo = new StringBuilder();
   sigInfo.append("UEFI Signature List Type = " + signatureType.toString() + "\n");
   sigInfo.append("Number if items = " + numberOfItems + "\n");
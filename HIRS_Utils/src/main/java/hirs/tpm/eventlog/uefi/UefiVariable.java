@@ -4,6 +4,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
@@ -36,6 +37,8 @@ public class UefiVariable {
   private UefiSecureBoot sb = null;
   /** UEFI variable data. */
   private byte[] uefiVaribelData = null;
+  /** Vendor table naming the GUIDs of the variable. */
+  private Path vendorTablePath = UefiGuid.JSON_PATH;
 
 /**
  * EFIVariable constructor.
@@ -48,6 +51,20 @@ public class UefiVariable {
  */
 public UefiVariable(final byte[] variableData)
         throws CertificateException, NoSuchAlgorithmException, IOException {
+  this(variableData, UefiGuid.JSON_PATH);
+}
+
+/**
+ * EFIVariable constructor, naming the GUIDs of the variable with the given vendor table.
+ * @param variableData byte array holding the UEFI Variable.
+ * @param vendorTablePath the vendor table naming the GUIDs of the variable.
+ * @throws CertificateException If there a problem parsing the X509 certificate.
+ * @throws NoSuchAlgorithmException if there's a problem hashing the certificate.
+ * @throws IOException If there's a problem parsing the signature data.
+ */
+public UefiVariable(final byte[] variableData, final Path vendorTablePath)
+        throws CertificateException, NoSuchAlgorithmException, IOException {
+  this.vendorTablePath = vendorTablePath;
   byte[] guid = new byte[UefiConstants.SIZE_16];
   byte[] nameLength = new byte[UefiConstants.SIZE_8];
   byte[] nameTemp = null;
@@ -56,7 +73,7 @@ public UefiVariable(final byte[] variableData)
   int variableLength = 0;
 
   System.arraycopy(variableData, 0, guid, 0, UefiConstants.SIZE_16);
-  uefiGuid = new UefiGuid(guid);
+  uefiGuid = new UefiGuid(guid, vendorTablePath);
   System.arraycopy(variableData, UefiConstants.SIZE_16, nameLength, 0, UefiConstants.SIZE_8);
   int nlength = HexUtils.leReverseInt(nameLength);
   System.arraycopy(variableData, UefiConstants.OFFSET_24, dataLength, 0, UefiConstants.SIZE_8);
@@ -125,7 +142,14 @@ private void processSigList(final byte[] data)
   ByteArrayInputStream certData = new ByteArrayInputStream(data);
   while (certData.available() > 0) {
      UefiSignatureList list;
-     list = new UefiSignatureList(certData);
+     // well formed lists are shared with the other logs measuring the same list
+     list = UefiSignatureCache.getSignatureList(data, data.length - certData.available(),
+             vendorTablePath);
+     if (list != null) {
+         certData.skip(list.getListSize());
+     } else {
+         list = new UefiSignatureList(certData);
+     }
      certSuperList.add(list);
   }
 }
@@ -181,7 +205,7 @@ public String printCert(final byte[] data, final int offset) {
   byte[] certData = new byte[cLength];
   System.arraycopy(data, offset, certData, 0, cLength);
   try {
-      UefiX509Cert cert = new UefiX509Cert(certData);
+      UefiX509Cert cert = UefiSignatureCache.getCertificate(certData);
       certInfo = cert.toString();
       } catch (Exception e) {
          certInfo = "Error Processing Certificate : " + e.getMessage();
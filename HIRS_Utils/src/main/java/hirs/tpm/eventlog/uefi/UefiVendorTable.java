@@ -0,0 +1,159 @@
+package hirs.tpm.eventlog.uefi;
+
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.ParseException;
+import hirs.utils.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The table of names of the GUIDs found in UEFI structures, read from the "VendorTable" object
+ * of a vendor-table.json file.
+ * <p>
+ * Each file is read once per application, and its table is shared by all the GUIDs parsed
+ * from event logs, which each look up their name. The directory of the file is watched, and
+ * the table is reloaded when the file is created, modified or deleted; the new contents
+ * replace the old ones at once, so a lookup never sees a partially loaded table.
+ * <p>
+ * This class is threadsafe.
+ */
+public final class UefiVendorTable {
+    private static final Logger LOGGER = LogManager.getLogger(UefiVendorTable.class);
+
+    private static final String VENDOR_TABLE = "VendorTable";
+
+    private static final ConcurrentMap<Path, UefiVendorTable> TABLES = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private volatile Map<String, String> names;
+
+    private UefiVendorTable(final Path path) {
+        this.path = path;
+        this.names = load(path);
+    }
+
+    /**
+     * Returns the table read from the given vendor-table.json file, reading the file and
+     * starting to watch it on first use.
+     *
+     * @param path the vendor-table.json file
+     * @return the shared table of the file
+     */
+    public static UefiVendorTable forPath(final Path path) {
+        Path absolutePath = path.toAbsolutePath().normalize();
+        UefiVendorTable table = TABLES.get(absolutePath);
+        if (table == null) {
+            UefiVendorTable newTable = new UefiVendorTable(absolutePath);
+            table = TABLES.putIfAbsent(absolutePath, newTable);
+            if (table == null) {
+                table = newTable;
+                table.watch();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the name of a GUID.
+     *
+     * @param guid the GUID, in its string form
+     * @param defaultName the name to return if the table does not hold the GUID
+     * @return the name of the GUID, or the default name
+     */
+    public String getName(final String guid, final String defaultName) {
+        String name = names.get(guid);
+        if (name == null) {
+            return defaultName;
+        }
+        return name;
+    }
+
+    /**
+     * Reads the table from the file again.
+     */
+    void reload() {
+        try {
+            names = load(path);
+            LOGGER.info("Reloaded UEFI vendor table {} ({} entries)", path, names.size());
+        } catch (ParseException | UnsupportedOperationException e) {
+            // the file may be seen while it is being written; keep the previous table
+            LOGGER.warn("Unable to reload UEFI vendor table " + path, e);
+        }
+    }
+
+    private static Map<String, String> load(final Path path) {
+        JsonObject vendorTable = JsonUtils.getSpecificJsonObject(path, VENDOR_TABLE);
+        Map<String, String> names = new HashMap<>();
+        for (JsonObject.Member member : vendorTable) {
+            if (member.getValue().isString()) {
+                names.put(member.getName(), member.getValue().asString());
+            }
+        }
+        return Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * Starts a daemon thread reloading the table when its file changes. The table is not
+     * reloaded if its directory does not exist or cannot be watched.
+     */
+    private void watch() {
+        Path directory = path.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            LOGGER.debug("Not watching {}, its directory does not exist", path);
+            return;
+        }
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("Unable to watch UEFI vendor table " + path, e);
+            return;
+        }
+        Thread watcher = new Thread(() -> watchFile(watchService),
+                "uefi-vendor-table-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchFile(final WatchService watchService) {
+        Path fileName = path.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // an overflow may have dropped the event of the file
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || fileName.equals(event.context());
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    LOGGER.warn("Stopped watching {}, its directory is no longer accessible",
+                            path);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOGGER.debug("Stopped watching {}", path);
+        }
+    }
+}
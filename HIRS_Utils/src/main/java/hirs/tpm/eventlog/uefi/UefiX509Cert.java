@@ -18,6 +18,8 @@ import javax.xml.bind.DatatypeConverter;
 public class UefiX509Cert {
   /** Certificate object .*/
   private java.security.cert.Certificate cert = null;
+  /** Fingerprint of the certificate, computed on first use. */
+  private volatile String fingerprint = null;
 
 /**
  * Constructor for the certificate.
@@ -30,8 +32,6 @@ public UefiX509Cert(final byte[] certData) throws CertificateException, NoSuchAl
   cf = CertificateFactory.getInstance("X.509");
   InputStream targetStream = new ByteArrayInputStream(certData);
   cert = cf.generateCertificate(targetStream);
-  MessageDigest md = MessageDigest.getInstance("SHA1");
-  md.update(certData);
 }
 
 /**
@@ -52,6 +52,19 @@ public int getLength() throws CertificateEncodingException {
  * @return a string representation of the certificate fingerprint
  */
 public String getSHA1FingerPrint() {
+  String fp = fingerprint;
+  if (fp == null) {
+      fp = computeSHA1FingerPrint();
+      fingerprint = fp;
+  }
+  return fp;
+}
+
+/**
+ * Computes the fingerprint of the certificate.
+ * @return a string representation of the certificate fingerprint
+ */
+private String computeSHA1FingerPrint() {
   byte[] der = null;
   MessageDigest md = null;
   try {
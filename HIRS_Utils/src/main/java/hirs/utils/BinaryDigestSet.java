@@ -0,0 +1,148 @@
+package hirs.utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable set of binary digests, such as SHA1 or SHA256 hashes, optimized for membership
+ * tests. Digests of each length are stored back to back in a single array, used as an open
+ * addressing hash table with linear probing. Since digests are already uniformly distributed,
+ * their leading bytes are used as the hash. Lookups do not allocate and may test a digest held
+ * within a larger array, such as an event log, without copying it.
+ * <p>
+ * This class is threadsafe.
+ */
+public final class BinaryDigestSet {
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int HASH_BYTES = 4;
+    /** Tables are kept at most half full. */
+    private static final int LOAD_FACTOR_INVERSE = 2;
+
+    private final Map<Integer, Table> tables;
+    private final int size;
+
+    /**
+     * Builds a set holding the given digests. Duplicates are stored once.
+     *
+     * @param digests the digests to store
+     */
+    public BinaryDigestSet(final Collection<byte[]> digests) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (byte[] digest : digests) {
+            counts.merge(digest.length, 1, Integer::sum);
+        }
+        Map<Integer, Table> built = new HashMap<>();
+        for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+            built.put(count.getKey(), new Table(count.getKey(), count.getValue()));
+        }
+        int added = 0;
+        for (byte[] digest : digests) {
+            if (built.get(digest.length).add(digest)) {
+                added++;
+            }
+        }
+        this.tables = built;
+        this.size = added;
+    }
+
+    /**
+     * Determines whether the set holds the given digest.
+     *
+     * @param digest the digest to look for
+     * @return true if the set holds the digest
+     */
+    public boolean contains(final byte[] digest) {
+        return digest != null && contains(digest, 0, digest.length);
+    }
+
+    /**
+     * Determines whether the set holds the digest found at the given position of an array.
+     *
+     * @param data the array holding the digest
+     * @param offset the position of the digest within the array
+     * @param length the length of the digest
+     * @return true if the set holds the digest
+     */
+    public boolean contains(final byte[] data, final int offset, final int length) {
+        Table table = tables.get(length);
+        return table != null && table.contains(data, offset);
+    }
+
+    /**
+     * @return the number of distinct digests in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the set holds no digests
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static int hash(final byte[] data, final int offset, final int width) {
+        int hash = 0;
+        int bytes = Math.min(HASH_BYTES, width);
+        for (int i = 0; i < bytes; i++) {
+            hash = (hash << BITS_PER_BYTE) | (data[offset + i] & BYTE_MASK);
+        }
+        return hash;
+    }
+
+    /**
+     * An open addressing table of digests of a single length.
+     */
+    private static final class Table {
+        private final int width;
+        private final int mask;
+        private final byte[] keys;
+        private final boolean[] used;
+
+        Table(final int width, final int expected) {
+            int capacity = Integer.highestOneBit(Math.max(1, expected * LOAD_FACTOR_INVERSE))
+                    * LOAD_FACTOR_INVERSE;
+            this.width = width;
+            this.mask = capacity - 1;
+            this.keys = new byte[capacity * width];
+            this.used = new boolean[capacity];
+        }
+
+        boolean add(final byte[] digest) {
+            int slot = hash(digest, 0, width) & mask;
+            while (used[slot]) {
+                if (matches(slot, digest, 0)) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            System.arraycopy(digest, 0, keys, slot * width, width);
+            return true;
+        }
+
+        boolean contains(final byte[] data, final int offset) {
+            int slot = hash(data, offset, width) & mask;
+            while (used[slot]) {
+                if (matches(slot, data, offset)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private boolean matches(final int slot, final byte[] data, final int offset) {
+            int start = slot * width;
+            for (int i = 0; i < width; i++) {
+                if (keys[start + i] != data[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
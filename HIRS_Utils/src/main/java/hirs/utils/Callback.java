@@ -16,4 +16,15 @@ public abstract class Callback<T, V> {
      * @return a value of type &lt;V&gt;
      */
     public abstract V call(T param);
+
+    /**
+     * Indicates whether the callback needs no further parameters, allowing code that calls it
+     * repeatedly, such as an iteration over database records, to stop early.  By default the
+     * callback is given every parameter.
+     *
+     * @return true if the callback should not be called again
+     */
+    public boolean isDone() {
+        return false;
+    }
 }
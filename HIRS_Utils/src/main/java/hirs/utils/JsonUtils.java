@@ -86,8 +86,7 @@ public final class JsonUtils {
         if (Files.notExists(jsonPath)) {
             LOGGER.warn(String.format("No file found at %s.", jsonPath.toString()));
         } else {
-            try {
-                InputStream inputStream = new FileInputStream(jsonPath.toString());
+            try (InputStream inputStream = new FileInputStream(jsonPath.toString())) {
                 jsonObject = Json.parse(new InputStreamReader(inputStream,
                         charset)).asObject();
             } catch (IOException ex) {
@@ -8,13 +8,9 @@ import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
-import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.UnmarshalException;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.crypto.AlgorithmMethod;
 import javax.xml.crypto.KeySelector;
 import javax.xml.crypto.KeySelectorException;
@@ -24,19 +20,11 @@ import javax.xml.crypto.XMLCryptoContext;
 import javax.xml.crypto.XMLStructure;
 import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.crypto.dsig.XMLSignatureException;
-import javax.xml.crypto.dsig.XMLSignatureFactory;
 import javax.xml.crypto.dsig.dom.DOMValidateContext;
 import javax.xml.crypto.dsig.keyinfo.KeyInfo;
 import javax.xml.crypto.dsig.keyinfo.X509Data;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -55,163 +43,178 @@ import java.util.Iterator;
 /**
  * This class handles validation functions of RIM files.
  * Currently supports validation of support RIM hashes and
- * base RIM signatures.
+ * base RIM signatures.  The validator keeps no state between validations and may be shared.
  */
 public class ReferenceManifestValidator {
     private static final String SIGNATURE_ALGORITHM_RSA_SHA256 =
             "http://www.w3.org/2001/04/xmldsig-more#rsa-sha256";
-    private static final String SCHEMA_PACKAGE = "hirs.utils.xjc";
-    private static final String SCHEMA_URL = "swid_schema.xsd";
-    private static final String SCHEMA_LANGUAGE = XMLConstants.W3C_XML_SCHEMA_NS_URI;
-    private static final String IDENTITY_TRANSFORM = "identity_transform.xslt";
     private static final String SHA256 = "SHA-256";
     private static final int EIGHT_BIT_MASK = 0xff;
     private static final int LEFT_SHIFT = 0x100;
     private static final int RADIX = 16;
     private static final Logger LOGGER = LogManager.getLogger(ReferenceManifestValidator.class);
 
-    private Document rim;
-    private Unmarshaller unmarshaller;
-    private PublicKey publicKey;
-    private Schema schema;
-    private String subjectKeyIdentifier;
-    private boolean signatureValid, supportRimValid;
-
     /**
-     * Setter for the RIM to be validated.  The ReferenceManifest object is converted into a
-     * Document for processing.
+     * Prepares the validation of a RIM.  The ReferenceManifest object is converted into a
+     * Document for processing, which is held by the returned validation along with its results.
+     * The validator itself keeps no state, so it can prepare any number of validations at the
+     * same time.
      *
      * @param rim ReferenceManifest object
+     * @return the validation of the RIM
      */
-    public void setRim(final ReferenceManifest rim) {
-        try {
-            Document doc = validateSwidtagSchema(removeXMLWhitespace(new StreamSource(
-                    new ByteArrayInputStream(rim.getRimBytes()))));
-            this.rim = doc;
-        } catch (IOException e) {
-            LOGGER.error("Error while unmarshalling rim bytes: " + e.getMessage());
+    public RimValidation parseRim(final ReferenceManifest rim) {
+        Document doc = removeXMLWhitespace(new StreamSource(
+                new ByteArrayInputStream(rim.getRimBytes())));
+        if (doc != null) {
+            validateSwidtagSchema(doc);
         }
+        return new RimValidation(doc);
     }
 
     /**
-     * Getter for signatureValid.
-     *
-     * @return true if valid, false if not.
-     */
-    public boolean isSignatureValid() {
-        return signatureValid;
-    }
-
-    /**
-     * Getter for supportRimValid.
+     * This method calculates the SHA256 hash of the input byte array and compares it against
+     * the value passed in.
      *
-     * @return true if valid, false if not.
+     * @param input    byte array to hash.
+     * @param expected value to compare against.
+     * @return true if the hash of the input is the expected value, false if not
      */
-    public boolean isSupportRimValid() {
+    public boolean validateSupportRimHash(final byte[] input, final String expected) {
+        String calculatedHash = getHashValue(input, SHA256);
+        boolean supportRimValid = calculatedHash.equals(expected);
+        if (!supportRimValid) {
+            LOGGER.info("Unmatched support RIM hash! Expected: " + expected
+                    + ", actual: " + calculatedHash);
+        }
         return supportRimValid;
     }
 
     /**
-     * Getter for certificate PublicKey.
-     *
-     * @return PublicKey
+     * The validation of one RIM, holding the parsed RIM and the results of validating its
+     * signature.  A validation is meant to be used by a single thread.
      */
-    public PublicKey getPublicKey() {
-        return publicKey;
-    }
+    public final class RimValidation {
+        private final Document rim;
+        private PublicKey publicKey = null;
+        private String subjectKeyIdentifier = "(not found)";
+        private boolean signatureValid = false;
+
+        private RimValidation(final Document rim) {
+            this.rim = rim;
+        }
 
-    /**
-     * Getter for subjectKeyIdentifier.
-     *
-     * @return subjectKeyIdentifier
-     */
-    public String getSubjectKeyIdentifier() {
-        return subjectKeyIdentifier;
-    }
+        /**
+         * Getter for signatureValid.
+         *
+         * @return true if valid, false if not.
+         */
+        public boolean isSignatureValid() {
+            return signatureValid;
+        }
 
-    /**
-     * This default constructor creates the Schema object from SCHEMA_URL immediately to save
-     * time during validation calls later.
-     */
-    public ReferenceManifestValidator() {
-        try {
-            InputStream is = ReferenceManifestValidator.class
-                    .getClassLoader().getResourceAsStream(SCHEMA_URL);
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(SCHEMA_LANGUAGE);
-            schema = schemaFactory.newSchema(new StreamSource(is));
-            rim = null;
-            signatureValid = false;
-            supportRimValid = false;
-            publicKey = null;
-            subjectKeyIdentifier = "(not found)";
-        } catch (SAXException e) {
-            LOGGER.warn("Error setting schema for validation!");
+        /**
+         * Getter for certificate PublicKey.
+         *
+         * @return PublicKey
+         */
+        public PublicKey getPublicKey() {
+            return publicKey;
         }
-    }
 
-    /**
-     * This method attempts to validate the signature element of the instance's RIM
-     * using a given cert.  The cert is compared to either the RIM's embedded certificate
-     * or the RIM's subject key identifier.  If the cert is matched then validation proceeds,
-     * otherwise validation ends.
-     *
-     * @param cert the cert to be checked against the RIM
-     * @return true if the signature element is validated, false otherwise
-     */
-    @SuppressWarnings("magicnumber")
-    public boolean validateXmlSignature(final CertificateAuthorityCredential cert) {
-        DOMValidateContext context = null;
-        try {
-            NodeList nodes = rim.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
-            if (nodes.getLength() == 0) {
-                LOGGER.error("Cannot validate RIM, signature element not found!");
-                return false;
+        /**
+         * Getter for subjectKeyIdentifier.
+         *
+         * @return subjectKeyIdentifier
+         */
+        public String getSubjectKeyIdentifier() {
+            return subjectKeyIdentifier;
+        }
+
+        /**
+         * This method attempts to validate the signature element of the RIM using a given
+         * cert.  The cert is compared to either the RIM's embedded certificate or the RIM's
+         * subject key identifier.  If the cert is matched then validation proceeds, otherwise
+         * validation ends.
+         *
+         * @param cert the cert to be checked against the RIM
+         * @return true if the signature element is validated, false otherwise
+         */
+        @SuppressWarnings("magicnumber")
+        public boolean validateXmlSignature(final CertificateAuthorityCredential cert) {
+            DOMValidateContext context = null;
+            try {
+                NodeList nodes = rim.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
+                if (nodes.getLength() == 0) {
+                    LOGGER.error("Cannot validate RIM, signature element not found!");
+                    return false;
+                }
+                NodeList certElement = rim.getElementsByTagName("X509Certificate");
+                if (certElement.getLength() > 0) {
+                    X509Certificate embeddedCert = parseCertFromPEMString(
+                            certElement.item(0).getTextContent());
+                    if (embeddedCert != null) {
+                        subjectKeyIdentifier = getCertificateSubjectKeyIdentifier(embeddedCert);
+                        if (Arrays.equals(embeddedCert.getPublicKey().getEncoded(),
+                                cert.getEncodedPublicKey())) {
+                            context = new DOMValidateContext(new X509KeySelector(),
+                                    nodes.item(0));
+                        }
+                    }
+                } else {
+                    subjectKeyIdentifier = getKeyName(rim);
+                    if (subjectKeyIdentifier.equals(cert.getSubjectKeyIdString())) {
+                        context = new DOMValidateContext(
+                                cert.getX509Certificate().getPublicKey(), nodes.item(0));
+                    }
+                }
+                if (context != null) {
+                    publicKey = cert.getX509Certificate().getPublicKey();
+                    signatureValid = validateSignedXMLDocument(context);
+                    return signatureValid;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Error while parsing certificate data: " + e.getMessage());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            return false;
+        }
+
+        /**
+         * This method returns the subject key identifier of the certificate that signed the
+         * RIM, as referenced by the RIM itself: either the identifier of the certificate
+         * embedded in the signature or the signature's KeyName.  The identifier is hex encoded
+         * in the same form as {@link CertificateAuthorityCredential#getSubjectKeyIdString()},
+         * so that the signing certificate can be looked up directly instead of trying every
+         * certificate.
+         *
+         * @return the hex encoded subject key identifier, or null if the RIM does not
+         * reference one
+         */
+        public String getSigningKeyIdentifier() {
+            if (rim == null) {
+                return null;
             }
-            NodeList certElement = rim.getElementsByTagName("X509Certificate");
-            if (certElement.getLength() > 0) {
+            try {
+                NodeList certElement = rim.getElementsByTagName("X509Certificate");
+                if (certElement.getLength() == 0) {
+                    return getKeyName(rim);
+                }
                 X509Certificate embeddedCert = parseCertFromPEMString(
                         certElement.item(0).getTextContent());
                 if (embeddedCert != null) {
-                    subjectKeyIdentifier = getCertificateSubjectKeyIdentifier(embeddedCert);
-                    if (Arrays.equals(embeddedCert.getPublicKey().getEncoded(),
-                            cert.getEncodedPublicKey())) {
-                        context = new DOMValidateContext(new X509KeySelector(), nodes.item(0));
+                    String keyIdentifier = getCertificateSubjectKeyIdentifier(embeddedCert);
+                    if (!keyIdentifier.isEmpty()) {
+                        return keyIdentifier;
                     }
                 }
-            } else {
-                subjectKeyIdentifier = getKeyName(rim);
-                if (subjectKeyIdentifier.equals(cert.getSubjectKeyIdString())) {
-                    context = new DOMValidateContext(cert.getX509Certificate().getPublicKey(),
-                            nodes.item(0));
-                }
+            } catch (Exception e) {
+                LOGGER.warn("Error while reading the signing key identifier: "
+                        + e.getMessage());
             }
-            if (context != null) {
-                publicKey = cert.getX509Certificate().getPublicKey();
-                signatureValid = validateSignedXMLDocument(context);
-                return signatureValid;
-            }
-        } catch (IOException e) {
-            LOGGER.warn("Error while parsing certificate data: " + e.getMessage());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return false;
-    }
-
-    /**
-     * This method calculates the SHA256 hash of the input byte array and compares it against
-     * the value passed in.
-     *
-     * @param input    byte array to hash.
-     * @param expected value to compare against.
-     */
-    public void validateSupportRimHash(final byte[] input, final String expected) {
-        String calculatedHash = getHashValue(input, SHA256);
-        supportRimValid = calculatedHash.equals(expected);
-        if (!supportRimValid) {
-            LOGGER.info("Unmatched support RIM hash! Expected: " + expected
-                    + ", actual: " + calculatedHash);
+            return null;
         }
     }
 
@@ -243,8 +246,7 @@ public class ReferenceManifestValidator {
 
     private boolean validateSignedXMLDocument(final DOMValidateContext context) {
         try {
-            XMLSignatureFactory sigFactory = XMLSignatureFactory.getInstance("DOM");
-            XMLSignature signature = sigFactory.unmarshalXMLSignature(context);
+            XMLSignature signature = ReferenceManifestXml.unmarshalXMLSignature(context);
             return signature.validate(context);
         } catch (MarshalException e) {
             LOGGER.warn("Error while unmarshalling XML signature: " + e.getMessage());
@@ -401,10 +403,7 @@ public class ReferenceManifestValidator {
      */
     private Document validateSwidtagSchema(final Document doc) {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(SCHEMA_PACKAGE);
-            unmarshaller = jaxbContext.createUnmarshaller();
-            unmarshaller.setSchema(schema);
-            unmarshaller.unmarshal(doc);
+            ReferenceManifestXml.unmarshal(doc);
         } catch (UnmarshalException e) {
             LOGGER.warn("Error validating swidtag file!");
         } catch (IllegalArgumentException e) {
@@ -423,20 +422,10 @@ public class ReferenceManifestValidator {
      * @param source of the input xml.
      * @return Document representation of the xml.
      */
-    private Document removeXMLWhitespace(final StreamSource source) throws IOException {
-        TransformerFactory tf = TransformerFactory.newInstance();
-        Source identitySource = new StreamSource(
-                ReferenceManifestValidator.class.getClassLoader()
-                        .getResourceAsStream(IDENTITY_TRANSFORM));
+    private Document removeXMLWhitespace(final StreamSource source) {
         Document doc = null;
         try {
-            Transformer transformer = tf.newTransformer(identitySource);
-            DOMResult result = new DOMResult();
-            transformer.transform(source, result);
-            doc = (Document) result.getNode();
-        } catch (TransformerConfigurationException e) {
-            LOGGER.warn("Error configuring transformer!");
-            e.printStackTrace();
+            doc = ReferenceManifestXml.parseWithoutWhitespace(source);
         } catch (TransformerException e) {
             LOGGER.warn("Error transforming input!");
             e.printStackTrace();
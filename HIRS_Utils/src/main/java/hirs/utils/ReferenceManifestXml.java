@@ -0,0 +1,233 @@
+package hirs.utils;
+
+import hirs.data.persist.ReferenceManifest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.crypto.MarshalException;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The XML infrastructure shared by everything that parses RIM swidtags: the compiled SWID
+ * schema, the JAXB context of the generated swidtag classes, the compiled identity transform
+ * and the XML signature factory. Compiling the schema and building the JAXB context are by far
+ * the most expensive steps of parsing a RIM, and RIMs are parsed on upload, on every portal
+ * view and on every firmware validation, so these are built once for the whole application.
+ * <p>
+ * Unmarshallers and signature factories may not be used by several threads at once, so they
+ * are kept in pools: each call borrows an idle instance, or creates one if there is none, and
+ * returns it when done. At most {@link #MAX_IDLE} instances of each are kept.
+ * <p>
+ * This class is threadsafe.
+ */
+public final class ReferenceManifestXml {
+    private static final Logger LOGGER = LogManager.getLogger(ReferenceManifestXml.class);
+
+    /**
+     * The maximum number of idle unmarshallers or signature factories kept for reuse.
+     */
+    public static final int MAX_IDLE = 16;
+
+    private static final String IDENTITY_TRANSFORM = "identity_transform.xslt";
+
+    private static final Pool<Unmarshaller, JAXBException> UNMARSHALLERS =
+            new Pool<>(ReferenceManifestXml::newUnmarshaller);
+    private static final Pool<XMLSignatureFactory, RuntimeException> SIGNATURE_FACTORIES =
+            new Pool<>(() -> XMLSignatureFactory.getInstance("DOM"));
+
+    private ReferenceManifestXml() {
+    }
+
+    /**
+     * Returns the compiled SWID schema, compiling it on first use.
+     *
+     * @return the schema, or null if it could not be compiled
+     */
+    public static Schema getSchema() {
+        return Holder.SCHEMA;
+    }
+
+    /**
+     * Unmarshalls a swidtag, validating it against the SWID schema.
+     *
+     * @param stream the swidtag
+     * @return the root element of the swidtag
+     * @throws JAXBException if the swidtag is invalid or cannot be unmarshalled
+     */
+    public static Object unmarshal(final InputStream stream) throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.borrow();
+        try {
+            return unmarshaller.unmarshal(stream);
+        } finally {
+            UNMARSHALLERS.release(unmarshaller);
+        }
+    }
+
+    /**
+     * Unmarshalls a swidtag that was already parsed, validating it against the SWID schema.
+     *
+     * @param node the swidtag
+     * @return the root element of the swidtag
+     * @throws JAXBException if the swidtag is invalid or cannot be unmarshalled
+     */
+    public static Object unmarshal(final Node node) throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.borrow();
+        try {
+            return unmarshaller.unmarshal(node);
+        } finally {
+            UNMARSHALLERS.release(unmarshaller);
+        }
+    }
+
+    /**
+     * Parses an XML document, stripping all whitespace added for human-readability, such as
+     * indents, so that its signature can be validated.
+     *
+     * @param source the XML document
+     * @return the parsed document
+     * @throws TransformerException if the document cannot be parsed
+     */
+    public static Document parseWithoutWhitespace(final Source source)
+            throws TransformerException {
+        if (Holder.IDENTITY_TEMPLATES == null) {
+            throw new TransformerConfigurationException("Identity transform is not available");
+        }
+        DOMResult result = new DOMResult();
+        Holder.IDENTITY_TEMPLATES.newTransformer().transform(source, result);
+        return (Document) result.getNode();
+    }
+
+    /**
+     * Unmarshalls the XML signature held by the given context.
+     *
+     * @param context the context holding the signature element and validation key
+     * @return the signature
+     * @throws MarshalException if the signature cannot be unmarshalled
+     */
+    public static XMLSignature unmarshalXMLSignature(final DOMValidateContext context)
+            throws MarshalException {
+        XMLSignatureFactory factory = SIGNATURE_FACTORIES.borrow();
+        try {
+            return factory.unmarshalXMLSignature(context);
+        } finally {
+            SIGNATURE_FACTORIES.release(factory);
+        }
+    }
+
+    private static Unmarshaller newUnmarshaller() throws JAXBException {
+        if (Holder.JAXB_CONTEXT == null) {
+            throw new JAXBException("Swidtag JAXB context is not available");
+        }
+        Unmarshaller unmarshaller = Holder.JAXB_CONTEXT.createUnmarshaller();
+        unmarshaller.setSchema(Holder.SCHEMA);
+        return unmarshaller;
+    }
+
+    /**
+     * Holds the shared, immutable XML objects, which are built on first use.
+     */
+    private static final class Holder {
+        private static final Schema SCHEMA = compileSchema();
+        private static final JAXBContext JAXB_CONTEXT = createJaxbContext();
+        private static final Templates IDENTITY_TEMPLATES = compileIdentityTransform();
+
+        private Holder() {
+        }
+
+        private static Schema compileSchema() {
+            try (InputStream is = ReferenceManifest.class.getClassLoader()
+                    .getResourceAsStream(ReferenceManifest.SCHEMA_URL)) {
+                if (is == null) {
+                    LOGGER.error("Schema " + ReferenceManifest.SCHEMA_URL + " not found");
+                    return null;
+                }
+                return SchemaFactory.newInstance(ReferenceManifest.SCHEMA_LANGUAGE)
+                        .newSchema(new StreamSource(is));
+            } catch (SAXException | IOException e) {
+                LOGGER.error(String.format("Error setting schema for validation!%n%s",
+                        e.getMessage()));
+                return null;
+            }
+        }
+
+        private static JAXBContext createJaxbContext() {
+            try {
+                return JAXBContext.newInstance(ReferenceManifest.SCHEMA_PACKAGE);
+            } catch (JAXBException e) {
+                LOGGER.error("Error initializing swidtag JAXB context", e);
+                return null;
+            }
+        }
+
+        private static Templates compileIdentityTransform() {
+            try (InputStream is = ReferenceManifestXml.class.getClassLoader()
+                    .getResourceAsStream(IDENTITY_TRANSFORM)) {
+                return TransformerFactory.newInstance().newTemplates(new StreamSource(is));
+            } catch (TransformerConfigurationException | IOException e) {
+                LOGGER.error("Error compiling identity transform", e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Creates the objects held by a {@link Pool}.
+     *
+     * @param <T> the type of the objects
+     * @param <E> the exception thrown if an object cannot be created
+     */
+    interface Factory<T, E extends Exception> {
+        T create() throws E;
+    }
+
+    /**
+     * A pool of objects that may only be used by one thread at a time.
+     *
+     * @param <T> the type of the objects
+     * @param <E> the exception thrown if an object cannot be created
+     */
+    static final class Pool<T, E extends Exception> {
+        private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+        private final Factory<T, E> factory;
+
+        Pool(final Factory<T, E> factory) {
+            this.factory = factory;
+        }
+
+        T borrow() throws E {
+            T instance = idle.poll();
+            if (instance == null) {
+                instance = factory.create();
+            }
+            return instance;
+        }
+
+        void release(final T instance) {
+            // the size of a concurrent queue is not exact, but keeps the pool roughly bounded
+            if (idle.size() < MAX_IDLE) {
+                idle.offer(instance);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package hirs.validation;
+
+import hirs.data.persist.certificate.attributes.ComponentIdentifier;
+import hirs.data.persist.info.ComponentInfo;
+import org.apache.commons.lang3.StringUtils;
+import org.bouncycastle.asn1.DERUTF8String;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Matches the components listed in a platform credential with the components reported by a
+ * device, as required when a platform credential is expected to match the device exactly.
+ * <p>
+ * The components of each manufacturer are matched in three passes, from the most to the least
+ * specific:
+ * <ol>
+ *     <li>credential components with a serial number are compared with the first device
+ *     component of the same manufacturer and serial number,</li>
+ *     <li>the remaining credential components with a revision are compared with the first
+ *     remaining device component of the same manufacturer and revision,</li>
+ *     <li>each remaining credential component is compared with every remaining device component
+ *     of the same manufacturer and model, or of the same manufacturer if it has no model, and
+ *     takes all of those it matches.</li>
+ * </ol>
+ * A credential component whose model no remaining device component has cannot match, but is
+ * still compared with one remaining device component of its manufacturer, so that a matcher
+ * recording its comparisons records the manufacturer of every credential component.
+ * A device component is taken by at most one match. The device components are indexed once by
+ * serial number, revision and model, and components are marked as matched rather than removed
+ * from lists, so that the passes take time linear in the number of components rather than
+ * quadratic.
+ */
+final class ComponentMatcher {
+
+    private final Map<String, DeviceComponents> deviceComponents = new HashMap<>();
+    private final BiPredicate<ComponentIdentifier, ComponentInfo> matcher;
+
+    /**
+     * Indexes the components reported by a device.
+     *
+     * @param deviceComponents the device components
+     * @param matcher decides whether a credential component matches a device component, and
+     *                may record the comparison
+     */
+    ComponentMatcher(final List<ComponentInfo> deviceComponents,
+                     final BiPredicate<ComponentIdentifier, ComponentInfo> matcher) {
+        this.matcher = matcher;
+        Map<String, List<ComponentInfo>> byManufacturer = new HashMap<>();
+        for (ComponentInfo component : deviceComponents) {
+            byManufacturer.computeIfAbsent(component.getComponentManufacturer(),
+                    k -> new ArrayList<>()).add(component);
+        }
+        for (Map.Entry<String, List<ComponentInfo>> entry : byManufacturer.entrySet()) {
+            this.deviceComponents.put(entry.getKey(), new DeviceComponents(entry.getValue()));
+        }
+    }
+
+    /**
+     * Matches the given credential components with the device components. Each device
+     * component can only be matched once, so a matcher is meant to be used for a single
+     * credential.
+     *
+     * @param pcComponents the credential components; all of them must have a manufacturer
+     * @return the credential components that did not match any device component, grouped by
+     * manufacturer
+     */
+    List<ComponentIdentifier> findUnmatched(final List<ComponentIdentifier> pcComponents) {
+        Map<String, List<ComponentIdentifier>> byManufacturer = new LinkedHashMap<>();
+        for (ComponentIdentifier component : pcComponents) {
+            byManufacturer.computeIfAbsent(component.getComponentManufacturer().getString(),
+                    k -> new ArrayList<>()).add(component);
+        }
+
+        List<ComponentIdentifier> unmatched = new ArrayList<>();
+        for (Map.Entry<String, List<ComponentIdentifier>> entry : byManufacturer.entrySet()) {
+            DeviceComponents devices = deviceComponents.get(entry.getKey());
+            if (devices == null) {
+                unmatched.addAll(entry.getValue());
+            } else {
+                unmatched.addAll(new Matching(entry.getValue(), devices).run());
+            }
+        }
+        return unmatched;
+    }
+
+    /**
+     * The matching of the credential components of one manufacturer. As when removing equal
+     * elements from a list, each match marks the first unmatched credential component equal to
+     * the matched one.
+     */
+    private final class Matching {
+        private final List<ComponentIdentifier> components;
+        private final DeviceComponents devices;
+        private final boolean[] matched;
+        private final Map<ComponentIdentifier, Deque<Integer>> byValue = new HashMap<>();
+
+        Matching(final List<ComponentIdentifier> components, final DeviceComponents devices) {
+            this.components = components;
+            this.devices = devices;
+            this.matched = new boolean[components.size()];
+            for (int i = 0; i < components.size(); i++) {
+                byValue.computeIfAbsent(components.get(i), k -> new ArrayDeque<>()).add(i);
+            }
+        }
+
+        List<ComponentIdentifier> run() {
+            // match the most specific components first, those with a serial number
+            for (ComponentIdentifier component : components) {
+                String serial = value(component.getComponentSerial());
+                if (StringUtils.isNotEmpty(serial)) {
+                    matchFirst(component, devices.bySerial.get(serial));
+                }
+            }
+
+            // then those specifying a revision
+            for (ComponentIdentifier component : unmatched()) {
+                String revision = value(component.getComponentRevision());
+                if (StringUtils.isNotEmpty(revision)) {
+                    matchFirst(component, devices.byRevision.get(revision));
+                }
+            }
+
+            // the remaining components take every device component they match
+            for (ComponentIdentifier component : unmatched()) {
+                matchAll(component);
+            }
+            return unmatched();
+        }
+
+        private void matchFirst(final ComponentIdentifier component,
+                                final Deque<Integer> candidates) {
+            Integer first = devices.first(candidates);
+            if (first != null && matcher.test(component, devices.components.get(first))) {
+                devices.take(first);
+                markMatched(component);
+            }
+        }
+
+        private void matchAll(final ComponentIdentifier component) {
+            String model = value(component.getComponentModel());
+            List<Integer> candidates;
+            if (StringUtils.isEmpty(model)) {
+                candidates = devices.all;
+            } else {
+                candidates = devices.byModel.getOrDefault(model,
+                        Collections.<Integer>emptyList());
+            }
+
+            boolean compared = false;
+            for (Integer index : candidates) {
+                if (!devices.taken[index]) {
+                    compared = true;
+                    if (matcher.test(component, devices.components.get(index))) {
+                        devices.take(index);
+                        markMatched(component);
+                    }
+                }
+            }
+
+            // no remaining device component has the model of the component, so it cannot match.
+            // it is still compared with one remaining device component of its manufacturer, so
+            // that the matcher records the comparison of the manufacturer for the component
+            if (!compared) {
+                Integer first = devices.first();
+                if (first != null && matcher.test(component, devices.components.get(first))) {
+                    devices.take(first);
+                    markMatched(component);
+                }
+            }
+        }
+
+        private void markMatched(final ComponentIdentifier component) {
+            Deque<Integer> equal = byValue.get(component);
+            while (!equal.isEmpty()) {
+                int index = equal.poll();
+                if (!matched[index]) {
+                    matched[index] = true;
+                    return;
+                }
+            }
+        }
+
+        private List<ComponentIdentifier> unmatched() {
+            List<ComponentIdentifier> unmatched = new ArrayList<>();
+            for (int i = 0; i < components.size(); i++) {
+                if (!matched[i]) {
+                    unmatched.add(components.get(i));
+                }
+            }
+            return unmatched;
+        }
+    }
+
+    /**
+     * The device components of one manufacturer, indexed by serial number, revision and model.
+     * The indexes hold positions in the list of components, in list order.
+     */
+    private static final class DeviceComponents {
+        private final List<ComponentInfo> components;
+        private final boolean[] taken;
+        private final List<Integer> all = new ArrayList<>();
+        private final Map<String, Deque<Integer>> bySerial = new HashMap<>();
+        private final Map<String, Deque<Integer>> byRevision = new HashMap<>();
+        private final Map<String, List<Integer>> byModel = new HashMap<>();
+        private int firstRemaining = 0;
+
+        DeviceComponents(final List<ComponentInfo> components) {
+            this.components = components;
+            this.taken = new boolean[components.size()];
+            for (int i = 0; i < components.size(); i++) {
+                ComponentInfo component = components.get(i);
+                all.add(i);
+                if (StringUtils.isNotEmpty(component.getComponentSerial())) {
+                    bySerial.computeIfAbsent(component.getComponentSerial(),
+                            k -> new ArrayDeque<>()).add(i);
+                }
+                if (StringUtils.isNotEmpty(component.getComponentRevision())) {
+                    byRevision.computeIfAbsent(component.getComponentRevision(),
+                            k -> new ArrayDeque<>()).add(i);
+                }
+                if (component.getComponentModel() != null) {
+                    byModel.computeIfAbsent(component.getComponentModel(),
+                            k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        /**
+         * Returns the first component of an index that was not taken yet, discarding the
+         * taken components in front of it.
+         */
+        Integer first(final Deque<Integer> candidates) {
+            if (candidates == null) {
+                return null;
+            }
+            while (!candidates.isEmpty() && taken[candidates.peek()]) {
+                candidates.poll();
+            }
+            return candidates.peek();
+        }
+
+        /**
+         * Returns the first component that was not taken yet.
+         */
+        Integer first() {
+            while (firstRemaining < taken.length && taken[firstRemaining]) {
+                firstRemaining++;
+            }
+            if (firstRemaining < taken.length) {
+                return firstRemaining;
+            }
+            return null;
+        }
+
+        void take(final int index) {
+            taken[index] = true;
+        }
+    }
+
+    private static String value(final DERUTF8String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.getString();
+    }
+}
@@ -3,26 +3,19 @@ package hirs.validation;
 import hirs.data.persist.AppraisalStatus;
 import hirs.data.persist.DeviceInfoReport;
 import hirs.data.persist.SupplyChainValidation;
-import hirs.data.persist.certificate.ComponentResult;
 import hirs.data.persist.certificate.EndorsementCredential;
 import hirs.data.persist.certificate.PlatformCredential;
 
 import java.security.KeyStore;
-import java.util.List;
 import java.util.Map;
 
 /**
  * A class used to support supply chain validation by performing the actual
- * validation of credentials.
+ * validation of credentials. Validations keep no state in the validator, so one validator may
+ * validate several devices at the same time.
  */
 public interface CredentialValidator {
 
-    /**
-     * Getter for the list of the Component Results.
-     * @return a list of results
-     */
-    List<ComponentResult> getComponentResultList();
-
     /**
      * Checks if the platform credential is valid.
      *
@@ -41,7 +34,8 @@ public interface CredentialValidator {
      * @param deviceInfoReport Report containing the serial numbers of the platform to be validated.
      * @param ec The endorsement credential supplied from the same identity request as
      *           the platform credential.
-     * @return The result of the validation.
+     * @return The result of the validation, along with the results of the component
+     *         comparisons it made.
      */
     AppraisalStatus validatePlatformCredentialAttributes(PlatformCredential pc,
                                                          DeviceInfoReport deviceInfoReport,
@@ -56,7 +50,8 @@ public interface CredentialValidator {
      *                              as the delta credential.
      * @param deltaMapping delta certificates associated with the
      *                          delta supply validation.
-     * @return the result of the validation.
+     * @return the result of the validation, along with the results of the component
+     *         comparisons it made.
      */
     AppraisalStatus validateDeltaPlatformCredentialAttributes(PlatformCredential delta,
                                                         DeviceInfoReport deviceInfoReport,
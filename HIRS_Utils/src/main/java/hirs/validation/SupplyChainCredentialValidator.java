@@ -57,7 +57,6 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -98,8 +97,6 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
      */
     public static final String FIRMWARE_VALID = "Firmware validated";
 
-    private static List<ComponentResult> componentResultList = new LinkedList<>();;
-
     /**
      * Ensure that BouncyCastle is configured as a javax.security.Security provider, as this
      * class expects it to be available.
@@ -186,15 +183,6 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
         return null;
     }
 
-    /**
-     * Getter for the list of the Component Results.
-     * @return a list of results
-     */
-    @Override
-    public List<ComponentResult> getComponentResultList() {
-        return this.componentResultList;
-    }
-
     /**
      * Checks if the platform credential is valid.
      *
@@ -556,11 +544,13 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
 
         String paccorOutputString = deviceInfoReport.getPaccorOutputString();
         String unmatchedComponents;
+        List<ComponentResult> componentResults = new ArrayList<>();
         try {
             List<ComponentInfo> componentInfoList
                     = getComponentInfoFromPaccorOutput(paccorOutputString);
             unmatchedComponents = validateV2p0PlatformCredentialComponentsExpectingExactMatch(
-                    platformCredential.getId(), validPcComponents, componentInfoList);
+                    platformCredential.getId(), validPcComponents, componentInfoList,
+                    componentResults);
             fieldValidation &= unmatchedComponents.isEmpty();
         } catch (IOException e) {
             final String baseErrorMessage = "Error parsing JSON output from PACCOR: ";
@@ -588,11 +578,15 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
 
         passesValidation &= fieldValidation;
 
+        AppraisalStatus status;
         if (passesValidation) {
-            return new AppraisalStatus(PASS, PLATFORM_ATTRIBUTES_VALID);
+            status = new AppraisalStatus(PASS, PLATFORM_ATTRIBUTES_VALID);
         } else {
-            return new AppraisalStatus(FAIL, resultMessage.toString(), additionalInfo.toString());
+            status = new AppraisalStatus(FAIL, resultMessage.toString(),
+                    additionalInfo.toString());
         }
+        status.setComponentResults(componentResults);
+        return status;
     }
 
     /**
@@ -721,6 +715,7 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
 
         String paccorOutputString = deviceInfoReport.getPaccorOutputString();
         String unmatchedComponents;
+        List<ComponentResult> componentResults = new ArrayList<>();
         try {
             // compare based on component class
             List<ComponentInfo> componentInfoList = getV2PaccorOutput(paccorOutputString);
@@ -728,7 +723,8 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
             unmatchedComponents = validateV2PlatformCredentialAttributes(
                     certificateId,
                     baseCompList,
-                    componentInfoList);
+                    componentInfoList,
+                    componentResults);
             fieldValidation &= unmatchedComponents.isEmpty();
         } catch (IOException ioEx) {
             final String baseErrorMessage = "Error parsing JSON output from PACCOR: ";
@@ -754,17 +750,22 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
             }
         }
 
+        AppraisalStatus status;
         if (fieldValidation) {
-            return new AppraisalStatus(PASS, PLATFORM_ATTRIBUTES_VALID);
+            status = new AppraisalStatus(PASS, PLATFORM_ATTRIBUTES_VALID);
         } else {
-            return new AppraisalStatus(FAIL, resultMessage.toString(), additionalInfo.toString());
+            status = new AppraisalStatus(FAIL, resultMessage.toString(),
+                    additionalInfo.toString());
         }
+        status.setComponentResults(componentResults);
+        return status;
     }
 
     private static String validateV2PlatformCredentialAttributes(
             final UUID certificateId,
             final List<ComponentIdentifier> fullDeltaChainComponents,
-            final List<ComponentInfo> allDeviceInfoComponents) {
+            final List<ComponentInfo> allDeviceInfoComponents,
+            final List<ComponentResult> componentResults) {
         ComponentIdentifierV2 ciV2;
         StringBuilder invalidPcIds = new StringBuilder();
         List<ComponentIdentifier> subCompIdList = fullDeltaChainComponents
@@ -778,7 +779,7 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
                 ciV2 = (ComponentIdentifierV2) cId;
                 if (cInfo.getComponentClass().contains(
                         ciV2.getComponentClass().getValue())
-                        && isMatch(certificateId, cId, cInfo)) {
+                        && isMatch(certificateId, cId, cInfo, componentResults)) {
                     subCompIdList.remove(cId);
                     subCompInfoList.remove(cInfo);
                 }
@@ -821,132 +822,37 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
      *                              **NEW** this is updated with just the unmatched components
      *                              if there are any failures, otherwise it remains unchanged.
      * @param allDeviceInfoComponents the device info report components
+     * @param componentResults the list the results of the component comparisons are added to
      * @return true if validation passes
      */
     private static String validateV2p0PlatformCredentialComponentsExpectingExactMatch(
             final UUID certificateId,
             final List<ComponentIdentifier> untrimmedPcComponents,
-            final List<ComponentInfo> allDeviceInfoComponents) {
-        // For each manufacturer listed in the platform credential, create two lists:
-        // 1. a list of components listed in the platform credential for the manufacturer, and
-        // 2. a list of components listed in the device info for the same manufacturer
-        // Then eliminate matches from both lists. Finally, decide if the validation passes based
-        // on the leftovers in the lists and the policy in place.
+            final List<ComponentInfo> allDeviceInfoComponents,
+            final List<ComponentResult> componentResults) {
+        // the components of the credential are shared, so trimmed copies are compared
         final List<ComponentIdentifier> pcComponents = new ArrayList<>();
         for (ComponentIdentifier component : untrimmedPcComponents) {
-            if (component.getComponentManufacturer() != null) {
-                component.setComponentManufacturer(new DERUTF8String(
-                        component.getComponentManufacturer().getString().trim()));
-            }
-            if (component.getComponentModel() != null) {
-                component.setComponentModel(new DERUTF8String(
-                        component.getComponentModel().getString().trim()));
-            }
-            if (component.getComponentSerial() != null) {
-                component.setComponentSerial(new DERUTF8String(
-                        component.getComponentSerial().getString().trim()));
-            }
-            if (component.getComponentRevision() != null) {
-                component.setComponentRevision(new DERUTF8String(
-                        component.getComponentRevision().getString().trim()));
-            }
-            pcComponents.add(component);
-        }
-
-        LOGGER.info("Validating the following Platform Cert components...");
-        pcComponents.forEach(component -> LOGGER.info(component.toString()));
-        LOGGER.info("...against the the following DeviceInfoReport components:");
-        allDeviceInfoComponents.forEach(component -> LOGGER.info(component.toString()));
-        Set<DERUTF8String> manufacturerSet = new HashSet<>();
-        pcComponents.forEach(pcComp -> manufacturerSet.add(pcComp.getComponentManufacturer()));
-
-        // Create a list for unmatched components across all manufacturers to display at the end.
-        List<ComponentIdentifier> pcUnmatchedComponents = new ArrayList<>();
-
-        for (DERUTF8String derUtf8Manufacturer : manufacturerSet) {
-            List<ComponentIdentifier> pcComponentsFromManufacturer
-                    = pcComponents.stream().filter(compIdentifier
-                    -> compIdentifier.getComponentManufacturer().equals(derUtf8Manufacturer))
-                    .collect(Collectors.toList());
-
-            String pcManufacturer = derUtf8Manufacturer.getString();
-            List<ComponentInfo> deviceInfoComponentsFromManufacturer
-                    = allDeviceInfoComponents.stream().filter(componentInfo
-                    -> componentInfo.getComponentManufacturer().equals(pcManufacturer))
-                    .collect(Collectors.toList());
-            // For each component listed in the platform credential from this manufacturer
-            // find the ones that specify a serial number so we can match the most specific ones
-            // first.
-            List<ComponentIdentifier> pcComponentsFromManufacturerWithSerialNumber
-                    = pcComponentsFromManufacturer.stream().filter(compIdentifier
-                    -> compIdentifier.getComponentSerial() != null
-                    && StringUtils.isNotEmpty(compIdentifier.getComponentSerial().getString()))
-                    .collect(Collectors.toList());
-            // Now match up the components from the device info that are from the same
-            // manufacturer and have a serial number. As matches are found, remove them from
-            // both lists.
-            for (ComponentIdentifier pcComponent
-                    : pcComponentsFromManufacturerWithSerialNumber) {
-                Optional<ComponentInfo> first
-                        = deviceInfoComponentsFromManufacturer.stream()
-                        .filter(componentInfo
-                                -> StringUtils.isNotEmpty(componentInfo.getComponentSerial()))
-                        .filter(componentInfo -> componentInfo.getComponentSerial()
-                                .equals(pcComponent.getComponentSerial().getString())).findFirst();
-
-                if (first.isPresent()) {
-                    ComponentInfo potentialMatch = first.get();
-                    if (isMatch(certificateId, pcComponent, potentialMatch)) {
-                        pcComponentsFromManufacturer.remove(pcComponent);
-                        deviceInfoComponentsFromManufacturer.remove(potentialMatch);
-                    }
-                }
-            }
-            // For each component listed in the platform credential from this manufacturer
-            // find the ones that specify value for the revision field so we can match the most
-            // specific ones first.
-            List<ComponentIdentifier> pcComponentsFromManufacturerWithRevision
-                    = pcComponentsFromManufacturer.stream().filter(compIdentifier
-                    -> compIdentifier.getComponentRevision() != null
-                    && StringUtils.isNotEmpty(compIdentifier.getComponentRevision().getString()))
-                    .collect(Collectors.toList());
-            // Now match up the components from the device info that are from the same
-            // manufacturer and specify a value for the revision field. As matches are found,
-            // remove them from both lists.
-            for (ComponentIdentifier pcComponent
-                    : pcComponentsFromManufacturerWithRevision) {
-                Optional<ComponentInfo> first
-                        = deviceInfoComponentsFromManufacturer.stream()
-                        .filter(info -> StringUtils.isNotEmpty(info.getComponentRevision()))
-                        .filter(info -> info.getComponentRevision()
-                                .equals(pcComponent.getComponentRevision().getString()))
-                        .findFirst();
-
-                if (first.isPresent()) {
-                    ComponentInfo potentialMatch = first.get();
-                    if (isMatch(certificateId, pcComponent, potentialMatch)) {
-                        pcComponentsFromManufacturer.remove(pcComponent);
-                        deviceInfoComponentsFromManufacturer.remove(potentialMatch);
-                    }
-                }
-            }
-            // The remaining components from the manufacturer have only the 2 required fields so
-            // just match them.
-            List<ComponentIdentifier> templist = new ArrayList<>(pcComponentsFromManufacturer);
-            for (ComponentIdentifier ci : templist) {
-                Iterator<ComponentInfo> diComponentIter
-                        = deviceInfoComponentsFromManufacturer.iterator();
-                while (diComponentIter.hasNext()) {
-                    ComponentInfo potentialMatch = diComponentIter.next();
-                    if (isMatch(certificateId, ci, potentialMatch)) {
-                        pcComponentsFromManufacturer.remove(ci);
-                        diComponentIter.remove();
-                    }
-                }
-            }
-            pcUnmatchedComponents.addAll(pcComponentsFromManufacturer);
+            pcComponents.add(trim(component));
+        }
+
+        LOGGER.info("Validating {} Platform Cert components against {} DeviceInfoReport"
+                + " components", pcComponents.size(), allDeviceInfoComponents.size());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Validating the following Platform Cert components...");
+            pcComponents.forEach(component -> LOGGER.debug(component.toString()));
+            LOGGER.debug("...against the the following DeviceInfoReport components:");
+            allDeviceInfoComponents.forEach(component -> LOGGER.debug(component.toString()));
         }
 
+        // Match components by manufacturer, then by serial number, revision and model.
+        // Collect the unmatched components across all manufacturers to display at the end.
+        List<ComponentIdentifier> pcUnmatchedComponents = new ComponentMatcher(
+                allDeviceInfoComponents,
+                (pcComponent, potentialMatch) -> isMatch(certificateId, pcComponent,
+                        potentialMatch, componentResults))
+                .findUnmatched(pcComponents);
+
         if (!pcUnmatchedComponents.isEmpty()) {
             untrimmedPcComponents.clear();
             StringBuilder sb = new StringBuilder();
@@ -974,6 +880,43 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
         return Strings.EMPTY;
     }
 
+    /**
+     * Copies a component identifier, removing the whitespace around its manufacturer, model,
+     * serial and revision.
+     * @param component the component identifier
+     * @return the trimmed copy
+     */
+    private static ComponentIdentifier trim(final ComponentIdentifier component) {
+        if (component.isVersion2()) {
+            ComponentIdentifierV2 componentV2 = (ComponentIdentifierV2) component;
+            return new ComponentIdentifierV2(componentV2.getComponentClass(),
+                    trim(component.getComponentManufacturer()),
+                    trim(component.getComponentModel()),
+                    trim(component.getComponentSerial()),
+                    trim(component.getComponentRevision()),
+                    component.getComponentManufacturerId(),
+                    component.getFieldReplaceable(),
+                    component.getComponentAddress(),
+                    componentV2.getCertificateIdentifier(),
+                    componentV2.getComponentPlatformUri(),
+                    componentV2.getAttributeStatus());
+        }
+        return new ComponentIdentifier(trim(component.getComponentManufacturer()),
+                trim(component.getComponentModel()),
+                trim(component.getComponentSerial()),
+                trim(component.getComponentRevision()),
+                component.getComponentManufacturerId(),
+                component.getFieldReplaceable(),
+                component.getComponentAddress());
+    }
+
+    private static DERUTF8String trim(final DERUTF8String value) {
+        if (value == null) {
+            return null;
+        }
+        return new DERUTF8String(value.getString().trim());
+    }
+
     /**
      * Returns true if fieldValue is null or empty.
      * @param description description of the value
@@ -1082,6 +1025,24 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
      */
     static boolean isMatch(final UUID certificateId, final ComponentIdentifier pcComponent,
                            final ComponentInfo potentialMatch) {
+        return isMatch(certificateId, pcComponent, potentialMatch, new ArrayList<>());
+    }
+
+    /**
+     * Checks if the fields in the potentialMatch match the fields in the pcComponent,
+     * or if the relevant field in the pcComponent is empty, and records the fields that
+     * matched.
+     *
+     * @param certificateId the certificate id
+     * @param pcComponent the platform credential component
+     * @param potentialMatch the component info from a device info report
+     * @param componentResults the list the results of the comparisons are added to
+     * @return true if the fields match exactly (null is considered the same as an empty string)
+     */
+    static boolean isMatch(final UUID certificateId,
+                           final ComponentIdentifier pcComponent,
+                           final ComponentInfo potentialMatch,
+                           final List<ComponentResult> componentResults) {
         boolean matchesSoFar = true;
 
         matchesSoFar &= isMatchOrEmptyInPlatformCert(
@@ -1090,7 +1051,7 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
         );
 
         if (matchesSoFar) {
-            componentResultList.add(new ComponentResult(certificateId, pcComponent.hashCode(),
+            componentResults.add(new ComponentResult(certificateId, pcComponent.hashCode(),
                     potentialMatch.getComponentManufacturer(),
                     pcComponent.getComponentManufacturer().getString()));
         }
@@ -1101,7 +1062,7 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
         );
 
         if (matchesSoFar) {
-            componentResultList.add(new ComponentResult(certificateId, pcComponent.hashCode(),
+            componentResults.add(new ComponentResult(certificateId, pcComponent.hashCode(),
                     potentialMatch.getComponentModel(),
                     pcComponent.getComponentModel().getString()));
         }
@@ -1112,7 +1073,7 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
         );
 
         if (matchesSoFar) {
-            componentResultList.add(new ComponentResult(certificateId, pcComponent.hashCode(),
+            componentResults.add(new ComponentResult(certificateId, pcComponent.hashCode(),
                     potentialMatch.getComponentSerial(),
                     pcComponent.getComponentSerial().getString()));
         }
@@ -1123,7 +1084,7 @@ public final class SupplyChainCredentialValidator implements CredentialValidator
         );
 
         if (matchesSoFar) {
-            componentResultList.add(new ComponentResult(certificateId, pcComponent.hashCode(),
+            componentResults.add(new ComponentResult(certificateId, pcComponent.hashCode(),
                     potentialMatch.getComponentRevision(),
                     pcComponent.getComponentRevision().getString()));
         }
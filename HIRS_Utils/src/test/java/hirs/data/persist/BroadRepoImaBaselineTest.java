@@ -5,6 +5,8 @@ import hirs.data.persist.baseline.BroadRepoImaBaseline;
 import hirs.data.persist.baseline.Baseline;
 import hirs.data.persist.enums.ReportMatchStatus;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -30,6 +32,7 @@ import hirs.repository.RepoPackage;
 import hirs.repository.RepoPackageTest;
 import hirs.repository.Repository;
 import hirs.repository.TestRepository;
+import hirs.utils.Callback;
 
 /**
  * Unit tests for the <code>BroadRepoImaBaseline</code> class.
@@ -49,6 +52,7 @@ public class BroadRepoImaBaselineTest extends SpringPersistenceTest {
     private static final String FILEPATH3 = "/update2/test/path.file";
     private static final String BIN_FILE = "/bin/ls";
     private static final String USR_BIN_FILE = "/usr/bin/ls";
+    private static final String OTHER_FILE = "/usr/lib/other.so";
     private static final String REPO_NAME_ONE = "first test repo";
     private static final String REPO_NAME_TWO = "second test repo";
     private TestRepository repo1;
@@ -254,6 +258,63 @@ public class BroadRepoImaBaselineTest extends SpringPersistenceTest {
         );
     }
 
+    /**
+     * Tests that contains() finds a baseline record by its partial path, which the database
+     * selects by the hash of the file name.
+     *
+     * @throws UnsupportedEncodingException
+     *             if an error is encountered while getting the test digest
+     */
+    @Test
+    public final void testContainsPartialPath() throws UnsupportedEncodingException {
+        IMABaselineRecord baselineRecord = SimpleImaBaselineTest.createTestIMARecord(FILEPATH1);
+        BroadRepoImaBaseline savedBaseline = saveBaselineWithRecords(
+                baselineRecord, SimpleImaBaselineTest.createTestIMARecord(BIN_FILE));
+
+        IMAMeasurementRecord measurementRecord = new IMAMeasurementRecord(
+                IMABaselineRecord.getPartialPath(FILEPATH1), baselineRecord.getHash());
+        Assert.assertEquals(
+                savedBaseline.contains(
+                        Collections.singletonList(measurementRecord),
+                        new DbImaBaselineRecordManager(sessionFactory),
+                        SimpleImaBaselineTest.getTestImaPolicy(true)
+                ).getIMAMatchStatuses(measurementRecord),
+                Collections.singleton(
+                        new IMAMatchStatus<>(
+                                measurementRecord, ReportMatchStatus.MATCH, baselineRecord, baseline
+                        )
+                )
+        );
+    }
+
+    /**
+     * Tests that iterating over the records of a baseline for given paths only reads the records
+     * sharing a file name with one of the paths.
+     *
+     * @throws UnsupportedEncodingException
+     *             if an error is encountered while getting the test digest
+     */
+    @Test
+    public final void testIterateOverBaselineRecordsByPath() throws UnsupportedEncodingException {
+        IMABaselineRecord binRecord = SimpleImaBaselineTest.createTestIMARecord(BIN_FILE);
+        BroadRepoImaBaseline savedBaseline = saveBaselineWithRecords(binRecord,
+                SimpleImaBaselineTest.createTestIMARecord(FILEPATH1),
+                SimpleImaBaselineTest.createTestIMARecord(OTHER_FILE));
+
+        Collection<IMABaselineRecord> records =
+                new DbImaBaselineRecordManager(sessionFactory).iterateOverBaselineRecords(
+                        savedBaseline, Collections.singletonList(USR_BIN_FILE),
+                        new Callback<IMABaselineRecord, IMABaselineRecord>() {
+                            @Override
+                            public IMABaselineRecord call(final IMABaselineRecord param) {
+                                return param;
+                            }
+                        });
+
+        Assert.assertEquals(records.size(), 1);
+        Assert.assertEquals(records.iterator().next(), binRecord);
+    }
+
     /**
      * Test that ensures a BroadRepoImaBaseline can correctly determine if
      * it contains any matching baseline records solely based upon a given measurement
@@ -485,4 +546,24 @@ public class BroadRepoImaBaselineTest extends SpringPersistenceTest {
         Assert.assertEquals(updatedBaseline.getRepositories(),
                 savedBaseline.getRepositories());
     }
+
+    private BroadRepoImaBaseline saveBaselineWithRecords(final IMABaselineRecord... records)
+            throws UnsupportedEncodingException {
+        BroadRepoImaBaseline testBaseline = new BroadRepoImaBaseline(BASELINE_NAME);
+        Repository testRepo = new TestRepository("Test Repository", 0);
+        DBRepositoryManager repoManager = new DBRepositoryManager(sessionFactory);
+        testRepo = repoManager.saveRepository(testRepo);
+        RepoPackage testRepoPackage =
+                new RPMRepoPackage(NAME, VERSION1, RELEASE1, ARCHITECTURE, testRepo);
+        testRepoPackage.setAllMeasurements(new HashSet<>(Arrays.asList(records)),
+                RepoPackageTest.getTestDigest());
+        repoManager.saveRepoPackage(testRepoPackage);
+        Set<Repository<?>> originalRepositories = new HashSet<>();
+        originalRepositories.add(testRepo);
+        testBaseline.setRepositories(originalRepositories);
+        testBaseline.update(repoManager);
+
+        DBBaselineManager baselineManager = new DBBaselineManager(sessionFactory);
+        return (BroadRepoImaBaseline) baselineManager.save(testBaseline);
+    }
 }
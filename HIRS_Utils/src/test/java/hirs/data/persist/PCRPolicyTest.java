@@ -1,12 +1,25 @@
 package hirs.data.persist;
 
+import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TcgEventLogReader;
+import hirs.tpm.eventlog.TcgEventView;
+import hirs.tpm.eventlog.TpmPcrEvent;
+import org.apache.commons.io.IOUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Tests for the PCRPolicyTest class.
  */
 public class PCRPolicyTest {
+    private static final String DEFAULT_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+    private static final int LAST_PCR_KEPT = 3;
 
     private static final String[] BASELINE_PCRS = new String[]{
         "cc8695ee470cd21f32de41df451376d9e751cadb",
@@ -118,4 +131,85 @@ public class PCRPolicyTest {
         StringBuilder result = instance.validatePcrs(QUOTE_PCRS);
         Assert.assertEquals(result.length(), 0);
     }
+
+    /**
+     * Tests that no event of a measurement log fails when every event digest is a reference
+     * digest, when streaming through the log.
+     *
+     * @throws IOException if the event log cannot be read
+     */
+    @Test
+    public void testValidateTpmEventsReaderPass() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(readResource(DEFAULT_EVENT_LOG));
+        List<ReferenceDigestValue> values = new ArrayList<>();
+        for (TcgEventView event : reader) {
+            values.add(createValue(event));
+        }
+
+        PCRPolicy instance = new PCRPolicy(BASELINE_PCRS);
+        Assert.assertTrue(instance.validateTpmEvents(reader,
+                new ReferenceDigestIndex(values)).isEmpty());
+    }
+
+    /**
+     * Tests that events without a reference digest fail when streaming through the log, and
+     * that the same events fail as when validating the fully parsed log.
+     *
+     * @throws Exception if the event log cannot be read or parsed
+     */
+    @Test
+    public void testValidateTpmEventsReaderFail() throws Exception {
+        byte[] rawLog = readResource(DEFAULT_EVENT_LOG);
+        TcgEventLogReader reader = new TcgEventLogReader(rawLog);
+        List<ReferenceDigestValue> values = new ArrayList<>();
+        for (TcgEventView event : reader) {
+            if (event.getPcrIndex() <= LAST_PCR_KEPT) {
+                values.add(createValue(event));
+            }
+        }
+        ReferenceDigestIndex index = new ReferenceDigestIndex(values);
+
+        PCRPolicy instance = new PCRPolicy(BASELINE_PCRS);
+        List<TcgEventView> failed = instance.validateTpmEvents(reader, index);
+        List<TpmPcrEvent> expected = instance.validateTpmEvents(new TCGEventLog(rawLog), index);
+        Assert.assertFalse(failed.isEmpty());
+        Assert.assertEquals(failed.size(), expected.size());
+        for (int i = 0; i < failed.size(); i++) {
+            Assert.assertEquals(failed.get(i).getEventNumber(),
+                    expected.get(i).getEventNumber());
+        }
+    }
+
+    /**
+     * Tests that the events of the OS PCRs do not fail when the policy ignores OS events.
+     *
+     * @throws IOException if the event log cannot be read
+     */
+    @Test
+    public void testValidateTpmEventsReaderIgnoreOsEvt() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(readResource(DEFAULT_EVENT_LOG));
+        List<ReferenceDigestValue> values = new ArrayList<>();
+        for (TcgEventView event : reader) {
+            if (event.getPcrIndex() < PCRPolicy.PXE_PCR_START) {
+                values.add(createValue(event));
+            }
+        }
+
+        PCRPolicy instance = new PCRPolicy(BASELINE_PCRS);
+        instance.setEnableIgnoreOsEvt(true);
+        Assert.assertTrue(instance.validateTpmEvents(reader,
+                new ReferenceDigestIndex(values)).isEmpty());
+    }
+
+    private static ReferenceDigestValue createValue(final TcgEventView event) {
+        return new ReferenceDigestValue(UUID.randomUUID(), UUID.randomUUID(), "manufacturer",
+                "model", event.getPcrIndex(), event.getEventDigestStr(), "EV_POST_CODE",
+                false, false, true, null);
+    }
+
+    private byte[] readResource(final String resource) throws IOException {
+        try (InputStream in = this.getClass().getResourceAsStream(resource)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package hirs.data.persist;
+
+import org.apache.commons.codec.binary.Hex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link ReferenceDigestIndex} class.
+ */
+public class ReferenceDigestIndexTest {
+    private static final String DIGEST_A = "cc8695ee470cd21f32de41df451376d9e751cadb";
+    private static final String DIGEST_B = "b2a83b0ebf2f8374299a5b2bdfc31ea955ad7236";
+    private static final String DIGEST_C = "e6e2c4ee5c8c79fa9ca827dd2b1b8341872a141f";
+    private static final int PCR_0 = 0;
+    private static final int PCR_7 = 7;
+
+    /**
+     * Tests that values are found by their binary digest and by their PCR index.
+     *
+     * @throws Exception if a digest cannot be decoded
+     */
+    @Test
+    public void testLookups() throws Exception {
+        ReferenceDigestValue first = createValue(PCR_0, DIGEST_A);
+        ReferenceDigestValue second = createValue(PCR_7, DIGEST_A);
+        ReferenceDigestValue third = createValue(PCR_7, DIGEST_B.toUpperCase());
+        ReferenceDigestIndex index = new ReferenceDigestIndex(
+                Arrays.asList(first, second, third));
+
+        Assert.assertEquals(index.size(), 3);
+        Assert.assertTrue(index.contains(Hex.decodeHex(DIGEST_A.toCharArray())));
+        Assert.assertTrue(index.contains(Hex.decodeHex(DIGEST_B.toCharArray())));
+        Assert.assertFalse(index.contains(Hex.decodeHex(DIGEST_C.toCharArray())));
+        Assert.assertFalse(index.contains(null));
+
+        Assert.assertEquals(index.getByDigest(Hex.decodeHex(DIGEST_A.toCharArray())),
+                Arrays.asList(first, second));
+        Assert.assertTrue(index.getByDigest(Hex.decodeHex(DIGEST_C.toCharArray())).isEmpty());
+        Assert.assertEquals(index.getByPcrIndex(PCR_7), Arrays.asList(second, third));
+        Assert.assertTrue(index.getByPcrIndex(1).isEmpty());
+    }
+
+    /**
+     * Tests that values with a digest that is not a hex string are left out of the index.
+     */
+    @Test
+    public void testInvalidDigestIgnored() {
+        ReferenceDigestIndex index = new ReferenceDigestIndex(
+                Arrays.asList(createValue(PCR_0, "not a digest")));
+
+        Assert.assertTrue(index.isEmpty());
+        Assert.assertTrue(index.getByPcrIndex(PCR_0).isEmpty());
+    }
+
+    /**
+     * Tests that the lists returned by the index cannot be modified.
+     *
+     * @throws Exception if a digest cannot be decoded
+     */
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testImmutable() throws Exception {
+        ReferenceDigestIndex index = new ReferenceDigestIndex(
+                Arrays.asList(createValue(PCR_0, DIGEST_A)));
+
+        index.getByDigest(Hex.decodeHex(DIGEST_A.toCharArray())).clear();
+    }
+
+    private static ReferenceDigestValue createValue(final int pcrIndex, final String digest) {
+        return new ReferenceDigestValue(UUID.randomUUID(), UUID.randomUUID(), "manufacturer",
+                "model", pcrIndex, digest, "EV_POST_CODE", false, false, true, null);
+    }
+}
@@ -0,0 +1,80 @@
+package hirs.data.persist;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link ReferenceManifestContentCache} class.
+ */
+public class ReferenceManifestContentCacheTest {
+    private static final String EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+    private static final String EXPECTED_PCRS = "/tcgeventlog/TpmLogExpectedPcrs.txt";
+
+    /**
+     * Empties the caches before each test.
+     */
+    @BeforeMethod
+    public void clearCache() {
+        ReferenceManifestContentCache.clear();
+    }
+
+    /**
+     * Tests that the event log of a support RIM is replayed once, and that instances holding
+     * the same RIM share the expected PCR values.
+     *
+     * @throws IOException if the test event log cannot be read
+     */
+    @Test
+    public void testExpectedPcrValuesReplayedOnce() throws IOException {
+        byte[] eventLog = readResource(EVENT_LOG);
+        String[] expected = new String(readResource(EXPECTED_PCRS), "UTF-8")
+                .trim().split("\\s+");
+        SupportReferenceManifest first = new SupportReferenceManifest(eventLog);
+        SupportReferenceManifest second = new SupportReferenceManifest(eventLog);
+
+        String[] pcrValues = first.getExpectedPCRList();
+        Assert.assertEquals(pcrValues, expected);
+        pcrValues[0] = "modified";
+
+        AtomicInteger replays = new AtomicInteger();
+        Assert.assertEquals(ReferenceManifestContentCache.getExpectedPcrValues(second, () -> {
+            replays.incrementAndGet();
+            return new String[0];
+        }), expected);
+        Assert.assertEquals(replays.get(), 0);
+        Assert.assertEquals(second.getExpectedPCRList(), expected);
+        Assert.assertEquals(second.getPcrHash(), first.getPcrHash());
+    }
+
+    /**
+     * Tests that RIMs with different contents do not share their entries.
+     *
+     * @throws IOException if the test event log cannot be read
+     */
+    @Test
+    public void testDifferentContentsNotShared() throws IOException {
+        byte[] eventLog = readResource(EVENT_LOG);
+        byte[] otherEventLog = eventLog.clone();
+        otherEventLog[otherEventLog.length - 1]++;
+
+        Assert.assertNotEquals(new SupportReferenceManifest(eventLog).getHexDecHash(),
+                new SupportReferenceManifest(otherEventLog).getHexDecHash());
+        ReferenceManifestContentCache.getExpectedPcrValues(
+                new SupportReferenceManifest(eventLog), () -> new String[] {"a"});
+        Assert.assertEquals(ReferenceManifestContentCache.getExpectedPcrValues(
+                new SupportReferenceManifest(otherEventLog), () -> new String[] {"b"}),
+                new String[] {"b"});
+    }
+
+    private static byte[] readResource(final String name) throws IOException {
+        try (InputStream is = ReferenceManifestContentCacheTest.class.getResourceAsStream(name)) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+}
@@ -806,4 +806,48 @@ public class PlatformCredentialTest {
         PlatformCredential credential = new PlatformCredential(path);
         Assert.assertNotNull(credential);
     }
+
+    /**
+     * Tests that the attributes of a credential are decoded once and shared by every instance
+     * of the same certificate.
+     *
+     * @throws IOException if an IO error occurs during processing
+     * @throws URISyntaxException if there is a problem constructing the cert's URI
+     */
+    @Test
+    public final void testAttributesAreShared() throws IOException, URISyntaxException {
+        Path certPath = Paths.get(this.getClass().getResource(TEST_BASE_PLATFORM_CERT_1).toURI());
+
+        PlatformCredential platformCert = new PlatformCredential(certPath);
+        PlatformCredential samePlatformCert = new PlatformCredential(certPath);
+        PlatformCredential otherPlatformCert = new PlatformCredential(
+                Paths.get(this.getClass().getResource(TEST_PLATFORM_CERT2_SPEC2).toURI()));
+
+        Assert.assertSame(platformCert.getAllAttributes(), platformCert.getAllAttributes());
+        Assert.assertSame(samePlatformCert.getPlatformConfiguration(),
+                platformCert.getPlatformConfiguration());
+        Assert.assertNotSame(otherPlatformCert.getPlatformConfiguration(),
+                platformCert.getPlatformConfiguration());
+
+        PlatformCredentialAttributes.clearCache();
+        PlatformCredential reloadedPlatformCert = new PlatformCredential(certPath);
+        Assert.assertNotSame(reloadedPlatformCert.getPlatformConfiguration(),
+                platformCert.getPlatformConfiguration());
+        Assert.assertEquals(reloadedPlatformCert.getComponentIdentifiers(),
+                platformCert.getComponentIdentifiers());
+        Assert.assertEquals(reloadedPlatformCert.getTcgCredentialMajorVersion(),
+                platformCert.getTcgCredentialMajorVersion());
+    }
+
+    /**
+     * Tests that the attributes of a credential cannot be modified.
+     *
+     * @throws IOException if an IO error occurs during processing
+     * @throws URISyntaxException if there is a problem constructing the cert's URI
+     */
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public final void testAttributesAreUnmodifiable() throws IOException, URISyntaxException {
+        Path certPath = Paths.get(this.getClass().getResource(TEST_BASE_PLATFORM_CERT_1).toURI());
+        new PlatformCredential(certPath).getAllAttributes().remove("platformConfiguration");
+    }
 }
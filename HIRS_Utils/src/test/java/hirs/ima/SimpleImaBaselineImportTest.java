@@ -0,0 +1,157 @@
+package hirs.ima;
+
+import hirs.data.persist.SpringPersistenceTest;
+import hirs.data.persist.baseline.Baseline;
+import hirs.data.persist.baseline.IMABaselineRecord;
+import hirs.data.persist.baseline.SimpleImaBaseline;
+import hirs.persist.BaselineManager;
+import hirs.persist.DBBaselineManager;
+import hirs.persist.DBManager;
+import hirs.persist.DBUtility;
+import hirs.persist.DbImaBaselineRecordManager;
+import hirs.persist.ImaBaselineRecordManager;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests the streaming import of IMA baselines by {@link SimpleImaBaselineGenerator} and their
+ * streaming export by {@link CSVGenerator}.
+ */
+public class SimpleImaBaselineImportTest extends SpringPersistenceTest {
+    private static final String BASELINE_NAME = "Imported Baseline";
+    private static final int RECORD_COUNT = SimpleImaBaselineGenerator.IMPORT_BATCH_SIZE + 10;
+    private static final int DUPLICATE_COUNT = 5;
+
+    /**
+     * Removes all baselines and their records after each test.
+     */
+    @AfterMethod
+    public void resetTestState() {
+        new DBManager<>(Baseline.class, sessionFactory).deleteAll();
+        new DBManager<>(IMABaselineRecord.class, sessionFactory).deleteAll();
+    }
+
+    /**
+     * Tests that rows repeated in different batches are stored once.
+     *
+     * @throws Exception if an unexpected error occurs
+     */
+    @Test
+    public void testImportSkipsDuplicatesAcrossBatches() throws Exception {
+        StringBuilder csv = new StringBuilder(createCsv(RECORD_COUNT));
+        csv.append(createCsv(DUPLICATE_COUNT));
+
+        SimpleImaBaseline baseline = importCsv(csv.toString());
+
+        Assert.assertNotNull(baseline.getId());
+        Assert.assertEquals(DBUtility.getCount(sessionFactory, IMABaselineRecord.class),
+                RECORD_COUNT);
+    }
+
+    /**
+     * Tests that a failed import deletes the baseline and the records of the batches already
+     * saved, so that the import can be retried under the same name.
+     *
+     * @throws Exception if an unexpected error occurs
+     */
+    @Test
+    public void testFailedImportIsDeleted() throws Exception {
+        String csv = createCsv(RECORD_COUNT) + "not a baseline record\n";
+        try {
+            importCsv(csv);
+            Assert.fail("The import should have failed");
+        } catch (IMABaselineGeneratorException e) {
+            // expected
+        }
+
+        BaselineManager baselineManager = new DBBaselineManager(sessionFactory);
+        Assert.assertNull(baselineManager.getBaseline(BASELINE_NAME));
+        Assert.assertEquals(DBUtility.getCount(sessionFactory, IMABaselineRecord.class), 0);
+
+        importCsv(createCsv(RECORD_COUNT));
+        Assert.assertNotNull(baselineManager.getBaseline(BASELINE_NAME));
+        Assert.assertEquals(DBUtility.getCount(sessionFactory, IMABaselineRecord.class),
+                RECORD_COUNT);
+    }
+
+    /**
+     * Tests that the records of an imported baseline are exported to a writer as the rows they
+     * were imported from.
+     *
+     * @throws Exception if an unexpected error occurs
+     */
+    @Test
+    public void testExportToWriter() throws Exception {
+        String csv = createCsv(RECORD_COUNT);
+        SimpleImaBaseline baseline = importCsv(csv);
+
+        StringWriter writer = new StringWriter();
+        CSVGenerator.imaRecordsToCsv(baseline.getId(),
+                new DbImaBaselineRecordManager(sessionFactory), writer);
+
+        Assert.assertEquals(getRows(writer.toString()), getRows(csv));
+    }
+
+    /**
+     * Tests that an error writing the export stops it and is rethrown.
+     *
+     * @throws Exception if the export fails, as expected
+     */
+    @Test(expectedExceptions = IOException.class)
+    public void testExportWriterFailure() throws Exception {
+        SimpleImaBaseline baseline = importCsv(createCsv(DUPLICATE_COUNT));
+
+        Writer failingWriter = new Writer() {
+            @Override
+            public void write(final char[] cbuf, final int off, final int len)
+                    throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        CSVGenerator.imaRecordsToCsv(baseline.getId(),
+                new DbImaBaselineRecordManager(sessionFactory), failingWriter);
+    }
+
+    private SimpleImaBaseline importCsv(final String csv) throws Exception {
+        BaselineManager baselineManager = new DBBaselineManager(sessionFactory);
+        ImaBaselineRecordManager recordManager = new DbImaBaselineRecordManager(sessionFactory);
+        try (InputStream in = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))) {
+            return new SimpleImaBaselineGenerator().generateBaselineFromCSVFile(BASELINE_NAME,
+                    in, baselineManager, recordManager);
+        }
+    }
+
+    private static String createCsv(final int count) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            csv.append("\"/usr/lib/file").append(i).append("\",")
+                    .append(DigestUtils.sha1Hex(Integer.toString(i)))
+                    .append(System.lineSeparator());
+        }
+        return csv.toString();
+    }
+
+    private static Set<String> getRows(final String csv) {
+        return new HashSet<>(Arrays.asList(csv.split(System.lineSeparator())));
+    }
+}
@@ -880,4 +880,35 @@ public class DBCertificateManagerTest extends SpringPersistenceTest {
                 .getCertificate();
         Assert.assertEquals(retrievedSGICert, sgiIntermediateCert);
     }
+
+    /**
+     * Tests that the modification stamp of a certificate type changes when certificates of
+     * that type are saved, archived and deleted, and only then.
+     *
+     * @throws IOException if there is a problem creating the certificate
+     */
+    @Test
+    public void testGetModificationStamp() throws IOException {
+        CertificateManager certMan = new DBCertificateManager(sessionFactory);
+        Class<CertificateAuthorityCredential> caClass = CertificateAuthorityCredential.class;
+
+        certMan.save(rootCert);
+        String afterSave = certMan.getModificationStamp(caClass);
+        Assert.assertEquals(certMan.getModificationStamp(caClass), afterSave);
+
+        certMan.save(stmEkCert);
+        Assert.assertEquals(certMan.getModificationStamp(caClass), afterSave);
+
+        Certificate savedSgiCert = certMan.save(sgiIntermediateCert);
+        String afterSecondSave = certMan.getModificationStamp(caClass);
+        Assert.assertNotEquals(afterSecondSave, afterSave);
+
+        savedSgiCert.archive();
+        certMan.update(savedSgiCert);
+        String afterArchive = certMan.getModificationStamp(caClass);
+        Assert.assertNotEquals(afterArchive, afterSecondSave);
+
+        Assert.assertTrue(certMan.delete(savedSgiCert));
+        Assert.assertNotEquals(certMan.getModificationStamp(caClass), afterArchive);
+    }
 }
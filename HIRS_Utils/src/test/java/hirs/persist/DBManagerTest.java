@@ -17,6 +17,8 @@ import org.testng.annotations.Test;
 import hirs.data.persist.LazyTestItemChild;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Contains unit tests for the {@link DBManager} class.  Many other tests also implicitly
@@ -28,6 +30,7 @@ public class DBManagerTest extends SpringPersistenceTest {
 
     private static final int RETRY_ATTEMPTS = 5;
     private static final long RETRY_SLEEP_MS = 200;
+    private static final int SAVE_ALL_COUNT = 120;
 
     /**
      * Initializes a <code>SessionFactory</code>. The factory is used for an
@@ -97,6 +100,25 @@ public class DBManagerTest extends SpringPersistenceTest {
         Assert.assertEquals(retrievedChild.getItems().size(), 1);
     }
 
+    /**
+     * Tests that <code>saveAll(Collection)</code> saves every object, including when the
+     * objects span several batches.
+     */
+    @Test
+    public final void testSaveAll() {
+        DBManager<LazyTestItemChild> childMan =
+                new DBManager<>(LazyTestItemChild.class, sessionFactory);
+        List<LazyTestItemChild> children = new ArrayList<>();
+        for (int i = 0; i < SAVE_ALL_COUNT; i++) {
+            children.add(new LazyTestItemChild("Test Child " + i));
+        }
+        childMan.saveAll(children);
+        for (LazyTestItemChild child : children) {
+            Assert.assertNotNull(child.getId());
+        }
+        Assert.assertEquals(childMan.getList(LazyTestItemChild.class).size(), SAVE_ALL_COUNT);
+    }
+
     /**
      * Test to exercise the retry logic and verify the retry listener is called.
      */
@@ -0,0 +1,107 @@
+package hirs.persist;
+
+import hirs.data.persist.ReferenceDigestValue;
+import hirs.data.persist.SpringPersistenceTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link DBReferenceEventManager}.
+ */
+public class DBReferenceEventManagerTest extends SpringPersistenceTest {
+    private static final UUID BASE_RIM_ID = UUID.randomUUID();
+    private static final UUID SUPPORT_RIM_ID = UUID.randomUUID();
+    private static final String DIGEST = "5ab0f2bd6b36f7e0c2d4f03e0e4e5e6fb1f3c2d1";
+    private static final String OTHER_DIGEST = "c3a4fb1e2d0a8d5e6f7e8d9c0b1a2f3e4d5c6b7a";
+    private static final String EV_SEPARATOR = "EV_SEPARATOR";
+    private static final String EV_ACTION = "EV_EFI_ACTION";
+
+    /**
+     * Removes all digest values after each test.
+     */
+    @AfterMethod
+    public void resetTestState() {
+        DBUtility.removeAllInstances(sessionFactory, ReferenceDigestValue.class);
+    }
+
+    /**
+     * Tests that values already stored for the same support RIM are not saved again, and that
+     * values differing by PCR or event type, and events repeated within a log, are all saved.
+     */
+    @Test
+    public void testSaveValuesSkipsStoredEvents() {
+        ReferenceEventManager manager = new DBReferenceEventManager(sessionFactory);
+        ReferenceDigestValue existing = value(SUPPORT_RIM_ID, 0, DIGEST, EV_SEPARATOR);
+        manager.saveValue(existing);
+
+        ReferenceDigestValue otherPcr = value(SUPPORT_RIM_ID, 1, DIGEST, EV_SEPARATOR);
+        ReferenceDigestValue otherType = value(SUPPORT_RIM_ID, 1, DIGEST, EV_ACTION);
+        ReferenceDigestValue repeated = value(SUPPORT_RIM_ID, 1, DIGEST, EV_SEPARATOR);
+        ReferenceDigestValue otherDigest = value(SUPPORT_RIM_ID, 0, OTHER_DIGEST, EV_SEPARATOR);
+        List<ReferenceDigestValue> saved = manager.saveValues(Arrays.asList(
+                value(SUPPORT_RIM_ID, 0, DIGEST, EV_SEPARATOR),
+                otherPcr,
+                otherType,
+                repeated,
+                otherDigest), Collections.singletonList(existing));
+
+        Assert.assertEquals(saved, Arrays.asList(otherPcr, otherType, repeated, otherDigest));
+        Assert.assertEquals(manager.getEventList().size(), saved.size() + 1);
+    }
+
+    /**
+     * Tests that the events of a new support RIM are all saved, even when another RIM of the
+     * same platform already stored the same events, so the new RIM's value set is complete.
+     */
+    @Test
+    public void testSaveValuesOfRimSharingEvents() {
+        ReferenceEventManager manager = new DBReferenceEventManager(sessionFactory);
+        List<ReferenceDigestValue> firstRim = manager.saveValues(Arrays.asList(
+                value(SUPPORT_RIM_ID, 0, DIGEST, EV_SEPARATOR),
+                value(SUPPORT_RIM_ID, 0, OTHER_DIGEST, EV_ACTION)),
+                Collections.<ReferenceDigestValue>emptyList());
+
+        UUID secondRimId = UUID.randomUUID();
+        List<ReferenceDigestValue> secondRim = Arrays.asList(
+                value(secondRimId, 0, DIGEST, EV_SEPARATOR),
+                value(secondRimId, 0, OTHER_DIGEST, EV_ACTION),
+                value(secondRimId, 1, DIGEST, EV_SEPARATOR));
+        List<ReferenceDigestValue> saved = manager.saveValues(secondRim, firstRim);
+
+        Assert.assertEquals(saved, secondRim);
+        Assert.assertEquals(manager.getEventList().size(), firstRim.size() + secondRim.size());
+    }
+
+    /**
+     * Tests that values are updated as a batch.
+     */
+    @Test
+    public void testUpdateEvents() {
+        ReferenceEventManager manager = new DBReferenceEventManager(sessionFactory);
+        List<ReferenceDigestValue> values = manager.saveValues(Arrays.asList(
+                value(SUPPORT_RIM_ID, 0, DIGEST, EV_SEPARATOR),
+                value(SUPPORT_RIM_ID, 1, DIGEST, EV_SEPARATOR)),
+                Collections.<ReferenceDigestValue>emptyList());
+
+        for (ReferenceDigestValue rdv : values) {
+            rdv.setUpdated(true);
+        }
+        manager.updateEvents(values);
+
+        for (ReferenceDigestValue rdv : manager.getEventList()) {
+            Assert.assertTrue(rdv.isUpdated());
+        }
+    }
+
+    private static ReferenceDigestValue value(final UUID supportRimId, final int pcrIndex,
+                                              final String digest, final String eventType) {
+        return new ReferenceDigestValue(BASE_RIM_ID, supportRimId, "manufacturer", "model",
+                pcrIndex, digest, eventType, false, false, false, new byte[0]);
+    }
+}
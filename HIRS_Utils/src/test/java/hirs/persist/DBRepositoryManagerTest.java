@@ -3,6 +3,7 @@ package hirs.persist;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hirs.data.persist.baseline.IMABaselineRecord;
 import hirs.data.persist.SpringPersistenceTest;
+import hirs.repository.PackageFileMeasurement;
 import hirs.repository.RPMRepoPackage;
 import hirs.repository.RepoPackage;
 import hirs.repository.Repository;
@@ -58,6 +59,7 @@ public class DBRepositoryManagerTest extends SpringPersistenceTest {
     public final void resetTestState() {
         DBUtility.removeAllInstances(sessionFactory, YumRepository.class);
         DBUtility.removeAllInstances(sessionFactory, SpacewalkChannelRepository.class);
+        DBUtility.removeAllInstances(sessionFactory, PackageFileMeasurement.class);
     }
 
     /**
@@ -449,4 +451,25 @@ public class DBRepositoryManagerTest extends SpringPersistenceTest {
         Assert.assertEquals(DBUtility.getCount(sessionFactory, RPMRepoPackage.class), 0);
         Assert.assertEquals(DBUtility.getCount(sessionFactory, IMABaselineRecord.class), 0);
     }
+
+    /**
+     * Tests that the measurements of a package file can be cached and retrieved by the digest of
+     * the package file, and that caching them again does not store them twice.
+     *
+     * @throws IOException if an error is encountered while using the cache
+     */
+    @Test
+    public final void testCachePackageRecords() throws IOException {
+        DBRepositoryManager repoMan = new DBRepositoryManager(sessionFactory);
+        Set<IMABaselineRecord> measurements = new HashSet<>();
+        measurements.add(getTestIMABaselineRecord());
+        Assert.assertTrue(repoMan.getCachedPackageRecords(RepoPackageTest.getTestDigest())
+                .isEmpty());
+
+        repoMan.cachePackageRecords(RepoPackageTest.getTestDigest(), measurements);
+        repoMan.cachePackageRecords(RepoPackageTest.getTestDigest(), measurements);
+        Assert.assertEquals(repoMan.getCachedPackageRecords(RepoPackageTest.getTestDigest()),
+                measurements);
+        Assert.assertEquals(DBUtility.getCount(sessionFactory, PackageFileMeasurement.class), 1);
+    }
 }
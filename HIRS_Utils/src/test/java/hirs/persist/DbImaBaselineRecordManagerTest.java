@@ -10,8 +10,12 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 
 import hirs.data.persist.SpringPersistenceTest;
+import hirs.utils.Callback;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.logging.log4j.LogManager;
@@ -391,6 +395,95 @@ public class DbImaBaselineRecordManagerTest extends SpringPersistenceTest {
         Assert.assertFalse(deleted);
     }
 
+    /**
+     * Tests that the <code>DbImaBaselineRecordManager</code> can save several records at once
+     * and read them back by the id of their baseline.
+     *
+     * @throws ImaBaselineRecordManagerException
+     *             if any unexpected errors occur
+     */
+    @Test
+    public void testSaveRecordsAndIterateById() throws ImaBaselineRecordManagerException {
+        LOGGER.debug("testSaveRecordsAndIterateById test started");
+        final ImaBaselineRecordManager mgr = new DbImaBaselineRecordManager(sessionFactory);
+        final List<IMABaselineRecord> records = new ArrayList<>();
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH), baseline));
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH_TWO), baseline));
+        mgr.saveRecords(records);
+
+        final Collection<IMABaselineRecord> read = mgr.iterateOverBaselineRecords(
+                baseline.getId(), new Callback<IMABaselineRecord, IMABaselineRecord>() {
+                    @Override
+                    public IMABaselineRecord call(final IMABaselineRecord record) {
+                        return record;
+                    }
+                });
+        Assert.assertEquals(new HashSet<>(read), new HashSet<>(records));
+    }
+
+    /**
+     * Tests that the <code>DbImaBaselineRecordManager</code> will not save several records at
+     * once if one of them has no baseline.
+     *
+     * @throws ImaBaselineRecordManagerException
+     *             if any unexpected errors occur
+     */
+    @Test(expectedExceptions = ImaBaselineRecordManagerException.class)
+    public void testSaveRecordsNullBaseline() throws ImaBaselineRecordManagerException {
+        LOGGER.debug("testSaveRecordsNullBaseline test started");
+        final ImaBaselineRecordManager mgr = new DbImaBaselineRecordManager(sessionFactory);
+        final List<IMABaselineRecord> records = new ArrayList<>();
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH), baseline));
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH_TWO)));
+        mgr.saveRecords(records);
+    }
+
+    /**
+     * Tests that saving several records at once skips the records already stored in the
+     * baseline and the duplicates among the given records.
+     *
+     * @throws ImaBaselineRecordManagerException
+     *             if any unexpected errors occur
+     */
+    @Test
+    public void testSaveRecordsSkipsStoredRecords() throws ImaBaselineRecordManagerException {
+        LOGGER.debug("testSaveRecordsSkipsStoredRecords test started");
+        final ImaBaselineRecordManager mgr = new DbImaBaselineRecordManager(sessionFactory);
+        final List<IMABaselineRecord> records = new ArrayList<>();
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH), baseline));
+        Assert.assertEquals(mgr.saveRecords(records), 1);
+
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH_TWO), baseline));
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH_TWO), baseline));
+        Assert.assertEquals(mgr.saveRecords(records), 1);
+        Assert.assertEquals(DBUtility.getCount(sessionFactory, IMABaselineRecord.class), 2);
+    }
+
+    /**
+     * Tests that all of the records of a baseline can be deleted at once, leaving the records
+     * of other baselines.
+     *
+     * @throws ImaBaselineRecordManagerException
+     *             if any unexpected errors occur
+     */
+    @Test
+    public void testDeleteRecords() throws ImaBaselineRecordManagerException {
+        LOGGER.debug("testDeleteRecords test started");
+        BaselineManager baseMgr = new DBBaselineManager(sessionFactory);
+        baseMgr.saveBaseline(new SimpleImaBaseline(BASELINE_NAME2));
+        SimpleImaBaseline baseline2 = (SimpleImaBaseline) baseMgr.getBaseline(BASELINE_NAME2);
+
+        final ImaBaselineRecordManager mgr = new DbImaBaselineRecordManager(sessionFactory);
+        final List<IMABaselineRecord> records = new ArrayList<>();
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH), baseline));
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH_TWO), baseline));
+        records.add(new IMABaselineRecord(PATH, createDigest(HASH), baseline2));
+        mgr.saveRecords(records);
+
+        Assert.assertEquals(mgr.deleteRecords(baseline), 2);
+        Assert.assertEquals(DBUtility.getCount(sessionFactory, IMABaselineRecord.class), 1);
+    }
+
     private Digest createDigest(final String hash) {
         try {
             final byte[] digestBytes = Hex.decodeHex(hash.toCharArray());
@@ -0,0 +1,123 @@
+package hirs.persist;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hirs.appraiser.Appraiser;
+import hirs.appraiser.TestAppraiser;
+import hirs.data.persist.DeviceGroup;
+import hirs.data.persist.Policy;
+import hirs.data.persist.ReferenceManifest;
+import hirs.data.persist.certificate.Certificate;
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+
+/**
+ * Tests that a session factory boots with the second-level cache enabled and configured by
+ * <code>hirs-ehcache.xml</code>, as it does when a cache region factory is set in
+ * <code>persistence.properties</code>.
+ */
+public class HibernateCacheConfigurationTest {
+    private static final String REGION_FACTORY =
+            "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory";
+    private static final String CACHE_CONFIGURATION = "hirs-ehcache.xml";
+    private static final String APPRAISER_REGION = "hirs.appraiser.Appraiser";
+    private static final int APPRAISER_REGION_SIZE = 100;
+
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    /**
+     * Builds a session factory over an in-memory database, with the second-level cache
+     * enabled.
+     */
+    @BeforeClass
+    public void setup() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:hsqldb:mem:hirs-cache");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.HSQLDialect");
+        properties.put("hibernate.current_session_context_class", "thread");
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", REGION_FACTORY);
+        properties.put("net.sf.ehcache.configurationResourceName", CACHE_CONFIGURATION);
+
+        LocalSessionFactoryBuilder builder = new LocalSessionFactoryBuilder(dataSource);
+        builder.scanPackages("hirs");
+        builder.addProperties(properties);
+        sessionFactory = builder.buildSessionFactory();
+    }
+
+    /**
+     * Closes the session factory, which shuts down its cache manager, and the data source.
+     */
+    @AfterClass
+    public void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * Tests that the caches are enabled and that the regions are configured from the cache
+     * configuration file.
+     */
+    @Test
+    public void testCacheConfigurationLoaded() {
+        Assert.assertTrue(((SessionFactoryImplementor) sessionFactory).getSettings()
+                .isSecondLevelCacheEnabled());
+        Assert.assertTrue(((SessionFactoryImplementor) sessionFactory).getSettings()
+                .isQueryCacheEnabled());
+
+        Cache appraisers = CacheManager.getInstance().getCache(APPRAISER_REGION);
+        Assert.assertNotNull(appraisers);
+        Assert.assertEquals(appraisers.getCacheConfiguration().getMaxElementsInMemory(),
+                APPRAISER_REGION_SIZE);
+    }
+
+    /**
+     * Tests that the entities edited through the portal are not cached, as the ACA would not
+     * see those edits.
+     */
+    @Test
+    public void testPortalEditedEntitiesNotCached() {
+        SessionFactoryImplementor factory = (SessionFactoryImplementor) sessionFactory;
+        Assert.assertTrue(factory.getEntityPersister(Appraiser.class.getName()).hasCache());
+        for (Class<?> clazz : new Class<?>[] {Certificate.class, Policy.class,
+                PolicyMapper.class, ReferenceManifest.class, DeviceGroup.class}) {
+            Assert.assertFalse(factory.getEntityPersister(clazz.getName()).hasCache(),
+                    clazz.getName());
+        }
+    }
+
+    /**
+     * Tests that cached entities can be saved and retrieved through the cache.
+     */
+    @Test
+    public void testSaveAndGetCachedEntity() {
+        DBManager<Appraiser> appraiserManager =
+                new DBManager<>(Appraiser.class, sessionFactory);
+        Appraiser appraiser = appraiserManager.save(new TestAppraiser("Cached Appraiser"));
+
+        Assert.assertEquals(appraiserManager.get(appraiser.getName()), appraiser);
+        Assert.assertTrue(sessionFactory.getCache().containsEntity(Appraiser.class,
+                appraiser.getId()));
+        Assert.assertEquals(appraiserManager.get(appraiser.getName()), appraiser);
+    }
+}
@@ -0,0 +1,157 @@
+package hirs.persist;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contains unit tests for {@link InMemoryTPM2ProvisionerStateStore}.
+ */
+public class InMemoryTPM2ProvisionerStateStoreTest {
+    private static final int NONCE_LENGTH = 32;
+    private static final int CLAIM_LENGTH = 360;
+    private static final int MAX_ENTRIES = 10;
+    private static final long ONE_MINUTE_MS = 60000;
+
+    private final Random random = new Random();
+
+    /**
+     * Tests that a saved state can be retrieved by its nonce and is gone after it is deleted.
+     *
+     * @throws IOException this will never happen
+     */
+    @Test
+    public final void testSaveGetDelete() throws IOException {
+        InMemoryTPM2ProvisionerStateStore store =
+                new InMemoryTPM2ProvisionerStateStore(MAX_ENTRIES, ONE_MINUTE_MS);
+        TPM2ProvisionerState state = createState();
+
+        store.save(state);
+        Assert.assertSame(store.get(state.getNonce()), state);
+
+        store.delete(state);
+        Assert.assertNull(store.get(state.getNonce()));
+    }
+
+    /**
+     * Tests that a nonce sharing the first eight bytes with a stored nonce does not match.
+     *
+     * @throws IOException this will never happen
+     */
+    @Test
+    public final void testGetRequiresFullNonceMatch() throws IOException {
+        InMemoryTPM2ProvisionerStateStore store =
+                new InMemoryTPM2ProvisionerStateStore(MAX_ENTRIES, ONE_MINUTE_MS);
+        TPM2ProvisionerState state = createState();
+        store.save(state);
+
+        byte[] otherNonce = state.getNonce().clone();
+        otherNonce[NONCE_LENGTH - 1]++;
+        Assert.assertNull(store.get(otherNonce));
+        Assert.assertNull(store.get(new byte[1]));
+        Assert.assertNull(store.get(null));
+    }
+
+    /**
+     * Tests that the oldest state is evicted once the store is full.
+     *
+     * @throws IOException this will never happen
+     */
+    @Test
+    public final void testOldestEvictedWhenFull() throws IOException {
+        InMemoryTPM2ProvisionerStateStore store =
+                new InMemoryTPM2ProvisionerStateStore(1, ONE_MINUTE_MS);
+        TPM2ProvisionerState first = createState();
+        TPM2ProvisionerState second = createState();
+
+        store.save(first);
+        store.save(second);
+
+        Assert.assertEquals(store.size(), 1);
+        Assert.assertNull(store.get(first.getNonce()));
+        Assert.assertSame(store.get(second.getNonce()), second);
+    }
+
+    /**
+     * Tests that states older than the time to live are not returned and are swept.
+     *
+     * @throws IOException this will never happen
+     * @throws InterruptedException if interrupted while waiting for the state to expire
+     */
+    @Test
+    public final void testExpiredStateSwept() throws IOException, InterruptedException {
+        InMemoryTPM2ProvisionerStateStore store =
+                new InMemoryTPM2ProvisionerStateStore(MAX_ENTRIES, 1);
+        TPM2ProvisionerState state = createState();
+        store.save(state);
+
+        while (System.currentTimeMillis() - state.getTimestamp().getTime() <= 1) {
+            Thread.sleep(1);
+        }
+
+        Assert.assertNull(store.get(state.getNonce()));
+        Assert.assertEquals(store.deleteExpired(), 1);
+        Assert.assertEquals(store.size(), 0);
+    }
+
+    /**
+     * Tests that states newer than the cutoff are kept by {@code deleteOlderThan}.
+     *
+     * @throws IOException this will never happen
+     */
+    @Test
+    public final void testDeleteOlderThanKeepsNewerStates() throws IOException {
+        InMemoryTPM2ProvisionerStateStore store =
+                new InMemoryTPM2ProvisionerStateStore(MAX_ENTRIES, ONE_MINUTE_MS);
+        store.save(createState());
+        store.save(createState());
+
+        Assert.assertEquals(store.deleteOlderThan(
+                new Date(System.currentTimeMillis() - ONE_MINUTE_MS)), 0);
+        Assert.assertEquals(store.deleteOlderThan(
+                new Date(System.currentTimeMillis() + ONE_MINUTE_MS)), 2);
+    }
+
+    /**
+     * Tests that changes are written behind and that misses fall back to the write-behind store.
+     *
+     * @throws Exception if an error occurs shutting down the store
+     */
+    @Test
+    public final void testWriteBehind() throws Exception {
+        TPM2ProvisionerStateStore backing = mock(TPM2ProvisionerStateStore.class);
+        InMemoryTPM2ProvisionerStateStore store =
+                new InMemoryTPM2ProvisionerStateStore(MAX_ENTRIES, ONE_MINUTE_MS, backing);
+        TPM2ProvisionerState state = createState();
+        TPM2ProvisionerState remote = createState();
+        when(backing.get(remote.getNonce())).thenReturn(remote);
+
+        store.save(state);
+        Assert.assertSame(store.get(state.getNonce()), state);
+        verify(backing, never()).get(any(byte[].class));
+
+        Assert.assertSame(store.get(remote.getNonce()), remote);
+
+        store.delete(state);
+        store.shutdown();
+        verify(backing).save(state);
+        verify(backing).delete(state);
+    }
+
+    private TPM2ProvisionerState createState() throws IOException {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        byte[] identityClaim = new byte[CLAIM_LENGTH];
+        random.nextBytes(nonce);
+        random.nextBytes(identityClaim);
+        return new TPM2ProvisionerState(nonce, identityClaim);
+    }
+}
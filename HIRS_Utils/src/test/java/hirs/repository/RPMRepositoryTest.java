@@ -0,0 +1,161 @@
+package hirs.repository;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import hirs.data.persist.Digest;
+import hirs.data.persist.SpringPersistenceTest;
+import hirs.data.persist.baseline.IMABaselineRecord;
+import hirs.data.persist.enums.DigestAlgorithm;
+import hirs.persist.DBRepositoryManager;
+import hirs.persist.DBUtility;
+import hirs.persist.RepositoryManager;
+import hirs.repository.measurement.PackageMeasurer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the measurement of packages by {@link RPMRepository}, including the reuse of the
+ * measurements cached for packages with the same digest.
+ */
+public class RPMRepositoryTest extends SpringPersistenceTest {
+    private static final byte[] RPM = "rpm".getBytes(StandardCharsets.UTF_8);
+    private static final String FILE_PATH = "/usr/bin/tool";
+    private static final Digest FILE_DIGEST = new Digest(DigestAlgorithm.SHA1,
+            DigestUtils.sha1("tool"));
+    private static final Digest RPM_DIGEST = new Digest(DigestAlgorithm.SHA1,
+            DigestUtils.sha1(RPM));
+
+    /**
+     * Removes the cached package measurements.
+     */
+    @AfterMethod
+    public final void resetTestState() {
+        DBUtility.removeAllInstances(sessionFactory, PackageFileMeasurement.class);
+    }
+
+    /**
+     * Tests that a package with the same digest as a package measured before reuses its cached
+     * measurements, without measuring the contents of the RPM again.
+     *
+     * @throws IOException if the RPMs cannot be written
+     * @throws RepositoryException if the packages cannot be measured
+     */
+    @Test
+    public final void testReuseCachedPackageRecords() throws IOException, RepositoryException {
+        RepositoryManager repoMan = new DBRepositoryManager(sessionFactory);
+        CountingMeasurer measurer = new CountingMeasurer();
+        YumRepository repo = new YumRepository("CachingRepo");
+        repo.setRpmMeasurer(measurer);
+
+        RPMRepoPackage first = measure(repo, repoMan);
+        RPMRepoPackage second = measure(repo, repoMan);
+
+        Assert.assertEquals(measurer.getMeasuredCount(), 1);
+        Assert.assertEquals(first.getPackageRecords(), Collections.singleton(
+                new IMABaselineRecord(FILE_PATH, FILE_DIGEST)));
+        Assert.assertEquals(second.getPackageRecords(), first.getPackageRecords());
+        Assert.assertEquals(second.getPackageMeasurement(), RPM_DIGEST);
+    }
+
+    /**
+     * Tests that the measurements of a package are not cached when a chained measurer failed,
+     * so that the next package with the same digest is measured again.
+     *
+     * @throws IOException if the RPMs cannot be written
+     * @throws RepositoryException if the packages cannot be measured
+     */
+    @Test
+    public final void testIncompleteRecordsNotCached() throws IOException, RepositoryException {
+        RepositoryManager repoMan = new DBRepositoryManager(sessionFactory);
+        CountingMeasurer measurer = new CountingMeasurer(new FailingMeasurer());
+        YumRepository repo = new YumRepository("IncompleteRepo");
+        repo.setRpmMeasurer(measurer);
+
+        RPMRepoPackage first = measure(repo, repoMan);
+
+        Assert.assertEquals(first.getPackageRecords(), Collections.singleton(
+                new IMABaselineRecord(FILE_PATH, FILE_DIGEST)));
+        Assert.assertTrue(repoMan.getCachedPackageRecords(RPM_DIGEST).isEmpty());
+
+        measure(repo, repoMan);
+        Assert.assertEquals(measurer.getMeasuredCount(), 2);
+    }
+
+    private static RPMRepoPackage measure(final RPMRepository<?> repo,
+                                          final RepositoryManager repoMan)
+            throws IOException, RepositoryException {
+        Path rpmPath = Files.createTempFile("hirs-rpm-", ".rpm");
+        Files.write(rpmPath, RPM);
+        RPMRepoPackage repoPackage = new RPMRepoPackage("tool", "1.0", "1.el7", "x86_64", repo);
+        repo.measurePackageAtPath(repoPackage, rpmPath, repoMan);
+        Assert.assertFalse(Files.exists(rpmPath));
+        return repoPackage;
+    }
+
+    /**
+     * Measures every RPM as holding a single file, and counts the RPMs it measured.
+     */
+    private static final class CountingMeasurer extends PackageMeasurer {
+        private final AtomicInteger measuredCount = new AtomicInteger();
+
+        CountingMeasurer(final PackageMeasurer... chainedPackageMeasurers) {
+            super(DigestAlgorithm.SHA1, chainedPackageMeasurers);
+        }
+
+        int getMeasuredCount() {
+            return measuredCount.get();
+        }
+
+        @Override
+        protected Multimap<Path, Digest> doMeasure(final Path packageFile) {
+            measuredCount.incrementAndGet();
+            Multimap<Path, Digest> measurements = HashMultimap.create();
+            measurements.put(Paths.get(FILE_PATH), FILE_DIGEST);
+            return measurements;
+        }
+
+        @Override
+        protected boolean shouldMeasureFileWhenChainedMeasurer(final Path filePath) {
+            return false;
+        }
+
+        @Override
+        protected boolean shouldMeasureFile(final Path filePath) {
+            return true;
+        }
+    }
+
+    /**
+     * Fails to measure every package, as the initramfs generation of a kernel package can.
+     */
+    private static final class FailingMeasurer extends PackageMeasurer {
+        FailingMeasurer() {
+            super(DigestAlgorithm.SHA1);
+        }
+
+        @Override
+        protected Multimap<Path, Digest> doMeasure(final Path packageFile) throws IOException {
+            throw new IOException("dracut failed");
+        }
+
+        @Override
+        protected boolean shouldMeasureFileWhenChainedMeasurer(final Path filePath) {
+            return true;
+        }
+
+        @Override
+        protected boolean shouldMeasureFile(final Path filePath) {
+            return true;
+        }
+    }
+}
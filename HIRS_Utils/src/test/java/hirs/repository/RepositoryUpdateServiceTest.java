@@ -194,6 +194,37 @@ public class RepositoryUpdateServiceTest extends SpringPersistenceTest {
         Assert.assertFalse(updateService.hasActiveJobs(createList(repo)));
     }
 
+    /**
+     * Tests that a cancelled repository update job can be resumed by starting a new job, even
+     * from the same Repository instance, which does not hold the packages saved by the first job.
+     *
+     * @throws IOException if there is a problem generating the update job
+     * @throws InterruptedException if the Thread's sleep is interrupted
+     * @throws RepositoryException a Repository exception occurs
+     */
+    @Test
+    public final void testResumeCancelledRepositoryUpdate()
+            throws IOException, InterruptedException, RepositoryException {
+        RepositoryUpdateService updateService = RepositoryUpdateService.getInstance();
+        RepositoryManager repoMan = new DBRepositoryManager(sessionFactory);
+        TestRepository repo = new TestRepository("TestRepo", FIVE_HUNDRED);
+        repoMan.saveRepository(repo);
+        repo.setNumRemotePackages(TEN);
+        updateService.startUpdateJob(repo, 1, repoMan);
+        updateService.getActiveJobs().get(repo.getId()).cancel();
+        while (updateService.getActiveJobs().size() > 0) {
+            Thread.sleep(FIVE_HUNDRED);
+        }
+
+        updateService.startUpdateJob(repo, 1, repoMan);
+        while (updateService.getActiveJobs().size() > 0) {
+            Thread.sleep(FIVE_HUNDRED);
+        }
+        Repository updatedRepo = repoMan.getRepository(repo.getId());
+        Assert.assertEquals(updatedRepo.getPackages().size(), TEN);
+        Assert.assertFalse(updateService.startUpdateJob(repo, 1, repoMan));
+    }
+
     /**
      * Tests that haActiveJobs() correctly uses the set of provided repositories.
      *
@@ -0,0 +1,167 @@
+package hirs.repository.measurement;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.LZMAOutputStream;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds cpio archives in the newc format for the tests of the in-memory measurement of
+ * packages and initramfs images, and compresses them as rpm and dracut do.
+ */
+final class CpioArchiveBuilder {
+    private static final String NEWC_MAGIC = "070701";
+    private static final String TRAILER = "TRAILER!!!";
+    private static final int ALIGNMENT = 4;
+    private static final int DIRECTORY_MODE = 040755;
+    private static final int FILE_MODE = 0100644;
+    private static final int SYMBOLIC_LINK_MODE = 0120777;
+
+    private final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    private int nextInode = 1;
+
+    /**
+     * Adds a directory.
+     *
+     * @param name the path of the directory in the archive
+     * @return this builder
+     */
+    CpioArchiveBuilder directory(final String name) {
+        writeEntry(name, DIRECTORY_MODE, nextInode++, 2, new byte[0]);
+        return this;
+    }
+
+    /**
+     * Adds a regular file.
+     *
+     * @param name the path of the file in the archive
+     * @param data the contents of the file
+     * @return this builder
+     */
+    CpioArchiveBuilder file(final String name, final byte[] data) {
+        writeEntry(name, FILE_MODE, nextInode++, 1, data);
+        return this;
+    }
+
+    /**
+     * Adds a symbolic link.
+     *
+     * @param name the path of the link in the archive
+     * @param target the target of the link
+     * @return this builder
+     */
+    CpioArchiveBuilder symbolicLink(final String name, final String target) {
+        writeEntry(name, SYMBOLIC_LINK_MODE, nextInode++, 1,
+                target.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * Adds the hard links to a regular file as rpm writes them: all links share an inode and
+     * only the last one carries the contents of the file.
+     *
+     * @param data the contents of the file
+     * @param names the paths of the links in the archive
+     * @return this builder
+     */
+    CpioArchiveBuilder hardLinks(final byte[] data, final String... names) {
+        int inode = nextInode++;
+        for (int i = 0; i < names.length; i++) {
+            byte[] linkData;
+            if (i == names.length - 1) {
+                linkData = data;
+            } else {
+                linkData = new byte[0];
+            }
+            writeEntry(names[i], FILE_MODE, inode, names.length, linkData);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the trailer and returns the archive.
+     *
+     * @return the archive
+     */
+    byte[] build() {
+        writeEntry(TRAILER, 0, 0, 1, new byte[0]);
+        return archive.toByteArray();
+    }
+
+    private void writeEntry(final String name, final int mode, final int inode,
+                            final int linkCount, final byte[] data) {
+        byte[] nameBytes = (name + '\0').getBytes(StandardCharsets.UTF_8);
+        int[] fields = {inode, mode, 0, 0, linkCount, 0, data.length, 0, 0, 0, 0,
+                nameBytes.length, 0};
+        StringBuilder header = new StringBuilder(NEWC_MAGIC);
+        for (int field : fields) {
+            header.append(String.format("%08X", field));
+        }
+        write(header.toString().getBytes(StandardCharsets.US_ASCII));
+        write(nameBytes);
+        pad();
+        write(data);
+        pad();
+    }
+
+    private void write(final byte[] bytes) {
+        archive.write(bytes, 0, bytes.length);
+    }
+
+    private void pad() {
+        while (archive.size() % ALIGNMENT != 0) {
+            archive.write(0);
+        }
+    }
+
+    /**
+     * Compresses data with gzip.
+     *
+     * @param data the data
+     * @return the compressed data
+     * @throws IOException if the data cannot be compressed
+     */
+    static byte[] gzip(final byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Compresses data with xz.
+     *
+     * @param data the data
+     * @return the compressed data
+     * @throws IOException if the data cannot be compressed
+     */
+    static byte[] xz(final byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new XZOutputStream(compressed, new LZMA2Options())) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Compresses data with the legacy lzma format.
+     *
+     * @param data the data
+     * @return the compressed data
+     * @throws IOException if the data cannot be compressed
+     */
+    static byte[] lzma(final byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new LZMAOutputStream(compressed, new LZMA2Options(),
+                data.length)) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+}
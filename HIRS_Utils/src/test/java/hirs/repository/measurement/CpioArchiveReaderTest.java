@@ -0,0 +1,244 @@
+package hirs.repository.measurement;
+
+import com.google.common.collect.Multimap;
+import hirs.data.persist.Digest;
+import hirs.data.persist.enums.DigestAlgorithm;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Unit test for <code>CpioArchiveReader</code> and <code>RpmPayloadReader</code>.
+ */
+public class CpioArchiveReaderTest {
+    private static final String TEST_RPM_RESOURCE =
+            "/testrepo/hello_world-1.0-1.el6.x86_64.rpm";
+    private static final String TEST_RPM_FILEPATH = "./tmp/hello";
+    private static final String TEST_RPM_SHA1_DIGEST = "e68d50b1a81359a5e6a37813d475ece07ce3a850";
+    private static final byte[] FILE_DATA = "hello".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LEAD_MAGIC = {(byte) 0xed, (byte) 0xab, (byte) 0xee, (byte) 0xdb};
+    private static final byte[] HEADER_MAGIC = {(byte) 0x8e, (byte) 0xad, (byte) 0xe8, 0x01};
+    private static final int LEAD_LENGTH = 96;
+    private static final int STRING_TYPE = 6;
+    private static final int PAYLOAD_FORMAT_TAG = 1124;
+    private static final int PAYLOAD_COMPRESSOR_TAG = 1125;
+
+    /**
+     * Tests that the files of an RPM payload can be read and measured without extracting them.
+     *
+     * @throws IOException if an error is encountered while reading the RPM.
+     */
+    @Test
+    public final void testReadRpmPayload() throws IOException {
+        try (InputStream rpm = new BufferedInputStream(
+                getClass().getResourceAsStream(TEST_RPM_RESOURCE));
+             InputStream payload = RpmPayloadReader.openPayload(rpm)) {
+            CpioArchiveReader reader = new CpioArchiveReader(payload);
+            CpioArchiveReader.Entry entry = reader.getNextEntry();
+            Assert.assertNotNull(entry);
+            Assert.assertEquals(entry.getName(), TEST_RPM_FILEPATH);
+            Assert.assertTrue(entry.isRegularFile());
+            Assert.assertEquals(DigestUtils.sha1Hex(reader.getEntryStream()),
+                    TEST_RPM_SHA1_DIGEST);
+            Assert.assertNull(reader.getNextEntry());
+            Assert.assertEquals(payload.read(), -1);
+        }
+    }
+
+    /**
+     * Tests that an archive in another cpio format is reported as unsupported.
+     *
+     * @throws IOException if an unexpected error is encountered while reading the archive.
+     */
+    @Test(expectedExceptions = UnsupportedArchiveException.class)
+    public final void testReadUnsupportedArchive() throws IOException {
+        byte[] archive = new byte[512];
+        System.arraycopy("070707".getBytes("US-ASCII"), 0, archive, 0, 6);
+        new CpioArchiveReader(new ByteArrayInputStream(archive)).getNextEntry();
+    }
+
+    /**
+     * Tests that a file that is not an RPM is rejected.
+     *
+     * @throws IOException if the file is rejected, as expected.
+     */
+    @Test(expectedExceptions = IOException.class)
+    public final void testOpenPayloadNotRpm() throws IOException {
+        RpmPayloadReader.openPayload(new ByteArrayInputStream(new byte[512]));
+    }
+
+    /**
+     * Tests that the payload of an RPM compressed with xz can be read.
+     *
+     * @throws IOException if an error is encountered while reading the RPM.
+     */
+    @Test
+    public final void testReadXzPayload() throws IOException {
+        assertPayload(createRpm("xz", CpioArchiveBuilder.xz(createPayload())));
+    }
+
+    /**
+     * Tests that the payload of an RPM compressed with lzma can be read.
+     *
+     * @throws IOException if an error is encountered while reading the RPM.
+     */
+    @Test
+    public final void testReadLzmaPayload() throws IOException {
+        assertPayload(createRpm("lzma", CpioArchiveBuilder.lzma(createPayload())));
+    }
+
+    /**
+     * Tests that the payload of an RPM that does not name its compressor is read as gzip.
+     *
+     * @throws IOException if an error is encountered while reading the RPM.
+     */
+    @Test
+    public final void testReadDefaultPayload() throws IOException {
+        assertPayload(createRpm(null, CpioArchiveBuilder.gzip(createPayload())));
+    }
+
+    /**
+     * Tests that a payload compressor that cannot be read in memory is reported as unsupported,
+     * so that the package is extracted instead.
+     *
+     * @throws IOException if the payload is rejected, as expected.
+     */
+    @Test(expectedExceptions = UnsupportedArchiveException.class)
+    public final void testOpenPayloadUnsupportedCompressor() throws IOException {
+        RpmPayloadReader.openPayload(new ByteArrayInputStream(
+                createRpm("bzip2", new byte[0])));
+    }
+
+    /**
+     * Tests that the files of an RPM with an xz payload, including hard links, are measured
+     * without extracting it.
+     *
+     * @throws IOException if an error is encountered while measuring the RPM.
+     */
+    @Test
+    public final void testMeasureXzRpm() throws IOException {
+        Path rpmDir = Files.createTempDirectory("hirs-rpm");
+        try {
+            Path rpmFile = rpmDir.resolve("hello-1.0-1.noarch.rpm");
+            Files.write(rpmFile, createRpm("xz", CpioArchiveBuilder.xz(createPayload())));
+
+            Multimap<Path, Digest> measurements =
+                    new RPMMeasurer(DigestAlgorithm.SHA1).measure(rpmFile);
+
+            Digest digest = new Digest(DigestAlgorithm.SHA1, DigestUtils.sha1(FILE_DATA));
+            Assert.assertEquals(measurements.size(), 2);
+            Assert.assertEquals(measurements.get(Paths.get("/usr/bin/hello")),
+                    Collections.singleton(digest));
+            Assert.assertEquals(measurements.get(Paths.get("/usr/bin/hello-link")),
+                    Collections.singleton(digest));
+        } finally {
+            FileUtils.deleteDirectory(rpmDir.toFile());
+        }
+    }
+
+    /**
+     * Tests that the reader stops at the trailer, so that concatenated archives can be read one
+     * after the other from the same stream.
+     *
+     * @throws IOException if an error is encountered while reading the archives.
+     */
+    @Test
+    public final void testReadConcatenatedArchives() throws IOException {
+        byte[] first = new CpioArchiveBuilder().file("first", FILE_DATA).build();
+        byte[] second = new CpioArchiveBuilder().file("second", FILE_DATA).build();
+        ByteArrayOutputStream archives = new ByteArrayOutputStream();
+        archives.write(first);
+        archives.write(second);
+
+        InputStream in = new ByteArrayInputStream(archives.toByteArray());
+        for (String name : new String[] {"first", "second"}) {
+            CpioArchiveReader reader = new CpioArchiveReader(in);
+            CpioArchiveReader.Entry entry = reader.getNextEntry();
+            Assert.assertEquals(entry.getName(), name);
+            Assert.assertEquals(DigestUtils.sha1Hex(reader.getEntryStream()),
+                    DigestUtils.sha1Hex(FILE_DATA));
+            Assert.assertNull(reader.getNextEntry());
+        }
+        Assert.assertEquals(in.read(), -1);
+    }
+
+    private static byte[] createPayload() {
+        return new CpioArchiveBuilder()
+                .directory("./usr/bin")
+                .hardLinks(FILE_DATA, "./usr/bin/hello-link", "./usr/bin/hello")
+                .build();
+    }
+
+    private static void assertPayload(final byte[] rpm) throws IOException {
+        try (InputStream payload = RpmPayloadReader.openPayload(new ByteArrayInputStream(rpm))) {
+            CpioArchiveReader reader = new CpioArchiveReader(payload);
+            Assert.assertEquals(reader.getNextEntry().getName(), "./usr/bin");
+            CpioArchiveReader.Entry link = reader.getNextEntry();
+            Assert.assertEquals(link.getName(), "./usr/bin/hello-link");
+            Assert.assertEquals(link.getSize(), 0);
+            CpioArchiveReader.Entry file = reader.getNextEntry();
+            Assert.assertEquals(file.getName(), "./usr/bin/hello");
+            Assert.assertEquals(file.getInodeKey(), link.getInodeKey());
+            Assert.assertEquals(DigestUtils.sha1Hex(reader.getEntryStream()),
+                    DigestUtils.sha1Hex(FILE_DATA));
+            Assert.assertNull(reader.getNextEntry());
+        }
+    }
+
+    /**
+     * Creates a minimal RPM package: a lead, an empty signature and a header naming the payload
+     * format and, if given, the payload compressor.
+     */
+    private static byte[] createRpm(final String compressor, final byte[] payload)
+            throws IOException {
+        ByteArrayOutputStream store = new ByteArrayOutputStream();
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        addStringTag(indexOut, store, PAYLOAD_FORMAT_TAG, "cpio");
+        if (compressor != null) {
+            addStringTag(indexOut, store, PAYLOAD_COMPRESSOR_TAG, compressor);
+        }
+
+        ByteArrayOutputStream rpm = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(rpm);
+        byte[] lead = new byte[LEAD_LENGTH];
+        System.arraycopy(LEAD_MAGIC, 0, lead, 0, LEAD_MAGIC.length);
+        out.write(lead);
+        // the signature header has no entries, and its length is already aligned
+        out.write(HEADER_MAGIC);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.write(HEADER_MAGIC);
+        out.writeInt(0);
+        out.writeInt(indexOut.size() / (4 * Integer.BYTES));
+        out.writeInt(store.size());
+        out.write(index.toByteArray());
+        out.write(store.toByteArray());
+        out.write(payload);
+        return rpm.toByteArray();
+    }
+
+    private static void addStringTag(final DataOutputStream index,
+                                     final ByteArrayOutputStream store, final int tag,
+                                     final String value) throws IOException {
+        index.writeInt(tag);
+        index.writeInt(STRING_TYPE);
+        index.writeInt(store.size());
+        index.writeInt(1);
+        store.write((value + '\0').getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,13 +2,21 @@ package hirs.repository.measurement;
 
 import com.google.common.collect.Multimap;
 import hirs.data.persist.Digest;
+import hirs.data.persist.enums.DigestAlgorithm;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.apache.commons.codec.digest.DigestUtils;
 
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -23,7 +31,16 @@ public class InitramfsMeasurerTest {
     private static final String TEST_INITRAMFS_RESOURCE =
             "/repository/initramfs-2.6.32-431.el6.x86_64.img";
 
+    private static final byte[] MICROCODE = "microcode".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INIT = "init".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MODULE = "module".getBytes(StandardCharsets.UTF_8);
+    private static final int IMAGE_PADDING = 512;
+    private static final int ODC_FIELD_WIDTH = 6;
+    private static final int ODC_LONG_FIELD_WIDTH = 11;
+    private static final int ODC_FILE_MODE = 0100644;
+
     private Path initramfsFileSource;
+    private Path imageDir;
     private static final int INITRAMFS_FILE_COUNT = 1186;
 
     /**
@@ -38,6 +55,7 @@ public class InitramfsMeasurerTest {
         Assert.assertNotNull(resourceUrl, "Could not find test resource: "
                 + TEST_INITRAMFS_RESOURCE);
         initramfsFileSource = new File(resourceUrl.toURI()).toPath();
+        imageDir = Files.createTempDirectory("hirs-images");
     }
 
     /**
@@ -46,6 +64,7 @@ public class InitramfsMeasurerTest {
      */
     @AfterClass
     public final void teardown() throws IOException {
+        FileUtils.deleteDirectory(imageDir.toFile());
         String temporaryPath = FileUtils.getTempDirectoryPath();
         File temporaryPathFile = new File(temporaryPath);
         File[] matchedFiles = temporaryPathFile.listFiles(new FileFilter() {
@@ -100,4 +119,157 @@ public class InitramfsMeasurerTest {
                     "the initramfs file itself should not be measured");
         }
     }
+
+    /**
+     * Tests that an image holding uncompressed early microcode, zero padding and a gzip
+     * compressed archive, itself padded with zeros, is measured in full.
+     *
+     * @throws IOException if an error is encountered while measuring the image.
+     */
+    @Test
+    public final void testMeasureGzipImageWithMicrocode() throws IOException {
+        byte[] image = concatenate(createMicrocodeArchive(), new byte[IMAGE_PADDING],
+                CpioArchiveBuilder.gzip(concatenate(createMainArchive(),
+                        new byte[IMAGE_PADDING])));
+
+        assertImageMeasurements(new InitramfsMeasurer().measure(writeImage(image)));
+    }
+
+    /**
+     * Tests that an image holding uncompressed early microcode followed by an xz compressed
+     * archive is measured in full.
+     *
+     * @throws IOException if an error is encountered while measuring the image.
+     */
+    @Test
+    public final void testMeasureXzImageWithMicrocode() throws IOException {
+        byte[] image = concatenate(createMicrocodeArchive(), new byte[IMAGE_PADDING],
+                CpioArchiveBuilder.xz(createMainArchive()));
+
+        assertImageMeasurements(new InitramfsMeasurer().measure(writeImage(image)));
+    }
+
+    /**
+     * Tests that an image made only of uncompressed archives is measured in full.
+     *
+     * @throws IOException if an error is encountered while measuring the image.
+     */
+    @Test
+    public final void testMeasureUncompressedImage() throws IOException {
+        byte[] image = concatenate(createMicrocodeArchive(), createMainArchive(),
+                new byte[IMAGE_PADDING]);
+
+        assertImageMeasurements(new InitramfsMeasurer().measure(writeImage(image)));
+    }
+
+    /**
+     * Tests that an image whose archive cannot be read in memory, here a gzip compressed cpio
+     * archive in the odc format, is extracted and measured instead.
+     *
+     * @throws IOException if an error is encountered while measuring the image.
+     */
+    @Test
+    public final void testMeasureUnsupportedImageFallsBackToExtraction() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        writeOdcEntry(archive, "./init", ODC_FILE_MODE, INIT);
+        writeOdcEntry(archive, "TRAILER!!!", 0, new byte[0]);
+        byte[] image = CpioArchiveBuilder.gzip(archive.toByteArray());
+
+        Multimap<Path, Digest> measurements = new InitramfsMeasurer().measure(writeImage(image));
+
+        Assert.assertEquals(measurements.keySet(), Collections.singleton(Paths.get("/init")));
+        Assert.assertEquals(measurements.get(Paths.get("/init")),
+                Collections.singleton(sha1(INIT)));
+    }
+
+    /**
+     * Tests that an image compressed with a compressor that is not supported, and that cannot
+     * be extracted either, yields no measurements rather than partial ones.
+     *
+     * @throws IOException if an error is encountered while measuring the image.
+     */
+    @Test
+    public final void testMeasureUnsupportedCompression() throws IOException {
+        byte[] image = "BZh91AY&SY".getBytes(StandardCharsets.US_ASCII);
+
+        Assert.assertTrue(new InitramfsMeasurer().measure(writeImage(image)).isEmpty());
+    }
+
+    private static byte[] createMicrocodeArchive() {
+        return new CpioArchiveBuilder()
+                .directory("kernel")
+                .directory("kernel/x86")
+                .directory("kernel/x86/microcode")
+                .file("kernel/x86/microcode/GenuineIntel.bin", MICROCODE)
+                .build();
+    }
+
+    private static byte[] createMainArchive() {
+        return new CpioArchiveBuilder()
+                .file("init", INIT)
+                .directory("lib")
+                .file("lib/module.ko", MODULE)
+                .symbolicLink("sbin", "usr/sbin")
+                .build();
+    }
+
+    private static void assertImageMeasurements(final Multimap<Path, Digest> measurements) {
+        Assert.assertEquals(measurements.size(), 3);
+        Assert.assertEquals(measurements.get(Paths.get("/kernel/x86/microcode/GenuineIntel.bin")),
+                Collections.singleton(sha1(MICROCODE)));
+        Assert.assertEquals(measurements.get(Paths.get("/init")),
+                Collections.singleton(sha1(INIT)));
+        Assert.assertEquals(measurements.get(Paths.get("/lib/module.ko")),
+                Collections.singleton(sha1(MODULE)));
+    }
+
+    private Path writeImage(final byte[] image) throws IOException {
+        Path file = Files.createTempFile(imageDir, "initramfs-", ".img");
+        Files.write(file, image);
+        return file;
+    }
+
+    private static Digest sha1(final byte[] data) {
+        return new Digest(DigestAlgorithm.SHA1, DigestUtils.sha1(data));
+    }
+
+    private static byte[] concatenate(final byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes an entry of a cpio archive in the portable "odc" format, which is read by cpio
+     * but not by the in-memory reader.
+     */
+    private static void writeOdcEntry(final ByteArrayOutputStream archive, final String name,
+                                      final int mode, final byte[] data) throws IOException {
+        byte[] nameBytes = (name + '\0').getBytes(StandardCharsets.US_ASCII);
+        StringBuilder header = new StringBuilder("070707");
+        header.append(octal(0, ODC_FIELD_WIDTH))            // dev
+                .append(octal(1, ODC_FIELD_WIDTH))          // ino
+                .append(octal(mode, ODC_FIELD_WIDTH))       // mode
+                .append(octal(0, ODC_FIELD_WIDTH))          // uid
+                .append(octal(0, ODC_FIELD_WIDTH))          // gid
+                .append(octal(1, ODC_FIELD_WIDTH))          // nlink
+                .append(octal(0, ODC_FIELD_WIDTH))          // rdev
+                .append(octal(0, ODC_LONG_FIELD_WIDTH))     // mtime
+                .append(octal(nameBytes.length, ODC_FIELD_WIDTH))
+                .append(octal(data.length, ODC_LONG_FIELD_WIDTH));
+        archive.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+        archive.write(nameBytes);
+        archive.write(data);
+    }
+
+    private static String octal(final long value, final int width) {
+        String digits = Long.toOctalString(value);
+        StringBuilder field = new StringBuilder();
+        for (int i = digits.length(); i < width; i++) {
+            field.append('0');
+        }
+        return field.append(digits).toString();
+    }
 }
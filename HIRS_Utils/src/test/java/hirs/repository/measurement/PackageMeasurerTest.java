@@ -0,0 +1,181 @@
+package hirs.repository.measurement;
+
+import com.google.common.collect.Multimap;
+import hirs.data.persist.Digest;
+import hirs.data.persist.enums.DigestAlgorithm;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Unit test for the in-memory measurement of cpio archives by <code>PackageMeasurer</code>.
+ */
+public class PackageMeasurerTest {
+    private static final byte[] CONFIG = "config".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BINARY = "binary".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INIT = "init".getBytes(StandardCharsets.UTF_8);
+    private static final String INITRAMFS = "./boot/initramfs-test.img";
+
+    private Path directory;
+
+    /**
+     * Creates the directory the test packages are extracted to.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @BeforeMethod
+    public final void setup() throws IOException {
+        directory = Files.createTempDirectory("hirs-package-measurer-");
+    }
+
+    /**
+     * Deletes the directory the test packages are extracted to.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @AfterMethod
+    public final void teardown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    /**
+     * Tests that all the hard links to a file receive its measurement, although only the last
+     * one carries its contents, and that symbolic links and directories are skipped.
+     *
+     * @throws IOException if the archive cannot be read
+     */
+    @Test
+    public final void testMeasureHardLinks() throws IOException {
+        byte[] archive = new CpioArchiveBuilder()
+                .directory("./usr/bin")
+                .hardLinks(BINARY, "./usr/bin/first", "./usr/bin/second", "./usr/bin/third")
+                .symbolicLink("./usr/bin/link", "first")
+                .build();
+
+        Multimap<Path, Digest> measurements = measureArchive(new TestMeasurer(), archive);
+
+        Digest digest = new Digest(DigestAlgorithm.SHA1, DigestUtils.sha1(BINARY));
+        Assert.assertEquals(measurements.size(), 3);
+        Assert.assertEquals(measurements.get(Paths.get("/usr/bin/first")),
+                Collections.singleton(digest));
+        Assert.assertEquals(measurements.get(Paths.get("/usr/bin/second")),
+                Collections.singleton(digest));
+        Assert.assertEquals(measurements.get(Paths.get("/usr/bin/third")),
+                Collections.singleton(digest));
+    }
+
+    /**
+     * Tests that hard links to an empty file, which never receive data, are measured as empty
+     * files once the archive has been read.
+     *
+     * @throws IOException if the archive cannot be read
+     */
+    @Test
+    public final void testMeasurePendingEmptyLinks() throws IOException {
+        byte[] archive = new CpioArchiveBuilder()
+                .hardLinks(new byte[0], "./var/empty-first", "./var/empty-second")
+                .file("./var/other", CONFIG)
+                .build();
+
+        Multimap<Path, Digest> measurements = measureArchive(new TestMeasurer(), archive);
+
+        Digest empty = new Digest(DigestAlgorithm.SHA1, DigestUtils.sha1(new byte[0]));
+        Digest other = new Digest(DigestAlgorithm.SHA1, DigestUtils.sha1(CONFIG));
+        Assert.assertEquals(measurements.size(), 3);
+        Assert.assertEquals(measurements.get(Paths.get("/var/empty-first")),
+                Collections.singleton(empty));
+        Assert.assertEquals(measurements.get(Paths.get("/var/empty-second")),
+                Collections.singleton(empty));
+        Assert.assertEquals(measurements.get(Paths.get("/var/other")),
+                Collections.singleton(other));
+    }
+
+    /**
+     * Tests that measuring a package as an archive gives the same result as extracting it and
+     * measuring the directory, including the measurements of chained measurers.
+     *
+     * @throws IOException if the package cannot be measured
+     */
+    @Test
+    public final void testMeasureArchiveMatchesDirectory() throws IOException {
+        byte[] initramfs = CpioArchiveBuilder.gzip(new CpioArchiveBuilder()
+                .file("./init", INIT)
+                .build());
+        byte[] archive = new CpioArchiveBuilder()
+                .directory("./etc")
+                .file("./etc/package.conf", CONFIG)
+                .file("./etc/empty.conf", new byte[0])
+                .symbolicLink("./etc/link.conf", "package.conf")
+                .hardLinks(BINARY, "./usr/bin/first", "./usr/bin/second")
+                .hardLinks(new byte[0], "./var/empty-first", "./var/empty-second")
+                .file(INITRAMFS, initramfs)
+                .build();
+
+        Path usrBin = Files.createDirectories(directory.resolve("usr/bin"));
+        Path etc = Files.createDirectories(directory.resolve("etc"));
+        Path var = Files.createDirectories(directory.resolve("var"));
+        Files.write(etc.resolve("package.conf"), CONFIG);
+        Files.write(etc.resolve("empty.conf"), new byte[0]);
+        Files.createSymbolicLink(etc.resolve("link.conf"), Paths.get("package.conf"));
+        Files.write(usrBin.resolve("first"), BINARY);
+        Files.createLink(usrBin.resolve("second"), usrBin.resolve("first"));
+        Files.write(var.resolve("empty-first"), new byte[0]);
+        Files.createLink(var.resolve("empty-second"), var.resolve("empty-first"));
+        Files.write(Files.createDirectories(directory.resolve("boot"))
+                .resolve("initramfs-test.img"), initramfs);
+
+        TestMeasurer measurer = new TestMeasurer(new InitramfsMeasurer());
+        Multimap<Path, Digest> fromArchive = measureArchive(measurer, archive);
+        Multimap<Path, Digest> fromDirectory = measurer.measureDirectory(directory);
+
+        Assert.assertTrue(fromArchive.containsKey(Paths.get("/init")));
+        Assert.assertFalse(fromArchive.containsKey(Paths.get("/etc/link.conf")));
+        Assert.assertEquals(fromArchive, fromDirectory);
+    }
+
+    private static Multimap<Path, Digest> measureArchive(final PackageMeasurer measurer,
+                                                         final byte[] archive)
+            throws IOException {
+        try (InputStream in = new ByteArrayInputStream(archive)) {
+            Multimap<Path, Digest> measurements = measurer.measureCpioArchive(in);
+            Assert.assertEquals(in.read(), -1);
+            return measurements;
+        }
+    }
+
+    /**
+     * Measures the files of a package with SHA-1, chaining the given measurers.
+     */
+    private static final class TestMeasurer extends PackageMeasurer {
+        TestMeasurer(final PackageMeasurer... chainedPackageMeasurers) {
+            super(DigestAlgorithm.SHA1, chainedPackageMeasurers);
+        }
+
+        @Override
+        protected Multimap<Path, Digest> doMeasure(final Path packageFile) {
+            throw new UnsupportedOperationException("Packages are measured by the tests");
+        }
+
+        @Override
+        protected boolean shouldMeasureFileWhenChainedMeasurer(final Path filePath) {
+            return false;
+        }
+
+        @Override
+        protected boolean shouldMeasureFile(final Path filePath) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package hirs.tpm.eventlog;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests for the {@link TcgEventLogReader} class.
+ */
+public class TcgEventLogReaderTest {
+    private static final String DEFAULT_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+    private static final String SHA1_EVENT_LOG = "/tcgeventlog/TpmLogSHA1.bin";
+    private static final int VISIT_LIMIT = 3;
+    private static final int CRAFTED_EVENT_SIZE = 12;
+    /** Ends the log within the first algorithm of the TCG_EfiSpecIdEvent. */
+    private static final int TRUNCATED_SPEC_ID_SIZE = 62;
+
+    /**
+     * Tests that the events of a crypto agile log match those parsed by {@link TCGEventLog}.
+     *
+     * @throws IOException when processing the test fails
+     * @throws NoSuchAlgorithmException if an unknown algorithm is encountered
+     * @throws CertificateException if a certificate fails to parse
+     */
+    @Test
+    public final void testCryptoAgileLog() throws IOException, CertificateException,
+            NoSuchAlgorithmException {
+        byte[] rawLog = readLog(DEFAULT_EVENT_LOG);
+        TcgEventLogReader reader = new TcgEventLogReader(rawLog);
+
+        Assert.assertTrue(reader.isCryptoAgile());
+        assertSameEvents(reader, new TCGEventLog(rawLog));
+    }
+
+    /**
+     * Tests that the events of a SHA1 log match those parsed by {@link TCGEventLog}.
+     *
+     * @throws IOException when processing the test fails
+     * @throws NoSuchAlgorithmException if an unknown algorithm is encountered
+     * @throws CertificateException if a certificate fails to parse
+     */
+    @Test
+    public final void testSha1Log() throws IOException, CertificateException,
+            NoSuchAlgorithmException {
+        byte[] rawLog = readLog(SHA1_EVENT_LOG);
+        TcgEventLogReader reader = new TcgEventLogReader(rawLog);
+
+        Assert.assertFalse(reader.isCryptoAgile());
+        assertSameEvents(reader, new TCGEventLog(rawLog));
+    }
+
+    /**
+     * Tests that a memory-mapped log yields the same events as one read into memory.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testMappedLog() throws IOException {
+        byte[] rawLog = readLog(DEFAULT_EVENT_LOG);
+        Path file = Files.createTempFile("TpmLog", ".bin");
+        try {
+            Files.write(file, rawLog);
+            List<String> expected = new ArrayList<>();
+            for (TcgEventView event : new TcgEventLogReader(rawLog)) {
+                expected.add(event.toString());
+            }
+            List<String> mapped = new ArrayList<>();
+            for (TcgEventView event : TcgEventLogReader.map(file)) {
+                mapped.add(event.toString());
+            }
+            Assert.assertEquals(mapped, expected);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that event views expose the event data without copying, and hash it on demand.
+     *
+     * @throws IOException when processing the test fails
+     * @throws NoSuchAlgorithmException if an unknown algorithm is encountered
+     */
+    @Test
+    public final void testEventData() throws IOException, NoSuchAlgorithmException {
+        byte[] rawLog = readLog(SHA1_EVENT_LOG);
+        TcgEventView first = new TcgEventLogReader(rawLog).iterator().next();
+
+        ByteBuffer data = first.getEventData();
+        Assert.assertTrue(data.isReadOnly());
+        Assert.assertEquals(data.remaining(), first.getEventDataSize());
+        byte[] copy = new byte[data.remaining()];
+        data.duplicate().get(copy);
+        Assert.assertEquals(first.hashEventData("SHA-1"),
+                MessageDigest.getInstance("SHA-1").digest(copy));
+    }
+
+    /**
+     * Tests that a visitor can stop reading the log early.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testVisitorStops() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(readLog(DEFAULT_EVENT_LOG));
+        List<Integer> visited = new ArrayList<>();
+
+        reader.accept(event -> {
+            visited.add(event.getEventNumber());
+            return visited.size() < VISIT_LIMIT;
+        });
+
+        Assert.assertEquals(visited, Arrays.asList(0, 1, 2));
+    }
+
+    /**
+     * Tests that a truncated log is reported when the truncated event is reached.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public final void testTruncatedLog() throws IOException {
+        byte[] rawLog = readLog(DEFAULT_EVENT_LOG);
+        TcgEventLogReader reader = new TcgEventLogReader(
+                Arrays.copyOf(rawLog, rawLog.length - 1));
+
+        for (TcgEventView event : reader) {
+            Assert.assertNotNull(event);
+        }
+    }
+
+    /**
+     * Tests that an event declaring more digests than the log can hold is rejected before any
+     * storage is allocated for them.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public final void testOversizedDigestCount() throws IOException {
+        byte[] rawLog = readLog(DEFAULT_EVENT_LOG);
+        int firstEventEnd = new TcgEventLogReader(rawLog).iterator().next().getEnd();
+        ByteBuffer craftedEvent = ByteBuffer.allocate(CRAFTED_EVENT_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        craftedEvent.putInt(0).putInt(0).putInt(Integer.MAX_VALUE);
+        byte[] craftedLog = Arrays.copyOf(rawLog, firstEventEnd + CRAFTED_EVENT_SIZE);
+        System.arraycopy(craftedEvent.array(), 0, craftedLog, firstEventEnd, CRAFTED_EVENT_SIZE);
+
+        for (TcgEventView event : new TcgEventLogReader(craftedLog)) {
+            Assert.assertNotNull(event);
+        }
+    }
+
+    /**
+     * Tests that a TCG_EfiSpecIdEvent declaring more data than the log holds is rejected when
+     * the reader is constructed, rather than read past the end of the log.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public final void testTruncatedSpecIdEvent() throws IOException {
+        byte[] rawLog = readLog(DEFAULT_EVENT_LOG);
+
+        new TcgEventLogReader(Arrays.copyOf(rawLog, TRUNCATED_SPEC_ID_SIZE));
+    }
+
+    private static void assertSameEvents(final TcgEventLogReader reader,
+                                         final TCGEventLog expected) throws IOException,
+            CertificateException, NoSuchAlgorithmException {
+        Iterator<TcgEventView> events = reader.iterator();
+        for (TpmPcrEvent expectedEvent : expected.getEventList()) {
+            Assert.assertTrue(events.hasNext());
+            TcgEventView event = events.next();
+            Assert.assertEquals(event.getPcrIndex(), expectedEvent.getPcrIndex());
+            Assert.assertEquals(event.getEventType(), expectedEvent.getEventType());
+            Assert.assertEquals(event.getEventDigest(), expectedEvent.getEventDigest());
+            Assert.assertEquals(event.getEventDataSize(),
+                    expectedEvent.getEventContent().length);
+            Assert.assertEquals(event.toTpmPcrEvent().getEventContentStr(),
+                    expectedEvent.getEventContentStr());
+        }
+        Assert.assertFalse(events.hasNext());
+    }
+
+    private byte[] readLog(final String resource) throws IOException {
+        try (InputStream log = this.getClass().getResourceAsStream(resource)) {
+            return IOUtils.toByteArray(log);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package hirs.tpm.eventlog;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.List;
+
+/**
+ * Tests for the {@link TcgPcrReplay} class.
+ */
+public class TcgPcrReplayTest {
+    private static final String DEFAULT_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+    private static final String DEFAULT_EXPECTED_PCRS = "/tcgeventlog/TpmLogExpectedPcrs.txt";
+    private static final String SHA1_EVENT_LOG = "/tcgeventlog/TpmLogSHA1.bin";
+    private static final String SHA1_EXPECTED_PCRS = "/tcgeventlog/TpmLogSHA1ExpectedPcrs.txt";
+    private static final int LOCALITY4_PCR = 17;
+
+    /**
+     * Tests that replaying a crypto agile log yields the expected PCR values.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testCryptoAgileLog() throws IOException {
+        String[] pcrs = TcgPcrReplay.getExpectedPcrValues(
+                new TcgEventLogReader(readResource(DEFAULT_EVENT_LOG)));
+
+        assertPcrs(pcrs, DEFAULT_EXPECTED_PCRS);
+    }
+
+    /**
+     * Tests that replaying a SHA1 log yields the expected PCR values.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testSha1Log() throws IOException {
+        String[] pcrs = TcgPcrReplay.getExpectedPcrValues(
+                new TcgEventLogReader(readResource(SHA1_EVENT_LOG)));
+
+        assertPcrs(pcrs, SHA1_EXPECTED_PCRS);
+    }
+
+    /**
+     * Tests that a crypto agile log can be replayed into several banks at once, each bank
+     * matching a replay into that bank alone.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testMultipleBanks() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(readResource(DEFAULT_EVENT_LOG));
+        TcgPcrReplay all = new TcgPcrReplay(TcgTpmtHa.TPM_ALG_SHA1, TcgTpmtHa.TPM_ALG_SHA256,
+                TcgTpmtHa.TPM_ALG_SHA384);
+        TcgPcrReplay sha1 = new TcgPcrReplay(TcgTpmtHa.TPM_ALG_SHA1);
+        TcgPcrReplay sha256 = new TcgPcrReplay(TcgTpmtHa.TPM_ALG_SHA256);
+
+        reader.accept(all);
+        reader.accept(sha1);
+        reader.accept(sha256);
+
+        Assert.assertEquals(all.getPcrValues(TcgTpmtHa.TPM_ALG_SHA1),
+                sha1.getPcrValues(TcgTpmtHa.TPM_ALG_SHA1));
+        Assert.assertEquals(all.getPcrValues(TcgTpmtHa.TPM_ALG_SHA256),
+                sha256.getPcrValues(TcgTpmtHa.TPM_ALG_SHA256));
+        Assert.assertEquals(all.getPcrValue(TcgTpmtHa.TPM_ALG_SHA384, 0).length,
+                TcgTpmtHa.TPM_ALG_SHA384_LENGTH);
+    }
+
+    /**
+     * Tests that extending a PCR matches hashing its value followed by the digest, and that
+     * reset restores the initial values.
+     *
+     * @throws NoSuchAlgorithmException if SHA-256 is not supported
+     */
+    @Test
+    public final void testExtendAndReset() throws NoSuchAlgorithmException {
+        TcgPcrReplay replay = new TcgPcrReplay(TcgTpmtHa.TPM_ALG_SHA256);
+        byte[] initial = replay.getPcrValue(TcgTpmtHa.TPM_ALG_SHA256, 0);
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest("event".getBytes(StandardCharsets.UTF_8));
+
+        replay.extend(TcgTpmtHa.TPM_ALG_SHA256, 0, digest);
+
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(initial);
+        md.update(digest);
+        Assert.assertEquals(replay.getPcrValue(TcgTpmtHa.TPM_ALG_SHA256, 0), md.digest());
+
+        replay.reset();
+        Assert.assertEquals(replay.getPcrValue(TcgTpmtHa.TPM_ALG_SHA256, 0), initial);
+        Assert.assertEquals(replay.getPcrValues(TcgTpmtHa.TPM_ALG_SHA256)[LOCALITY4_PCR],
+                TCGEventLog.LOCALITY4_SHA256_LIST);
+    }
+
+    /**
+     * Tests that {@link TCGEventLog} calculates the same PCR values as the replay.
+     *
+     * @throws IOException when processing the test fails
+     * @throws NoSuchAlgorithmException if an unknown algorithm is encountered
+     * @throws CertificateException if a certificate fails to parse
+     */
+    @Test
+    public final void testMatchesTcgEventLog() throws IOException, CertificateException,
+            NoSuchAlgorithmException {
+        byte[] rawLog = readResource(DEFAULT_EVENT_LOG);
+
+        Assert.assertEquals(new TCGEventLog(rawLog).getExpectedPCRValues(),
+                TcgPcrReplay.getExpectedPcrValues(new TcgEventLogReader(rawLog)));
+    }
+
+    /**
+     * Tests that banks of unsupported algorithms are rejected.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public final void testUnsupportedBank() {
+        new TcgPcrReplay(TcgTpmtHa.TPM_ALG_SHA_512);
+    }
+
+    private void assertPcrs(final String[] pcrs, final String expectedResource)
+            throws IOException {
+        List<String> expected;
+        try (InputStream in = this.getClass().getResourceAsStream(expectedResource)) {
+            expected = IOUtils.readLines(in, StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < TCGEventLog.PCR_COUNT; i++) {
+            Assert.assertTrue(pcrs[i].equalsIgnoreCase(expected.get(i)), "PCR " + i);
+        }
+    }
+
+    private byte[] readResource(final String resource) throws IOException {
+        try (InputStream in = this.getClass().getResourceAsStream(resource)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
@@ -2,13 +2,19 @@ package hirs.tpm.eventlog.uefi;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.UUID;
 
 import com.eclipsesource.json.JsonObject;
 import hirs.utils.JsonUtils;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,6 +39,13 @@ public class UefiProcessingTest {
     private static final String UEFI_GPT_EVENT = "/tcgeventlog/uefi/EV_EFI_GPT_EVENT.txt";
     private static final String UEFI_FW_BLOB = "/tcgeventlog/uefi/EFI_PLATFORM_FIRMWARE_BLOB.txt";
     private static final String UEFI_DEVICE_PATH = "/tcgeventlog/uefi/EFI_DEVICE_PATH.txt";
+    private static final String UEFI_CERT = "/certificates/stMicroCaCerts/gstpmroot.crt";
+    private static final String EFI_CERT_SHA256_GUID = "c1c41626-504c-4092-aca9-41f936934328";
+    private static final String IMAGE_SECURITY_DATABASE_GUID =
+            "d719b2cb-3d3a-4596-a3bc-dad00e67656f";
+    private static final String SIGNATURE_OWNER_GUID = "77fa9abd-0359-4d32-bd60-28f4e78f784b";
+    private static final int SHA256_SIGNATURE_SIZE = 48;
+    private static final int SIGNATURE_COUNT = 3;
 
     private static final Logger LOGGER
             = LogManager.getLogger(UefiProcessingTest.class);
@@ -170,4 +183,123 @@ public class UefiProcessingTest {
         String devPathType = uefiDevPath.getType();
         Assert.assertEquals(devPathType, "Media Device Path");
     }
+
+    /**
+     * Tests that certificates are parsed once and shared.
+     *
+     * @throws IOException              when processing the test fails.
+     * @throws NoSuchAlgorithmException if non TCG Algorithm is encountered.
+     * @throws CertificateException     if parsing issue for X509 cert is encountered.
+     */
+    @Test
+    public final void testUefiCertificateInterning() throws IOException,
+            CertificateException, NoSuchAlgorithmException {
+        LOGGER.debug("Testing the interning of UEFI Certificates");
+        UefiSignatureCache.clear();
+        byte[] certBytes = IOUtils.toByteArray(this.getClass().getResourceAsStream(UEFI_CERT));
+        UefiX509Cert cert = UefiSignatureCache.getCertificate(certBytes);
+        Assert.assertSame(UefiSignatureCache.getCertificate(certBytes.clone()), cert);
+        Assert.assertEquals(cert.getLength(), certBytes.length);
+        Assert.assertEquals(cert.getSHA1FingerPrint(),
+                DigestUtils.sha1Hex(certBytes).replaceAll("..(?!$)", "$0:"));
+    }
+
+    /**
+     * Tests that the signature lists of a db variable are parsed once and shared by the
+     * variables holding them, and that their signatures are parsed on first use.
+     *
+     * @throws IOException              when processing the test fails.
+     * @throws NoSuchAlgorithmException if non TCG Algorithm is encountered.
+     * @throws CertificateException     if parsing issue for X509 cert is encountered.
+     * @throws URISyntaxException File location exception
+     */
+    @Test
+    public final void testUefiSignatureListInterning() throws IOException,
+            CertificateException, NoSuchAlgorithmException, URISyntaxException {
+        LOGGER.debug("Testing the interning of UEFI Signature Lists");
+        UefiSignatureCache.clear();
+        Path jsonPath = Paths.get(this.getClass().getResource(JSON_FILE).toURI());
+        byte[] hashList = createSha256SignatureList(SIGNATURE_COUNT);
+        byte[] dbVariable = createSignatureDbVariable(hashList);
+
+        UefiVariable first = new UefiVariable(dbVariable, jsonPath);
+        UefiVariable second = new UefiVariable(dbVariable.clone(), jsonPath);
+        Assert.assertEquals(first.getEfiVarName(), "db");
+        Assert.assertEquals(first.getEFISignatureList().size(), 1);
+        UefiSignatureList list = first.getEFISignatureList().get(0);
+        Assert.assertSame(second.getEFISignatureList().get(0), list);
+        Assert.assertSame(UefiSignatureCache.getSignatureList(hashList, 0, jsonPath), list);
+
+        Assert.assertEquals(list.getListSize(), hashList.length);
+        Assert.assertEquals(list.getNumberOfCerts(), SIGNATURE_COUNT);
+        String description = list.toString();
+        Assert.assertTrue(description.contains("EFI_CERT_SHA256_GUID"));
+        Assert.assertTrue(description.contains("Number if items = " + SIGNATURE_COUNT));
+        Assert.assertTrue(description.contains("Binary Hash = "
+                + HexUtils.byteArrayToHexString(signatureHash(SIGNATURE_COUNT - 1))));
+        Assert.assertFalse(description.contains("Invalid UEFI Signature data"));
+        Assert.assertEquals(second.getEFISignatureList().get(0).toString(), description);
+    }
+
+    /**
+     * Tests that data not starting with a signature list of a known type is not interned.
+     *
+     * @throws NoSuchAlgorithmException if non TCG Algorithm is encountered.
+     * @throws URISyntaxException File location exception
+     */
+    @Test
+    public final void testUefiSignatureListNotInterned() throws NoSuchAlgorithmException,
+            URISyntaxException {
+        Path jsonPath = Paths.get(this.getClass().getResource(JSON_FILE).toURI());
+        byte[] unknownList = createSha256SignatureList(1);
+        unknownList[0] ^= (byte) 0xff;
+        Assert.assertNull(UefiSignatureCache.getSignatureList(unknownList, 0, jsonPath));
+
+        byte[] truncatedList = Arrays.copyOf(createSha256SignatureList(1),
+                UefiConstants.SIZE_28 + 1);
+        Assert.assertNull(UefiSignatureCache.getSignatureList(truncatedList, 0, jsonPath));
+    }
+
+    /**
+     * Creates an EFI_SIGNATURE_LIST of type EFI_CERT_SHA256_GUID holding the given number of
+     * hashes.
+     */
+    private static byte[] createSha256SignatureList(final int count) {
+        int listSize = UefiConstants.SIZE_28 + count * SHA256_SIGNATURE_SIZE;
+        ByteBuffer list = ByteBuffer.allocate(listSize).order(ByteOrder.LITTLE_ENDIAN);
+        putGuid(list, EFI_CERT_SHA256_GUID);
+        list.putInt(listSize).putInt(0).putInt(SHA256_SIGNATURE_SIZE);
+        for (int i = 0; i < count; i++) {
+            putGuid(list, SIGNATURE_OWNER_GUID);
+            list.put(signatureHash(i));
+        }
+        return list.array();
+    }
+
+    /**
+     * Creates the UEFI_VARIABLE_DATA of a db variable holding the given signature list.
+     */
+    private static byte[] createSignatureDbVariable(final byte[] signatureList) {
+        byte[] name = "db".getBytes(StandardCharsets.UTF_16LE);
+        ByteBuffer variable = ByteBuffer.allocate(UefiConstants.SIZE_32 + name.length
+                + signatureList.length).order(ByteOrder.LITTLE_ENDIAN);
+        putGuid(variable, IMAGE_SECURITY_DATABASE_GUID);
+        variable.putLong(name.length / UefiConstants.SIZE_2).putLong(signatureList.length);
+        variable.put(name).put(signatureList);
+        return variable.array();
+    }
+
+    private static void putGuid(final ByteBuffer buffer, final String guid) {
+        UUID uuid = UUID.fromString(guid);
+        long msb = uuid.getMostSignificantBits();
+        buffer.putInt((int) (msb >>> Integer.SIZE))
+                .putShort((short) (msb >>> Short.SIZE))
+                .putShort((short) msb);
+        buffer.order(ByteOrder.BIG_ENDIAN).putLong(uuid.getLeastSignificantBits())
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] signatureHash(final int index) {
+        return DigestUtils.sha256("image " + index);
+    }
 }
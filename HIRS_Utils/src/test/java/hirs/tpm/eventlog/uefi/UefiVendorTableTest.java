@@ -0,0 +1,93 @@
+package hirs.tpm.eventlog.uefi;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Tests for the {@link UefiVendorTable} class.
+ */
+public class UefiVendorTableTest {
+    private static final String GUID = "eb9d2d30-2d88-11d3-9a16-0090273fc14d";
+    private static final String UNKNOWN = "Unknown GUID reference";
+    private static final long RELOAD_TIMEOUT_MS = 30000;
+    private static final long RELOAD_POLL_MS = 50;
+
+    private Path directory;
+    private Path vendorTableFile;
+
+    /**
+     * Creates a directory holding a vendor table file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vendor-table");
+        vendorTableFile = directory.resolve("vendor-table.json");
+        Files.write(vendorTableFile,
+                vendorTableJson("ACPI_TABLE_GUID").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Removes the vendor table directory.
+     *
+     * @throws IOException if the directory cannot be removed
+     */
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    /**
+     * Tests that GUIDs share the table of their file, and look up names in it.
+     */
+    @Test
+    public void testSharedTable() {
+        UefiVendorTable table = UefiVendorTable.forPath(vendorTableFile);
+        Assert.assertSame(UefiVendorTable.forPath(
+                Paths.get(directory.toString(), ".", vendorTableFile.getFileName().toString())),
+                table);
+        Assert.assertEquals(table.getName(GUID, UNKNOWN), "ACPI_TABLE_GUID");
+        Assert.assertEquals(table.getName("_comment_1", UNKNOWN), UNKNOWN);
+        Assert.assertEquals(table.getName("00000000-0000-0000-0000-000000000000", UNKNOWN),
+                UNKNOWN);
+    }
+
+    /**
+     * Tests that the table is reloaded when its file changes.
+     *
+     * @throws Exception if the file cannot be written or the test is interrupted
+     */
+    @Test
+    public void testReloadOnChange() throws Exception {
+        UefiVendorTable table = UefiVendorTable.forPath(vendorTableFile);
+        Assert.assertEquals(table.getName(GUID, UNKNOWN), "ACPI_TABLE_GUID");
+
+        // replaced the way editors and package managers do, so the table never sees it partial
+        Path newFile = directory.resolve("vendor-table.json.new");
+        Files.write(newFile, vendorTableJson("RENAMED_GUID").getBytes(StandardCharsets.UTF_8));
+        Files.move(newFile, vendorTableFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT_MS;
+        while (!"RENAMED_GUID".equals(table.getName(GUID, UNKNOWN))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(RELOAD_POLL_MS);
+        }
+        Assert.assertEquals(table.getName(GUID, UNKNOWN), "RENAMED_GUID");
+    }
+
+    private static String vendorTableJson(final String name) {
+        return "{\"VendorTable\": {\"_comment_1\": 1, \"" + GUID + "\": \"" + name + "\"}}";
+    }
+}
@@ -0,0 +1,97 @@
+package hirs.utils;
+
+import org.apache.commons.codec.binary.Hex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the {@link BinaryDigestSet} class.
+ */
+public class BinaryDigestSetTest {
+    private static final String SHA1_A = "cc8695ee470cd21f32de41df451376d9e751cadb";
+    private static final String SHA1_B = "b2a83b0ebf2f8374299a5b2bdfc31ea955ad7236";
+    private static final String SHA1_C = "e6e2c4ee5c8c79fa9ca827dd2b1b8341872a141f";
+    private static final String SHA256_A =
+            "cc8695ee470cd21f32de41df451376d9e751cadbcc8695ee470cd21f32de41df";
+    private static final int SHA1_LENGTH = 20;
+    private static final int MANY = 1000;
+    private static final int OFFSET = 7;
+    private static final long SEED = 42L;
+
+    /**
+     * Tests that digests of different lengths are found, and only when the length matches.
+     *
+     * @throws Exception if a digest cannot be decoded
+     */
+    @Test
+    public void testContains() throws Exception {
+        BinaryDigestSet set = new BinaryDigestSet(Arrays.asList(decode(SHA1_A), decode(SHA1_B),
+                decode(SHA256_A), decode(SHA1_A)));
+
+        Assert.assertEquals(set.size(), 3);
+        Assert.assertTrue(set.contains(decode(SHA1_A)));
+        Assert.assertTrue(set.contains(decode(SHA1_B)));
+        Assert.assertTrue(set.contains(decode(SHA256_A)));
+        Assert.assertFalse(set.contains(decode(SHA1_C)));
+        Assert.assertFalse(set.contains(Arrays.copyOf(decode(SHA256_A), SHA1_LENGTH + 1)));
+        Assert.assertFalse(set.contains(null));
+    }
+
+    /**
+     * Tests that a digest held within a larger array is found without copying it.
+     *
+     * @throws Exception if a digest cannot be decoded
+     */
+    @Test
+    public void testContainsAtOffset() throws Exception {
+        BinaryDigestSet set = new BinaryDigestSet(Collections.singletonList(decode(SHA1_B)));
+        byte[] data = new byte[OFFSET + SHA1_LENGTH + OFFSET];
+        System.arraycopy(decode(SHA1_B), 0, data, OFFSET, SHA1_LENGTH);
+
+        Assert.assertTrue(set.contains(data, OFFSET, SHA1_LENGTH));
+        Assert.assertFalse(set.contains(data, 0, SHA1_LENGTH));
+    }
+
+    /**
+     * Tests that many digests sharing leading bytes are all found despite colliding.
+     */
+    @Test
+    public void testCollisions() {
+        Random random = new Random(SEED);
+        List<byte[]> digests = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            byte[] digest = new byte[SHA1_LENGTH];
+            random.nextBytes(digest);
+            // same leading bytes, so every digest hashes to the same slot
+            Arrays.fill(digest, 0, 4, (byte) 0);
+            digests.add(digest);
+        }
+        BinaryDigestSet set = new BinaryDigestSet(digests.subList(0, MANY / 2));
+
+        Assert.assertEquals(set.size(), MANY / 2);
+        for (int i = 0; i < MANY; i++) {
+            Assert.assertEquals(set.contains(digests.get(i)), i < MANY / 2);
+        }
+    }
+
+    /**
+     * Tests that an empty set holds nothing.
+     */
+    @Test
+    public void testEmpty() {
+        BinaryDigestSet set = new BinaryDigestSet(Collections.<byte[]>emptyList());
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(new byte[SHA1_LENGTH]));
+    }
+
+    private static byte[] decode(final String hex) throws Exception {
+        return Hex.decodeHex(hex.toCharArray());
+    }
+}
@@ -0,0 +1,227 @@
+package hirs.utils;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the shared XML objects and pools of {@link ReferenceManifestXml}.
+ */
+public class ReferenceManifestXmlTest {
+    private static final String SWIDTAG = "/rims/generated_user_cert.swidtag";
+    private static final String INVALID_SWIDTAG = "<SoftwareIdentity "
+            + "xmlns=\"http://standards.iso.org/iso/19770/-2/2015/schema.xsd\">"
+            + "<Unknown/></SoftwareIdentity>";
+    private static final int THREAD_COUNT = 8;
+    private static final int ITERATIONS = 25;
+
+    private ExecutorService executor;
+    private byte[] swidtag;
+
+    /**
+     * Reads the test swidtag and starts the threads used by the concurrency tests.
+     *
+     * @throws IOException if the swidtag cannot be read
+     */
+    @BeforeClass
+    public void setup() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(SWIDTAG)) {
+            swidtag = IOUtils.toByteArray(in);
+        }
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    /**
+     * Stops the threads used by the concurrency tests.
+     */
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that the schema is compiled once and shared.
+     */
+    @Test
+    public void testSchemaIsShared() {
+        Assert.assertNotNull(ReferenceManifestXml.getSchema());
+        Assert.assertSame(ReferenceManifestXml.getSchema(), ReferenceManifestXml.getSchema());
+    }
+
+    /**
+     * Tests that a swidtag can be unmarshalled repeatedly with the pooled unmarshallers.
+     *
+     * @throws JAXBException if the swidtag cannot be unmarshalled
+     */
+    @Test
+    public void testUnmarshalReusesUnmarshallers() throws JAXBException {
+        for (int i = 0; i < ITERATIONS; i++) {
+            Object root = ReferenceManifestXml.unmarshal(new ByteArrayInputStream(swidtag));
+            Assert.assertTrue(root instanceof JAXBElement);
+            Assert.assertEquals(((JAXBElement) root).getName().getLocalPart(),
+                    "SoftwareIdentity");
+        }
+    }
+
+    /**
+     * Tests that a swidtag that does not match the schema is rejected with the checked
+     * exception handled by the callers, and that the pool remains usable afterwards.
+     *
+     * @throws JAXBException if the valid swidtag cannot be unmarshalled
+     */
+    @Test
+    public void testUnmarshalInvalidSwidtag() throws JAXBException {
+        try {
+            ReferenceManifestXml.unmarshal(new ByteArrayInputStream(
+                    INVALID_SWIDTAG.getBytes(StandardCharsets.UTF_8)));
+            Assert.fail("The invalid swidtag should have been rejected");
+        } catch (UnmarshalException e) {
+            // expected
+        }
+        Assert.assertNotNull(ReferenceManifestXml.unmarshal(new ByteArrayInputStream(swidtag)));
+    }
+
+    /**
+     * Tests that swidtags can be parsed, stripped and unmarshalled by several threads at once.
+     *
+     * @throws Exception if a swidtag cannot be parsed
+     */
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(THREAD_COUNT);
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            tasks.add(() -> {
+                start.countDown();
+                start.await();
+                for (int j = 0; j < ITERATIONS; j++) {
+                    Object root = ReferenceManifestXml.unmarshal(
+                            new ByteArrayInputStream(swidtag));
+                    Assert.assertTrue(root instanceof JAXBElement);
+                    Document doc = ReferenceManifestXml.parseWithoutWhitespace(
+                            new StreamSource(new ByteArrayInputStream(swidtag)));
+                    Assert.assertNotNull(ReferenceManifestXml.unmarshal(doc));
+                }
+                return null;
+            });
+        }
+        for (Future<Void> result : executor.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+
+    /**
+     * Tests that a pool hands out released instances again, and creates new ones only when
+     * all of them are in use.
+     */
+    @Test
+    public void testPoolReusesReleasedInstances() {
+        AtomicInteger created = new AtomicInteger();
+        ReferenceManifestXml.Pool<Object, RuntimeException> pool =
+                new ReferenceManifestXml.Pool<>(() -> {
+                    created.incrementAndGet();
+                    return new Object();
+                });
+
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        Assert.assertNotSame(first, second);
+        pool.release(first);
+        Assert.assertSame(pool.borrow(), first);
+        Assert.assertEquals(created.get(), 2);
+    }
+
+    /**
+     * Tests that a pool keeps at most {@link ReferenceManifestXml#MAX_IDLE} idle instances.
+     */
+    @Test
+    public void testPoolIsBounded() {
+        AtomicInteger created = new AtomicInteger();
+        ReferenceManifestXml.Pool<Object, RuntimeException> pool =
+                new ReferenceManifestXml.Pool<>(() -> {
+                    created.incrementAndGet();
+                    return new Object();
+                });
+
+        int count = ReferenceManifestXml.MAX_IDLE * 2;
+        List<Object> borrowed = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            borrowed.add(pool.borrow());
+        }
+        for (Object instance : borrowed) {
+            pool.release(instance);
+        }
+        for (int i = 0; i < count; i++) {
+            pool.borrow();
+        }
+        Assert.assertEquals(created.get(), count + count - ReferenceManifestXml.MAX_IDLE);
+    }
+
+    /**
+     * Tests that an instance of a pool is never used by two threads at once.
+     *
+     * @throws Exception if an instance was borrowed twice
+     */
+    @Test
+    public void testPoolConcurrentBorrowers() throws Exception {
+        Set<Object> inUse = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<>()));
+        ReferenceManifestXml.Pool<Object, RuntimeException> pool =
+                new ReferenceManifestXml.Pool<>(Object::new);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            tasks.add(() -> {
+                for (int j = 0; j < ITERATIONS * ITERATIONS; j++) {
+                    Object instance = pool.borrow();
+                    Assert.assertTrue(inUse.add(instance), "Instance borrowed twice");
+                    Thread.yield();
+                    inUse.remove(instance);
+                    pool.release(instance);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> result : executor.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+
+    /**
+     * Tests that an error creating an instance reaches the borrower as the checked exception
+     * of the factory.
+     *
+     * @throws JAXBException if the instance cannot be created, as expected
+     */
+    @Test(expectedExceptions = JAXBException.class)
+    public void testPoolFactoryFailure() throws JAXBException {
+        ReferenceManifestXml.Pool<Object, JAXBException> pool =
+                new ReferenceManifestXml.Pool<>(() -> {
+                    throw new JAXBException("unavailable");
+                });
+        pool.borrow();
+    }
+}
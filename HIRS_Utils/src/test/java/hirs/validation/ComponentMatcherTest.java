@@ -0,0 +1,186 @@
+package hirs.validation;
+
+import hirs.data.persist.certificate.ComponentResult;
+import hirs.data.persist.certificate.attributes.ComponentIdentifier;
+import hirs.data.persist.info.ComponentInfo;
+import org.bouncycastle.asn1.ASN1Boolean;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+/**
+ * Tests the {@link ComponentMatcher}.
+ */
+public class ComponentMatcherTest {
+    private static final String INTEL = "Intel";
+    private static final String SAMSUNG = "Samsung";
+    private static final String NIC = "I217-V";
+    private static final String DIMM = "M393A2K43BB1";
+    private static final String EMPTY = "";
+    private static final int DIMM_COUNT = 500;
+    private static final UUID CERTIFICATE_ID = UUID.randomUUID();
+
+    private static final BiPredicate<ComponentIdentifier, ComponentInfo> IS_MATCH =
+            (pcComponent, potentialMatch)
+                    -> SupplyChainCredentialValidator.isMatch(null, pcComponent, potentialMatch);
+
+    /**
+     * Tests that components match the device component with their serial number, even when
+     * another device component of the same model is listed first.
+     */
+    @Test
+    public final void testMatchBySerialNumber() {
+        List<ComponentInfo> deviceComponents = Arrays.asList(
+                new ComponentInfo(SAMSUNG, DIMM, "2", null),
+                new ComponentInfo(SAMSUNG, DIMM, "1", null));
+        List<ComponentIdentifier> pcComponents = Arrays.asList(
+                component(SAMSUNG, DIMM, "1", EMPTY),
+                component(SAMSUNG, DIMM, "2", EMPTY));
+
+        Assert.assertTrue(new ComponentMatcher(deviceComponents, IS_MATCH)
+                .findUnmatched(pcComponents).isEmpty());
+    }
+
+    /**
+     * Tests that components without a serial number match by revision, then by model.
+     */
+    @Test
+    public final void testMatchByRevisionAndModel() {
+        List<ComponentInfo> deviceComponents = Arrays.asList(
+                new ComponentInfo(INTEL, NIC, null, "01"),
+                new ComponentInfo(INTEL, NIC, null, "02"),
+                new ComponentInfo(INTEL, "Xeon", null, null));
+        List<ComponentIdentifier> pcComponents = Arrays.asList(
+                component(INTEL, "Xeon", EMPTY, EMPTY),
+                component(INTEL, NIC, EMPTY, "02"),
+                component(INTEL, NIC, EMPTY, EMPTY));
+
+        Assert.assertTrue(new ComponentMatcher(deviceComponents, IS_MATCH)
+                .findUnmatched(pcComponents).isEmpty());
+    }
+
+    /**
+     * Tests that components of other manufacturers, other serial numbers or other models, and
+     * components whose device component was already taken are reported in order.
+     */
+    @Test
+    public final void testUnmatchedComponents() {
+        List<ComponentInfo> deviceComponents = Arrays.asList(
+                new ComponentInfo(INTEL, NIC, "1", null),
+                new ComponentInfo(SAMSUNG, DIMM, "2", null));
+        ComponentIdentifier otherManufacturer = component("Broadcom", NIC, "1", EMPTY);
+        ComponentIdentifier otherSerial = component(SAMSUNG, DIMM, "3", EMPTY);
+        ComponentIdentifier otherModel = component(INTEL, "X710", EMPTY, EMPTY);
+        ComponentIdentifier taken = component(INTEL, NIC, "1", "01");
+        List<ComponentIdentifier> pcComponents = Arrays.asList(
+                otherManufacturer,
+                component(INTEL, NIC, "1", EMPTY),
+                otherSerial,
+                otherModel,
+                taken);
+
+        Assert.assertEquals(new ComponentMatcher(deviceComponents, IS_MATCH)
+                        .findUnmatched(pcComponents),
+                Arrays.asList(otherManufacturer, otherModel, taken, otherSerial));
+    }
+
+    /**
+     * Tests that a component with a model is only compared with the remaining device
+     * components of that model, while a component without a model is compared with every
+     * remaining device component. Once the device components of its model are taken, a
+     * component stays unmatched and is compared with the first remaining device component.
+     */
+    @Test
+    public final void testMatchByModelComparesThatModel() {
+        List<ComponentInfo> deviceComponents = Arrays.asList(
+                new ComponentInfo(INTEL, NIC, null, null),
+                new ComponentInfo(INTEL, "Xeon", null, null));
+        ComponentIdentifier secondNic = component(INTEL, NIC, EMPTY, EMPTY);
+        List<ComponentIdentifier> pcComponents = Arrays.asList(
+                component(INTEL, NIC, EMPTY, EMPTY),
+                secondNic,
+                component(INTEL, EMPTY, EMPTY, EMPTY));
+        List<ComponentInfo> compared = new ArrayList<>();
+        BiPredicate<ComponentIdentifier, ComponentInfo> countingMatch = (pc, info) -> {
+            compared.add(info);
+            return IS_MATCH.test(pc, info);
+        };
+
+        List<ComponentIdentifier> unmatched = new ComponentMatcher(deviceComponents,
+                countingMatch).findUnmatched(pcComponents);
+
+        Assert.assertEquals(unmatched, Collections.singletonList(secondNic));
+        Assert.assertEquals(compared, Arrays.asList(deviceComponents.get(0),
+                deviceComponents.get(1), deviceComponents.get(1)));
+    }
+
+    /**
+     * Tests that the comparison of the manufacturer is recorded for a component that matches
+     * no device component of its model, as it was when every remaining device component of
+     * the manufacturer was compared.
+     */
+    @Test
+    public final void testUnmatchedModelRecordsManufacturer() {
+        List<ComponentInfo> deviceComponents = Collections.singletonList(
+                new ComponentInfo(INTEL, "Xeon", null, null));
+        ComponentIdentifier otherModel = component(INTEL, "X710", EMPTY, EMPTY);
+        List<ComponentResult> results = new ArrayList<>();
+
+        List<ComponentIdentifier> unmatched = new ComponentMatcher(deviceComponents,
+                (pc, info) -> SupplyChainCredentialValidator.isMatch(CERTIFICATE_ID, pc, info,
+                        results))
+                .findUnmatched(Collections.singletonList(otherModel));
+
+        Assert.assertEquals(unmatched, Collections.singletonList(otherModel));
+        Assert.assertEquals(results.size(), 1);
+        Assert.assertEquals(results.get(0).getCertificateId(), CERTIFICATE_ID);
+        Assert.assertEquals(results.get(0).getComponentHash(), otherModel.hashCode());
+        Assert.assertEquals(results.get(0).getExpected(), INTEL);
+        Assert.assertEquals(results.get(0).getActual(), INTEL);
+    }
+
+    /**
+     * Tests that each device component is only matched once, and that a large number of
+     * identical components is matched without comparing every pair of them.
+     */
+    @Test
+    public final void testManyComponents() {
+        List<ComponentInfo> deviceComponents = new ArrayList<>();
+        List<ComponentIdentifier> pcComponents = new ArrayList<>();
+        for (int i = 0; i < DIMM_COUNT; i++) {
+            deviceComponents.add(new ComponentInfo(SAMSUNG, DIMM, Integer.toString(i), null));
+            pcComponents.add(component(SAMSUNG, DIMM, Integer.toString(DIMM_COUNT - i), EMPTY));
+        }
+        List<ComponentInfo> compared = new ArrayList<>();
+        BiPredicate<ComponentIdentifier, ComponentInfo> countingMatch = (pc, info) -> {
+            compared.add(info);
+            return IS_MATCH.test(pc, info);
+        };
+
+        List<ComponentIdentifier> unmatched = new ComponentMatcher(deviceComponents,
+                countingMatch).findUnmatched(pcComponents);
+
+        // serial 500 is not reported by the device
+        Assert.assertEquals(unmatched, Collections.singletonList(
+                component(SAMSUNG, DIMM, Integer.toString(DIMM_COUNT), EMPTY)));
+        Assert.assertTrue(compared.size() <= DIMM_COUNT + 1);
+    }
+
+    private static ComponentIdentifier component(final String manufacturer, final String model,
+                                                 final String serial, final String revision) {
+        return new ComponentIdentifier(new DERUTF8String(manufacturer),
+                new DERUTF8String(model),
+                new DERUTF8String(serial),
+                new DERUTF8String(revision),
+                null,
+                ASN1Boolean.TRUE,
+                Collections.emptyList());
+    }
+}
@@ -1843,6 +1843,29 @@ public class SupplyChainCredentialValidatorTest {
                 + "Manufacturer=ACME, Model=TNT, Serial=2, Revision=1.1;\n");
     }
 
+    /**
+     * Tests that each validation of platform credential attributes returns the results of its
+     * own component comparisons, rather than accumulating those of earlier validations.
+     * @throws IOException if unable to set up DeviceInfoReport from resource file
+     */
+    @Test
+    public final void testValidatePlatformCredentialAttributesV2p0ComponentResultsPerCall()
+            throws IOException {
+        DeviceInfoReport deviceInfoReport = setupDeviceInfoReportWithComponents();
+        PlatformCredential platformCredential = setupMatchingPlatformCredential(deviceInfoReport);
+
+        AppraisalStatus first = SupplyChainCredentialValidator
+                .validatePlatformCredentialAttributesV2p0(platformCredential,
+                        deviceInfoReport);
+        AppraisalStatus second = SupplyChainCredentialValidator
+                .validatePlatformCredentialAttributesV2p0(platformCredential,
+                        deviceInfoReport);
+
+        Assert.assertFalse(first.getComponentResults().isEmpty());
+        Assert.assertEquals(second.getComponentResults().size(),
+                first.getComponentResults().size());
+    }
+
     /**
      * Tests that SupplyChainCredentialValidator passes when everything matches but there are
      * extra components in the device info report that are not represented in the platform
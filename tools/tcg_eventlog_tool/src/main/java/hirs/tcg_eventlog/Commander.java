@@ -21,6 +21,7 @@ public class Commander {
     private static final String HEX_STRING = "hex";
     private static final String OUTPUT_STRING = "output";
     private static final String PCR_STRING = "pcr";
+    private static final String REPORT_STRING = "report";
     private static final String VERIFY_STRING = "Verify";
     private static final String VERSION_STRING = "version";
     private static final String VERSION_NUMBER = "2.1";
@@ -36,6 +37,7 @@ public class Commander {
     private boolean bHex = false;
     private boolean bOutput = false;
     private boolean bPCRs = false;
+    private boolean bReport = false;
     private boolean bVerify = false;
     private boolean bHelp = false;
     private boolean bDone = false;
@@ -45,6 +47,7 @@ public class Commander {
     private String outFile = "";
     private String eventFilter = "";
     private String pcrFilter = "";
+    private String reportFormat = "";
     private int pcrNumber = -1;
     private int eventNumber = -1;
 
@@ -175,6 +178,18 @@ public class Commander {
                     }
                     bPCRs = true;
                     break;
+                case FULL_COMMAND_PREFIX + REPORT_STRING:
+                case COMMAND_PREFIX + "r":
+                    if (i == args.length - 1 || !DiffReport.isSupported(args[i + 1])) {
+                        printHelp("Report format csv or json needed for the " + tempValue
+                        + " option" + "\n");
+                        bValidArgs = false;
+                        bDone = true;
+                    } else {
+                        reportFormat = args[++i];
+                        bReport = true;
+                    }
+                    break;
                 case FULL_COMMAND_PREFIX + VERSION_STRING:
                 case COMMAND_PREFIX + "v":
                     System.out.print("TCG Event Log Parser version " + VERSION_NUMBER + "\n");
@@ -282,6 +297,20 @@ public class Commander {
     public final boolean getDiffFlag() {
         return bDiff;
     }
+    /**
+     * Getter for the input associated with the report flag.
+     * @return true if the report flag was set
+     */
+    public final boolean getReportFlag() {
+        return bReport;
+    }
+    /**
+     * Returns the format of the diff report, if provided.
+     * @return csv or json.
+     */
+    public final String getReportFormat() {
+        return reportFormat;
+    }
     /**
      * Getter for the input associated with the Verify flag.
      * @return true if the verify flag was set
@@ -410,9 +439,16 @@ public class Commander {
                 + "  -d\t--diff\t\t Compares two TCG Event Logs and displays events from second"
                 + " file that do not match."
                 + "\n\t\t\t example: elt [-d|--diff] /path/to/eventlogfile1 "
-                + "/path/to/eventlogfile2\n"
+                + "/path/to/eventlogfile2"
+                + "\n\t\t\t The second file may be a directory of Event Logs, each of"
+                + " which is compared to the first file."
+                + "\n\t\t\t example: elt [-d|--diff] /path/to/eventlogfile1 "
+                + "/path/to/eventlogs/\n"
                 + "  -o\t--output\t Redirect output to a specified path/file."
                 + "\n\t\t\t example: elt [-o|--output] /path/to/outputfile\n"
+                + "  -r\t--report\t Output the -d results as a csv or json report."
+                + "\n\t\t\t example: elt [-d|--diff] /path/to/eventlogfile1 "
+                + "/path/to/eventlogs/ [-r|--report] csv\n"
                 + "  -p\t--pcr\t\t Display all expected PCR values calculated from the TCG Log "
                 + "(for PCR Replay)."
                 + "\n\t\t\t Specify a PCR number to filter on a single PCR."
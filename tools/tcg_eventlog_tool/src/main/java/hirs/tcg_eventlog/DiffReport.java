@@ -0,0 +1,125 @@
+package hirs.tcg_eventlog;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.WriterConfig;
+import hirs.tpm.eventlog.TpmPcrEvent;
+
+import java.util.List;
+
+/**
+ * Formats the results of event log comparisons as machine-readable reports.
+ */
+final class DiffReport {
+    /**
+     * Report format value for comma separated values.
+     */
+    static final String CSV = "csv";
+    /**
+     * Report format value for JSON.
+     */
+    static final String JSON = "json";
+
+    private static final String MATCH = "match";
+    private static final String MISMATCH = "mismatch";
+    private static final String ERROR = "error";
+    private static final String CSV_HEADER = "log,status,pcr,event_number,event_type,digest,error";
+
+    private DiffReport() {
+    }
+
+    /**
+     * Checks that a report format is supported.
+     *
+     * @param format the report format
+     * @return true if the format is csv or json
+     */
+    static boolean isSupported(final String format) {
+        return CSV.equalsIgnoreCase(format) || JSON.equalsIgnoreCase(format);
+    }
+
+    /**
+     * Formats comparison results.
+     *
+     * @param results the results of the comparisons
+     * @param format  csv or json
+     * @return the report
+     */
+    static String format(final List<EventLogDiff.Result> results, final String format) {
+        if (JSON.equalsIgnoreCase(format)) {
+            return toJson(results);
+        }
+        return toCsv(results);
+    }
+
+    /**
+     * Formats comparison results as CSV, with one line per mismatched event, or a single line
+     * for a log that matched or could not be compared.
+     *
+     * @param results the results of the comparisons
+     * @return the report
+     */
+    static String toCsv(final List<EventLogDiff.Result> results) {
+        StringBuilder sb = new StringBuilder(CSV_HEADER).append('\n');
+        for (EventLogDiff.Result result : results) {
+            String log = csvField(result.getLogName());
+            if (result.getError() != null) {
+                sb.append(log).append(',').append(ERROR).append(",,,,,")
+                        .append(csvField(result.getError())).append('\n');
+            } else if (result.isMatch()) {
+                sb.append(log).append(',').append(MATCH).append(",,,,,\n");
+            } else {
+                for (TpmPcrEvent event : result.getMismatches()) {
+                    sb.append(log).append(',').append(MISMATCH)
+                            .append(',').append(event.getPcrIndex())
+                            .append(',').append(event.getEventNumber())
+                            .append(',').append(csvField(event.getEventTypeString().trim()))
+                            .append(',').append(event.getEventDigestStr())
+                            .append(",\n");
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats comparison results as a JSON array with one object per log.
+     *
+     * @param results the results of the comparisons
+     * @return the report
+     */
+    static String toJson(final List<EventLogDiff.Result> results) {
+        JsonArray report = Json.array();
+        for (EventLogDiff.Result result : results) {
+            JsonObject log = Json.object().add("log", result.getLogName());
+            if (result.getError() != null) {
+                log.add("status", ERROR).add("error", result.getError());
+            } else {
+                JsonArray mismatches = Json.array();
+                for (TpmPcrEvent event : result.getMismatches()) {
+                    mismatches.add(Json.object()
+                            .add("pcr", event.getPcrIndex())
+                            .add("eventNumber", event.getEventNumber())
+                            .add("eventType", event.getEventTypeString().trim())
+                            .add("digest", event.getEventDigestStr()));
+                }
+                if (result.isMatch()) {
+                    log.add("status", MATCH);
+                } else {
+                    log.add("status", MISMATCH);
+                }
+                log.add("mismatches", mismatches);
+            }
+            report.add(log);
+        }
+        return report.toString(WriterConfig.PRETTY_PRINT) + "\n";
+    }
+
+    private static String csvField(final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,175 @@
+package hirs.tcg_eventlog;
+
+import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TpmPcrEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compares event logs against a reference event log.
+ * The digests of the reference log are indexed by PCR once, so that each event of a compared
+ * log is matched with a single lookup rather than a scan of the whole reference log.
+ * An instance may be shared by threads comparing different logs.
+ */
+final class EventLogDiff {
+    private final Map<Integer, Set<ByteBuffer>> referenceDigests = new HashMap<>();
+
+    /**
+     * Indexes the events of the reference log.
+     *
+     * @param referenceEvents events of the reference log
+     */
+    EventLogDiff(final Collection<TpmPcrEvent> referenceEvents) {
+        for (TpmPcrEvent event : referenceEvents) {
+            referenceDigests.computeIfAbsent(event.getPcrIndex(), index -> new HashSet<>())
+                    .add(ByteBuffer.wrap(event.getEventDigest()));
+        }
+    }
+
+    /**
+     * Returns the events whose digest is not found with the same PCR index in the reference
+     * log, in the order of the compared log.
+     *
+     * @param events events of the log to compare to the reference
+     * @param pcr    used as a filter. Use -1 to check all pcrs.
+     * @return the mismatched events, empty if all events matched
+     */
+    List<TpmPcrEvent> diff(final Collection<TpmPcrEvent> events, final int pcr) {
+        List<TpmPcrEvent> mismatches = new ArrayList<>();
+        for (TpmPcrEvent event : events) {
+            if ((pcr < 0 || event.getPcrIndex() == pcr) && !matches(event)) {
+                mismatches.add(event);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Checks whether the digest of an event is found with the same PCR index in the reference
+     * log.
+     *
+     * @param event the event to match
+     * @return true if the reference log holds the digest
+     */
+    boolean matches(final TpmPcrEvent event) {
+        Set<ByteBuffer> digests = referenceDigests.get(event.getPcrIndex());
+        return digests != null && digests.contains(ByteBuffer.wrap(event.getEventDigest()));
+    }
+
+    /**
+     * Compares an event log file to the reference log. Errors reading or parsing the file are
+     * recorded in the result, so that one bad log does not stop the comparison of the others.
+     *
+     * @param logFile the event log file
+     * @param pcr     used as a filter. Use -1 to check all pcrs.
+     * @return the result of the comparison
+     */
+    Result diff(final Path logFile, final int pcr) {
+        String logName = logFile.toString();
+        try {
+            TCGEventLog eventLog = new TCGEventLog(Files.readAllBytes(logFile));
+            return new Result(logName, diff(eventLog.getEventList(), pcr), null);
+        } catch (IOException | CertificateException | NoSuchAlgorithmException
+                | RuntimeException e) {
+            // malformed logs fail parsing with runtime exceptions such as out of bounds
+            return new Result(logName, Collections.<TpmPcrEvent>emptyList(), e.toString());
+        }
+    }
+
+    /**
+     * Compares every file of a directory to the reference log. The files are compared in
+     * parallel, and the results are returned in the order of the file names.
+     *
+     * @param logDirectory directory holding the event log files
+     * @param pcr          used as a filter. Use -1 to check all pcrs.
+     * @return the results of the comparisons
+     * @throws IOException if the directory cannot be listed
+     */
+    List<Result> diffDirectory(final Path logDirectory, final int pcr) throws IOException {
+        List<Path> logFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(logDirectory)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    logFiles.add(file);
+                }
+            }
+        }
+        Collections.sort(logFiles);
+        return logFiles.parallelStream()
+                .map(logFile -> diff(logFile, pcr))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The result of comparing one event log to the reference log.
+     */
+    static final class Result {
+        private final String logName;
+        private final List<TpmPcrEvent> mismatches;
+        private final String error;
+
+        /**
+         * Constructor.
+         *
+         * @param logName    name of the compared log
+         * @param mismatches events of the compared log not found in the reference log
+         * @param error      the error reading or parsing the log, or null
+         */
+        Result(final String logName, final List<TpmPcrEvent> mismatches, final String error) {
+            this.logName = logName;
+            this.mismatches = Collections.unmodifiableList(mismatches);
+            this.error = error;
+        }
+
+        /**
+         * Returns the name of the compared log.
+         *
+         * @return the log name
+         */
+        String getLogName() {
+            return logName;
+        }
+
+        /**
+         * Returns the events of the compared log not found in the reference log.
+         *
+         * @return the mismatched events
+         */
+        List<TpmPcrEvent> getMismatches() {
+            return mismatches;
+        }
+
+        /**
+         * Returns the error reading or parsing the compared log.
+         *
+         * @return the error, or null if the log was compared
+         */
+        String getError() {
+            return error;
+        }
+
+        /**
+         * Indicates whether every event of the compared log was found in the reference log.
+         *
+         * @return true if the log was compared and matched
+         */
+        boolean isMatch() {
+            return error == null && mismatches.isEmpty();
+        }
+    }
+}
@@ -9,8 +9,9 @@ import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import hirs.tpm.eventlog.TCGEventLog;
 import hirs.tpm.eventlog.TpmPcrEvent;
 import hirs.utils.HexUtils;
@@ -177,14 +178,14 @@ final class Main {
                 if (os.compareToIgnoreCase("linux") == 0) { // need to find Windows path
                     fName = "/sys/kernel/security/tpm0/binary_bios_measurements";
                     bDefault = true;
-                    if (!bHexFlag) {
+                    if (!bHexFlag && !commander.getReportFlag()) {
                         writeOut("Local Event Log being used: " + fileName + "\n");
                     }
                 }
             }
             Path path = Paths.get(fName);
             rawLog = Files.readAllBytes(path);
-            if (!bHexFlag) {
+            if (!bHexFlag && !commander.getReportFlag()) {
                 writeOut("tcg_eventlog_tool is opening file:" + path + "\n");
             }
         } catch (Exception e) {
@@ -220,16 +221,16 @@ final class Main {
 
     /**
      * Compares 2 Event Logs and returns a string based upon the results.
-     * Uses the Events digest field for comparisons.
+     * Uses the Events digest field for comparisons. If the second log is a directory,
+     * every Event Log in it is compared to the first log.
      *
      * @param logFileName1 Log file to use as a reference.
-     * @param logFileName2 Log file to compare to the reference.
-     * @return A sting containing human readable results.
+     * @param logFileName2 Log file or directory of log files to compare to the reference.
+     * @return A sting containing human readable results, or the report if one was requested.
      */
     public static String compareLogs(final String logFileName1, final String logFileName2) {
         TCGEventLog eventLog1 = null, eventLog2 = null;
         byte[] evLog = openLog(logFileName1);
-        byte[] evLog2 = openLog(logFileName2);
         StringBuilder sb = new StringBuilder();
         bHexFlag = commander.getHexFlag();
         try {
@@ -238,35 +239,19 @@ final class Main {
             sb.append("\nError processing event log " + logFileName1 + " : " + e.getMessage());
             return sb.toString();
         }
+        EventLogDiff diff = new EventLogDiff(eventLog1.getEventList());
+        List<EventLogDiff.Result> results = null;
+        Path logPath2 = Paths.get(logFileName2);
         try {
-            eventLog2 = new TCGEventLog(evLog2);
-            ArrayList<TpmPcrEvent> errors = diffEventLogs(eventLog1.getEventList(),
-                    eventLog2.getEventList(), commander.getPcrNumber());
-            if (errors.isEmpty() && !bHexFlag) {
-                sb.append("\nEvent Log " + logFileName1 + " MATCHED EventLog " + logFileName2
-                    + "\n");
+            if (Files.isDirectory(logPath2)) {
+                results = diff.diffDirectory(logPath2, commander.getPcrNumber());
             } else {
-                if (!errors.isEmpty() && !bHexFlag) {
-                    sb.append("\nEvent Log " + logFileName1
-                            + " did NOT match EventLog " + logFileName2 + "\n");
-                    sb.append("There were " + errors.size() + " event mismatches: \n\n");
-                }
-                for (TpmPcrEvent error : errors) {
-                    if (bHexFlag) {
-                        if (bEventFlag || bHexEvent) {
-                            sb.append(HexUtils.byteArrayToHexString(error.getEvent()) + "\n");
-                        }
-                        if (bContentFlag) {
-                            sb.append(HexUtils.byteArrayToHexString(error.getEventContent())
-                                    + "\n");
-                        }
-                    } else {
-                        sb.append(error.toString(bEventFlag, bContentFlag, bHexEvent) + "\n");
-                    }
-                }
+                eventLog2 = new TCGEventLog(openLog(logFileName2));
+                results = Collections.singletonList(new EventLogDiff.Result(logFileName2,
+                        diff.diff(eventLog2.getEventList(), commander.getPcrNumber()), null));
             }
         } catch (IOException i) {
-            System.out.print("IO error processing Event Log " + commander.getInFileName()
+            System.out.print("IO error processing Event Log " + commander.getInFile2Name()
                     + "\nError was " + i.toString());
             System.exit(1);
         } catch (CertificateException c) {
@@ -278,9 +263,56 @@ final class Main {
                     + "\nError was " + a.toString());
             System.exit(1);
         }
+        if (commander.getReportFlag()) {
+            return DiffReport.format(results, commander.getReportFormat());
+        }
+        for (EventLogDiff.Result result : results) {
+            appendDiffResult(sb, logFileName1, result);
+        }
         return sb.toString();
     }
 
+    /**
+     * Appends the human readable result of comparing an Event Log to the reference log.
+     *
+     * @param sb           the results being built.
+     * @param logFileName1 Log file used as a reference.
+     * @param result       the result of comparing a log to the reference.
+     */
+    private static void appendDiffResult(final StringBuilder sb, final String logFileName1,
+                                         final EventLogDiff.Result result) {
+        String logFileName2 = result.getLogName();
+        if (result.getError() != null) {
+            sb.append("\nError processing event log " + logFileName2 + " : "
+                    + result.getError() + "\n");
+            return;
+        }
+        List<TpmPcrEvent> errors = result.getMismatches();
+        if (errors.isEmpty() && !bHexFlag) {
+            sb.append("\nEvent Log " + logFileName1 + " MATCHED EventLog " + logFileName2
+                + "\n");
+        } else {
+            if (!errors.isEmpty() && !bHexFlag) {
+                sb.append("\nEvent Log " + logFileName1
+                        + " did NOT match EventLog " + logFileName2 + "\n");
+                sb.append("There were " + errors.size() + " event mismatches: \n\n");
+            }
+            for (TpmPcrEvent error : errors) {
+                if (bHexFlag) {
+                    if (bEventFlag || bHexEvent) {
+                        sb.append(HexUtils.byteArrayToHexString(error.getEvent()) + "\n");
+                    }
+                    if (bContentFlag) {
+                        sb.append(HexUtils.byteArrayToHexString(error.getEventContent())
+                                + "\n");
+                    }
+                } else {
+                    sb.append(error.toString(bEventFlag, bContentFlag, bHexEvent) + "\n");
+                }
+            }
+        }
+    }
+
     /**
      * Compare this event log against a second event log.
      * Returns a String Array of event descriptions in which the digests from the first
@@ -294,41 +326,9 @@ final class Main {
     public static ArrayList<TpmPcrEvent> diffEventLogs(final Collection<TpmPcrEvent> eventList,
                                                        final Collection<TpmPcrEvent> eventList2,
                                                        final int pcr) {
-        ArrayList<TpmPcrEvent> results = new ArrayList<TpmPcrEvent>();
-        for (TpmPcrEvent event2 : eventList2) {
-            if (pcr >= 0) {
-                if (event2.getPcrIndex() == pcr) {
-                    if (!digestMatch(eventList, event2)) {
-                        results.add(event2);
-                    }
-                }
-            } else {
-                if (!digestMatch(eventList, event2)) {
-                    results.add(event2);
-                }
-            }
-        }
-        return results;
+        return new ArrayList<TpmPcrEvent>(new EventLogDiff(eventList).diff(eventList2, pcr));
     }
 
-    /**
-     * Checks a digest from a single event against all digests with the same index in an Event Log.
-     *
-     * @param eventLog The Reference Event log.
-     * @param event    single event to match.
-     * @return
-     */
-    private static boolean digestMatch(final Collection<TpmPcrEvent> eventLog,
-                                       final TpmPcrEvent event) {
-        boolean matchFound = false;
-        for (TpmPcrEvent event2 : eventLog) {
-            if ((event.getPcrIndex() == event2.getPcrIndex())
-                    && (Arrays.equals(event.getEventDigest(), event2.getEventDigest()))) {
-                matchFound = true;
-            }
-        }
-        return matchFound;
-    }
     /**
      * Diagnostic method for detecting flag settings.
      */
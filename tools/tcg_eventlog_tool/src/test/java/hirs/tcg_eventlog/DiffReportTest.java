@@ -0,0 +1,144 @@
+package hirs.tcg_eventlog;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TpmPcrEvent;
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the formatting of event log comparisons by {@link DiffReport}.
+ */
+public class DiffReportTest {
+    private static final String REFERENCE_LOG = "/TpmLog.bin";
+    private static final String ALTERED_LOG = "/TPMLog_Altered.bin";
+    private static final String LOG_NAME = "logs/host \"a\", rack 1.bin";
+    private static final String ERROR = "java.io.IOException: bad log, \"event 3\"\nat offset 7";
+
+    private List<TpmPcrEvent> mismatches;
+
+    /**
+     * Compares the test event logs.
+     *
+     * @throws IOException if a log cannot be read
+     * @throws CertificateException if a certificate in a log cannot be parsed
+     * @throws NoSuchAlgorithmException if a log uses an unknown algorithm
+     */
+    @BeforeClass
+    public void setup() throws IOException, CertificateException, NoSuchAlgorithmException {
+        List<TpmPcrEvent> reference = new ArrayList<>(
+                new TCGEventLog(readResource(REFERENCE_LOG)).getEventList());
+        List<TpmPcrEvent> altered = new ArrayList<>(
+                new TCGEventLog(readResource(ALTERED_LOG)).getEventList());
+        mismatches = new EventLogDiff(reference).diff(altered, -1);
+        Assert.assertFalse(mismatches.isEmpty());
+    }
+
+    /**
+     * Tests that the CSV report has one line per mismatched event, and one line for a log that
+     * matched or could not be compared, in the order of the results.
+     */
+    @Test
+    public void testCsvReport() {
+        String report = DiffReport.format(Arrays.asList(
+                new EventLogDiff.Result("match.bin", Collections.emptyList(), null),
+                new EventLogDiff.Result("altered.bin", mismatches, null),
+                new EventLogDiff.Result("bad.bin", Collections.emptyList(), "error")),
+                DiffReport.CSV);
+
+        String[] lines = report.split("\n");
+        Assert.assertEquals(lines.length, mismatches.size() + 3);
+        Assert.assertEquals(lines[0], "log,status,pcr,event_number,event_type,digest,error");
+        Assert.assertEquals(lines[1], "match.bin,match,,,,,");
+        for (int i = 0; i < mismatches.size(); i++) {
+            TpmPcrEvent event = mismatches.get(i);
+            Assert.assertEquals(lines[i + 2], "altered.bin,mismatch," + event.getPcrIndex() + ","
+                    + event.getEventNumber() + "," + event.getEventTypeString().trim() + ","
+                    + event.getEventDigestStr() + ",");
+        }
+        Assert.assertEquals(lines[lines.length - 1], "bad.bin,error,,,,,error");
+    }
+
+    /**
+     * Tests that CSV fields holding commas, quotes or line breaks are quoted, with their quotes
+     * doubled.
+     */
+    @Test
+    public void testCsvReportEscaping() {
+        String report = DiffReport.toCsv(Collections.singletonList(
+                new EventLogDiff.Result(LOG_NAME, Collections.emptyList(), ERROR)));
+
+        Assert.assertEquals(report, "log,status,pcr,event_number,event_type,digest,error\n"
+                + "\"logs/host \"\"a\"\", rack 1.bin\",error,,,,,"
+                + "\"java.io.IOException: bad log, \"\"event 3\"\"\nat offset 7\"\n");
+    }
+
+    /**
+     * Tests that the JSON report holds one object per log, and that names and errors holding
+     * quotes and line breaks are escaped and read back unchanged.
+     */
+    @Test
+    public void testJsonReport() {
+        String report = DiffReport.format(Arrays.asList(
+                new EventLogDiff.Result(LOG_NAME, mismatches, null),
+                new EventLogDiff.Result("bad.bin", Collections.emptyList(), ERROR),
+                new EventLogDiff.Result("match.bin", Collections.emptyList(), null)),
+                DiffReport.JSON);
+
+        JsonArray logs = Json.parse(report).asArray();
+        Assert.assertEquals(logs.size(), 3);
+
+        JsonObject altered = logs.get(0).asObject();
+        Assert.assertEquals(altered.getString("log", null), LOG_NAME);
+        Assert.assertEquals(altered.getString("status", null), "mismatch");
+        JsonArray events = altered.get("mismatches").asArray();
+        Assert.assertEquals(events.size(), mismatches.size());
+        for (int i = 0; i < mismatches.size(); i++) {
+            JsonObject event = events.get(i).asObject();
+            Assert.assertEquals(event.getInt("pcr", -1), mismatches.get(i).getPcrIndex());
+            Assert.assertEquals(event.getInt("eventNumber", -1),
+                    mismatches.get(i).getEventNumber());
+            Assert.assertEquals(event.getString("digest", null),
+                    mismatches.get(i).getEventDigestStr());
+        }
+
+        JsonObject bad = logs.get(1).asObject();
+        Assert.assertEquals(bad.getString("status", null), "error");
+        Assert.assertEquals(bad.getString("error", null), ERROR);
+        Assert.assertNull(bad.get("mismatches"));
+
+        JsonObject match = logs.get(2).asObject();
+        Assert.assertEquals(match.getString("status", null), "match");
+        Assert.assertTrue(match.get("mismatches").asArray().isEmpty());
+    }
+
+    /**
+     * Tests that only the csv and json formats are supported, in any case.
+     */
+    @Test
+    public void testIsSupported() {
+        Assert.assertTrue(DiffReport.isSupported("CSV"));
+        Assert.assertTrue(DiffReport.isSupported("json"));
+        Assert.assertFalse(DiffReport.isSupported("xml"));
+        Assert.assertFalse(DiffReport.isSupported(null));
+    }
+
+    private byte[] readResource(final String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(name)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package hirs.tcg_eventlog;
+
+import hirs.tpm.eventlog.TCGEventLog;
+import hirs.tpm.eventlog.TpmPcrEvent;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tests the comparison of event logs by {@link EventLogDiff}.
+ */
+public class EventLogDiffTest {
+    private static final String REFERENCE_LOG = "/TpmLog.bin";
+    private static final String ALTERED_LOG = "/TPMLog_Altered.bin";
+    private static final int ALL_PCRS = -1;
+
+    private byte[] referenceLog;
+    private byte[] alteredLog;
+    private List<TpmPcrEvent> referenceEvents;
+    private List<TpmPcrEvent> alteredEvents;
+    private Path logDirectory;
+
+    /**
+     * Reads the test event logs.
+     *
+     * @throws IOException if a log cannot be read
+     * @throws CertificateException if a certificate in a log cannot be parsed
+     * @throws NoSuchAlgorithmException if a log uses an unknown algorithm
+     */
+    @BeforeClass
+    public void setup() throws IOException, CertificateException, NoSuchAlgorithmException {
+        referenceLog = readResource(REFERENCE_LOG);
+        alteredLog = readResource(ALTERED_LOG);
+        referenceEvents = new ArrayList<>(new TCGEventLog(referenceLog).getEventList());
+        alteredEvents = new ArrayList<>(new TCGEventLog(alteredLog).getEventList());
+    }
+
+    /**
+     * Creates the directory holding the logs compared by a test.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @BeforeMethod
+    public void createLogDirectory() throws IOException {
+        logDirectory = Files.createTempDirectory("eventlogs");
+    }
+
+    /**
+     * Deletes the directory holding the logs compared by a test.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @AfterMethod
+    public void deleteLogDirectory() throws IOException {
+        FileUtils.deleteDirectory(logDirectory.toFile());
+    }
+
+    /**
+     * Tests that a log matches itself.
+     */
+    @Test
+    public void testDiffIdenticalLogs() {
+        Assert.assertTrue(new EventLogDiff(referenceEvents).diff(referenceEvents, ALL_PCRS)
+                .isEmpty());
+    }
+
+    /**
+     * Tests that the mismatched events are exactly those without an event of the same PCR and
+     * digest in the reference log, reported in the order of the compared log.
+     */
+    @Test
+    public void testDiffReportsMismatchesInLogOrder() {
+        List<TpmPcrEvent> mismatches = new EventLogDiff(referenceEvents)
+                .diff(alteredEvents, ALL_PCRS);
+
+        Assert.assertFalse(mismatches.isEmpty());
+        Assert.assertEquals(mismatches, findMismatches(referenceEvents, alteredEvents, ALL_PCRS));
+        for (int i = 1; i < mismatches.size(); i++) {
+            Assert.assertTrue(mismatches.get(i - 1).getEventNumber()
+                    < mismatches.get(i).getEventNumber());
+        }
+    }
+
+    /**
+     * Tests that only the events of the given PCR are compared.
+     */
+    @Test
+    public void testDiffFiltersByPcr() {
+        EventLogDiff diff = new EventLogDiff(referenceEvents);
+        int pcr = diff.diff(alteredEvents, ALL_PCRS).get(0).getPcrIndex();
+
+        List<TpmPcrEvent> mismatches = diff.diff(alteredEvents, pcr);
+
+        Assert.assertFalse(mismatches.isEmpty());
+        Assert.assertEquals(mismatches, findMismatches(referenceEvents, alteredEvents, pcr));
+        for (TpmPcrEvent event : mismatches) {
+            Assert.assertEquals(event.getPcrIndex(), pcr);
+        }
+    }
+
+    /**
+     * Tests that digests repeated in the reference log do not change the result, and that each
+     * repeated event of the compared log is reported.
+     */
+    @Test
+    public void testDiffDuplicateEvents() {
+        List<TpmPcrEvent> mismatches = new EventLogDiff(referenceEvents)
+                .diff(alteredEvents, ALL_PCRS);
+
+        List<TpmPcrEvent> duplicatedReference = new ArrayList<>(referenceEvents);
+        duplicatedReference.addAll(referenceEvents);
+        Assert.assertEquals(new EventLogDiff(duplicatedReference).diff(alteredEvents, ALL_PCRS),
+                mismatches);
+
+        List<TpmPcrEvent> duplicatedLog = new ArrayList<>(alteredEvents);
+        duplicatedLog.addAll(alteredEvents);
+        List<TpmPcrEvent> expected = new ArrayList<>(mismatches);
+        expected.addAll(mismatches);
+        Assert.assertEquals(new EventLogDiff(referenceEvents).diff(duplicatedLog, ALL_PCRS),
+                expected);
+    }
+
+    /**
+     * Tests that every log of a directory is compared, in the order of the file names, and that
+     * a log that cannot be parsed is reported without stopping the comparison of the others.
+     *
+     * @throws IOException if the logs cannot be written or listed
+     */
+    @Test
+    public void testDiffDirectoryReportsErrorsPerFile() throws IOException {
+        Path matching = Files.write(logDirectory.resolve("a.bin"), referenceLog);
+        Path malformed = Files.write(logDirectory.resolve("b.bin"), new byte[] {1, 2, 3, 4});
+        Path altered = Files.write(logDirectory.resolve("c.bin"), alteredLog);
+        Files.createDirectory(logDirectory.resolve("d"));
+
+        List<EventLogDiff.Result> results = new EventLogDiff(referenceEvents)
+                .diffDirectory(logDirectory, ALL_PCRS);
+
+        Assert.assertEquals(results.size(), 3);
+        Assert.assertEquals(results.get(0).getLogName(), matching.toString());
+        Assert.assertTrue(results.get(0).isMatch());
+        Assert.assertNull(results.get(0).getError());
+
+        Assert.assertEquals(results.get(1).getLogName(), malformed.toString());
+        Assert.assertNotNull(results.get(1).getError());
+        Assert.assertTrue(results.get(1).getMismatches().isEmpty());
+        Assert.assertFalse(results.get(1).isMatch());
+
+        Assert.assertEquals(results.get(2).getLogName(), altered.toString());
+        Assert.assertNull(results.get(2).getError());
+        Assert.assertFalse(results.get(2).isMatch());
+        Assert.assertEquals(eventNumbers(results.get(2).getMismatches()), eventNumbers(
+                findMismatches(referenceEvents, alteredEvents, ALL_PCRS)));
+    }
+
+    /**
+     * Tests that a log file that cannot be read is reported as an error.
+     */
+    @Test
+    public void testDiffMissingFile() {
+        EventLogDiff.Result result = new EventLogDiff(referenceEvents)
+                .diff(logDirectory.resolve("missing.bin"), ALL_PCRS);
+
+        Assert.assertFalse(result.isMatch());
+        Assert.assertTrue(result.getError().contains("NoSuchFileException"));
+    }
+
+    /**
+     * Finds the mismatched events by comparing each event with every event of the reference.
+     */
+    private static List<TpmPcrEvent> findMismatches(final Collection<TpmPcrEvent> reference,
+                                                    final Collection<TpmPcrEvent> events,
+                                                    final int pcr) {
+        List<TpmPcrEvent> mismatches = new ArrayList<>();
+        for (TpmPcrEvent event : events) {
+            if (pcr >= 0 && event.getPcrIndex() != pcr) {
+                continue;
+            }
+            boolean found = false;
+            for (TpmPcrEvent referenceEvent : reference) {
+                if (referenceEvent.getPcrIndex() == event.getPcrIndex()
+                        && Arrays.equals(referenceEvent.getEventDigest(),
+                                event.getEventDigest())) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                mismatches.add(event);
+            }
+        }
+        return mismatches;
+    }
+
+    private static List<Integer> eventNumbers(final List<TpmPcrEvent> events) {
+        List<Integer> numbers = new ArrayList<>();
+        for (TpmPcrEvent event : events) {
+            numbers.add(event.getEventNumber());
+        }
+        return numbers;
+    }
+
+    private byte[] readResource(final String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(name)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
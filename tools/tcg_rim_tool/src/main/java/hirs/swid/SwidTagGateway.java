@@ -255,10 +255,21 @@ public class SwidTagGateway {
             JsonArray fileArray = configProperties.getJsonObject(SwidTagConstants.PAYLOAD)
                     .getJsonObject(SwidTagConstants.DIRECTORY)
                     .getJsonArray(SwidTagConstants.FILE);
+            //Hash the files without a given hash, in parallel
+            List<String> filesToHash = new ArrayList<>();
             Iterator itr = fileArray.iterator();
             while(itr.hasNext()) {
                 JsonObject arrayItem = (JsonObject) itr.next();
-                hirs.swid.xjc.File file = createFile(arrayItem);
+                if (!arrayItem.containsKey(SwidTagConstants.HASH)) {
+                    filesToHash.add(directoryOverride
+                            + arrayItem.getString(SwidTagConstants.NAME));
+                }
+            }
+            Map<String, String> fileHashes = HashSwid.get256Hashes(filesToHash);
+            itr = fileArray.iterator();
+            while(itr.hasNext()) {
+                JsonObject arrayItem = (JsonObject) itr.next();
+                hirs.swid.xjc.File file = createFile(arrayItem, fileHashes);
                 //Nest File in Directory in Payload
                 directory.getDirectoryOrFile().add(file);
             }
@@ -529,9 +540,11 @@ public class SwidTagGateway {
      * calculating the hash of a given event log support RIM.
      *
      * @param jsonObject the Properties object containing parameters from file
+     * @param fileHashes the hashes of the files, for files without a given hash
      * @return File object created from the properties
      */
-    private hirs.swid.xjc.File createFile(JsonObject jsonObject)
+    private hirs.swid.xjc.File createFile(JsonObject jsonObject,
+                                          Map<String, String> fileHashes)
             throws Exception {
         hirs.swid.xjc.File file = objectFactory.createFile();
         Map<QName, String> attributes = file.getOtherAttributes();
@@ -553,9 +566,11 @@ public class SwidTagGateway {
         File fileToAdd = new File(filepath);
         file.setName(filepath);
         file.setSize(new BigInteger(Long.toString(fileToAdd.length())));
-        addNonNullAttribute(attributes, SwidTagConstants._SHA256_HASH,
-                jsonObject.getString(SwidTagConstants.HASH,
-                        HashSwid.get256Hash(filepath)), true);
+        String hash = jsonObject.getString(SwidTagConstants.HASH, null);
+        if (hash == null) {
+            hash = fileHashes.get(filepath);
+        }
+        addNonNullAttribute(attributes, SwidTagConstants._SHA256_HASH, hash, true);
 
         return file;
     }
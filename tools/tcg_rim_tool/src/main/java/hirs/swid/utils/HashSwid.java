@@ -1,14 +1,21 @@
 package hirs.swid.utils;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is a helper for creating hash values for the files associated
@@ -20,6 +27,7 @@ public class HashSwid {
     public static final String SHA256 = "SHA-256";
     public static final String SHA384 = "SHA-384";
     public static final String SHA512 = "SHA-512";
+    private static final int BUFFER_SIZE = 1024 * 1024;
 
     /**
      * Getter method for the hash that uses 256 bit hash
@@ -52,37 +60,120 @@ public class HashSwid {
      * This method creates the hash based on the provided algorithm
      * only accessible through helper methods.
      *
-     * This method assumes an input file that is small enough to read in its
-     * entirety.  Large files should be handled similarly to the public static
-     * getHashValue() below.
-     * 
      * @param filepath file contents to hash
      * @param sha the algorithm to use for the hash
      * @return 
      */
     private static String getHashValue(String filepath, String sha) throws Exception {
-        String resultString = null;
-        try {
-            MessageDigest md = MessageDigest.getInstance(sha);            
-            byte[] bytes = md.digest(Files.readAllBytes(Paths.get(filepath)));
-            StringBuilder sb = new StringBuilder();
+        return getHashValues(filepath, sha).get(sha);
+    }
 
-            for (int i = 0; i < bytes.length; i++) {
-                sb.append(Integer.toString((bytes[i] & 0xff) + 0x100, 16).substring(1));
+    /**
+     * This method computes several hashes of a file in a single pass over its contents.
+     * The file is read in chunks, so that files of any size can be hashed without
+     * holding them in memory.
+     *
+     * @param filepath file contents to hash
+     * @param algorithms the algorithms to use, such as SHA256 and SHA384
+     * @return the hex encoded hash for each algorithm
+     */
+    public static Map<String, String> getHashValues(String filepath, String... algorithms)
+            throws Exception {
+        try {
+            MessageDigest[] digests = digestFile(filepath, algorithms);
+            Map<String, String> hashes = new LinkedHashMap<>();
+            for (int i = 0; i < algorithms.length; i++) {
+                hashes.put(algorithms[i], toHex(digests[i].digest()));
             }
-            resultString = sb.toString();
+            return hashes;
         } catch (NoSuchAlgorithmException | IOException e) {
-            String errorMessage = "Error hashing file " + filepath + ": ";
-            if (e instanceof UnsupportedEncodingException ||
-                    e instanceof NoSuchAlgorithmException) {
-                errorMessage += ((Exception) e).getMessage();
-            } else if (e instanceof IOException) {
-                errorMessage += "error reading file.";
+            throw hashingError(filepath, e);
+        }
+    }
+
+    /**
+     * This method computes the 256 bit hash of several files, hashing the files
+     * in parallel.
+     *
+     * @param filepaths the files to hash.
+     * @return the hex encoded hash of each file
+     * @throws Exception naming the file that could not be hashed
+     */
+    public static Map<String, String> get256Hashes(Collection<String> filepaths)
+            throws Exception {
+        Map<String, String> hashes = new ConcurrentHashMap<>();
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        filepaths.parallelStream().distinct().forEach(filepath -> {
+            try {
+                hashes.put(filepath, toHex(digestFile(filepath, SHA256)[0].digest()));
+            } catch (Exception e) {
+                errors.add(hashingError(filepath, e));
             }
-            throw new Exception(errorMessage);
+        });
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
         }
+        return hashes;
+    }
 
-        return resultString;
+    /**
+     * This method describes an error hashing a file, naming the file.
+     *
+     * @param filepath the file that could not be hashed
+     * @param e the cause of the error
+     * @return the exception to report
+     */
+    private static Exception hashingError(String filepath, Exception e) {
+        String errorMessage = "Error hashing file " + filepath + ": ";
+        if (e instanceof IOException && !(e instanceof UnsupportedEncodingException)) {
+            errorMessage += "error reading file.";
+        } else {
+            errorMessage += e.getMessage();
+        }
+        return new Exception(errorMessage, e);
+    }
+
+    /**
+     * This method hex encodes a hash.
+     *
+     * @param bytes the hash
+     * @return the lower case hex string
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < bytes.length; j++) {
+            sb.append(Integer.toString((bytes[j] & 0xff) + 0x100, 16).substring(1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * This method feeds the contents of a file to a digest for each algorithm,
+     * reading the file once through a fixed size buffer.
+     *
+     * @param filepath the file to hash
+     * @param algorithms the algorithms to use
+     * @return the digests, in the order of the algorithms
+     */
+    private static MessageDigest[] digestFile(String filepath, String... algorithms)
+            throws NoSuchAlgorithmException, IOException {
+        MessageDigest[] digests = new MessageDigest[algorithms.length];
+        for (int i = 0; i < algorithms.length; i++) {
+            digests[i] = MessageDigest.getInstance(algorithms[i]);
+        }
+        // Read through a channel rather than mapping the file, as mapped regions
+        // keep the file locked on Windows until they are garbage collected.
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(Paths.get(filepath),
+                StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer.array(), 0, buffer.position());
+                }
+                buffer.clear();
+            }
+        }
+        return digests;
     }
 
     /**
@@ -92,38 +183,20 @@ public class HashSwid {
      * @return 
      */
     public static String getHashValue(String value) {
-        byte[] buffer = new byte[8192];
-        int count;
         byte[] hash = null;
-        BufferedInputStream bis = null;
 
         try {
-            MessageDigest md = MessageDigest.getInstance(SHA256);
-            bis = new BufferedInputStream(new FileInputStream(value));
-            while ((count = bis.read(buffer)) > 0) {
-                md.update(buffer, 0, count);
-            }
-
-            hash = md.digest();
+            hash = digestFile(value, SHA256)[0].digest();
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException grex) {
             System.out.println(grex.getMessage());
         } catch (IOException ioEx) {
             System.out.println(String.format("%s: \n%s is not valid...",
                     ioEx.getMessage(), value));
-        } finally {
-            try {
-                if (bis != null) {
-                    bis.close();
-                }
-            } catch (IOException ioEx) {
-                // ignored, system issue that won't affect further execution
-            }
-            
-            if (hash == null) {
-                return "";
-            }
         }
 
+        if (hash == null) {
+            return "";
+        }
         return Base64.getEncoder().encodeToString(hash);
     }
 }
@@ -9,6 +9,16 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+import hirs.swid.utils.HashSwid;
 import org.w3c.dom.Document;
 
 public class TestSwidTagGateway {
@@ -38,6 +48,8 @@ public class TestSwidTagGateway {
             .getResource("TpmLog.bin").getPath();
     private final String RFC3852_COUNTERSIGNATURE_FILE = TestSwidTagGateway.class.getClassLoader()
             .getResource("counterSignature.file").getPath();
+    private final int HASH_BUFFER_SIZE = 1024 * 1024;
+    private final long HASHED_FILE_SEED = 20231018L;
     private InputStream expectedFile;
 
     @BeforeClass
@@ -199,6 +211,66 @@ public class TestSwidTagGateway {
         }
     }
 
+    /**
+     * This test hashes files smaller and larger than the read buffer of HashSwid with
+     * several algorithms at once, and compares each hash with a MessageDigest over
+     * the whole file.
+     */
+    @Test
+    public void testHashValuesMatchWholeFileDigests() throws Exception {
+        String[] algorithms = {HashSwid.SHA256, HashSwid.SHA384, HashSwid.SHA512};
+        Random random = new Random(HASHED_FILE_SEED);
+        for (int size : new int[] {0, 1, HASH_BUFFER_SIZE - 1, HASH_BUFFER_SIZE,
+                3 * HASH_BUFFER_SIZE + 1}) {
+            byte[] contents = new byte[size];
+            random.nextBytes(contents);
+            Path file = Files.createTempFile("hashswid", ".bin");
+            try {
+                Files.write(file, contents);
+                Map<String, String> hashes = HashSwid.getHashValues(file.toString(),
+                        algorithms);
+                for (String algorithm : algorithms) {
+                    Assert.assertEquals(hashes.get(algorithm),
+                            toHex(MessageDigest.getInstance(algorithm).digest(contents)),
+                            algorithm + " of " + size + " bytes");
+                }
+                Assert.assertEquals(HashSwid.get256Hashes(Collections.singletonList(
+                        file.toString())).get(file.toString()), hashes.get(HashSwid.SHA256));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * This test checks that an error hashing one of several files names that file.
+     */
+    @Test
+    public void testGet256HashesErrorNamesFile() throws Exception {
+        String missingFile = Paths.get(SUPPORT_RIM_FILE).resolveSibling("missing.bin")
+                .toString();
+        try {
+            HashSwid.get256Hashes(Arrays.asList(SUPPORT_RIM_FILE, missingFile));
+            Assert.fail("Hashing a missing file should fail");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getMessage().contains(missingFile), e.getMessage());
+        }
+    }
+
+    /**
+     * This method hex encodes bytes in lower case.
+     *
+     * @param bytes the bytes to encode
+     * @return the hex string
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
     /**
      * This method compares two files by bytes to determine if they are the same or not.
      *